@@ -34,6 +34,11 @@ public class Main {
                     "The default server port is " + DEFAULT_PORT + "\n\n" +
                     "Here is a list of all the available commands:\n" +
                     "-port: followed by the desired port number between " + MIN_PORT + " and " + MAX_PORT + " as argument\n" +
+                    "-nio: to serve clients with the non-blocking engine, optionally followed by the number of event loops\n" +
+                    "-outboundLimit: followed by the maximum number of messages waiting to be sent to a client\n" +
+                    "-slowConsumer: followed by disconnect or drop, what to do with clients exceeding the limit\n" +
+                    "-record: followed by a directory, to write there the seed and the messages of every match\n" +
+                    "-replay: followed by the log of a recorded match, to play it again and print the digest of its updates\n" +
                     "-help: to get help\n\n" +
                     "CLIENT HELP:\n" +
                     "The default server host is " + DEFAULT_HOST + "\n" +
@@ -42,6 +47,7 @@ public class Main {
                     "-host: followed by the desired server host ip address\n" +
                     "-port: followed by the desired server port number between " + MIN_PORT + " and " + MAX_PORT + " as argument\n" +
                     "-cli: to start the client in command line interface mode\n" +
+                    "-binary: to exchange messages with the server using the compact binary protocol\n" +
                     "-help: to get help\n";
             System.out.println(helpString);
             return;
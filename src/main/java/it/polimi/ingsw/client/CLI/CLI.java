@@ -36,6 +36,7 @@ public class CLI implements ClientView {
     private final PrintStream out;
     private final Executor executor;
     private StdInReader readLineThread;
+    private final ResourceStateTracker resourceStateTracker;
 
 
     /**
@@ -55,6 +56,7 @@ public class CLI implements ClientView {
         firstProductionDone = false;
         executor = Executors.newSingleThreadExecutor();
         //executor = Executors.newFixedThreadPool(2);
+        resourceStateTracker = new ResourceStateTracker(this);
 
         readLineThread = new StdInReader();
         readLineThread.start();
@@ -150,6 +152,24 @@ public class CLI implements ClientView {
         return localModel;
     }
 
+    /**
+     * Getter for the tracker of the resources of the players
+     * @return the resource state tracker of the view
+     */
+    @Override
+    public ResourceStateTracker getResourceStateTracker() {
+        return resourceStateTracker;
+    }
+
+    /**
+     * Getter for the message sender
+     * @return the sender used to communicate with the controller
+     */
+    @Override
+    public MessageSender getMessageSender() {
+        return messageSender;
+    }
+
 
     /**
      * This method set the MessageSender accordingly to the chosen mode, local or online
@@ -806,6 +826,17 @@ public class CLI implements ClientView {
         clearConsoleAndReprint();
     }
 
+    /**
+     * Method to update the current victory points of a player received from the Model
+     * @param nickname the nickname of the player that received the update
+     * @param victoryPoints the victory points the player would have if the game ended now
+     */
+    @Override
+    public void showUpdateVictoryPoints(String nickname, int victoryPoints) {
+        localModel.getPlayer(nickname).setVictoryPoints(victoryPoints);
+        clearConsoleAndReprint();
+    }
+
     /**
      * Method to update the pope favour tiles values received from the Model
      * @param nickname the nickname of the player that received the update
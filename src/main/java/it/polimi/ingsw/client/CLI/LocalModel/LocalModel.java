@@ -1,8 +1,7 @@
 package it.polimi.ingsw.client.CLI.LocalModel;
 
 import it.polimi.ingsw.client.LocalPhase;
-import it.polimi.ingsw.common.utils.CardGridParser;
-import it.polimi.ingsw.common.utils.LeaderCardParser;
+import it.polimi.ingsw.common.utils.CardCatalog;
 import it.polimi.ingsw.server.model.*;
 import it.polimi.ingsw.server.model.DevelopmentCard;
 import it.polimi.ingsw.server.model.enumerations.Marble;
@@ -304,29 +303,17 @@ public class LocalModel {
         String string = "";
         int stringLength;
 
-        LeaderCardParser leaderCardParser = new LeaderCardParser();
-        Stack<LeaderDepot> leaderCardDepot = leaderCardParser.leaderCardDepotDeserializer();
-        Stack<LeaderMarble> leaderCardMarble = leaderCardParser.leaderCardMarbleDeserializer();
-        Stack<LeaderProduction> leaderCardProduction = leaderCardParser.leaderCardProductionDeserializer();
-        Stack<LeaderDiscount> leaderCardDiscount = leaderCardParser.leaderCardDiscountDeserializer();
-
-        Stack<DevelopmentCard>[][] cardGridMatrix;
-        CardGridParser cardGridParser = new CardGridParser();
-        cardGridMatrix = cardGridParser.parse();
-        Stack<DevelopmentCard> cardGridMatrixStack;
+        CardCatalog cardCatalog = CardCatalog.getInstance();
 
         for(int i=0; i<maxRow; i++){
             for(int j=0; j<maxColumn; j++) {
-                cardGridMatrixStack = cardGridMatrix[i][j];
-
-                while (cardGridMatrixStack.size() != 0) {
+                for (DevelopmentCard developmentCard : cardCatalog.getDevelopmentCards(i, j)) {
 
                     string = "║";
                     stringLength = 1;
                     ArrayList <String> stringArray = new ArrayList<>();
                     stringArray.add("╔═══════════╗");//characters width: 15 ║
                     //codice di parsing della stringa che stampa la carta
-                    DevelopmentCard developmentCard = cardGridMatrixStack.pop();
                     int id = developmentCard.getId();
                     int level = developmentCard.getLevel();
                     for (int k = 0; k < level; k++) {
@@ -372,12 +359,11 @@ public class LocalModel {
             }
         }
 
-        while (leaderCardDepot.size() != 0) {
+        for (LeaderDepot leaderDepot : cardCatalog.getLeaderCards(LeaderDepot.class)) {
             ArrayList <String> stringArray = new ArrayList<>();
             stringArray.add("╔═══════════╗");//characters width: 15 ║
 
             //parsing code for leader depot string
-            LeaderDepot leaderDepot = leaderCardDepot.pop();
             int id = leaderDepot.getId();
             cardRequirementStringParser(leaderDepot, stringArray);
 
@@ -394,13 +380,12 @@ public class LocalModel {
             stringArray.add("╚═══════════╝"); //characters width: 15 ║
             cliCardString.put(id, stringArray);
         }
-        while (leaderCardDiscount.size() != 0) {
+        for (LeaderDiscount leaderDiscount : cardCatalog.getLeaderCards(LeaderDiscount.class)) {
             string = "";
             ArrayList <String> stringArray = new ArrayList<>();
             stringArray.add("╔═══════════╗");//characters width: 15 ║
 
             //parsing code for leader discount string
-            LeaderDiscount leaderDiscount = leaderCardDiscount.pop();
             int id = leaderDiscount.getId();
             cardRequirementStringParser(leaderDiscount, stringArray);
 
@@ -418,13 +403,12 @@ public class LocalModel {
             cliCardString.put(id, stringArray);
         }
 
-        while (leaderCardMarble.size() != 0) {
+        for (LeaderMarble leaderMarble : cardCatalog.getLeaderCards(LeaderMarble.class)) {
             string = "";
             ArrayList <String> stringArray = new ArrayList<>();
             stringArray.add("╔═══════════╗");//characters width: 15 ║
 
             //parsing code for leader marble string
-            LeaderMarble leaderMarble = leaderCardMarble.pop();
             int id = leaderMarble.getId();
             cardRequirementStringParser(leaderMarble, stringArray);
 
@@ -441,13 +425,12 @@ public class LocalModel {
             stringArray.add("╚═══════════╝"); //characters width: 15 ║
             cliCardString.put(id, stringArray);
         }
-        while (leaderCardProduction.size() != 0) {
+        for (LeaderProduction leaderProduction : cardCatalog.getLeaderCards(LeaderProduction.class)) {
             string = "";
             ArrayList <String> stringArray = new ArrayList<>();
             stringArray.add("╔═══════════╗");//characters width: 15 ║
 
             //parsing code for leader production string
-            LeaderProduction leaderProduction = leaderCardProduction.pop();
             int id = leaderProduction.getId();
             PowerOfProduction powerOfProduction = leaderProduction.abilityProduction();
             cardRequirementStringParser(leaderProduction, stringArray);
@@ -20,6 +20,7 @@ public class PlayerCLI {
     private FaithTrackCLI faithTrackCLI;
     private WareHouseDepotsCLI wareHouseDepots;
     private StrongboxCLI strongbox;
+    private int victoryPoints;
     private Map<Marble, Integer> temporaryMarbles;
     private Map<Resource, Integer> temporaryMapResource;
     private ArrayList<String> personalBoardStrings;
@@ -81,6 +82,12 @@ public class PlayerCLI {
      */
     public void setRedCrossPosition(int redcrossPosition){ faithTrackCLI.setRedcrossPosition(redcrossPosition); }
 
+    /**
+     * Setter used to update the victory points shown in the header of the personal board
+     * @param victoryPoints are the current victory points of the player
+     */
+    public void setVictoryPoints(int victoryPoints){ this.victoryPoints = victoryPoints; }
+
     /**
      * Setter used to update the favour tiles of the faith track
      * @param popeFavourTiles are the favour tiles updated
@@ -185,11 +192,11 @@ public class PlayerCLI {
         int numOfSpaces = 65;
         String out = "";
         if(localPlayer.equals(nickname)) {
-            out = "Your personal board: ";
+            out = "Your personal board: " + victoryPoints + " VP";
             numOfSpaces = numOfSpaces - out.length();
         }
         else {
-            out = (nickname + "'s personal board: ");
+            out = (nickname + "'s personal board: " + victoryPoints + " VP");
             numOfSpaces = numOfSpaces - out.length();
         }
         for(int space = 0; space<numOfSpaces; space++){
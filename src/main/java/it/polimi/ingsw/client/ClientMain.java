@@ -17,6 +17,7 @@ public class ClientMain {
     private static final String CLI_ARGUMENT = "-cli";
     private static final String PORT_ARGUMENT = "-port";
     private static final String HELP_ARGUMENT = "-help";
+    private static final String BINARY_ARGUMENT = "-binary";
     private static final String DEFAULT_HOST = "127.0.0.1";
     private static final int DEFAULT_PORT = 1334;
     private static final int MIN_PORT = 1024;
@@ -30,8 +31,13 @@ public class ClientMain {
         return hostAddress;
     }
 
+    public static boolean isBinaryProtocol() {
+        return binaryProtocol;
+    }
+
     private static int portNumber;
     private static String hostAddress;
+    private static boolean binaryProtocol;
 
     /**
      * Main method parses the arguments and starts the CLI or GUI
@@ -50,6 +56,7 @@ public class ClientMain {
                     "-host: followed by the desired server host ip address\n" +
                     "-port: followed by the desired server port number between " + MIN_PORT + " and " + MAX_PORT + " as argument\n" +
                     "-cli: to start the client in command line interface mode\n" +
+                    "-binary: to exchange messages with the server using the compact binary protocol\n" +
                     "-help: to get this help\n";
             System.out.println(helpString);
             return;
@@ -76,6 +83,8 @@ public class ClientMain {
             portNumber = DEFAULT_PORT;
         }
 
+        binaryProtocol = arguments.contains(BINARY_ARGUMENT);
+
         if(arguments.contains(CLI_ARGUMENT)){
             System.out.println("CLI mode selected");
             cliMode = true;
@@ -1,26 +1,39 @@
 package it.polimi.ingsw.client;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import it.polimi.ingsw.common.messages.messagesToClient.MessageToClient;
+import it.polimi.ingsw.common.messages.messagesToClient.ProtocolAckUpdate;
 import it.polimi.ingsw.common.messages.messagesToServer.MessageToServer;
 import it.polimi.ingsw.common.messages.messagesToServer.PingMessage;
+import it.polimi.ingsw.common.messages.messagesToServer.ProtocolHelloMessage;
+import it.polimi.ingsw.common.utils.BinaryProtocol;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStream;
 import java.net.Socket;
 import java.net.UnknownHostException;
-import java.util.concurrent.Executor;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
- * This class is only for online mode and manage the connection to the server using sockets
+ * This class is only for online mode and manage the connection to the server using sockets.
+ * The lines read by the SocketInReader are handed off to a dispatcher thread that decodes them and updates the view,
+ * so the socket keeps being read while the view is busy.
+ * If requested, the client asks the server to switch to the binary protocol and holds its messages until the server replies
  */
 public class ClientSocket implements MessageSender {
+    private static final int HANDOFF_CAPACITY = 1024;
+    private static final long NEGOTIATION_TIMEOUT = 5000;
 
     private Gson gson = new Gson();
-    private PrintWriter out;
+    private OutputStream out;
     private ScheduledExecutorService pinger;
 
     private String SocketInReaderLine;
@@ -28,17 +41,35 @@ public class ClientSocket implements MessageSender {
     private ClientView clientView;
 
     private MessageToClientDeserializer messageToClientDeserializer = new MessageToClientDeserializer();
+    private final BlockingQueue<Runnable> handoffQueue = new ArrayBlockingQueue<>(HANDOFF_CAPACITY);
+    private final CountDownLatch negotiation;
+    private volatile BinaryProtocol<MessageToClient> binaryProtocol;
 
     /**
      * Connect the server via socket and creates a thread of SocketInReader.
      */
     public ClientSocket(String hostAddress, int portNumber, ClientView clientView) {
+        this(hostAddress, portNumber, clientView, ClientMain.isBinaryProtocol());
+    }
+
+    /**
+     * Connect the server via socket and creates a thread of SocketInReader.
+     * @param binary true to ask the server to switch to the binary protocol
+     */
+    public ClientSocket(String hostAddress, int portNumber, ClientView clientView, boolean binary) {
 
         this.clientView = clientView;
+        negotiation = new CountDownLatch(binary ? 1 : 0);
         try {
             socket = new Socket(hostAddress, portNumber);
             //Stream to write to and send to the server
-            out = new PrintWriter(socket.getOutputStream(), true);
+            out = new BufferedOutputStream(socket.getOutputStream());
+            if (binary) {
+                writeLine(new ProtocolHelloMessage(BinaryProtocol.VERSION));
+            }
+            Thread dispatcherThread = new Thread(this::dispatch);
+            dispatcherThread.setDaemon(true);
+            dispatcherThread.start();
             Thread inputThread = new Thread(new SocketInReader(socket, this));
             inputThread.start();
             enableHeartbeat();
@@ -51,23 +82,135 @@ public class ClientSocket implements MessageSender {
     }
 
     /**
-     * Receive a message from the SocketInReader and update the clientView.
+     * Receive a message from the SocketInReader, the message will update the clientView from the dispatcher thread.
      */
     public void readMessage(String line) {
-        MessageToClient message;
         this.SocketInReaderLine = line;
-        message = messageToClientDeserializer.deserializeMessage(line);
+        if (negotiation.getCount() > 0) {
+            readNegotiationLine(line);
+        }
+        else handOff(() -> updateView(line));
+    }
+
+    //While waiting for the reply of the server the lines are decoded by the reader, which must know when the protocol changes
+    private void readNegotiationLine(String line) {
+        MessageToClient message;
+        try {
+            message = messageToClientDeserializer.deserializeMessage(line);
+        } catch (JsonParseException e) {
+            return;
+        }
+        if (message instanceof ProtocolAckUpdate) {
+            if (((ProtocolAckUpdate) message).isAccepted()) {
+                binaryProtocol = messageToClientDeserializer.newBinaryProtocol();
+            }
+            negotiation.countDown();
+        }
+        else handOff(() -> clientView.update(message));
+    }
+
+    /**
+     * Receive a frame from the SocketInReader, once the binary protocol is used. The frame is decoded by the dispatcher thread.
+     */
+    public void readFrame(byte[] frame) {
+        handOff(() -> updateView(frame));
+    }
+
+    /**
+     * @return true if the server has switched to the binary protocol, so the next data received are frames and not lines
+     */
+    public boolean isBinaryInput() {
+        return binaryProtocol != null;
+    }
+
+    /**
+     * Called by the SocketInReader when the connection is lost, the disconnection is handled after the messages already received.
+     */
+    public void endOfStream() {
+        handOff(this::disconnect);
+    }
+
+    //Waits if the dispatcher is too far behind, so that the server slows down instead of the client running out of memory
+    private void handOff(Runnable task) {
+        try {
+            handoffQueue.put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //Loop of the dispatcher thread
+    private void dispatch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                handoffQueue.take().run();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void updateView(String line) {
+        MessageToClient message;
+        try {
+            message = messageToClientDeserializer.deserializeMessage(line);
+        } catch (JsonParseException e) {
+            //a malformed message is ignored
+            return;
+        }
         clientView.update(message);
     }
 
+    private void updateView(byte[] frame) {
+        MessageToClient message;
+        try {
+            message = binaryProtocol.decode(frame, 0, frame.length);
+        } catch (IllegalArgumentException e) {
+            //the following frames could refer to what was lost, so the connection cannot be trusted anymore
+            disconnect();
+            return;
+        }
+        if (message != null) {
+            clientView.update(message);
+        }
+    }
+
     /**
      * Sends a message to the server via socket.
      * @param message is the message to be sent.
      */
     @Override
     public synchronized void sendMessage(MessageToServer message) {
-        //Serializes and sends to socket
-        out.println(gson.toJson(message));
+        awaitNegotiation();
+        try {
+            BinaryProtocol<MessageToClient> protocol = binaryProtocol;
+            if (protocol == null) {
+                writeLine(message);
+            }
+            else {
+                for (byte[] frame : protocol.encode(message)) {
+                    out.write(frame);
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            //the reader will notice the closed socket and handle the disconnection
+        }
+    }
+
+    //Serializes and sends to socket
+    private void writeLine(MessageToServer message) throws IOException {
+        out.write((gson.toJson(message) + "\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    //If the server does not reply in time the client keeps using json
+    private void awaitNegotiation() {
+        try {
+            negotiation.await(NEGOTIATION_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     /**
@@ -80,6 +80,18 @@ public interface ClientView extends View {
      */
     LocalModel getLocalModel();
 
+    /**
+     * Getter for the tracker of the resources of the players, used to apply the changes received from the Model
+     * @return the resource state tracker of the view
+     */
+    ResourceStateTracker getResourceStateTracker();
+
+    /**
+     * Getter for the sender used to communicate with the controller
+     * @return the message sender of the view
+     */
+    MessageSender getMessageSender();
+
     /**
      * Method to print an error received from the Model
      * @param errorString
@@ -149,6 +161,13 @@ public interface ClientView extends View {
      */
     void showUpdatePopeFavourTiles(String nickname,ArrayList<Integer> popeFavourTiles);
 
+    /**
+     * Method to update the current victory points of a player received from the Model
+     * @param nickname the nickname of the player that received the update
+     * @param victoryPoints the victory points the player would have if the game ended now
+     */
+    void showUpdateVictoryPoints(String nickname, int victoryPoints);
+
     /**
      * Method to update the player's turn received from the Model
      * @param nickname the nickname of the player that has to play the turn
@@ -7,6 +7,7 @@ import it.polimi.ingsw.client.CLI.LocalModel.LocalModel;
 import it.polimi.ingsw.client.LocalPhase;
 import it.polimi.ingsw.client.LocalSender;
 import it.polimi.ingsw.client.MessageSender;
+import it.polimi.ingsw.client.ResourceStateTracker;
 import it.polimi.ingsw.common.messages.messagesToClient.MessageToClient;
 import it.polimi.ingsw.server.model.RankPosition;
 import it.polimi.ingsw.server.model.enumerations.Marble;
@@ -28,6 +29,7 @@ public class GUI implements ClientView {
     private boolean mainTurnActionDone;
     private boolean firstTurn;
     private boolean firstProductionDone;
+    private final ResourceStateTracker resourceStateTracker;
 
     public GUI(String hostAddress, int portNumber) {
         this.hostAddress = hostAddress;
@@ -35,12 +37,19 @@ public class GUI implements ClientView {
         localPhase = LocalPhase.DEFAULT;
         mainTurnActionDone = false;
         firstTurn = true;
+        resourceStateTracker = new ResourceStateTracker(this);
     }
 
+    @Override
     public MessageSender getMessageSender() {
         return messageSender;
     }
 
+    @Override
+    public ResourceStateTracker getResourceStateTracker() {
+        return resourceStateTracker;
+    }
+
 
     public void setOnline(Boolean bool){
         if(bool){
@@ -204,6 +213,11 @@ public class GUI implements ClientView {
         Platform.runLater(()-> gameInterfaceController.setPopeFavourTiles(nickname, popeFavourTiles));
     }
 
+    @Override
+    public void showUpdateVictoryPoints(String nickname, int victoryPoints) {
+        //the GUI shows the victory points only in the final rank
+    }
+
     @Override
     public void showUpdatePlayerTurn(String nickname) {
         GameInterfaceController gameInterfaceController = (GameInterfaceController) SceneManager.getInstance().getController("gameInterface");
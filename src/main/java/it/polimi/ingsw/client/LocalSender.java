@@ -4,23 +4,16 @@ package it.polimi.ingsw.client;
 import it.polimi.ingsw.common.messages.messagesToServer.MessageToServer;
 import it.polimi.ingsw.server.controller.Controller;
 
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
-
 /**
  * Class used to locally implement a message based communication between view and controller
  */
 public class LocalSender implements MessageSender {
-    private Controller controller;
+    private final Controller controller;
     private final ClientView clientView;
-    private final Executor executor;
     public LocalSender(ClientView view) {
         this.clientView = view;
-        executor = Executors.newSingleThreadExecutor();
-        executor.execute(() -> {
-            controller = new Controller(false);
-            controller.newConnection(clientView);
-        });
+        controller = new Controller(false);
+        controller.newConnection(clientView);
     }
 
     /**
@@ -29,8 +22,6 @@ public class LocalSender implements MessageSender {
      */
     @Override
     public void sendMessage(MessageToServer message) {
-        executor.execute(() -> {
-            message.handleMessage(controller, clientView);
-        });
+        controller.dispatch(message, clientView);
     }
 }
@@ -1,99 +1,71 @@
 package it.polimi.ingsw.client;
 
-import com.google.gson.*;
+import com.google.gson.JsonParseException;
+import it.polimi.ingsw.common.messages.MessageType;
 import it.polimi.ingsw.common.messages.messagesToClient.*;
 import it.polimi.ingsw.common.messages.messagesToClient.ErrorMessage;
-
-import java.lang.reflect.Type;
+import it.polimi.ingsw.common.utils.BinaryProtocol;
+import it.polimi.ingsw.common.utils.MessageDecoder;
 
 /**
  * This class offers a custom deserializer to deserialize a json string into a massage without knowing the type of the message
  */
-public class MessageToClientDeserializer implements JsonDeserializer <MessageToClient>{
-    private GsonBuilder gsonBuilder;
-    private Gson customGson;
+public class MessageToClientDeserializer {
+    private final MessageDecoder<MessageToClient> decoder;
 
     /**
-     * This constructor creates the custom gsonBuilder to deserialize the messages
+     * This constructor registers the class of every message the client can receive
      */
     public MessageToClientDeserializer() {
-        gsonBuilder = new GsonBuilder().registerTypeAdapter(MessageToClient.class,this);
-        customGson = gsonBuilder.create();
+        decoder = new MessageDecoder<MessageToClient>()
+                .register(MessageType.MARKET_UPDATE, MarketUpdate.class)
+                .register(MessageType.CARD_GRID_UPDATE, CardGridUpdate.class)
+                .register(MessageType.INITIAL_LEADER_DISCARDED_UPDATE, InitialLeaderDiscardedUpdate.class)
+                .register(MessageType.PLAYERS_ORDER_UPDATE, PlayersOrderUpdate.class)
+                .register(MessageType.TEMPORARY_RESOURCE_MAP_UPDATE, TemporaryResourceMapUpdate.class)
+                .register(MessageType.TEMPORARY_MARBLES_UPDATE, TemporaryMarblesUpdate.class)
+                .register(MessageType.WAREHOUSE_UPDATE, WarehouseUpdate.class)
+                .register(MessageType.INITIAL_LEADERCARDS_UPDATE, InitialLeaderCardsUpdate.class)
+                .register(MessageType.PLAYER_TURN_UPDATE, PlayerTurnUpdate.class)
+                .register(MessageType.LEADERCARD_ACTIVATED_UPDATE, LeaderCardActivatedUpdate.class)
+                .register(MessageType.ADD_SPECIALDEPOT_UPDATE, AddSpecialDepotUpdate.class)
+                .register(MessageType.STRONGBOX_UPDATE, StrongboxUpdate.class)
+                .register(MessageType.REDCROSS_POSITION_UPDATE, RedCrossPositionUpdate.class)
+                .register(MessageType.RANK_UPDATE, RankUpdate.class)
+                .register(MessageType.POPE_FAVOUR_TILES_UPDATE, PopeFavourTilesUpdate.class)
+                .register(MessageType.FIRST_CONNECTION_UPDATE, FirstConnectedUpdate.class)
+                .register(MessageType.ERROR, ErrorMessage.class)
+                .register(MessageType.MAIN_TURN_ACTION_DONE_UPDATE, MainTurnActionDoneUpdate.class)
+                .register(MessageType.DISCARDED_LEADER_UPDATE, DiscardedLeaderUpdate.class)
+                .register(MessageType.DISCONNECTED_UPDATE, DisconnectedUpdate.class)
+                .register(MessageType.LORENZO_DRAW_UPDATE, LorenzoDrawUpdate.class)
+                .register(MessageType.LORENZO_BLACK_CROSS_UPDATE, LorenzoBlackCrossUpdate.class)
+                .register(MessageType.DEV_CARD_SPACE_UPDATE, DevCardSpaceUpdate.class)
+                .register(MessageType.PRODUCTION_DONE, ProductionDoneUpdate.class)
+                .register(MessageType.WAREHOUSE_DELTA_UPDATE, WarehouseDeltaUpdate.class)
+                .register(MessageType.STRONGBOX_DELTA_UPDATE, StrongboxDeltaUpdate.class)
+                .register(MessageType.TEMPORARY_RESOURCE_MAP_DELTA_UPDATE, TemporaryResourceMapDeltaUpdate.class)
+                .register(MessageType.PROTOCOL_ACK, ProtocolAckUpdate.class)
+                .register(MessageType.SCOREBOARD_UPDATE, ScoreboardUpdate.class)
+                .register(MessageType.VATICAN_REPORT_UPDATE, VaticanReportUpdate.class)
+                .registerComposite(MessageType.BATCH_UPDATE, BatchUpdate::new);
     }
 
-
     /**
-     * This is the custom deserializer that deserializes a massage in a specific type of massage reading its type from the json
-     * @param json is the json message to deserialize
-     * @param type is the class type to deserialize
-     * @param jsonDeserializationContext is the deserialization context
-     * @return a message that extends MessageToClient
-     * @throws JsonParseException the parsing goes wrong
+     *This method deserializes a string into a massage of a specific type that extends MessageToClient
+     * @param serializedMessage is a String with the json massage to deserialize
+     * @return a massage of a specific type that extends MessageToClient
+     * @throws JsonParseException if the string is not a valid message for the client
      */
-    @Override
-    public MessageToClient deserialize(JsonElement json, Type type, JsonDeserializationContext jsonDeserializationContext) throws JsonParseException {
-        JsonObject jsonObject = json.getAsJsonObject();
-        Gson gson = new Gson();
-
-        switch (jsonObject.get("messageType").getAsString()){
-            case "MARKET_UPDATE":
-                return gson.fromJson(jsonObject, MarketUpdate.class);
-            case "CARD_GRID_UPDATE":
-                return gson.fromJson(jsonObject, CardGridUpdate.class);
-            case "INITIAL_LEADER_DISCARDED_UPDATE":
-                return gson.fromJson(jsonObject, InitialLeaderDiscardedUpdate.class);
-            case "PLAYERS_ORDER_UPDATE":
-                return gson.fromJson(jsonObject, PlayersOrderUpdate.class);
-            case "TEMPORARY_RESOURCE_MAP_UPDATE":
-                return gson.fromJson(jsonObject, TemporaryResourceMapUpdate.class);
-            case "TEMPORARY_MARBLES_UPDATE":
-                return gson.fromJson(jsonObject, TemporaryMarblesUpdate.class);
-            case "WAREHOUSE_UPDATE":
-                return gson.fromJson(jsonObject, WarehouseUpdate.class);
-            case "INITIAL_LEADERCARDS_UPDATE":
-                return gson.fromJson(jsonObject, InitialLeaderCardsUpdate.class);
-            case "PLAYER_TURN_UPDATE":
-                return gson.fromJson(jsonObject, PlayerTurnUpdate.class);
-            case "LEADERCARD_ACTIVATED_UPDATE":
-                return gson.fromJson(jsonObject, LeaderCardActivatedUpdate.class);
-            case "ADD_SPECIALDEPOT_UPDATE":
-                return gson.fromJson(jsonObject, AddSpecialDepotUpdate.class);
-            case "STRONGBOX_UPDATE":
-                return gson.fromJson(jsonObject, StrongboxUpdate.class);
-            case "REDCROSS_POSITION_UPDATE":
-                return gson.fromJson(jsonObject, RedCrossPositionUpdate.class);
-            case "RANK_UPDATE":
-                return gson.fromJson(jsonObject, RankUpdate.class);
-            case "POPE_FAVOUR_TILES_UPDATE":
-                return gson.fromJson(jsonObject, PopeFavourTilesUpdate.class);
-            case "FIRST_CONNECTION_UPDATE":
-                return gson.fromJson(jsonObject, FirstConnectedUpdate.class);
-            case "ERROR":
-                return gson.fromJson(jsonObject, ErrorMessage.class);
-            case "MAIN_TURN_ACTION_DONE_UPDATE":
-                return gson.fromJson(jsonObject, MainTurnActionDoneUpdate.class);
-            case "DISCARDED_LEADER_UPDATE":
-                return gson.fromJson(jsonObject, DiscardedLeaderUpdate.class);
-            case "DISCONNECTED_UPDATE":
-                return gson.fromJson(jsonObject, DisconnectedUpdate.class);
-            case "LORENZO_DRAW_UPDATE":
-                return gson.fromJson(jsonObject, LorenzoDrawUpdate.class);
-            case "LORENZO_BLACK_CROSS_UPDATE":
-                return gson.fromJson(jsonObject, LorenzoBlackCrossUpdate.class);
-            case "DEV_CARD_SPACE_UPDATE":
-                return gson.fromJson(jsonObject, DevCardSpaceUpdate.class);
-            case "PRODUCTION_DONE":
-                return gson.fromJson(jsonObject, ProductionDoneUpdate.class);
-        }
-        return null;
+    public MessageToClient deserializeMessage(String serializedMessage) throws JsonParseException {
+        return decoder.decode(serializedMessage);
     }
 
     /**
-     *This method deserializes a string into a massage of a specific type that extends MessageToClient
-     * @param serializedMessage is a String with the json massage to deserialize
-     * @return a massage of a specific type that extends MessageToClient
+     * Creates the state of the binary protocol of a connection, sharing the classes registered by this deserializer
+     * @return a new binary protocol
      */
-    public MessageToClient deserializeMessage(String serializedMessage){
-        return customGson.fromJson(serializedMessage, MessageToClient.class);
+    public BinaryProtocol<MessageToClient> newBinaryProtocol() {
+        return new BinaryProtocol<>(decoder);
     }
 }
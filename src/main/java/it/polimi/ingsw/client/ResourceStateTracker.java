@@ -0,0 +1,146 @@
+package it.polimi.ingsw.client;
+
+import it.polimi.ingsw.common.messages.MessageType;
+import it.polimi.ingsw.common.messages.messagesToServer.SnapshotRequestMessage;
+import it.polimi.ingsw.server.model.enumerations.Resource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class keeps the last known version of the warehouse, strongbox and temporary resources of every player,
+ * so that the changes sent by the server can be applied to them.
+ * When a change is missing the whole state is requested to the server, the following changes are ignored until it arrives.
+ * The tracker must be used by the thread that handles the messages received
+ */
+public class ResourceStateTracker {
+    private final ClientView clientView;
+    private final Map<String, State<List<Map<Resource, Integer>>>> warehouses;
+    private final Map<MessageType, Map<String, State<Map<Resource, Integer>>>> resources;
+
+    /**
+     * Constructor of the tracker, every element starts empty at version 0 like on the server
+     * @param clientView the view that receives the changes, used to request the missing states
+     */
+    public ResourceStateTracker(ClientView clientView) {
+        this.clientView = clientView;
+        warehouses = new HashMap<>();
+        resources = new HashMap<>();
+    }
+
+    //Last known version of an element of a player
+    private static final class State<T> {
+        private int sequence;
+        private T value;
+        private boolean snapshotRequested;
+
+        private State(T value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Stores the whole warehouse of a player
+     * @param nickname the owner of the warehouse
+     * @param sequence the version of the warehouse
+     * @param depots the resources of every depot
+     */
+    public void setWarehouse(String nickname, int sequence, List<Map<Resource, Integer>> depots) {
+        State<List<Map<Resource, Integer>>> state = warehouses.computeIfAbsent(nickname, key -> new State<>(new ArrayList<>()));
+        state.value = copyDepots(depots);
+        state.sequence = sequence;
+        state.snapshotRequested = false;
+    }
+
+    /**
+     * Applies the changes of some depots to the warehouse of a player
+     * @param nickname the owner of the warehouse
+     * @param sequence the version of the warehouse after the changes
+     * @param changes the signed quantity of each resource for every depot number modified
+     * @return the updated warehouse, or null if the changes cannot be applied
+     */
+    public List<Map<Resource, Integer>> applyWarehouseDelta(String nickname, int sequence, Map<Integer, Map<Resource, Integer>> changes) {
+        State<List<Map<Resource, Integer>>> state = warehouses.computeIfAbsent(nickname, key -> new State<>(new ArrayList<>()));
+        if (!accept(state, sequence, MessageType.WAREHOUSE_UPDATE, nickname)) {
+            return null;
+        }
+        List<Map<Resource, Integer>> depots = state.value;
+        changes.forEach((depotNumber, depotChanges) -> {
+            while (depots.size() < depotNumber) {
+                depots.add(new HashMap<>());
+            }
+            merge(depots.get(depotNumber - 1), depotChanges);
+        });
+        return copyDepots(depots);
+    }
+
+    /**
+     * Stores the whole strongbox or temporary resources of a player
+     * @param snapshotType the type of the message carrying the whole state of the element
+     * @param nickname the owner of the element
+     * @param sequence the version of the element
+     * @param resourceMap the resources of the element
+     */
+    public void setResources(MessageType snapshotType, String nickname, int sequence, Map<Resource, Integer> resourceMap) {
+        State<Map<Resource, Integer>> state = resourceStates(snapshotType).computeIfAbsent(nickname, key -> new State<>(new HashMap<>()));
+        state.value = new HashMap<>(resourceMap);
+        state.sequence = sequence;
+        state.snapshotRequested = false;
+    }
+
+    /**
+     * Applies the changes to the strongbox or temporary resources of a player
+     * @param snapshotType the type of the message carrying the whole state of the element
+     * @param nickname the owner of the element
+     * @param sequence the version of the element after the changes
+     * @param changes the signed quantity of each resource
+     * @return the updated resources, or null if the changes cannot be applied
+     */
+    public Map<Resource, Integer> applyResourcesDelta(MessageType snapshotType, String nickname, int sequence, Map<Resource, Integer> changes) {
+        State<Map<Resource, Integer>> state = resourceStates(snapshotType).computeIfAbsent(nickname, key -> new State<>(new HashMap<>()));
+        if (!accept(state, sequence, snapshotType, nickname)) {
+            return null;
+        }
+        merge(state.value, changes);
+        return new HashMap<>(state.value);
+    }
+
+    private Map<String, State<Map<Resource, Integer>>> resourceStates(MessageType snapshotType) {
+        return resources.computeIfAbsent(snapshotType, key -> new HashMap<>());
+    }
+
+    //Changes already included in the known version are ignored, a missing change makes the tracker ask for a snapshot
+    private boolean accept(State<?> state, int sequence, MessageType snapshotType, String nickname) {
+        if (sequence <= state.sequence) {
+            return false;
+        }
+        if (state.snapshotRequested) {
+            return false;
+        }
+        if (sequence != state.sequence + 1) {
+            state.snapshotRequested = true;
+            clientView.getMessageSender().sendMessage(new SnapshotRequestMessage(clientView.getNickname(), snapshotType, nickname));
+            return false;
+        }
+        state.sequence = sequence;
+        return true;
+    }
+
+    private static void merge(Map<Resource, Integer> resourceMap, Map<Resource, Integer> changes) {
+        changes.forEach((resource, quantity) -> {
+            if (resourceMap.merge(resource, quantity, Integer::sum) <= 0) {
+                resourceMap.remove(resource);
+            }
+        });
+    }
+
+    private static List<Map<Resource, Integer>> copyDepots(List<Map<Resource, Integer>> depots) {
+        List<Map<Resource, Integer>> copy = new ArrayList<>(depots.size());
+        for (Map<Resource, Integer> depot : depots) {
+            copy.add(new HashMap<>(depot));
+        }
+        return copy;
+    }
+}
@@ -1,8 +1,8 @@
 package it.polimi.ingsw.client;
 
-import java.io.BufferedReader;
+import it.polimi.ingsw.common.utils.FrameReader;
+
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.net.Socket;
 
 /**
@@ -12,7 +12,7 @@ public class SocketInReader implements Runnable {
 
     String line = "";
     Socket socket;
-    BufferedReader in;
+    FrameReader in;
     ClientSocket clientSocket;
 
     /**
@@ -26,25 +26,34 @@ public class SocketInReader implements Runnable {
     }
 
     /**
-     * Receives message lines from the Server and sends it to the ClientSocket.
+     * Receives message lines or frames from the Server and sends them to the ClientSocket.
      */
     @Override
     public void run() {
 
         try {
-            in = new BufferedReader(new InputStreamReader(socket.getInputStream()));//stream da cui leggere dal server
+            in = new FrameReader(socket.getInputStream());//stream da cui leggere dal server
         } catch (IOException e) {
             e.printStackTrace();
         }
 
         try {
-            while ((line = in.readLine()) != null) {
-                //System.out.println("Read this line from socket: " + line);
-                clientSocket.readMessage(line);
+            while (true) {
+                //the protocol can change after every line, once the server has accepted the binary protocol
+                if (clientSocket.isBinaryInput()) {
+                    byte[] frame = in.readFrame();
+                    if (frame == null) break;
+                    clientSocket.readFrame(frame);
+                }
+                else {
+                    if ((line = in.readLine()) == null) break;
+                    //System.out.println("Read this line from socket: " + line);
+                    clientSocket.readMessage(line);
+                }
             }
-            clientSocket.disconnect();
+            clientSocket.endOfStream();
         } catch (IOException ex) {
-            clientSocket.disconnect();
+            clientSocket.endOfStream();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package it.polimi.ingsw.common.messages;
+
+/**
+ * Enumeration of the recipients of an update about an element owned by a player
+ */
+public enum Audience {
+    /**
+     * Every player of the match
+     */
+    PUBLIC,
+    /**
+     * Only the player that owns the element
+     */
+    OWNER,
+    /**
+     * The player that owns the element and the observers that follow the match without playing
+     */
+    OWNER_AND_SPECTATORS;
+
+    /**
+     * Method to know if an observer has to receive an update
+     * @param owner the nickname of the player the update is about, null if the update is about a shared element
+     * @param recipient the nickname of the player of the observer, null if the observer receives every update
+     * @param spectator true if the observer follows the match without playing
+     * @return true if the update has to be sent to the observer
+     */
+    public boolean includes(String owner, String recipient, boolean spectator){
+        if (this == PUBLIC || owner == null || recipient == null) {
+            return true;
+        }
+        return owner.equals(recipient) || (this == OWNER_AND_SPECTATORS && spectator);
+    }
+}
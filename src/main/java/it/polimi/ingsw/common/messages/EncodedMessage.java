@@ -0,0 +1,127 @@
+package it.polimi.ingsw.common.messages;
+
+import com.google.gson.Gson;
+import it.polimi.ingsw.common.messages.messagesToClient.BatchUpdate;
+import it.polimi.ingsw.common.messages.messagesToClient.MessageToClient;
+import it.polimi.ingsw.common.utils.BinaryCodec;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class that wraps a message broadcast to many observers, the message is serialized only the first time
+ * a remote observer asks for its payload and the same bytes are then shared by every recipient.
+ * Both the json payload and the binary content are computed at most once
+ */
+public class EncodedMessage {
+    private static final Gson gson = new Gson();
+    private static final byte[] BATCH_START = "{\"messages\":[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BATCH_END = ("],\"messageType\":\"" + MessageType.BATCH_UPDATE + "\"}\n").getBytes(StandardCharsets.UTF_8);
+    private final MessageToClient message;
+    private final List<EncodedMessage> parts;
+    private volatile byte[] payload;
+    private volatile byte[] binaryBody;
+
+    /**
+     * Constructor of the encoded message
+     * @param message the message to broadcast
+     */
+    public EncodedMessage(MessageToClient message) {
+        this.message = message;
+        this.parts = null;
+    }
+
+    private EncodedMessage(MessageToClient message, List<EncodedMessage> parts) {
+        this.message = message;
+        this.parts = parts;
+    }
+
+    /**
+     * Groups some messages in a {@link BatchUpdate}, its payload reuses the payloads already serialized for the single messages
+     * @param parts the messages to group, in the order they have to be handled
+     * @return the encoded batch
+     */
+    public static EncodedMessage batch(List<EncodedMessage> parts) {
+        List<MessageToClient> messages = new ArrayList<>(parts.size());
+        for (EncodedMessage part : parts) {
+            messages.add(part.getMessage());
+        }
+        return new EncodedMessage(new BatchUpdate(messages), parts);
+    }
+
+    /**
+     * Getter for the wrapped message
+     * @return the message to broadcast
+     */
+    public MessageToClient getMessage() {
+        return message;
+    }
+
+    /**
+     * Getter for the grouped messages
+     * @return the messages grouped by a batch, null if this is a single message
+     */
+    public List<EncodedMessage> getParts() {
+        return parts;
+    }
+
+    /**
+     * Getter for the serialized message, the returned array is shared and must not be modified
+     * @return the json of the message followed by a new line, encoded in UTF-8
+     */
+    public byte[] getPayload() {
+        byte[] result = payload;
+        if (result == null) {
+            if (parts == null) {
+                result = (gson.toJson(message) + "\n").getBytes(StandardCharsets.UTF_8);
+            } else {
+                List<byte[]> partPayloads = new ArrayList<>(parts.size());
+                for (EncodedMessage part : parts) {
+                    partPayloads.add(part.getPayload());
+                }
+                result = batchPayload(partPayloads);
+            }
+            payload = result;
+        }
+        return result;
+    }
+
+    /**
+     * Builds the json of a {@link BatchUpdate} from the payloads already serialized for its messages,
+     * which are copied without their new line, separated by commas
+     * @param partPayloads the json payloads of the grouped messages, each followed by a new line
+     * @return the json of the batch followed by a new line, encoded in UTF-8
+     */
+    public static byte[] batchPayload(List<byte[]> partPayloads) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(BATCH_START, 0, BATCH_START.length);
+        for (int i = 0; i < partPayloads.size(); i++) {
+            if (i > 0) {
+                output.write(',');
+            }
+            byte[] partPayload = partPayloads.get(i);
+            output.write(partPayload, 0, partPayload.length - 1);
+        }
+        output.write(BATCH_END, 0, BATCH_END.length);
+        return output.toByteArray();
+    }
+
+    /**
+     * Getter for the content of the message encoded for the binary protocol, the returned array is shared and must not be modified
+     * @return the content of the message, without nickname and type
+     * @throws IllegalStateException if this is a batch, whose parts are encoded one by one
+     */
+    public byte[] getBinaryBody() {
+        if (parts != null) {
+            throw new IllegalStateException("A batch has no content of its own");
+        }
+        byte[] result = binaryBody;
+        if (result == null) {
+            result = BinaryCodec.encodeBody(message);
+            binaryBody = result;
+        }
+        return result;
+    }
+}
@@ -1,5 +1,10 @@
 package it.polimi.ingsw.common.messages;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Enum of every type of exchanged messages
  */
@@ -48,5 +53,66 @@ public enum MessageType {
     LORENZO_BLACK_CROSS_UPDATE,
     DEMO_GAME,
     PRODUCTION_DONE,
-    PING
+    PING,
+    PROTOCOL_HELLO,
+    PROTOCOL_ACK,
+    WAREHOUSE_DELTA_UPDATE,
+    STRONGBOX_DELTA_UPDATE,
+    TEMPORARY_RESOURCE_MAP_DELTA_UPDATE,
+    SNAPSHOT_REQUEST,
+    BATCH_UPDATE,
+    SCOREBOARD_UPDATE,
+    VATICAN_REPORT_UPDATE,
+    ACTIVATE_PRODUCTIONS_BATCH;
+
+    //Messages that carry the whole state of an element of the game, a newer one makes the older ones useless
+    private static final Set<MessageType> SNAPSHOTS = EnumSet.of(MARKET_UPDATE, CARD_GRID_UPDATE,
+            TEMPORARY_RESOURCE_MAP_UPDATE, TEMPORARY_MARBLES_UPDATE, WAREHOUSE_UPDATE, STRONGBOX_UPDATE,
+            DEV_CARD_SPACE_UPDATE, REDCROSS_POSITION_UPDATE, POPE_FAVOUR_TILES_UPDATE, LORENZO_BLACK_CROSS_UPDATE,
+            SCOREBOARD_UPDATE, VATICAN_REPORT_UPDATE);
+    //Messages that carry the changes of an element of the game, with the snapshot of the same element
+    private static final Map<MessageType, MessageType> DELTAS = new EnumMap<>(MessageType.class);
+
+    //Messages about the private state of a player, every other message is public
+    private static final Map<MessageType, Audience> AUDIENCES = new EnumMap<>(MessageType.class);
+
+    static {
+        AUDIENCES.put(INITIAL_LEADERCARDS_UPDATE, Audience.OWNER);
+        AUDIENCES.put(MAIN_TURN_ACTION_DONE_UPDATE, Audience.OWNER);
+        AUDIENCES.put(PRODUCTION_DONE, Audience.OWNER);
+        AUDIENCES.put(TEMPORARY_MARBLES_UPDATE, Audience.OWNER_AND_SPECTATORS);
+        AUDIENCES.put(TEMPORARY_RESOURCE_MAP_UPDATE, Audience.OWNER_AND_SPECTATORS);
+        AUDIENCES.put(TEMPORARY_RESOURCE_MAP_DELTA_UPDATE, Audience.OWNER_AND_SPECTATORS);
+        DELTAS.put(WAREHOUSE_DELTA_UPDATE, WAREHOUSE_UPDATE);
+        DELTAS.put(STRONGBOX_DELTA_UPDATE, STRONGBOX_UPDATE);
+        DELTAS.put(TEMPORARY_RESOURCE_MAP_DELTA_UPDATE, TEMPORARY_RESOURCE_MAP_UPDATE);
+    }
+
+    /**
+     * Method to know if a message of this type carries the whole state of an element of the game
+     * @return true if a newer message of this type, for the same player, supersedes the older ones
+     */
+    public boolean isSnapshot(){
+        return SNAPSHOTS.contains(this);
+    }
+
+    /**
+     * Method to know which element of the game a message of this type describes
+     * @return the type of the snapshot of the element, this type itself if it is a snapshot,
+     * null if the message does not describe the state of an element
+     */
+    public MessageType getSnapshotType(){
+        if (isSnapshot()) {
+            return this;
+        }
+        return DELTAS.get(this);
+    }
+
+    /**
+     * Method to know which observers receive a message of this type
+     * @return the audience of the messages of this type
+     */
+    public Audience getAudience(){
+        return AUDIENCES.getOrDefault(this, Audience.PUBLIC);
+    }
 }
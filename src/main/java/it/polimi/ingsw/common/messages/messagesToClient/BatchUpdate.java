@@ -0,0 +1,41 @@
+package it.polimi.ingsw.common.messages.messagesToClient;
+
+import it.polimi.ingsw.client.ClientView;
+import it.polimi.ingsw.common.messages.MessageType;
+
+import java.util.List;
+
+/**
+ * Message that groups every update caused by one command, so that the client receives them in a single frame
+ */
+public class BatchUpdate extends MessageToClient {
+    private final List<MessageToClient> messages;
+
+    /**
+     * Constructor of the message
+     * @param messages the updates, in the order they were notified
+     */
+    public BatchUpdate(List<MessageToClient> messages) {
+        super(null, MessageType.BATCH_UPDATE);
+        this.messages = messages;
+    }
+
+    /**
+     * Getter for the grouped updates
+     * @return the updates, in the order they were notified
+     */
+    public List<MessageToClient> getMessages() {
+        return messages;
+    }
+
+    /**
+     * Handles every grouped update in order
+     * @param clientView the view to update
+     */
+    @Override
+    public void handleMessage(ClientView clientView) {
+        for (MessageToClient message : messages) {
+            message.handleMessage(clientView);
+        }
+    }
+}
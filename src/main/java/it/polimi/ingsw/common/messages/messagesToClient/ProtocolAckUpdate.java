@@ -0,0 +1,47 @@
+package it.polimi.ingsw.common.messages.messagesToClient;
+
+import it.polimi.ingsw.client.ClientView;
+import it.polimi.ingsw.common.messages.MessageType;
+
+/**
+ * Message sent by the server in reply to a ProtocolHelloMessage, if accepted every following message uses the binary protocol
+ */
+public class ProtocolAckUpdate extends MessageToClient {
+    private final int version;
+    private final boolean accepted;
+
+    /**
+     * Constructor of the message
+     * @param version the version of the binary protocol supported by the server
+     * @param accepted true if the connection switches to the binary protocol
+     */
+    public ProtocolAckUpdate(int version, boolean accepted) {
+        super(null, MessageType.PROTOCOL_ACK);
+        this.version = version;
+        this.accepted = accepted;
+    }
+
+    /**
+     * Getter for the version
+     * @return the version of the binary protocol supported by the server
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return true if the connection switches to the binary protocol
+     */
+    public boolean isAccepted() {
+        return accepted;
+    }
+
+    /**
+     * The negotiation is handled by the connection, the view is not involved
+     * @param clientView the view of the client
+     */
+    @Override
+    public void handleMessage(ClientView clientView) {
+
+    }
+}
@@ -0,0 +1,38 @@
+package it.polimi.ingsw.common.messages.messagesToClient;
+
+import it.polimi.ingsw.client.ClientView;
+import it.polimi.ingsw.common.messages.MessageType;
+
+/**
+ * Message to update the current victory points of a player, sent when they change
+ */
+public class ScoreboardUpdate extends MessageToClient {
+    private final int victoryPoints;
+
+    /**
+     * Constructor of the message
+     * @param nickname the player that gets updated
+     * @param victoryPoints the victory points the player would have if the game ended now
+     */
+    public ScoreboardUpdate(String nickname, int victoryPoints) {
+        super(nickname, MessageType.SCOREBOARD_UPDATE);
+        this.victoryPoints = victoryPoints;
+    }
+
+    /**
+     * Getter for the victory points
+     * @return the current victory points of the player
+     */
+    public int getVictoryPoints() {
+        return victoryPoints;
+    }
+
+    /**
+     * Shows the update
+     * @param clientView the view to update
+     */
+    @Override
+    public void handleMessage(ClientView clientView) {
+        clientView.showUpdateVictoryPoints(getNickname(), victoryPoints);
+    }
+}
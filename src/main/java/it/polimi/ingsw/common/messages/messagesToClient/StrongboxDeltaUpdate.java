@@ -0,0 +1,55 @@
+package it.polimi.ingsw.common.messages.messagesToClient;
+
+import it.polimi.ingsw.client.ClientView;
+import it.polimi.ingsw.common.messages.MessageType;
+import it.polimi.ingsw.server.model.enumerations.Resource;
+
+import java.util.Map;
+
+/**
+ * Message to update the strongbox of the client with the changes made by one action
+ */
+public class StrongboxDeltaUpdate extends MessageToClient {
+    private final int sequence;
+    private final Map<Resource, Integer> changes;
+
+    /**
+     * Constructor of the message
+     * @param nickname the player that gets updated
+     * @param sequence the version of the strongbox after the changes
+     * @param changes the quantity added, if positive, or removed, if negative, of each resource
+     */
+    public StrongboxDeltaUpdate(String nickname, int sequence, Map<Resource, Integer> changes) {
+        super(nickname, MessageType.STRONGBOX_DELTA_UPDATE);
+        this.sequence = sequence;
+        this.changes = changes;
+    }
+
+    /**
+     * Getter for the sequence number
+     * @return the version after the changes
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Getter for the changes
+     * @return the signed quantity of each resource changed
+     */
+    public Map<Resource, Integer> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Applies the changes to the strongbox known by the client and shows them, a snapshot is requested if some changes were lost
+     * @param clientView the view to update
+     */
+    @Override
+    public void handleMessage(ClientView clientView) {
+        Map<Resource, Integer> resources = clientView.getResourceStateTracker().applyResourcesDelta(MessageType.STRONGBOX_UPDATE, getNickname(), sequence, changes);
+        if(resources != null){
+            new StrongboxUpdate(getNickname(), sequence, resources).handleMessage(clientView);
+        }
+    }
+}
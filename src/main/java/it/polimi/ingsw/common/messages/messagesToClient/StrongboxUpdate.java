@@ -10,15 +10,18 @@ import java.util.Map;
  * Message to update the strongbox of the client
  */
 public class StrongboxUpdate extends MessageToClient {
+    private final int sequence;
     private final Map<Resource, Integer> strongbox;
 
     /**
      * Constructor of the message
      * @param nickname the player that gets updated
+     * @param sequence the version of the strongbox
      * @param strongbox the updated strongbox structure
      */
-    public StrongboxUpdate(String nickname, Map<Resource, Integer> strongbox) {
+    public StrongboxUpdate(String nickname, int sequence, Map<Resource, Integer> strongbox) {
         super(nickname, MessageType.STRONGBOX_UPDATE);
+        this.sequence = sequence;
         this.strongbox = strongbox;
     }
 
@@ -27,6 +30,8 @@ public class StrongboxUpdate extends MessageToClient {
      * @param clientView the view to update
      */
     @Override
-    public void handleMessage(ClientView clientView) { clientView.showUpdatedStrongbox(this.getNickname(), strongbox);
+    public void handleMessage(ClientView clientView) {
+        clientView.getResourceStateTracker().setResources(MessageType.STRONGBOX_UPDATE, this.getNickname(), sequence, strongbox);
+        clientView.showUpdatedStrongbox(this.getNickname(), strongbox);
     }
 }
@@ -11,15 +11,18 @@ import java.util.Map;
  * Message to update the temporary resources of the client
  */
 public class TemporaryResourceMapUpdate extends MessageToClient {
+    private final int sequence;
     private final Map<Resource, Integer> temporaryMapResource;
 
     /**
      * Constructor of the message
      * @param nickname the player that gets updated
+     * @param sequence the version of the temporary resources
      * @param temporaryMapResource the updated map of resources
      */
-    public TemporaryResourceMapUpdate(String nickname, Map<Resource, Integer> temporaryMapResource) {
+    public TemporaryResourceMapUpdate(String nickname, int sequence, Map<Resource, Integer> temporaryMapResource) {
         super(nickname, MessageType.TEMPORARY_RESOURCE_MAP_UPDATE);
+        this.sequence = sequence;
         this.temporaryMapResource = temporaryMapResource;
     }
 
@@ -29,6 +32,7 @@ public class TemporaryResourceMapUpdate extends MessageToClient {
      */
     @Override
     public void handleMessage(ClientView clientView) {
+       clientView.getResourceStateTracker().setResources(MessageType.TEMPORARY_RESOURCE_MAP_UPDATE, this.getNickname(), sequence, temporaryMapResource);
        clientView.showUpdatedTemporaryMapResource(this.getNickname(), temporaryMapResource);
        if(clientView.getNickname().equals(getNickname())){
            if((clientView.getPhase()!= LocalPhase.ACTIVATE_PRODUCTION)){
@@ -0,0 +1,53 @@
+package it.polimi.ingsw.common.messages.messagesToClient;
+
+import it.polimi.ingsw.client.ClientView;
+import it.polimi.ingsw.common.messages.MessageType;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * Message to update the pope favour tiles of every player after one or more vatican reports
+ */
+public class VaticanReportUpdate extends MessageToClient {
+    private final int vaticanSectionsResolved;
+    private final Map<String, ArrayList<Integer>> popeFavourTiles;
+
+    /**
+     * Constructor of the message
+     * @param vaticanSectionsResolved the number of vatican sections whose report has been done
+     * @param popeFavourTiles the pope favour tiles of every player, by nickname
+     */
+    public VaticanReportUpdate(int vaticanSectionsResolved, Map<String, ArrayList<Integer>> popeFavourTiles) {
+        super(null, MessageType.VATICAN_REPORT_UPDATE);
+        this.vaticanSectionsResolved = vaticanSectionsResolved;
+        this.popeFavourTiles = popeFavourTiles;
+    }
+
+    /**
+     * Getter for the number of sections resolved
+     * @return the number of vatican sections whose report has been done
+     */
+    public int getVaticanSectionsResolved() {
+        return vaticanSectionsResolved;
+    }
+
+    /**
+     * Getter for the tiles
+     * @return the pope favour tiles of every player, by nickname
+     */
+    public Map<String, ArrayList<Integer>> getPopeFavourTiles() {
+        return popeFavourTiles;
+    }
+
+    /**
+     * Shows the tiles of every player
+     * @param clientView the view to update
+     */
+    @Override
+    public void handleMessage(ClientView clientView) {
+        for (Map.Entry<String, ArrayList<Integer>> entry : popeFavourTiles.entrySet()) {
+            clientView.showUpdatePopeFavourTiles(entry.getKey(), entry.getValue());
+        }
+    }
+}
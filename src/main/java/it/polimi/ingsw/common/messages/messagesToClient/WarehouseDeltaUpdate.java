@@ -0,0 +1,56 @@
+package it.polimi.ingsw.common.messages.messagesToClient;
+
+import it.polimi.ingsw.client.ClientView;
+import it.polimi.ingsw.common.messages.MessageType;
+import it.polimi.ingsw.server.model.enumerations.Resource;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Message to update the warehouse of the client with the changes of the depots modified by one action
+ */
+public class WarehouseDeltaUpdate extends MessageToClient {
+    private final int sequence;
+    private final Map<Integer, Map<Resource, Integer>> changes;
+
+    /**
+     * Constructor of the message
+     * @param nickname the player that gets updated
+     * @param sequence the version of the warehouse after the changes
+     * @param changes the quantity added, if positive, or removed, if negative, of each resource for every depot number modified
+     */
+    public WarehouseDeltaUpdate(String nickname, int sequence, Map<Integer, Map<Resource, Integer>> changes) {
+        super(nickname, MessageType.WAREHOUSE_DELTA_UPDATE);
+        this.sequence = sequence;
+        this.changes = changes;
+    }
+
+    /**
+     * Getter for the sequence number
+     * @return the version after the changes
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Getter for the changes
+     * @return the changes of every depot modified, by depot number
+     */
+    public Map<Integer, Map<Resource, Integer>> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Applies the changes to the warehouse known by the client and shows it, a snapshot is requested if some changes were lost
+     * @param clientView the view to update
+     */
+    @Override
+    public void handleMessage(ClientView clientView) {
+        List<Map<Resource, Integer>> depots = clientView.getResourceStateTracker().applyWarehouseDelta(getNickname(), sequence, changes);
+        if(depots != null){
+            new WarehouseUpdate(getNickname(), sequence, depots).handleMessage(clientView);
+        }
+    }
+}
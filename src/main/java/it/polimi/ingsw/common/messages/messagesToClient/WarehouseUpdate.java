@@ -12,15 +12,18 @@ import java.util.Map;
  * Message to update the warehouse of the client
  */
 public class WarehouseUpdate extends MessageToClient {
+    private final int sequence;
     private final List<Map<Resource, Integer>> depots;
 
     /**
      * Constructor of the message
      * @param nickname the player that gets updated
+     * @param sequence the version of the warehouse
      * @param depots the update structure of the warehouse
      */
-    public WarehouseUpdate(String nickname, List<Map<Resource, Integer>> depots) {
+    public WarehouseUpdate(String nickname, int sequence, List<Map<Resource, Integer>> depots) {
         super(nickname, MessageType.WAREHOUSE_UPDATE);
+        this.sequence = sequence;
         this.depots = depots;
     }
 
@@ -31,6 +34,7 @@ public class WarehouseUpdate extends MessageToClient {
     @Override
     public void handleMessage(ClientView clientView) {
 
+        clientView.getResourceStateTracker().setWarehouse(this.getNickname(), sequence, depots);
         clientView.showUpdatedWarehouse(this.getNickname(), depots);
         if(clientView.getNickname().equals(getNickname())){
             //Return to main menu after rearranging
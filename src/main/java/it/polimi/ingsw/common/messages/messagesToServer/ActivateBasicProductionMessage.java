@@ -3,8 +3,10 @@ package it.polimi.ingsw.common.messages.messagesToServer;
 import it.polimi.ingsw.common.messages.MessageType;
 import it.polimi.ingsw.common.View;
 import it.polimi.ingsw.server.controller.Controller;
+import it.polimi.ingsw.server.model.enumerations.PaymentPolicy;
 import it.polimi.ingsw.server.model.enumerations.Resource;
 
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -14,6 +16,7 @@ public class ActivateBasicProductionMessage extends MessageToServer {
     private final Map<Resource,Integer> costStrongbox;
     private final Map<Resource,Integer> costWarehouseDepot;
     private final Resource resource;
+    private final PaymentPolicy paymentPolicy;
 
     /**
      * Constructor of the message
@@ -27,6 +30,22 @@ public class ActivateBasicProductionMessage extends MessageToServer {
         this.costStrongbox = costStrongbox;
         this.costWarehouseDepot = costWarehouseDepot;
         this.resource = resource;
+        this.paymentPolicy = null;
+    }
+
+    /**
+     * Constructor of the message that lets the server choose where to take the resources from
+     * @param nickname the player that sent the message
+     * @param cost the two resources to pay
+     * @param resource the resource to produce
+     * @param paymentPolicy how the server splits the cost between warehouse and strongbox
+     */
+    public ActivateBasicProductionMessage(String nickname, Map<Resource,Integer> cost, Resource resource, PaymentPolicy paymentPolicy) {
+        super(nickname, MessageType.ACTIVATE_BASIC_PRODUCTION);
+        this.costStrongbox = cost;
+        this.costWarehouseDepot = new HashMap<>();
+        this.resource = resource;
+        this.paymentPolicy = paymentPolicy;
     }
 
     /**
@@ -36,6 +55,6 @@ public class ActivateBasicProductionMessage extends MessageToServer {
      */
     @Override
     public void handleMessage(Controller controller, View view) {
-        controller.handleActivateBasicProductionMessage(view, getNickname(), costStrongbox,  costWarehouseDepot, resource);
+        controller.handleActivateBasicProductionMessage(view, getNickname(), costStrongbox,  costWarehouseDepot, resource, paymentPolicy);
     }
 }
@@ -3,6 +3,7 @@ package it.polimi.ingsw.common.messages.messagesToServer;
 import it.polimi.ingsw.common.messages.MessageType;
 import it.polimi.ingsw.common.View;
 import it.polimi.ingsw.server.controller.Controller;
+import it.polimi.ingsw.server.model.enumerations.PaymentPolicy;
 import it.polimi.ingsw.server.model.enumerations.Resource;
 
 import java.util.Map;
@@ -14,6 +15,7 @@ public class ActivateCardProductionMessage extends MessageToServer {
     private final Map<Resource,Integer> costStrongbox;
     private final Map<Resource,Integer> costWarehouseDepot;
     private final int indexDevelopmentCardSpace;
+    private final PaymentPolicy paymentPolicy;
 
     /**
      * Constructor of the message
@@ -27,6 +29,21 @@ public class ActivateCardProductionMessage extends MessageToServer {
         this.costStrongbox = costStrongbox;
         this.costWarehouseDepot = costWarehouseDepot;
         this.indexDevelopmentCardSpace = indexDevelopmentCardSpace;
+        this.paymentPolicy = null;
+    }
+
+    /**
+     * Constructor of the message that lets the server choose where to take the resources from
+     * @param nickname the player that sent the message
+     * @param indexDevelopmentCardSpace the index of the card to use. Ranges from 1 to 3
+     * @param paymentPolicy how the server splits the cost between warehouse and strongbox
+     */
+    public ActivateCardProductionMessage(String nickname, int indexDevelopmentCardSpace, PaymentPolicy paymentPolicy) {
+        super(nickname, MessageType.ACTIVATE_CARD_PRODUCTION);
+        this.costStrongbox = null;
+        this.costWarehouseDepot = null;
+        this.indexDevelopmentCardSpace = indexDevelopmentCardSpace;
+        this.paymentPolicy = paymentPolicy;
     }
 
     /**
@@ -36,6 +53,6 @@ public class ActivateCardProductionMessage extends MessageToServer {
      */
     @Override
     public void handleMessage(Controller controller, View view) {
-        controller.handleActivateCardProductionMessage(view, getNickname(), costStrongbox, costWarehouseDepot, indexDevelopmentCardSpace);
+        controller.handleActivateCardProductionMessage(view, getNickname(), costStrongbox, costWarehouseDepot, indexDevelopmentCardSpace, paymentPolicy);
     }
 }
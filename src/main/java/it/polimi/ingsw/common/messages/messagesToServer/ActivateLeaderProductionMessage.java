@@ -3,6 +3,7 @@ package it.polimi.ingsw.common.messages.messagesToServer;
 import it.polimi.ingsw.common.messages.MessageType;
 import it.polimi.ingsw.common.View;
 import it.polimi.ingsw.server.controller.Controller;
+import it.polimi.ingsw.server.model.enumerations.PaymentPolicy;
 import it.polimi.ingsw.server.model.enumerations.Resource;
 
 import java.util.Map;
@@ -15,6 +16,7 @@ public class ActivateLeaderProductionMessage extends MessageToServer {
     private Map<Resource,Integer> costWarehouseDepot;
     private int numLeaderCard;
     private Resource resource;
+    private PaymentPolicy paymentPolicy;
 
     /**
      * Constructor of the message
@@ -32,6 +34,20 @@ public class ActivateLeaderProductionMessage extends MessageToServer {
         this.resource = resource;
     }
 
+    /**
+     * Constructor of the message that lets the server choose where to take the resources from
+     * @param nickname the player that sent the message
+     * @param numLeaderCard the index of the leader card to use
+     * @param resource the type of resource to produce
+     * @param paymentPolicy how the server splits the cost between warehouse and strongbox
+     */
+    public ActivateLeaderProductionMessage(String nickname, int numLeaderCard, Resource resource, PaymentPolicy paymentPolicy) {
+        super(nickname, MessageType.ACTIVATE_LEADER_PRODUCTION);
+        this.numLeaderCard = numLeaderCard;
+        this.resource = resource;
+        this.paymentPolicy = paymentPolicy;
+    }
+
     /**
      * Interacts with the corresponding method of the controller
      * @param controller the controller that has to handle the message
@@ -39,6 +55,6 @@ public class ActivateLeaderProductionMessage extends MessageToServer {
      */
     @Override
     public void handleMessage(Controller controller, View view) {
-        controller.handleActivateLeaderProductionMessage(view,getNickname(),costStrongbox,costWarehouseDepot,numLeaderCard,resource);
+        controller.handleActivateLeaderProductionMessage(view,getNickname(),costStrongbox,costWarehouseDepot,numLeaderCard,resource,paymentPolicy);
     }
 }
@@ -0,0 +1,57 @@
+package it.polimi.ingsw.common.messages.messagesToServer;
+
+import it.polimi.ingsw.common.messages.MessageType;
+import it.polimi.ingsw.common.View;
+import it.polimi.ingsw.server.controller.Controller;
+import it.polimi.ingsw.server.model.ProductionRequest;
+import it.polimi.ingsw.server.model.enumerations.PaymentPolicy;
+import it.polimi.ingsw.server.model.enumerations.Resource;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Message sent from the client to activate some productions at once and end the production
+ */
+public class ActivateProductionsBatchMessage extends MessageToServer {
+    private List<ProductionRequest> productions;
+    private Map<Resource,Integer> costStrongbox;
+    private Map<Resource,Integer> costWarehouseDepot;
+    private PaymentPolicy paymentPolicy;
+
+    /**
+     * Constructor of the message
+     * @param nickname the player that sent the message
+     * @param productions the productions to activate
+     * @param costStrongbox a map of resources to take from the strongbox for all the productions
+     * @param costWarehouseDepot a map of resources to take from the warehouse for all the productions
+     */
+    public ActivateProductionsBatchMessage(String nickname, List<ProductionRequest> productions, Map<Resource,Integer> costStrongbox, Map<Resource,Integer> costWarehouseDepot) {
+        super(nickname, MessageType.ACTIVATE_PRODUCTIONS_BATCH);
+        this.productions = productions;
+        this.costStrongbox = costStrongbox;
+        this.costWarehouseDepot = costWarehouseDepot;
+    }
+
+    /**
+     * Constructor of the message that lets the server choose where to take the resources from
+     * @param nickname the player that sent the message
+     * @param productions the productions to activate
+     * @param paymentPolicy how the server splits the total cost between warehouse and strongbox
+     */
+    public ActivateProductionsBatchMessage(String nickname, List<ProductionRequest> productions, PaymentPolicy paymentPolicy) {
+        super(nickname, MessageType.ACTIVATE_PRODUCTIONS_BATCH);
+        this.productions = productions;
+        this.paymentPolicy = paymentPolicy;
+    }
+
+    /**
+     * Interacts with the corresponding method of the controller
+     * @param controller the controller that has to handle the message
+     * @param view the view that sent the message
+     */
+    @Override
+    public void handleMessage(Controller controller, View view) {
+        controller.handleActivateProductionsBatchMessage(view,getNickname(),productions,costStrongbox,costWarehouseDepot,paymentPolicy);
+    }
+}
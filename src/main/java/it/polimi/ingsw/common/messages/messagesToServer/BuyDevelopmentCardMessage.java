@@ -3,6 +3,7 @@ package it.polimi.ingsw.common.messages.messagesToServer;
 import it.polimi.ingsw.common.messages.MessageType;
 import it.polimi.ingsw.common.View;
 import it.polimi.ingsw.server.controller.Controller;
+import it.polimi.ingsw.server.model.enumerations.PaymentPolicy;
 import it.polimi.ingsw.server.model.enumerations.Resource;
 
 import java.util.HashMap;
@@ -19,6 +20,7 @@ public class BuyDevelopmentCardMessage extends MessageToServer {
     private final Map<Resource, Integer> costWarehouse;
     private final int numLeaderCard;
     private final int cardPosition;
+    private final PaymentPolicy paymentPolicy;
 
     /**
      * Constructor of the message
@@ -38,6 +40,27 @@ public class BuyDevelopmentCardMessage extends MessageToServer {
         this.costWarehouse = costWarehouse;
         this.numLeaderCard = numLeaderCard;
         this.cardPosition = cardPosition;
+        this.paymentPolicy = null;
+    }
+
+    /**
+     * Constructor of the message that lets the server choose where to take the resources from
+     * @param nickname nickname of the player that sends the message
+     * @param row a row of the development card space
+     * @param column a column of the development card space
+     * @param numLeaderCard the index of the leader card to use to discount the price of the card
+     * @param cardPosition a position in the development card space for the new card
+     * @param paymentPolicy how the server splits the price between warehouse and strongbox
+     */
+    public BuyDevelopmentCardMessage(String nickname, int row, int column, int numLeaderCard, int cardPosition, PaymentPolicy paymentPolicy) {
+        super(nickname, MessageType.BUY_DEVELOPMENT_CARD);
+        this.row = row;
+        this.column = column;
+        this.costStrongbox = null;
+        this.costWarehouse = null;
+        this.numLeaderCard = numLeaderCard;
+        this.cardPosition = cardPosition;
+        this.paymentPolicy = paymentPolicy;
     }
 
     /**
@@ -47,6 +70,6 @@ public class BuyDevelopmentCardMessage extends MessageToServer {
      */
     @Override
     public void handleMessage(Controller controller, View view) {
-        controller.handleBuyDevelopmentCardMessage(view, this.getNickname(), row, column, costStrongbox, costWarehouse, numLeaderCard, cardPosition);
+        controller.handleBuyDevelopmentCardMessage(view, this.getNickname(), row, column, costStrongbox, costWarehouse, numLeaderCard, cardPosition, paymentPolicy);
     }
 }
@@ -0,0 +1,39 @@
+package it.polimi.ingsw.common.messages.messagesToServer;
+
+import it.polimi.ingsw.common.View;
+import it.polimi.ingsw.common.messages.MessageType;
+import it.polimi.ingsw.server.controller.Controller;
+
+/**
+ * This class represents the message sent by the client, right after connecting, to ask the server to switch to the binary protocol
+ */
+public class ProtocolHelloMessage extends MessageToServer {
+    private final int version;
+
+    /**
+     * Constructor of the message
+     * @param version the version of the binary protocol supported by the client
+     */
+    public ProtocolHelloMessage(int version) {
+        super(null, MessageType.PROTOCOL_HELLO);
+        this.version = version;
+    }
+
+    /**
+     * Getter for the version
+     * @return the version of the binary protocol supported by the client
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * The negotiation is handled by the connection, the controller is not involved
+     * @param controller the controller that has to handle the message
+     * @param view the view that sent the message
+     */
+    @Override
+    public void handleMessage(Controller controller, View view) {
+
+    }
+}
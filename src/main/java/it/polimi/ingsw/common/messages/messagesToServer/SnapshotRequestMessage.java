@@ -0,0 +1,35 @@
+package it.polimi.ingsw.common.messages.messagesToServer;
+
+import it.polimi.ingsw.common.View;
+import it.polimi.ingsw.common.messages.MessageType;
+import it.polimi.ingsw.server.controller.Controller;
+
+/**
+ * Message sent from the client to receive the whole state of an element of a player, after some changes were lost
+ */
+public class SnapshotRequestMessage extends MessageToServer {
+    private final MessageType snapshotType;
+    private final String owner;
+
+    /**
+     * Constructor of the message
+     * @param nickname the player that sent the message
+     * @param snapshotType the type of the message carrying the requested state
+     * @param owner the player that owns the requested element
+     */
+    public SnapshotRequestMessage(String nickname, MessageType snapshotType, String owner) {
+        super(nickname, MessageType.SNAPSHOT_REQUEST);
+        this.snapshotType = snapshotType;
+        this.owner = owner;
+    }
+
+    /**
+     * Interacts with the corresponding method of the controller
+     * @param controller the controller that has to handle the message
+     * @param view the view that sent the message
+     */
+    @Override
+    public void handleMessage(Controller controller, View view) {
+        controller.handleSnapshotRequestMessage(view, this.getNickname(), snapshotType, owner);
+    }
+}
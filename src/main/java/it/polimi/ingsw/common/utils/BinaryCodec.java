@@ -0,0 +1,512 @@
+package it.polimi.ingsw.common.utils;
+
+import com.google.gson.internal.UnsafeAllocator;
+import it.polimi.ingsw.common.messages.Message;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class encodes the content of the messages in a compact binary form.
+ * The fields of every class are read by reflection once and kept in a plan, integers are written as variable length
+ * numbers and enums as their ordinal. Every reference is preceded by a marker, or by its size plus one, so that null is 0
+ */
+public final class BinaryCodec {
+    private static final Map<Class<?>, FieldCodec[]> plans = new ConcurrentHashMap<>();
+    private static final UnsafeAllocator allocator = UnsafeAllocator.create();
+
+    private BinaryCodec() {
+    }
+
+    /**
+     * Encodes the fields of a message, the nickname and the type of the message are not included
+     * @param message the message to encode
+     * @return the encoded fields
+     */
+    public static byte[] encodeBody(Object message){
+        Output output = new Output(32);
+        writeFields(output, message);
+        return output.toByteArray();
+    }
+
+    /**
+     * Creates an object of a class and reads its fields, the constructor of the class is not called
+     * @param type the class of the object
+     * @param input the input positioned at the beginning of the fields
+     * @param <T> the type of the object
+     * @return the decoded object
+     * @throws IllegalArgumentException if the input does not contain a valid object
+     */
+    public static <T> T decodeBody(Class<T> type, Input input) throws IllegalArgumentException {
+        T instance = newInstance(type);
+        readFields(input, instance);
+        return instance;
+    }
+
+    private static void writeFields(Output output, Object object){
+        try {
+            for (FieldCodec fieldCodec : planFor(object.getClass())) {
+                fieldCodec.valueCodec.write(output, fieldCodec.field.get(object));
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void readFields(Input input, Object object){
+        try {
+            for (FieldCodec fieldCodec : planFor(object.getClass())) {
+                fieldCodec.field.set(object, fieldCodec.valueCodec.read(input));
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> T newInstance(Class<T> type){
+        try {
+            return allocator.newInstance(type);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Cannot create " + type.getName());
+        }
+    }
+
+    //The plan of a class contains its fields and the fields of its superclasses, except the ones of Message
+    private static FieldCodec[] planFor(Class<?> type){
+        FieldCodec[] plan = plans.get(type);
+        if (plan == null) {
+            plan = createPlan(type);
+            plans.put(type, plan);
+        }
+        return plan;
+    }
+
+    private static FieldCodec[] createPlan(Class<?> type){
+        List<FieldCodec> plan = new ArrayList<>();
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class && current != Message.class; current = current.getSuperclass()) {
+            hierarchy.add(0, current);
+        }
+        for (Class<?> current : hierarchy) {
+            Field[] fields = current.getDeclaredFields();
+            //the order of the declared fields is not specified, so they are sorted by name
+            Arrays.sort(fields, Comparator.comparing(Field::getName));
+            for (Field field : fields) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                    continue;
+                }
+                field.setAccessible(true);
+                plan.add(new FieldCodec(field, codecFor(field.getGenericType())));
+            }
+        }
+        return plan.toArray(new FieldCodec[0]);
+    }
+
+    private static ValueCodec codecFor(Type type){
+        if (type instanceof Class) {
+            Class<?> rawType = (Class<?>) type;
+            if (rawType == int.class) return INT;
+            if (rawType == Integer.class) return BOXED_INT;
+            if (rawType == boolean.class || rawType == Boolean.class) return BOOLEAN;
+            if (rawType == String.class) return STRING;
+            if (rawType.isEnum()) return new EnumCodec(rawType);
+            if (rawType.isArray()) return new ArrayCodec(rawType.getComponentType(), codecFor(rawType.getComponentType()));
+            if (rawType.isPrimitive() || Collection.class.isAssignableFrom(rawType) || Map.class.isAssignableFrom(rawType)) {
+                throw new IllegalArgumentException("Unsupported type " + rawType.getName());
+            }
+            return new ObjectCodec(rawType);
+        }
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            Class<?> rawType = (Class<?>) parameterizedType.getRawType();
+            Type[] arguments = parameterizedType.getActualTypeArguments();
+            if (List.class.isAssignableFrom(rawType)) return new ListCodec(codecFor(arguments[0]));
+            if (Map.class.isAssignableFrom(rawType)) return new MapCodec(codecFor(arguments[0]), codecFor(arguments[1]));
+        }
+        if (type instanceof GenericArrayType) {
+            Type componentType = ((GenericArrayType) type).getGenericComponentType();
+            Class<?> rawComponent = componentType instanceof ParameterizedType ? (Class<?>) ((ParameterizedType) componentType).getRawType() : Object.class;
+            return new ArrayCodec(rawComponent, codecFor(componentType));
+        }
+        throw new IllegalArgumentException("Unsupported type " + type.getTypeName());
+    }
+
+    private static final class FieldCodec {
+        private final Field field;
+        private final ValueCodec valueCodec;
+
+        private FieldCodec(Field field, ValueCodec valueCodec) {
+            this.field = field;
+            this.valueCodec = valueCodec;
+        }
+    }
+
+    private interface ValueCodec {
+        void write(Output output, Object value);
+        Object read(Input input);
+    }
+
+    private static final ValueCodec INT = new ValueCodec() {
+        public void write(Output output, Object value) { output.writeSignedVarInt((Integer) value); }
+        public Object read(Input input) { return input.readSignedVarInt(); }
+    };
+
+    private static final ValueCodec BOXED_INT = new ValueCodec() {
+        public void write(Output output, Object value) {
+            if (value == null) output.writeVarLong(0);
+            else output.writeVarLong(zigZag((Integer) value) + 1L);
+        }
+        public Object read(Input input) {
+            long encoded = input.readVarLong();
+            return encoded == 0 ? null : unZigZag(encoded - 1);
+        }
+    };
+
+    private static final ValueCodec BOOLEAN = new ValueCodec() {
+        public void write(Output output, Object value) { output.writeVarLong(value == null ? 0 : ((Boolean) value ? 2 : 1)); }
+        public Object read(Input input) {
+            long encoded = input.readVarLong();
+            return encoded == 0 ? null : encoded == 2;
+        }
+    };
+
+    private static final ValueCodec STRING = new ValueCodec() {
+        public void write(Output output, Object value) { output.writeString((String) value); }
+        public Object read(Input input) { return input.readString(); }
+    };
+
+    private static final class EnumCodec implements ValueCodec {
+        private final Object[] constants;
+
+        private EnumCodec(Class<?> type) {
+            constants = type.getEnumConstants();
+        }
+
+        public void write(Output output, Object value) {
+            output.writeVarLong(value == null ? 0 : ((Enum<?>) value).ordinal() + 1L);
+        }
+
+        public Object read(Input input) {
+            long encoded = input.readVarLong();
+            if (encoded < 0 || encoded > constants.length) throw new IllegalArgumentException("Invalid enum ordinal");
+            return encoded == 0 ? null : constants[(int) encoded - 1];
+        }
+    }
+
+    private static final class ArrayCodec implements ValueCodec {
+        private final Class<?> componentType;
+        private final ValueCodec componentCodec;
+
+        private ArrayCodec(Class<?> componentType, ValueCodec componentCodec) {
+            this.componentType = componentType;
+            this.componentCodec = componentCodec;
+        }
+
+        public void write(Output output, Object value) {
+            if (value == null) {
+                output.writeVarLong(0);
+                return;
+            }
+            int length = Array.getLength(value);
+            output.writeVarLong(length + 1L);
+            for (int i = 0; i < length; i++) {
+                componentCodec.write(output, Array.get(value, i));
+            }
+        }
+
+        public Object read(Input input) {
+            int encoded = input.readSize();
+            if (encoded == 0) return null;
+            Object array = Array.newInstance(componentType, encoded - 1);
+            for (int i = 0; i < encoded - 1; i++) {
+                Array.set(array, i, componentCodec.read(input));
+            }
+            return array;
+        }
+    }
+
+    private static final class ListCodec implements ValueCodec {
+        private final ValueCodec elementCodec;
+
+        private ListCodec(ValueCodec elementCodec) {
+            this.elementCodec = elementCodec;
+        }
+
+        public void write(Output output, Object value) {
+            if (value == null) {
+                output.writeVarLong(0);
+                return;
+            }
+            List<?> list = (List<?>) value;
+            output.writeVarLong(list.size() + 1L);
+            for (Object element : list) {
+                elementCodec.write(output, element);
+            }
+        }
+
+        public Object read(Input input) {
+            int encoded = input.readSize();
+            if (encoded == 0) return null;
+            ArrayList<Object> list = new ArrayList<>(encoded - 1);
+            for (int i = 0; i < encoded - 1; i++) {
+                list.add(elementCodec.read(input));
+            }
+            return list;
+        }
+    }
+
+    private static final class MapCodec implements ValueCodec {
+        private final ValueCodec keyCodec;
+        private final ValueCodec valueCodec;
+
+        private MapCodec(ValueCodec keyCodec, ValueCodec valueCodec) {
+            this.keyCodec = keyCodec;
+            this.valueCodec = valueCodec;
+        }
+
+        public void write(Output output, Object value) {
+            if (value == null) {
+                output.writeVarLong(0);
+                return;
+            }
+            Map<?, ?> map = (Map<?, ?>) value;
+            output.writeVarLong(map.size() + 1L);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                keyCodec.write(output, entry.getKey());
+                valueCodec.write(output, entry.getValue());
+            }
+        }
+
+        public Object read(Input input) {
+            int encoded = input.readSize();
+            if (encoded == 0) return null;
+            Map<Object, Object> map = new LinkedHashMap<>();
+            for (int i = 0; i < encoded - 1; i++) {
+                Object key = keyCodec.read(input);
+                map.put(key, valueCodec.read(input));
+            }
+            return map;
+        }
+    }
+
+    private static final class ObjectCodec implements ValueCodec {
+        private final Class<?> type;
+
+        private ObjectCodec(Class<?> type) {
+            this.type = type;
+        }
+
+        public void write(Output output, Object value) {
+            if (value == null) {
+                output.writeVarLong(0);
+                return;
+            }
+            output.writeVarLong(1);
+            writeFields(output, value);
+        }
+
+        public Object read(Input input) {
+            if (input.readSize() == 0) return null;
+            return decodeBody(type, input);
+        }
+    }
+
+    private static long zigZag(int value){
+        return ((long) value << 1) ^ ((long) value >> 63);
+    }
+
+    private static int unZigZag(long value){
+        return (int) ((value >>> 1) ^ -(value & 1));
+    }
+
+    /**
+     * Growable buffer the encoded values are written to
+     */
+    public static final class Output {
+        private byte[] buffer;
+        private int size;
+
+        /**
+         * Constructor of the output
+         * @param capacity the initial capacity
+         */
+        public Output(int capacity) {
+            buffer = new byte[capacity];
+            size = 0;
+        }
+
+        private void ensureCapacity(int additional){
+            if (size + additional > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(size + additional, buffer.length * 2));
+            }
+        }
+
+        /**
+         * Writes a non negative number using 7 bits per byte
+         * @param value the number to write
+         */
+        public void writeVarLong(long value){
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        /**
+         * Writes a number that can be negative
+         * @param value the number to write
+         */
+        public void writeSignedVarInt(int value){
+            writeVarLong(zigZag(value));
+        }
+
+        /**
+         * Writes a string, or null
+         * @param value the string to write
+         */
+        public void writeString(String value){
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            writeBytes(bytes, 0, bytes.length);
+        }
+
+        /**
+         * Writes raw bytes
+         * @param bytes the array containing the bytes
+         * @param offset the position of the first byte
+         * @param length the number of bytes
+         */
+        public void writeBytes(byte[] bytes, int offset, int length){
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, buffer, size, length);
+            size += length;
+        }
+
+        /**
+         * @return the number of bytes written
+         */
+        public int size(){
+            return size;
+        }
+
+        /**
+         * @return a copy of the bytes written
+         */
+        public byte[] toByteArray(){
+            return Arrays.copyOf(buffer, size);
+        }
+    }
+
+    /**
+     * Cursor over the encoded values, every read method throws IllegalArgumentException if the input is malformed
+     */
+    public static final class Input {
+        private final byte[] buffer;
+        private int position;
+        private final int end;
+
+        /**
+         * Constructor of the input
+         * @param buffer the array containing the encoded values
+         * @param offset the position of the first byte
+         * @param length the number of bytes
+         */
+        public Input(byte[] buffer, int offset, int length) {
+            this.buffer = buffer;
+            this.position = offset;
+            this.end = offset + length;
+        }
+
+        /**
+         * Reads a number written by {@link Output#writeVarLong(long)}
+         * @return the number read
+         */
+        public long readVarLong(){
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= end) throw new IllegalArgumentException("Truncated input");
+                byte current = buffer[position++];
+                result |= (long) (current & 0x7F) << shift;
+                if ((current & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Malformed number");
+        }
+
+        /**
+         * Reads a size, that cannot exceed the remaining bytes
+         * @return the size read
+         */
+        public int readSize(){
+            long value = readVarLong();
+            if (value < 0 || value > end - position + 1) throw new IllegalArgumentException("Invalid size");
+            return (int) value;
+        }
+
+        /**
+         * @return the position of the next byte to read
+         */
+        public int position(){
+            return position;
+        }
+
+        /**
+         * Skips some bytes
+         * @param count the number of bytes to skip
+         */
+        public void skip(int count){
+            if (count < 0 || position + count > end) throw new IllegalArgumentException("Truncated input");
+            position += count;
+        }
+
+        /**
+         * @return true if there are bytes left to read
+         */
+        public boolean hasRemaining(){
+            return position < end;
+        }
+
+        /**
+         * Reads a number written by {@link Output#writeSignedVarInt(int)}
+         * @return the number read
+         */
+        public int readSignedVarInt(){
+            return unZigZag(readVarLong());
+        }
+
+        /**
+         * Reads a string written by {@link Output#writeString(String)}
+         * @return the string read, or null
+         */
+        public String readString(){
+            int encoded = readSize();
+            if (encoded == 0) return null;
+            int length = encoded - 1;
+            if (position + length > end) throw new IllegalArgumentException("Truncated input");
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
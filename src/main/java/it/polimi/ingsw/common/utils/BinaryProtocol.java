@@ -0,0 +1,204 @@
+package it.polimi.ingsw.common.utils;
+
+import it.polimi.ingsw.common.messages.Message;
+import it.polimi.ingsw.common.messages.MessageType;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class holds the state of the binary protocol of one connection.
+ * Every frame is preceded by its length and starts with a kind: 0 defines the next nickname id, any other value is the
+ * ordinal of the message type plus one, followed by the id of the nickname of the message and by its content.
+ * A nickname is sent once per connection, the following messages only carry its id.
+ * The content of a composite message is a sequence of frames, each preceded by its length.
+ * Encoding and decoding use separate tables, each must be used by one thread at a time
+ * @param <T> the kind of messages decoded
+ */
+public class BinaryProtocol<T extends Message> {
+    public static final int VERSION = 3;
+    private static final int NICKNAME_DEFINITION = 0;
+    private static final MessageType[] MESSAGE_TYPES = MessageType.values();
+    private static final Field NICKNAME_FIELD = messageField("nickname");
+    private static final Field MESSAGE_TYPE_FIELD = messageField("messageType");
+    private final MessageDecoder<T> decoder;
+    private final Map<String, Integer> sentNicknames;
+    private final List<String> receivedNicknames;
+
+    /**
+     * Constructor of the protocol
+     * @param decoder the decoder that knows the classes of the messages received
+     */
+    public BinaryProtocol(MessageDecoder<T> decoder) {
+        this.decoder = decoder;
+        sentNicknames = new HashMap<>();
+        receivedNicknames = new ArrayList<>();
+    }
+
+    private static Field messageField(String name){
+        try {
+            Field field = Message.class.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Encodes a message in one or more frames, the frames must be sent in the returned order
+     * @param message the message to encode
+     * @param body the content of the message encoded by {@link BinaryCodec#encodeBody(Object)}
+     * @return the frames to send, each preceded by its length
+     */
+    public List<byte[]> encode(Message message, byte[] body){
+        List<byte[]> frames = new ArrayList<>(1);
+        String nickname = message.getNickname();
+        long nicknameReference = 0;
+        if (nickname != null) {
+            Integer id = sentNicknames.get(nickname);
+            if (id == null) {
+                id = sentNicknames.size();
+                sentNicknames.put(nickname, id);
+                BinaryCodec.Output definition = new BinaryCodec.Output(nickname.length() + 2);
+                definition.writeVarLong(NICKNAME_DEFINITION);
+                definition.writeString(nickname);
+                frames.add(frame(definition));
+            }
+            nicknameReference = id + 1L;
+        }
+        BinaryCodec.Output output = new BinaryCodec.Output(body.length + 4);
+        output.writeVarLong(message.getMessageType().ordinal() + 1L);
+        output.writeVarLong(nicknameReference);
+        output.writeBytes(body, 0, body.length);
+        frames.add(frame(output));
+        return frames;
+    }
+
+    /**
+     * Encodes a message in one or more frames
+     * @param message the message to encode
+     * @return the frames to send, each preceded by its length
+     */
+    public List<byte[]> encode(Message message){
+        return encode(message, BinaryCodec.encodeBody(message));
+    }
+
+    /**
+     * Groups frames already encoded in a single composite frame, the grouped frames are decoded in order
+     * @param messageType the type of the composite message
+     * @param frames the frames to group, each preceded by its length
+     * @return the frame to send, preceded by its length
+     */
+    public byte[] encodeComposite(MessageType messageType, List<byte[]> frames){
+        int size = 2;
+        for (byte[] frame : frames) {
+            size += frame.length;
+        }
+        BinaryCodec.Output output = new BinaryCodec.Output(size);
+        output.writeVarLong(messageType.ordinal() + 1L);
+        output.writeVarLong(0);
+        for (byte[] frame : frames) {
+            output.writeBytes(frame, 0, frame.length);
+        }
+        return frame(output);
+    }
+
+    private static byte[] frame(BinaryCodec.Output content){
+        BinaryCodec.Output framed = new BinaryCodec.Output(content.size() + 3);
+        framed.writeVarLong(content.size());
+        byte[] bytes = content.toByteArray();
+        framed.writeBytes(bytes, 0, bytes.length);
+        return framed.toByteArray();
+    }
+
+    /**
+     * Decodes a frame
+     * @param frame the array containing the frame, without its length
+     * @param offset the position of the frame
+     * @param length the length of the frame
+     * @return the decoded message, or null if the frame only defined a nickname
+     * @throws IllegalArgumentException if the frame is malformed
+     */
+    public T decode(byte[] frame, int offset, int length) throws IllegalArgumentException {
+        BinaryCodec.Input input = new BinaryCodec.Input(frame, offset, length);
+        long kind = input.readVarLong();
+        if (kind == NICKNAME_DEFINITION) {
+            receivedNicknames.add(input.readString());
+            return null;
+        }
+        if (kind > MESSAGE_TYPES.length) {
+            throw new IllegalArgumentException("Invalid message type");
+        }
+        MessageType messageType = MESSAGE_TYPES[(int) kind - 1];
+        long nicknameReference = input.readVarLong();
+        if (nicknameReference > receivedNicknames.size()) {
+            throw new IllegalArgumentException("Unknown nickname");
+        }
+        String nickname = nicknameReference == 0 ? null : receivedNicknames.get((int) nicknameReference - 1);
+        if (decoder.isComposite(messageType)) {
+            return decodeComposite(messageType, frame, input);
+        }
+        T message = decoder.decodeBinary(messageType, input);
+        //shared messages have no content and are never modified
+        if (!decoder.isShared(messageType)) {
+            try {
+                MESSAGE_TYPE_FIELD.set(message, messageType);
+                NICKNAME_FIELD.set(message, nickname);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return message;
+    }
+
+    private T decodeComposite(MessageType messageType, byte[] frame, BinaryCodec.Input input){
+        List<T> messages = new ArrayList<>();
+        while (input.hasRemaining()) {
+            int length = input.readSize();
+            int offset = input.position();
+            input.skip(length);
+            BinaryCodec.Input part = new BinaryCodec.Input(frame, offset, length);
+            if (length > 0 && decoder.isComposite(kindOf(part))) {
+                throw new IllegalArgumentException("Nested composite message");
+            }
+            T message = decode(frame, offset, length);
+            if (message != null) {
+                messages.add(message);
+            }
+        }
+        return decoder.composite(messageType, messages);
+    }
+
+    private static MessageType kindOf(BinaryCodec.Input input){
+        long kind = input.readVarLong();
+        return kind == NICKNAME_DEFINITION || kind > MESSAGE_TYPES.length ? null : MESSAGE_TYPES[(int) kind - 1];
+    }
+
+    /**
+     * Reads the length of a frame from a buffer
+     * @param buffer the buffer containing the bytes received
+     * @param offset the position of the length
+     * @param end the position after the last byte received
+     * @return an array with the length of the frame and the number of bytes used by the length, null if the length is not complete
+     * @throws IllegalArgumentException if the length is malformed
+     */
+    public static int[] readFrameLength(byte[] buffer, int offset, int end) throws IllegalArgumentException {
+        int length = 0;
+        for (int i = 0; i < 5; i++) {
+            if (offset + i >= end) {
+                return null;
+            }
+            byte current = buffer[offset + i];
+            length |= (current & 0x7F) << (7 * i);
+            if ((current & 0x80) == 0) {
+                if (length < 0) throw new IllegalArgumentException("Invalid frame length");
+                return new int[]{length, i + 1};
+            }
+        }
+        throw new IllegalArgumentException("Invalid frame length");
+    }
+}
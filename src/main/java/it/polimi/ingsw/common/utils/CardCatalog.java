@@ -0,0 +1,156 @@
+package it.polimi.ingsw.common.utils;
+
+import it.polimi.ingsw.server.model.DevelopmentCard;
+import it.polimi.ingsw.server.model.LeaderCard;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+import java.util.logging.Logger;
+
+/**
+ * This class holds the definitions of every card of the game, loaded only once per JVM.
+ * The cards are read from the binary catalog compiled from the json files at build time, or parsed from the json files
+ * when the binary catalog is missing or out of date.
+ * The cards are never modified, so the same instances are shared by every match, that only holds the order of its decks
+ */
+public final class CardCatalog {
+    static final int MAX_ROW = 3, MAX_COLUMN = 4;
+    private static final Logger LOGGER = Logger.getLogger(CardCatalog.class.getName());
+    private final List<LeaderCard> leaderCards;
+    private final List<List<List<DevelopmentCard>>> developmentCards;
+    private final Map<Integer, LeaderCard> leaderCardsById;
+    private final Map<Integer, DevelopmentCard> developmentCardsById;
+
+    //Lazy holder, the catalog is loaded by the first thread that needs it
+    private static final class Holder {
+        private static final CardCatalog INSTANCE = load();
+    }
+
+    /**
+     * Constructor of the catalog
+     * @param leaderCards every leader card, in the order of the json files
+     * @param developmentCards the development cards of every cell of the card grid, by row and by column
+     */
+    CardCatalog(List<LeaderCard> leaderCards, List<List<List<DevelopmentCard>>> developmentCards) {
+        Map<Integer, LeaderCard> leaderIndex = new HashMap<>();
+        for (LeaderCard leaderCard : leaderCards) {
+            leaderIndex.put(leaderCard.getId(), leaderCard);
+        }
+        this.leaderCards = Collections.unmodifiableList(new ArrayList<>(leaderCards));
+        leaderCardsById = Collections.unmodifiableMap(leaderIndex);
+
+        Map<Integer, DevelopmentCard> developmentIndex = new HashMap<>();
+        List<List<List<DevelopmentCard>>> rows = new ArrayList<>(MAX_ROW);
+        for (List<List<DevelopmentCard>> row : developmentCards) {
+            List<List<DevelopmentCard>> columns = new ArrayList<>(MAX_COLUMN);
+            for (List<DevelopmentCard> cell : row) {
+                for (DevelopmentCard developmentCard : cell) {
+                    developmentIndex.put(developmentCard.getId(), developmentCard);
+                }
+                columns.add(Collections.unmodifiableList(new ArrayList<>(cell)));
+            }
+            rows.add(Collections.unmodifiableList(columns));
+        }
+        this.developmentCards = Collections.unmodifiableList(rows);
+        developmentCardsById = Collections.unmodifiableMap(developmentIndex);
+    }
+
+    private static CardCatalog load() {
+        try (InputStream inputStream = CardCatalog.class.getResourceAsStream(CardCatalogFormat.RESOURCE)) {
+            if (inputStream != null) {
+                return CardCatalogFormat.read(inputStream);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.warning("Invalid binary card catalog, the cards are parsed from json: " + e.getMessage());
+        }
+        return parseJson();
+    }
+
+    /**
+     * Creates a catalog parsing the json files of the cards
+     * @return the parsed catalog
+     */
+    static CardCatalog parseJson() {
+        Stack<DevelopmentCard>[][] cardGridMatrix = new CardGridParser().parse();
+        List<List<List<DevelopmentCard>>> rows = new ArrayList<>(MAX_ROW);
+        for (int row = 0; row < MAX_ROW; row++) {
+            List<List<DevelopmentCard>> columns = new ArrayList<>(MAX_COLUMN);
+            for (int column = 0; column < MAX_COLUMN; column++) {
+                columns.add(cardGridMatrix[row][column]);
+            }
+            rows.add(columns);
+        }
+        return new CardCatalog(new LeaderCardParser().loadLeaderCards(), rows);
+    }
+
+    /**
+     * @return the catalog of the cards, loaded the first time it is requested
+     */
+    public static CardCatalog getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @return every leader card, in the order of the json files
+     */
+    public List<LeaderCard> getLeaderCards() {
+        return leaderCards;
+    }
+
+    /**
+     * Getter for the leader cards with a given ability
+     * @param type the class of the leader cards
+     * @param <T> the kind of leader cards
+     * @return the leader cards of the class
+     */
+    public <T extends LeaderCard> List<T> getLeaderCards(Class<T> type) {
+        List<T> result = new ArrayList<>();
+        for (LeaderCard leaderCard : leaderCards) {
+            if (type.isInstance(leaderCard)) {
+                result.add(type.cast(leaderCard));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param id the id of the card
+     * @return the leader card with the id, null if there is none
+     */
+    public LeaderCard getLeaderCard(int id) {
+        return leaderCardsById.get(id);
+    }
+
+    /**
+     * @param row the row of the card grid
+     * @param column the column of the card grid
+     * @return the development cards of a cell of the card grid, in the order of the json file
+     */
+    public List<DevelopmentCard> getDevelopmentCards(int row, int column) {
+        return developmentCards.get(row).get(column);
+    }
+
+    /**
+     * @param id the id of the card
+     * @return the development card with the id, null if there is none
+     */
+    public DevelopmentCard getDevelopmentCard(int id) {
+        return developmentCardsById.get(id);
+    }
+
+    /**
+     * Creates a deck of every leader card, the deck can be reordered and the shared cards are not copied
+     * @return a new stack of leader cards
+     */
+    public Stack<LeaderCard> newLeaderDeck() {
+        Stack<LeaderCard> deck = new Stack<>();
+        deck.addAll(leaderCards);
+        return deck;
+    }
+}
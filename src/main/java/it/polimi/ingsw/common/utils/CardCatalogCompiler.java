@@ -0,0 +1,128 @@
+package it.polimi.ingsw.common.utils;
+
+import it.polimi.ingsw.server.model.CardRequirement;
+import it.polimi.ingsw.server.model.DevelopmentCard;
+import it.polimi.ingsw.server.model.LeaderCard;
+import it.polimi.ingsw.server.model.LeaderDepot;
+import it.polimi.ingsw.server.model.LeaderDiscount;
+import it.polimi.ingsw.server.model.LeaderMarble;
+import it.polimi.ingsw.server.model.LeaderProduction;
+import it.polimi.ingsw.server.model.PowerOfProduction;
+import it.polimi.ingsw.server.model.Requirement;
+import it.polimi.ingsw.server.model.enumerations.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Build step that validates the json files of the cards and compiles them into the binary catalog read by {@link CardCatalog}.
+ * The json files stay the source of truth, the build fails if one of them is not valid
+ */
+public final class CardCatalogCompiler {
+
+    private CardCatalogCompiler() {
+    }
+
+    /**
+     * Compiles the binary catalog
+     * @param args the path of the binary catalog to write
+     * @throws IOException if the catalog cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: CardCatalogCompiler <output file>");
+        }
+        CardCatalog catalog = CardCatalog.parseJson();
+        validate(catalog);
+        byte[] content = CardCatalogFormat.write(catalog);
+        //the catalog must be read back exactly as it was written
+        if (!Arrays.equals(content, CardCatalogFormat.write(CardCatalogFormat.read(new ByteArrayInputStream(content))))) {
+            throw new IllegalStateException("The binary catalog cannot be read back");
+        }
+        Path output = Paths.get(args[0]);
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        Files.write(output, content);
+        System.out.println("Card catalog compiled: " + catalog.getLeaderCards().size() + " leader cards, "
+                + content.length + " bytes");
+    }
+
+    /**
+     * Checks that the cards are consistent with the rules of the game
+     * @param catalog the catalog to check
+     * @throws IllegalStateException if a card is not valid
+     */
+    static void validate(CardCatalog catalog) throws IllegalStateException {
+        Set<Integer> ids = new HashSet<>();
+        for (int row = 0; row < CardCatalog.MAX_ROW; row++) {
+            for (int column = 0; column < CardCatalog.MAX_COLUMN; column++) {
+                List<DevelopmentCard> cell = catalog.getDevelopmentCards(row, column);
+                check(!cell.isEmpty(), "Empty cell " + row + "," + column + " of the card grid");
+                for (DevelopmentCard card : cell) {
+                    String name = "Development card " + card.getId();
+                    check(ids.add(card.getId()) && card.getId() > 0, name + " has an invalid id");
+                    check(card.getLevel() == CardCatalog.MAX_ROW - row, name + " is in the wrong row");
+                    check(card.getColor() != null && card.getColor() == cell.get(0).getColor(), name + " is in the wrong column");
+                    check(card.getVictoryPoints() > 0, name + " has no victory points");
+                    checkResources(card.getPrice(), false, name + " has an invalid price");
+                    checkProduction(card.getPowerOfProduction(), name);
+                }
+            }
+        }
+        check(!catalog.getLeaderCards().isEmpty(), "There are no leader cards");
+        for (LeaderCard card : catalog.getLeaderCards()) {
+            String name = "Leader card " + card.getId();
+            check(ids.add(card.getId()) && card.getId() > 0, name + " has an invalid id");
+            check(card.getVictoryPoints() > 0, name + " has no victory points");
+            Requirement requirement = card.getRequirement();
+            check(requirement != null && (requirement.getCardsRequirement() != null || requirement.getResourceRequirement() != null),
+                    name + " has no requirement");
+            if (requirement.getCardsRequirement() != null) {
+                for (CardRequirement cardRequirement : requirement.getCardsRequirement()) {
+                    check(cardRequirement.getColor() != null, name + " requires a card without color");
+                }
+            }
+            if (requirement.getResourceRequirement() != null) {
+                checkResources(requirement.getResourceRequirement(), false, name + " has an invalid resource requirement");
+            }
+            if (card instanceof LeaderDepot) {
+                check(((LeaderDepot) card).getSpecialDepotResource() != null, name + " has no depot resource");
+            } else if (card instanceof LeaderDiscount) {
+                check(((LeaderDiscount) card).getResourceDiscounted() != null, name + " has no discounted resource");
+            } else if (card instanceof LeaderMarble) {
+                check(((LeaderMarble) card).getMarble() != null, name + " has no marble");
+            } else if (card instanceof LeaderProduction) {
+                checkProduction(((LeaderProduction) card).abilityProduction(), name);
+            }
+        }
+    }
+
+    private static void checkProduction(PowerOfProduction powerOfProduction, String name) {
+        check(powerOfProduction != null, name + " has no power of production");
+        checkResources(powerOfProduction.getCost(), false, name + " has an invalid production cost");
+        checkResources(powerOfProduction.getProduction(), true, name + " has an invalid production");
+    }
+
+    private static void checkResources(Map<Resource, Integer> resources, boolean faithAllowed, String message) {
+        check(resources != null && !resources.isEmpty(), message);
+        for (Map.Entry<Resource, Integer> entry : resources.entrySet()) {
+            check(entry.getKey() != null && entry.getValue() != null && entry.getValue() > 0, message);
+            check(faithAllowed || entry.getKey() != Resource.FAITH, message);
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
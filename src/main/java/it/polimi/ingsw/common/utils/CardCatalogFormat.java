@@ -0,0 +1,147 @@
+package it.polimi.ingsw.common.utils;
+
+import it.polimi.ingsw.server.model.CardRequirement;
+import it.polimi.ingsw.server.model.DevelopmentCard;
+import it.polimi.ingsw.server.model.LeaderCard;
+import it.polimi.ingsw.server.model.LeaderDepot;
+import it.polimi.ingsw.server.model.LeaderDiscount;
+import it.polimi.ingsw.server.model.LeaderMarble;
+import it.polimi.ingsw.server.model.LeaderProduction;
+import it.polimi.ingsw.server.model.PowerOfProduction;
+import it.polimi.ingsw.server.model.Requirement;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * This class writes and reads the binary catalog of the cards.
+ * The catalog starts with a magic number, the version of the format and a fingerprint of the fields of the card classes,
+ * then it contains the development cards of every cell of the card grid and the leader cards, each preceded by its kind.
+ * The fields of the cards are encoded by {@link BinaryCodec}, so a catalog written before a card class changed is
+ * recognized by its fingerprint and ignored
+ */
+final class CardCatalogFormat {
+    static final String RESOURCE = "/server/cards.bin";
+    private static final int MAGIC = 0x4D4F5243;
+    private static final int VERSION = 1;
+    private static final List<Class<? extends LeaderCard>> LEADER_KINDS =
+            Arrays.asList(LeaderDepot.class, LeaderDiscount.class, LeaderMarble.class, LeaderProduction.class);
+    private static final List<Class<?>> CARD_CLASSES = Arrays.asList(DevelopmentCard.class, PowerOfProduction.class,
+            Requirement.class, CardRequirement.class, LeaderDepot.class, LeaderDiscount.class, LeaderMarble.class, LeaderProduction.class);
+
+    private CardCatalogFormat() {
+    }
+
+    /**
+     * Encodes a catalog
+     * @param catalog the catalog to encode
+     * @return the binary catalog
+     */
+    static byte[] write(CardCatalog catalog) {
+        BinaryCodec.Output output = new BinaryCodec.Output(8192);
+        output.writeVarLong(MAGIC);
+        output.writeVarLong(VERSION);
+        output.writeSignedVarInt(fingerprint());
+        for (int row = 0; row < CardCatalog.MAX_ROW; row++) {
+            for (int column = 0; column < CardCatalog.MAX_COLUMN; column++) {
+                List<DevelopmentCard> cell = catalog.getDevelopmentCards(row, column);
+                output.writeVarLong(cell.size());
+                for (DevelopmentCard developmentCard : cell) {
+                    writeBody(output, developmentCard);
+                }
+            }
+        }
+        List<LeaderCard> leaderCards = catalog.getLeaderCards();
+        output.writeVarLong(leaderCards.size());
+        for (LeaderCard leaderCard : leaderCards) {
+            int kind = LEADER_KINDS.indexOf(leaderCard.getClass());
+            if (kind < 0) {
+                throw new IllegalArgumentException("Unknown leader card " + leaderCard.getClass().getName());
+            }
+            output.writeVarLong(kind);
+            writeBody(output, leaderCard);
+        }
+        return output.toByteArray();
+    }
+
+    private static void writeBody(BinaryCodec.Output output, Object card) {
+        byte[] body = BinaryCodec.encodeBody(card);
+        output.writeBytes(body, 0, body.length);
+    }
+
+    /**
+     * Reads a catalog in one pass
+     * @param inputStream the stream of the binary catalog
+     * @return the decoded catalog
+     * @throws IOException if the stream cannot be read
+     * @throws IllegalArgumentException if the catalog is malformed or was written for other card classes
+     */
+    static CardCatalog read(InputStream inputStream) throws IOException, IllegalArgumentException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream(8192);
+        byte[] buffer = new byte[8192];
+        int count;
+        while ((count = inputStream.read(buffer)) != -1) {
+            content.write(buffer, 0, count);
+        }
+        byte[] bytes = content.toByteArray();
+        BinaryCodec.Input input = new BinaryCodec.Input(bytes, 0, bytes.length);
+        if (input.readVarLong() != MAGIC || input.readVarLong() != VERSION) {
+            throw new IllegalArgumentException("Unsupported format");
+        }
+        if (input.readSignedVarInt() != fingerprint()) {
+            throw new IllegalArgumentException("Card classes changed");
+        }
+        List<List<List<DevelopmentCard>>> rows = new ArrayList<>(CardCatalog.MAX_ROW);
+        for (int row = 0; row < CardCatalog.MAX_ROW; row++) {
+            List<List<DevelopmentCard>> columns = new ArrayList<>(CardCatalog.MAX_COLUMN);
+            for (int column = 0; column < CardCatalog.MAX_COLUMN; column++) {
+                int size = input.readSize();
+                List<DevelopmentCard> cell = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    cell.add(BinaryCodec.decodeBody(DevelopmentCard.class, input));
+                }
+                columns.add(cell);
+            }
+            rows.add(columns);
+        }
+        int size = input.readSize();
+        List<LeaderCard> leaderCards = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long kind = input.readVarLong();
+            if (kind < 0 || kind >= LEADER_KINDS.size()) {
+                throw new IllegalArgumentException("Invalid leader card");
+            }
+            leaderCards.add(BinaryCodec.decodeBody(LEADER_KINDS.get((int) kind), input));
+        }
+        if (input.hasRemaining()) {
+            throw new IllegalArgumentException("Unexpected content");
+        }
+        return new CardCatalog(leaderCards, rows);
+    }
+
+    //Hash of the names and types of the fields encoded, in the order used by BinaryCodec
+    private static int fingerprint() {
+        StringBuilder fields = new StringBuilder();
+        for (Class<?> cardClass : CARD_CLASSES) {
+            fields.append(cardClass.getName()).append('{');
+            for (Class<?> current = cardClass; current != Object.class; current = current.getSuperclass()) {
+                Field[] declaredFields = current.getDeclaredFields();
+                Arrays.sort(declaredFields, Comparator.comparing(Field::getName));
+                for (Field field : declaredFields) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers()) && !field.isSynthetic()) {
+                        fields.append(field.getName()).append(':').append(field.getGenericType().getTypeName()).append(';');
+                    }
+                }
+            }
+            fields.append('}');
+        }
+        return fields.toString().hashCode();
+    }
+}
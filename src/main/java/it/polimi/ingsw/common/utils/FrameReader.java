@@ -0,0 +1,83 @@
+package it.polimi.ingsw.common.utils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class reads from a stream either json lines or binary frames preceded by their length,
+ * so that a connection can switch from one to the other after the protocol has been negotiated
+ */
+public class FrameReader {
+    private static final int MAX_FRAME_LENGTH = 1 << 20;
+    private final InputStream in;
+    private final ByteArrayOutputStream lineBuffer;
+
+    /**
+     * Constructor of the reader
+     * @param inputStream the stream to read from
+     */
+    public FrameReader(InputStream inputStream) {
+        this.in = new BufferedInputStream(inputStream);
+        lineBuffer = new ByteArrayOutputStream(256);
+    }
+
+    /**
+     * Reads a line, without the line terminator
+     * @return the line read, or null if the stream has ended
+     * @throws IOException if the stream cannot be read
+     */
+    public String readLine() throws IOException {
+        lineBuffer.reset();
+        int current;
+        while ((current = in.read()) != -1) {
+            if (current == '\n') {
+                return toLine();
+            }
+            lineBuffer.write(current);
+        }
+        return lineBuffer.size() > 0 ? toLine() : null;
+    }
+
+    private String toLine(){
+        byte[] bytes = lineBuffer.toByteArray();
+        int length = bytes.length;
+        if (length > 0 && bytes[length - 1] == '\r') {
+            length--;
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a binary frame
+     * @return the content of the frame, without its length, or null if the stream has ended
+     * @throws IOException if the stream cannot be read or the frame is malformed
+     */
+    public byte[] readFrame() throws IOException {
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            int current = in.read();
+            if (current == -1) {
+                if (shift == 0) return null;
+                throw new EOFException();
+            }
+            length |= (current & 0x7F) << shift;
+            if ((current & 0x80) == 0) break;
+            if (shift >= 28) throw new IOException("Invalid frame length");
+        }
+        if (length < 0 || length > MAX_FRAME_LENGTH) {
+            throw new IOException("Invalid frame length");
+        }
+        byte[] frame = new byte[length];
+        int read = 0;
+        while (read < length) {
+            int count = in.read(frame, read, length - read);
+            if (count == -1) throw new EOFException();
+            read += count;
+        }
+        return frame;
+    }
+}
@@ -0,0 +1,233 @@
+package it.polimi.ingsw.common.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import it.polimi.ingsw.common.messages.Message;
+import it.polimi.ingsw.common.messages.MessageType;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * This class decodes json messages without knowing their type in advance.
+ * The type is read from the end of the message, where Gson writes it, or with a streaming reader if it is elsewhere,
+ * then the message is bound by the type adapter registered for that type.
+ * Once registered all the types, a decoder can be shared by many threads
+ * @param <T> the kind of messages decoded
+ */
+public class MessageDecoder<T extends Message> {
+    private static final String TYPE_FIELD = "messageType";
+    private static final String MESSAGES_FIELD = "messages";
+    private static final String TYPE_KEY = "\"" + TYPE_FIELD + "\":\"";
+    private final Gson gson;
+    private final Map<MessageType, TypeAdapter<? extends T>> adapters;
+    private final Map<MessageType, Class<? extends T>> classes;
+    private final Map<MessageType, T> sharedMessages;
+    private final Map<MessageType, Function<List<T>, T>> composites;
+
+    /**
+     * Constructor of the decoder
+     */
+    public MessageDecoder() {
+        gson = new Gson();
+        adapters = new EnumMap<>(MessageType.class);
+        classes = new EnumMap<>(MessageType.class);
+        sharedMessages = new EnumMap<>(MessageType.class);
+        composites = new EnumMap<>(MessageType.class);
+    }
+
+    /**
+     * Registers the class used to decode a type of message
+     * @param messageType the type of the message
+     * @param messageClass the class of the message
+     * @return this decoder
+     */
+    public MessageDecoder<T> register(MessageType messageType, Class<? extends T> messageClass){
+        adapters.put(messageType, gson.getAdapter(messageClass));
+        classes.put(messageType, messageClass);
+        return this;
+    }
+
+    /**
+     * Registers a message without content, every message of its type is decoded into the same instance
+     * @param messageType the type of the message
+     * @param message the instance returned for the type
+     * @return this decoder
+     */
+    public MessageDecoder<T> registerShared(MessageType messageType, T message){
+        sharedMessages.put(messageType, message);
+        return this;
+    }
+
+    /**
+     * Registers a message that groups other messages, its json has the grouped messages in the field "messages"
+     * @param messageType the type of the message
+     * @param factory the function that builds the message from the grouped ones
+     * @return this decoder
+     */
+    public MessageDecoder<T> registerComposite(MessageType messageType, Function<List<T>, T> factory){
+        composites.put(messageType, factory);
+        return this;
+    }
+
+    /**
+     * Reads the type of a message, the other fields are skipped without being parsed
+     * @param json the json message
+     * @return the type of the message
+     * @throws JsonParseException if the json is malformed or has no valid type
+     */
+    public MessageType readType(String json) throws JsonParseException {
+        JsonReader reader = newReader(json);
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals(TYPE_FIELD) && reader.peek() == JsonToken.STRING) {
+                    return MessageType.valueOf(reader.nextString());
+                }
+                reader.skipValue();
+            }
+        } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+            throw new JsonParseException("Invalid message: " + e.getMessage());
+        }
+        throw new JsonParseException("Missing message type");
+    }
+
+    /**
+     * Decodes a message
+     * @param json the json message
+     * @return the decoded message, of the class registered for its type
+     * @throws JsonParseException if the json is malformed or its type is not registered
+     */
+    public T decode(String json) throws JsonParseException {
+        MessageType messageType = typeAtEnd(json);
+        if (messageType == null) {
+            messageType = readType(json);
+        }
+        T sharedMessage = sharedMessages.get(messageType);
+        if (sharedMessage != null) {
+            return sharedMessage;
+        }
+        if (composites.containsKey(messageType)) {
+            return decodeComposite(messageType, json);
+        }
+        TypeAdapter<? extends T> adapter = adapters.get(messageType);
+        if (adapter == null) {
+            throw new JsonParseException("Unexpected message type: " + messageType);
+        }
+        try {
+            return adapter.read(newReader(json));
+        } catch (IOException | IllegalStateException e) {
+            throw new JsonParseException("Invalid message: " + e.getMessage());
+        }
+    }
+
+    //Gson writes the fields of the superclass last, so the type of a message it serialized closes the outer object:
+    //reading it from there spares a pass over the whole message. Returns null if the json does not end with the type
+    private static MessageType typeAtEnd(String json) {
+        int end = json.length();
+        while (end > 0 && Character.isWhitespace(json.charAt(end - 1))) {
+            end--;
+        }
+        if (end < 2 || json.charAt(end - 1) != '}' || json.charAt(end - 2) != '"') {
+            return null;
+        }
+        int nameEnd = end - 2;
+        int nameStart = nameEnd;
+        while (nameStart > 0 && (Character.isUpperCase(json.charAt(nameStart - 1)) || json.charAt(nameStart - 1) == '_')) {
+            nameStart--;
+        }
+        int keyStart = nameStart - TYPE_KEY.length();
+        //the key must follow another field or open the object, a quote inside a string value is always escaped
+        if (nameStart == nameEnd || keyStart < 1 || !json.startsWith(TYPE_KEY, keyStart)
+                || (json.charAt(keyStart - 1) != ',' && json.charAt(keyStart - 1) != '{')) {
+            return null;
+        }
+        try {
+            return MessageType.valueOf(json.substring(nameStart, nameEnd));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    //The grouped messages are bound from the parsed tree, a composite cannot contain other composites
+    private T decodeComposite(MessageType messageType, String json) throws JsonParseException {
+        List<T> messages = new ArrayList<>();
+        try {
+            JsonObject object = JsonParser.parseString(json).getAsJsonObject();
+            for (JsonElement element : object.getAsJsonArray(MESSAGES_FIELD)) {
+                MessageType partType = MessageType.valueOf(element.getAsJsonObject().get(TYPE_FIELD).getAsString());
+                T sharedMessage = sharedMessages.get(partType);
+                TypeAdapter<? extends T> adapter = adapters.get(partType);
+                if (sharedMessage == null && adapter == null) {
+                    throw new JsonParseException("Unexpected message type: " + partType);
+                }
+                messages.add(sharedMessage != null ? sharedMessage : adapter.fromJsonTree(element));
+            }
+        } catch (IllegalStateException | IllegalArgumentException | NullPointerException | ClassCastException e) {
+            throw new JsonParseException("Invalid message: " + e.getMessage());
+        }
+        return composites.get(messageType).apply(messages);
+    }
+
+    /**
+     * Decodes the content of a message received with the binary protocol
+     * @param messageType the type of the message
+     * @param input the input positioned at the beginning of the content
+     * @return the decoded message, of the class registered for its type
+     * @throws IllegalArgumentException if the content is malformed or the type is not registered
+     */
+    public T decodeBinary(MessageType messageType, BinaryCodec.Input input) throws IllegalArgumentException {
+        T sharedMessage = sharedMessages.get(messageType);
+        if (sharedMessage != null) {
+            return sharedMessage;
+        }
+        Class<? extends T> messageClass = classes.get(messageType);
+        if (messageClass == null) {
+            throw new IllegalArgumentException("Unexpected message type: " + messageType);
+        }
+        return BinaryCodec.decodeBody(messageClass, input);
+    }
+
+    /**
+     * @param messageType the type of the message
+     * @return true if the message groups other messages
+     */
+    public boolean isComposite(MessageType messageType){
+        return composites.containsKey(messageType);
+    }
+
+    /**
+     * Builds a message that groups other messages
+     * @param messageType the type of the message
+     * @param messages the grouped messages
+     * @return the built message
+     */
+    public T composite(MessageType messageType, List<T> messages){
+        return composites.get(messageType).apply(messages);
+    }
+
+    /**
+     * @param messageType the type of the message
+     * @return true if every message of the type is decoded into the same instance
+     */
+    public boolean isShared(MessageType messageType){
+        return sharedMessages.containsKey(messageType);
+    }
+
+    private static JsonReader newReader(String json){
+        JsonReader reader = new JsonReader(new StringReader(json));
+        reader.setLenient(true);
+        return reader;
+    }
+}
@@ -1,5 +1,7 @@
 package it.polimi.ingsw.common.utils.observe;
 
+import it.polimi.ingsw.common.messages.Audience;
+import it.polimi.ingsw.common.messages.EncodedMessage;
 import it.polimi.ingsw.common.messages.messagesToClient.MessageToClient;
 
 import java.util.ArrayList;
@@ -38,12 +40,17 @@ public class MessageObservable {
     }
 
     /**
-     * Notifies all observers with a message
-     * @param message Message notified to all observers
+     * Notifies the observers in the audience of the message, the message is serialized at most once for all of them
+     * and only if a remote observer receives it
+     * @param message Message notified to the observers
      */
     public void notifyObservers(MessageToClient message){
+        EncodedMessage encodedMessage = new EncodedMessage(message);
+        Audience audience = message.getMessageType().getAudience();
         for (MessageObserver messageObserver : messageObservers){
-            messageObserver.update(message);
+            if (audience.includes(message.getNickname(), messageObserver.getRecipient(), messageObserver.isSpectator())) {
+                messageObserver.update(encodedMessage);
+            }
         }
     }
 
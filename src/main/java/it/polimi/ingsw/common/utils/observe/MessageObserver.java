@@ -1,5 +1,6 @@
 package it.polimi.ingsw.common.utils.observe;
 
+import it.polimi.ingsw.common.messages.EncodedMessage;
 import it.polimi.ingsw.common.messages.messagesToClient.MessageToClient;
 import it.polimi.ingsw.server.model.ObservableGameEnder;
 
@@ -12,4 +13,29 @@ public interface MessageObserver {
      * @param message Message notified by {@link ObservableGameEnder}
      */
     void update(MessageToClient message);
+
+    /**
+     * Receives a broadcast message from Observable, by default the message is handled as an object.
+     * Remote observers override it to reuse the payload serialized once for every recipient
+     * @param encodedMessage Message notified by {@link MessageObservable#notifyObservers(MessageToClient)}
+     */
+    default void update(EncodedMessage encodedMessage){
+        update(encodedMessage.getMessage());
+    }
+
+    /**
+     * Method used to route the updates about the private state of a player
+     * @return the nickname of the player that receives the updates, null if the observer receives every update
+     */
+    default String getRecipient(){
+        return null;
+    }
+
+    /**
+     * Method used to route the updates that a player shares with the observers that do not play
+     * @return true if the observer follows the match without playing
+     */
+    default boolean isSpectator(){
+        return false;
+    }
 }
@@ -0,0 +1,102 @@
+package it.polimi.ingsw.common.utils.observe;
+
+import it.polimi.ingsw.common.messages.EncodedMessage;
+import it.polimi.ingsw.common.messages.MessageType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class collects the messages notified while a command is handled, so that every observer receives them at the end
+ * of the command in a single batch. The snapshots superseded by a newer snapshot of the same element, and the changes
+ * that precede it, are not sent.
+ * A transaction is bound to the thread that opened it
+ */
+public final class NotificationTransaction {
+    private static final ThreadLocal<NotificationTransaction> current = new ThreadLocal<>();
+    private final Map<MessageObserver, List<EncodedMessage>> pending;
+
+    private NotificationTransaction() {
+        pending = new LinkedHashMap<>();
+    }
+
+    /**
+     * Runs a task inside a transaction, the messages notified by the task are delivered when it ends, even if it throws.
+     * If a transaction is already open the task joins it
+     * @param task the task to run
+     */
+    public static void run(Runnable task){
+        if (current.get() != null) {
+            task.run();
+            return;
+        }
+        NotificationTransaction transaction = new NotificationTransaction();
+        current.set(transaction);
+        try {
+            task.run();
+        } finally {
+            current.remove();
+            transaction.flush();
+        }
+    }
+
+    /**
+     * Delays a message until the end of the transaction of the current thread
+     * @param messageObserver the observer of the message
+     * @param encodedMessage the message notified
+     * @return true if the message has been delayed, false if no transaction is open and the message has to be delivered now
+     */
+    public static boolean defer(MessageObserver messageObserver, EncodedMessage encodedMessage){
+        NotificationTransaction transaction = current.get();
+        if (transaction == null) {
+            return false;
+        }
+        transaction.pending.computeIfAbsent(messageObserver, observer -> new ArrayList<>()).add(encodedMessage);
+        return true;
+    }
+
+    private void flush(){
+        for (Map.Entry<MessageObserver, List<EncodedMessage>> entry : pending.entrySet()) {
+            List<EncodedMessage> messages = collapse(entry.getValue());
+            if (messages.size() == 1) {
+                entry.getKey().update(messages.get(0));
+            } else if (!messages.isEmpty()) {
+                entry.getKey().update(EncodedMessage.batch(messages));
+            }
+        }
+    }
+
+    /**
+     * Removes the messages about an element of the game that are followed by a snapshot of the same element
+     * @param messages the messages in the order they were notified
+     * @return the messages to deliver, in the same order
+     */
+    static List<EncodedMessage> collapse(List<EncodedMessage> messages){
+        Map<MessageType, Set<String>> snapshotted = new EnumMap<>(MessageType.class);
+        List<EncodedMessage> kept = new ArrayList<>(messages.size());
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            EncodedMessage encodedMessage = messages.get(i);
+            MessageType messageType = encodedMessage.getMessage().getMessageType();
+            MessageType snapshotType = messageType.getSnapshotType();
+            if (snapshotType != null) {
+                Set<String> owners = snapshotted.computeIfAbsent(snapshotType, type -> new HashSet<>());
+                String owner = encodedMessage.getMessage().getNickname();
+                if (owners.contains(owner)) {
+                    continue;
+                }
+                if (messageType.isSnapshot()) {
+                    owners.add(owner);
+                }
+            }
+            kept.add(encodedMessage);
+        }
+        Collections.reverse(kept);
+        return kept;
+    }
+}
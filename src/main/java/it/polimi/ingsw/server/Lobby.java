@@ -1,8 +1,11 @@
 package it.polimi.ingsw.server;
 
+import it.polimi.ingsw.common.utils.CardCatalog;
 import it.polimi.ingsw.server.controller.Controller;
+import it.polimi.ingsw.server.controller.MatchRecorder;
 import it.polimi.ingsw.server.view.VirtualView;
 
+import java.nio.file.Path;
 import java.util.*;
 
 /**
@@ -13,6 +16,8 @@ public class Lobby {
     private Controller currSetupMatch;
     private int remainingFreeSlots;
     private Boolean demo;
+    private final MatchPool matchPool;
+    private final Path recordDirectory;
 
 
     /**
@@ -20,12 +25,41 @@ public class Lobby {
      * @param demo True if the server is in demo mode and every match will be created in demo mode
      */
     public Lobby(Boolean demo) {
+        this(demo, null);
+    }
+
+    /**
+     * Constructor of lobby class that records the matches
+     * @param demo True if the server is in demo mode and every match will be created in demo mode
+     * @param recordDirectory the directory where the log of every match is written, null to not record the matches
+     */
+    public Lobby(Boolean demo, Path recordDirectory) {
         this.demo = demo;
+        this.recordDirectory = recordDirectory;
+        //the cards are loaded before the first match is created
+        CardCatalog.getInstance();
+        matchPool = new MatchPool(demo);
         remainingFreeSlots = 0;
         currSetupMatch = new Controller(demo, this);
         waitingQueue = new LinkedList<>();
     }
 
+    /**
+     * Creates the recorder of a new match
+     * @return the recorder of the match, null if the matches are not recorded
+     */
+    public MatchRecorder newRecorder() {
+        return recordDirectory == null ? null : MatchRecorder.create(recordDirectory);
+    }
+
+    /**
+     * Getter for the pool of the ready matches, shared by every controller of the lobby
+     * @return the pool of the matches
+     */
+    public MatchPool getMatchPool() {
+        return matchPool;
+    }
+
     /**
      * Method used to get the controller of an available match or add a client to the waiting queue if a player is choosing the number of players
      * @param newClient Client that requests to play
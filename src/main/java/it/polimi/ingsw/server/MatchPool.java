@@ -0,0 +1,146 @@
+package it.polimi.ingsw.server;
+
+import it.polimi.ingsw.server.model.Match;
+import it.polimi.ingsw.server.model.MatchRandom;
+import it.polimi.ingsw.server.model.SoloMatch;
+import it.polimi.ingsw.server.model.exceptions.InvalidParameterException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * Class that keeps ready matches, with shuffled decks, market and card grid, for every number of players.
+ * The matches are built by a background thread, so a controller claims one without building it.
+ * The number of matches kept for a number of players follows how many of them were claimed recently
+ */
+public class MatchPool {
+    private static final Logger LOGGER = Logger.getLogger(MatchPool.class.getName());
+    private static final int MAX_PLAYERS = 4;
+    private static final int MIN_SIZE = 1;
+    private static final int MAX_SIZE = 16;
+    private static final long RATE_WINDOW_MILLIS = 10_000;
+    private final boolean demo;
+    private final Queue<Match>[] readyMatches;
+    private final Deque<Long>[] recentClaims;
+    private final ExecutorService builder;
+    private final AtomicBoolean refillScheduled;
+
+    /**
+     * Constructor of the pool, the first matches are built immediately in background
+     * @param demo true if the matches are created in demo mode
+     */
+    @SuppressWarnings("unchecked")
+    public MatchPool(boolean demo) {
+        this.demo = demo;
+        readyMatches = new Queue[MAX_PLAYERS + 1];
+        recentClaims = new Deque[MAX_PLAYERS + 1];
+        for (int numOfPlayers = 1; numOfPlayers <= MAX_PLAYERS; numOfPlayers++) {
+            readyMatches[numOfPlayers] = new ConcurrentLinkedQueue<>();
+            recentClaims[numOfPlayers] = new ArrayDeque<>();
+        }
+        builder = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "match-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refillScheduled = new AtomicBoolean(false);
+        scheduleRefill();
+    }
+
+    /**
+     * Takes a ready match, if there is none the match is built by the calling thread
+     * @param numOfPlayers the number of players of the match
+     * @return a match that has never been used
+     * @throws InvalidParameterException if the number of players is not valid
+     */
+    public Match claim(int numOfPlayers) throws InvalidParameterException {
+        if (numOfPlayers < 1 || numOfPlayers > MAX_PLAYERS) {
+            return newMatch(numOfPlayers, demo);
+        }
+        recordClaim(numOfPlayers);
+        Match match = readyMatches[numOfPlayers].poll();
+        //the builder is woken when half of the pool has been used, so that it builds the missing matches in one go
+        if (match == null || readyMatches[numOfPlayers].size() * 2 < targetSize(numOfPlayers)) {
+            scheduleRefill();
+        }
+        return match != null ? match : newMatch(numOfPlayers, demo);
+    }
+
+    /**
+     * Builds a new match
+     * @param numOfPlayers the number of players of the match
+     * @param demo true to create the match in demo mode
+     * @return the new match, a solo match if there is one player
+     * @throws InvalidParameterException if the number of players is not valid
+     */
+    public static Match newMatch(int numOfPlayers, boolean demo) throws InvalidParameterException {
+        return newMatch(numOfPlayers, demo, new MatchRandom());
+    }
+
+    /**
+     * Builds a new match whose random choices are made by a given generator
+     * @param numOfPlayers the number of players of the match
+     * @param demo true to create the match in demo mode
+     * @param random the generator of the match
+     * @return the new match, a solo match if there is one player
+     * @throws InvalidParameterException if the number of players is not valid
+     */
+    public static Match newMatch(int numOfPlayers, boolean demo, MatchRandom random) throws InvalidParameterException {
+        if (numOfPlayers == 1)
+            return new SoloMatch(1, demo, random);
+        return new Match(1, numOfPlayers, demo, random);
+    }
+
+    /**
+     * Getter for the number of ready matches
+     * @param numOfPlayers the number of players of the matches
+     * @return the number of matches that can be claimed without being built
+     */
+    public int getReadyMatches(int numOfPlayers) {
+        return readyMatches[numOfPlayers].size();
+    }
+
+    private void recordClaim(int numOfPlayers) {
+        Deque<Long> claims = recentClaims[numOfPlayers];
+        synchronized (claims) {
+            claims.addLast(System.currentTimeMillis());
+        }
+    }
+
+    //The matches claimed in the last window are kept ready, so a burst of the same size is served from the pool
+    private int targetSize(int numOfPlayers) {
+        Deque<Long> claims = recentClaims[numOfPlayers];
+        long windowStart = System.currentTimeMillis() - RATE_WINDOW_MILLIS;
+        synchronized (claims) {
+            while (!claims.isEmpty() && claims.peekFirst() < windowStart) {
+                claims.removeFirst();
+            }
+            return Math.max(MIN_SIZE, Math.min(MAX_SIZE, claims.size()));
+        }
+    }
+
+    private void scheduleRefill() {
+        if (refillScheduled.compareAndSet(false, true)) {
+            builder.execute(this::refill);
+        }
+    }
+
+    private void refill() {
+        refillScheduled.set(false);
+        try {
+            for (int numOfPlayers = 1; numOfPlayers <= MAX_PLAYERS; numOfPlayers++) {
+                while (readyMatches[numOfPlayers].size() < targetSize(numOfPlayers)) {
+                    readyMatches[numOfPlayers].offer(newMatch(numOfPlayers, demo));
+                }
+            }
+        } catch (InvalidParameterException | RuntimeException e) {
+            LOGGER.warning("Cannot prepare a match: " + e.getMessage());
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package it.polimi.ingsw.server;
 
-import it.polimi.ingsw.server.view.VirtualView;
-import it.polimi.ingsw.server.controller.Controller;
+import it.polimi.ingsw.server.controller.MatchReplay;
+import it.polimi.ingsw.server.view.NioEventLoop;
+import it.polimi.ingsw.server.view.OutboundQueue;
+import it.polimi.ingsw.server.view.SocketVirtualView;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -16,6 +23,11 @@ public class ServerMain {
     private static final String PORT_ARGUMENT = "-port";
     private static final String HELP_ARGUMENT = "-help";
     private static final String DEMO_ARGUMENT = "-demo";
+    private static final String NIO_ARGUMENT = "-nio";
+    private static final String OUTBOUND_LIMIT_ARGUMENT = "-outboundLimit";
+    private static final String SLOW_CONSUMER_ARGUMENT = "-slowConsumer";
+    private static final String RECORD_ARGUMENT = "-record";
+    private static final String REPLAY_ARGUMENT = "-replay";
     private static final int DEFAULT_PORT = 1334;
     private static final int MIN_PORT = 1024;
     private static final int MAX_PORT = 65535;
@@ -23,9 +35,12 @@ public class ServerMain {
 
     private static int portNumber;
     private Lobby lobby;
+    private int outboundHighWaterMark = OutboundQueue.DEFAULT_HIGH_WATER_MARK;
+    private OutboundQueue.SlowConsumerPolicy slowConsumerPolicy = OutboundQueue.SlowConsumerPolicy.DISCONNECT;
+    private Path recordDirectory;
 
     public void startServer(Boolean demo) {
-        lobby = new Lobby(demo);
+        lobby = new Lobby(demo, recordDirectory);
         ExecutorService executor = Executors.newCachedThreadPool();
         ServerSocket serverSocket;
 
@@ -42,7 +57,7 @@ public class ServerMain {
             try {
                 clientSocket = serverSocket.accept();
                 ServerMain.LOGGER.info("Accepted client. Address: " + clientSocket.getInetAddress().getHostAddress() + " PortName: " + clientSocket.getPort());
-                executor.submit(new VirtualView(clientSocket, lobby));
+                executor.submit(new SocketVirtualView(clientSocket, lobby, new OutboundQueue(outboundHighWaterMark, slowConsumerPolicy)));
             } catch (IOException e) {
                 break;
             }
@@ -50,15 +65,62 @@ public class ServerMain {
         executor.shutdown();
     }
 
+    /**
+     * Method used to start the server with the non-blocking engine, every accepted client is served by one of the event loops
+     * @param demo True if every match will be created in demo mode
+     * @param numOfEventLoops The number of event loop threads
+     */
+    public void startNioServer(Boolean demo, int numOfEventLoops) {
+        lobby = new Lobby(demo, recordDirectory);
+        ServerSocketChannel serverChannel;
+        NioEventLoop[] eventLoops = new NioEventLoop[numOfEventLoops];
+
+        try {
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(portNumber));
+            for (int i = 0; i < numOfEventLoops; i++) {
+                eventLoops[i] = new NioEventLoop(lobby, outboundHighWaterMark, slowConsumerPolicy);
+                Thread eventLoopThread = new Thread(eventLoops[i], "event-loop-" + i);
+                eventLoopThread.start();
+            }
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+        ServerMain.LOGGER.info("Server ready, event loops: " + numOfEventLoops);
+        SocketChannel clientChannel;
+        int nextLoop = 0;
+        ServerMain.LOGGER.info("Accepting..");
+        while (true) {
+            try {
+                clientChannel = serverChannel.accept();
+                Socket clientSocket = clientChannel.socket();
+                ServerMain.LOGGER.info("Accepted client. Address: " + clientSocket.getInetAddress().getHostAddress() + " PortName: " + clientSocket.getPort());
+                //connections are spread among the event loops in round robin
+                eventLoops[nextLoop].register(clientChannel);
+                nextLoop = (nextLoop + 1) % numOfEventLoops;
+            } catch (IOException e) {
+                break;
+            }
+        }
+    }
+
     public void start(String[] args) {
 
         List<String> arguments = new ArrayList<>(Arrays.asList(args));
         boolean demo = false;
+        boolean nio = false;
+        int numOfEventLoops = Runtime.getRuntime().availableProcessors();
 
         if(arguments.contains(HELP_ARGUMENT)) {
             String helpString = "The default server port is " + DEFAULT_PORT + "\n\n" +
                     "Here is a list of all the available commands:\n" +
                     "-port: followed by the desired port number between " + MIN_PORT + " and " + MAX_PORT + " as argument\n" +
+                    "-nio: to serve clients with the non-blocking engine, optionally followed by the number of event loops\n" +
+                    "-outboundLimit: followed by the maximum number of messages waiting to be sent to a client (default " + OutboundQueue.DEFAULT_HIGH_WATER_MARK + ")\n" +
+                    "-slowConsumer: followed by disconnect or drop, what to do with clients exceeding the limit (default disconnect)\n" +
+                    "-record: followed by a directory, to write there the seed and the messages of every match\n" +
+                    "-replay: followed by the log of a recorded match, to play it again and print the digest of its updates\n" +
                     "-help: to get help\n";
             System.out.println(helpString);
             return;
@@ -79,9 +141,73 @@ public class ServerMain {
         }
         if(arguments.contains(DEMO_ARGUMENT))
             demo = true;
+        if(arguments.contains(NIO_ARGUMENT)){
+            nio = true;
+            int index = arguments.indexOf(NIO_ARGUMENT) + 1;
+            if(index < arguments.size() && !arguments.get(index).startsWith("-")){
+                try {
+                    numOfEventLoops = Integer.parseInt(arguments.get(index));
+                }catch(NumberFormatException numberFormatException) {
+                    System.out.println("Invalid nio argument, insert " + HELP_ARGUMENT + " to see correct instruction.");
+                    return;
+                }
+                if (numOfEventLoops < 1) {
+                    System.out.println("Invalid number of event loops, insert " + HELP_ARGUMENT + " to see correct instruction.");
+                    return;
+                }
+            }
+        }
+
+        if(arguments.contains(OUTBOUND_LIMIT_ARGUMENT)){
+            try {
+                outboundHighWaterMark = Integer.parseInt(args[arguments.indexOf(OUTBOUND_LIMIT_ARGUMENT) + 1]);
+            }catch(NumberFormatException | ArrayIndexOutOfBoundsException exception) {
+                System.out.println("Invalid outbound limit argument, insert " + HELP_ARGUMENT + " to see correct instruction.");
+                return;
+            }
+            if (outboundHighWaterMark < 1) {
+                System.out.println("Invalid outbound limit, insert " + HELP_ARGUMENT + " to see correct instruction.");
+                return;
+            }
+        }
+        if(arguments.contains(SLOW_CONSUMER_ARGUMENT)){
+            int index = arguments.indexOf(SLOW_CONSUMER_ARGUMENT) + 1;
+            String policy = index < arguments.size() ? arguments.get(index) : "";
+            if(policy.equals("disconnect"))
+                slowConsumerPolicy = OutboundQueue.SlowConsumerPolicy.DISCONNECT;
+            else if(policy.equals("drop"))
+                slowConsumerPolicy = OutboundQueue.SlowConsumerPolicy.DROP_SUPERSEDED;
+            else{
+                System.out.println("Invalid slow consumer argument, insert " + HELP_ARGUMENT + " to see correct instruction.");
+                return;
+            }
+        }
+        if(arguments.contains(REPLAY_ARGUMENT)){
+            int index = arguments.indexOf(REPLAY_ARGUMENT) + 1;
+            if(index >= arguments.size()){
+                System.out.println("Invalid replay argument, insert " + HELP_ARGUMENT + " to see correct instruction.");
+                return;
+            }
+            try {
+                System.out.println(new MatchReplay().replay(Paths.get(arguments.get(index))));
+            } catch (IOException | IllegalArgumentException exception) {
+                System.out.println("Cannot replay the match: " + exception.getMessage());
+            }
+            return;
+        }
+        if(arguments.contains(RECORD_ARGUMENT)){
+            int index = arguments.indexOf(RECORD_ARGUMENT) + 1;
+            if(index >= arguments.size() || arguments.get(index).startsWith("-")){
+                System.out.println("Invalid record argument, insert " + HELP_ARGUMENT + " to see correct instruction.");
+                return;
+            }
+            recordDirectory = Paths.get(arguments.get(index));
+        }
 
         System.out.println("Server started!");
 
-        startServer(demo);
+        if(nio)
+            startNioServer(demo, numOfEventLoops);
+        else startServer(demo);
     }
 }
\ No newline at end of file
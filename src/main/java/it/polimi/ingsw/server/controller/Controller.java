@@ -1,28 +1,43 @@
 package it.polimi.ingsw.server.controller;
 
+import it.polimi.ingsw.common.messages.Audience;
+import it.polimi.ingsw.common.messages.MessageType;
+import it.polimi.ingsw.common.messages.messagesToClient.DisconnectedUpdate;
 import it.polimi.ingsw.common.messages.messagesToClient.ErrorMessage;
 import it.polimi.ingsw.common.messages.messagesToClient.FirstConnectedUpdate;
 import it.polimi.ingsw.common.View;
 import it.polimi.ingsw.common.messages.messagesToClient.MainTurnActionDoneUpdate;
+import it.polimi.ingsw.common.messages.messagesToServer.MessageToServer;
 import it.polimi.ingsw.common.utils.observe.MessageObservable;
+import it.polimi.ingsw.common.utils.observe.NotificationTransaction;
 import it.polimi.ingsw.server.Lobby;
+import it.polimi.ingsw.server.MatchPool;
 import it.polimi.ingsw.server.model.Match;
+import it.polimi.ingsw.server.model.MatchRandom;
 import it.polimi.ingsw.server.model.PersonalBoard;
-import it.polimi.ingsw.server.model.SoloMatch;
+import it.polimi.ingsw.server.model.ProductionRequest;
+import it.polimi.ingsw.server.model.enumerations.ActionResult;
 import it.polimi.ingsw.server.model.enumerations.MatchPhase;
+import it.polimi.ingsw.server.model.enumerations.PaymentPolicy;
 import it.polimi.ingsw.server.model.enumerations.PersonalBoardPhase;
 import it.polimi.ingsw.server.model.enumerations.Resource;
 import it.polimi.ingsw.server.model.exceptions.*;
+import java.util.List;
 import java.util.Map;
 
 /**
- * Class that receives messages from the view and modifies the state of the state of the model
+ * Class that receives messages from the view and modifies the state of the state of the model.
+ * Messages are queued in a {@link Mailbox} and handled one at a time, so the model is never modified by two threads at once.
+ * The updates caused by a message are collected in a {@link NotificationTransaction} and sent together when it has been handled
  */
 public class Controller extends MessageObservable{
-    private Match match;
-    private Boolean firstConnected;
+    private volatile Match match;
+    private volatile Boolean firstConnected;
     private final Boolean demo;
     private Lobby lobby;
+    private final Mailbox mailbox;
+    private final MatchRandom replayRandom;
+    private MatchRecorder recorder;
 
     /**
      * Constructor for the online game implementing multiple matches
@@ -32,6 +47,7 @@ public class Controller extends MessageObservable{
     public Controller(Boolean demo, Lobby lobby) {
         this(demo);
         this.lobby = lobby;
+        this.recorder = lobby.newRecorder();
     }
 
     /**
@@ -39,26 +55,84 @@ public class Controller extends MessageObservable{
      * @param demo true to enable the demo mode
      */
     public Controller(Boolean demo){
+        this(demo, (MatchRandom) null);
+    }
+
+    /**
+     * Constructor for a controller that replays a recorded match
+     * @param demo true if the recorded match was in demo mode
+     * @param replayRandom the generator of the match, created with the recorded seed
+     */
+    Controller(Boolean demo, MatchRandom replayRandom){
         this.demo = demo;
+        this.replayRandom = replayRandom;
         firstConnected = false;
+        mailbox = new Mailbox();
+    }
+
+    /**
+     * Queues a message to be handled by the controller, if the mailbox is full the message is rejected
+     * @param message the message received from the client
+     * @param view the view of the client that sends the message
+     */
+    public void dispatch(MessageToServer message, View view){
+        if(!mailbox.offer(() -> {
+            if(recorder != null) recorder.recordMessage(view, message);
+            NotificationTransaction.run(() -> message.handleMessage(this, view));
+        })){
+            view.update(new ErrorMessage(message.getNickname(), "The server is busy, try again"));
+        }
+    }
+
+    /**
+     * Handles the disconnection of a client
+     * @param view the view associated with the disconnected client
+     * @param nickname the nickname of the disconnected client, null if not yet chosen
+     */
+    public void disconnect(View view, String nickname){
+        mailbox.put(() -> {
+            if(recorder != null) recorder.recordDisconnection(view, nickname);
+            this.removeObserver(view);
+            this.notifyObservers(new DisconnectedUpdate(nickname));
+        });
+    }
+
+    /**
+     * Method used to get the mailbox of the controller, to monitor its queue depth
+     * @return the mailbox of the controller
+     */
+    public Mailbox getMailbox() {
+        return mailbox;
     }
 
     /**
      * Handles the connections from the clients
      * @param view the view associated with the new client
      */
-    public synchronized void newConnection(View view){
-        this.addObserver(view);
+    public void newConnection(View view){
+        boolean first = claimFirstConnection();
+        mailbox.put(() -> {
+            if(recorder != null) recorder.recordConnection(view);
+            this.addObserver(view);
+            if(first){
+                view.update(new FirstConnectedUpdate(true));
+            }
+            else if (match != null)
+                view.update(new FirstConnectedUpdate(false));
+            else {
+                assert false;
+                view.update(new ErrorMessage(null, "The first connected player is choosing the number of players. Wait..."));
+            }
+        });
+    }
+
+    //The first connection is claimed immediately so that the lobby sees it before the connection is handled
+    private synchronized boolean claimFirstConnection(){
         if(!firstConnected){
             firstConnected = true;
-            view.update(new FirstConnectedUpdate(true));
-        }
-        else if (match != null)
-            view.update(new FirstConnectedUpdate(false));
-        else {
-            assert false;
-            view.update(new ErrorMessage(null, "The first connected player is choosing the number of players. Wait..."));
+            return true;
         }
+        return false;
     }
 
     /**
@@ -82,7 +156,7 @@ public class Controller extends MessageObservable{
      * @param nickname is the nickname to add to the match
      * @param view is the view of the client that sends the message
      */
-    public synchronized void handleNicknameReplyMessage(String nickname, View view){
+    public void handleNicknameReplyMessage(String nickname, View view){
         try {
             if(match.getMatchPhase() == MatchPhase.SETUP) {
                 match.addPlayer(nickname,view);
@@ -101,13 +175,17 @@ public class Controller extends MessageObservable{
      * @param nickname is the nickname of the first player
      * @param view is the view of the client that sends the message
      */
-    public synchronized void handleCreateMatchReplyMessage(int numOfPlayers,String nickname, View view){
+    public void handleCreateMatchReplyMessage(int numOfPlayers,String nickname, View view){
         try {
             if(match == null){
-                if(numOfPlayers == 1)
-                    match = new SoloMatch(1,demo);
+                //online matches are taken ready from the pool of the lobby
+                if(replayRandom != null)
+                    match = MatchPool.newMatch(numOfPlayers, demo, replayRandom);
+                else if(lobby != null)
+                    match = lobby.getMatchPool().claim(numOfPlayers);
                 else
-                    match = new Match(1,numOfPlayers,demo);
+                    match = MatchPool.newMatch(numOfPlayers, demo);
+                if(recorder != null) recorder.recordMatch(match.getRandom().getSeed(), demo);
                 //creates a player
                 handleNicknameReplyMessage(nickname,view);
                 firstConnected = true;
@@ -129,7 +207,7 @@ public class Controller extends MessageObservable{
      * @param nickname the nickname of the player that wants to activate the card
      * @param view is the view of the client that sends the message
      */
-    public synchronized void handleActivateLeader(int numLeaderCard, String nickname, View view){
+    public void handleActivateLeader(int numLeaderCard, String nickname, View view){
         try {
             if(match.getCurrentPlayer().getNickname().equals(nickname)
                 && (match.getCurrentPlayer().getPersonalBoard().getPersonalBoardPhase() == PersonalBoardPhase.MAIN_TURN_ACTION_AVAILABLE
@@ -150,7 +228,7 @@ public class Controller extends MessageObservable{
      * @param nickname is the nickname of the player that sends the message
      * @param view is the view of the client that sends the message
      */
-    public synchronized void handleTakeFromMarketMessage(int rowOrColumn, int value,String nickname, View view){
+    public void handleTakeFromMarketMessage(int rowOrColumn, int value,String nickname, View view){
         try{
             if((match.getMatchPhase() == MatchPhase.STANDARDROUND || match.getMatchPhase() == MatchPhase.LASTROUND)
                     && match.getCurrentPlayer().getNickname().equals(nickname)
@@ -172,7 +250,7 @@ public class Controller extends MessageObservable{
      * @param nickname is the nickname of the player that sends the message
      * @param view is the view of the client that sends the message
      */
-    public synchronized void handleTransformWhiteMarblesMessage(int leaderCard,int numOfTransformations, String nickname, View view){
+    public void handleTransformWhiteMarblesMessage(int leaderCard,int numOfTransformations, String nickname, View view){
         try{
             if((match.getMatchPhase() == MatchPhase.STANDARDROUND || match.getMatchPhase() == MatchPhase.LASTROUND)
                     && match.getCurrentPlayer().getNickname().equals(nickname)
@@ -192,7 +270,7 @@ public class Controller extends MessageObservable{
      * @param view is the view of the client that sends the message
      * @param nickname is the nickname of the player that sends the message
      */
-    public synchronized void handleTransformMarblesMessage(View view, String nickname){
+    public void handleTransformMarblesMessage(View view, String nickname){
         if((match.getMatchPhase() == MatchPhase.STANDARDROUND || match.getMatchPhase() == MatchPhase.LASTROUND)
                 && match.getCurrentPlayer().getNickname().equals(nickname)
                 && match.getCurrentPlayer().getPersonalBoard().getPersonalBoardPhase() == PersonalBoardPhase.TAKE_FROM_MARKET){
@@ -210,7 +288,7 @@ public class Controller extends MessageObservable{
      * @param indexLeaderCard1 The index of one of the two leader card to discard
      * @param indexLeaderCard2 The index of one of the two leader card to discard
      */
-    public synchronized void handleDiscardInitialLeaderMessage(View view, String nickname, int indexLeaderCard1, int indexLeaderCard2){
+    public void handleDiscardInitialLeaderMessage(View view, String nickname, int indexLeaderCard1, int indexLeaderCard2){
         if (match.getMatchPhase() != MatchPhase.LEADERCHOICE){
             view.update(new ErrorMessage(nickname, "Invalid command"));
             return;
@@ -241,7 +319,7 @@ public class Controller extends MessageObservable{
      * @param nickname Nickname of the player
      * @param resourceIntegerMap Map of the resources and their quantities chosen by player
      */
-    public synchronized void handleChooseInitialResourcesMessage(View view, String nickname, Map<Resource, Integer> resourceIntegerMap){
+    public void handleChooseInitialResourcesMessage(View view, String nickname, Map<Resource, Integer> resourceIntegerMap){
         if (match.getMatchPhase() != MatchPhase.RESOURCECHOICE){
             view.update(new ErrorMessage(nickname, "Invalid command"));
             return;
@@ -272,7 +350,7 @@ public class Controller extends MessageObservable{
      * @param depotLevel the depot to add the resources
      * @param singleResourceMap the map with the resource and the quantity to add to the depot
      */
-    public synchronized void handleAddToWarehouseMessage(View view, String nickname, int depotLevel, Map<Resource,Integer> singleResourceMap){
+    public void handleAddToWarehouseMessage(View view, String nickname, int depotLevel, Map<Resource,Integer> singleResourceMap){
         PersonalBoard personalBoard;
         try {
             personalBoard = match.getPlayer(nickname).getPersonalBoard();
@@ -302,7 +380,7 @@ public class Controller extends MessageObservable{
      * @param depot1 the first depot to swap
      * @param depot2 the second depot to swap
      */
-    public synchronized void handleSwapMessage(View view, String nickname, int depot1, int depot2){
+    public void handleSwapMessage(View view, String nickname, int depot1, int depot2){
         if(match.getMatchPhase() == MatchPhase.STANDARDROUND || match.getMatchPhase() == MatchPhase.LASTROUND){
             try {
                 match.getPlayer(nickname).getPersonalBoard().swapResourceStandardDepot(depot1,depot2);
@@ -324,7 +402,7 @@ public class Controller extends MessageObservable{
      * @param destinationDepotNumber the depot used to deposit the resources
      * @param quantity the quantity of resources to move
      */
-    public synchronized void handleMoveMessage(View view, String nickname, int sourceDepotNumber, int destinationDepotNumber, int quantity ){
+    public void handleMoveMessage(View view, String nickname, int sourceDepotNumber, int destinationDepotNumber, int quantity ){
         if(match.getMatchPhase() == MatchPhase.STANDARDROUND || match.getMatchPhase() == MatchPhase.LASTROUND){
             try {
                 match.getPlayer(nickname).getPersonalBoard().moveResourceSpecialDepot(sourceDepotNumber,destinationDepotNumber,quantity);
@@ -343,7 +421,7 @@ public class Controller extends MessageObservable{
      * @param nickname the nickname of the player
      * @param numLeaderCard the number of the leader card to discard
      */
-    public synchronized void handleDiscardLeaderMessage(View view, String nickname, int numLeaderCard){
+    public void handleDiscardLeaderMessage(View view, String nickname, int numLeaderCard){
         if((match.getMatchPhase() == MatchPhase.STANDARDROUND || match.getMatchPhase() == MatchPhase.LASTROUND)
             && match.getCurrentPlayer().getNickname().equals(nickname)
             && (match.getCurrentPlayer().getPersonalBoard().getPersonalBoardPhase() == PersonalBoardPhase.MAIN_TURN_ACTION_AVAILABLE
@@ -366,17 +444,14 @@ public class Controller extends MessageObservable{
      * @param costStrongbox a map of resources to get from the strongbox
      * @param costWarehouseDepot a map of resources to get from the warehouse depots
      * @param indexDevelopmentCardSpace the space of the development card space to take the power of production from. Ranges from 1 to 3
+     * @param paymentPolicy how to split the cost between warehouse and strongbox, null to use the given maps
      */
-    public synchronized void handleActivateCardProductionMessage(View view, String nickname, Map<Resource,Integer> costStrongbox, Map<Resource,Integer> costWarehouseDepot, int indexDevelopmentCardSpace){
+    public void handleActivateCardProductionMessage(View view, String nickname, Map<Resource,Integer> costStrongbox, Map<Resource,Integer> costWarehouseDepot, int indexDevelopmentCardSpace, PaymentPolicy paymentPolicy){
         if((match.getMatchPhase() == MatchPhase.STANDARDROUND || match.getMatchPhase() == MatchPhase.LASTROUND)
                 && match.getCurrentPlayer().getNickname().equals(nickname)
-                && match.getCurrentPlayer().getPersonalBoard().getPersonalBoardPhase() == PersonalBoardPhase.MAIN_TURN_ACTION_AVAILABLE
-                || match.getCurrentPlayer().getPersonalBoard().getPersonalBoardPhase() == PersonalBoardPhase.PRODUCTION){
-            try {
-                match.getCurrentPlayer().getPersonalBoard().activateCardProduction(costStrongbox,costWarehouseDepot,indexDevelopmentCardSpace);
-            } catch (InvalidProductionException | InvalidParameterException | InvalidCostException | InvalidRemovalException e) {
-                view.update(new ErrorMessage(nickname, e.getMessage()));
-            }
+                && (match.getCurrentPlayer().getPersonalBoard().getPersonalBoardPhase() == PersonalBoardPhase.MAIN_TURN_ACTION_AVAILABLE
+                || match.getCurrentPlayer().getPersonalBoard().getPersonalBoardPhase() == PersonalBoardPhase.PRODUCTION)){
+            reject(view, nickname, match.getCurrentPlayer().getPersonalBoard().tryActivateCardProduction(costStrongbox,costWarehouseDepot,indexDevelopmentCardSpace,paymentPolicy));
         }
         else {
             view.update(new ErrorMessage(nickname, "Invalid command in this phase of the match"));
@@ -390,17 +465,14 @@ public class Controller extends MessageObservable{
      * @param costStrongbox a map of resources to get from the strongbox
      * @param costWarehouseDepot a map of resources to get from the warehouse depots
      * @param resource the type of the resources to produce
+     * @param paymentPolicy how to split the sum of the two maps between warehouse and strongbox, null to use the given maps
      */
-    public synchronized void handleActivateBasicProductionMessage(View view, String nickname, Map<Resource,Integer> costStrongbox, Map<Resource,Integer> costWarehouseDepot, Resource resource){
+    public void handleActivateBasicProductionMessage(View view, String nickname, Map<Resource,Integer> costStrongbox, Map<Resource,Integer> costWarehouseDepot, Resource resource, PaymentPolicy paymentPolicy){
         if((match.getMatchPhase() == MatchPhase.STANDARDROUND || match.getMatchPhase() == MatchPhase.LASTROUND)
                 && match.getCurrentPlayer().getNickname().equals(nickname)
                 && (match.getCurrentPlayer().getPersonalBoard().getPersonalBoardPhase() == PersonalBoardPhase.MAIN_TURN_ACTION_AVAILABLE
                 || match.getCurrentPlayer().getPersonalBoard().getPersonalBoardPhase() == PersonalBoardPhase.PRODUCTION)){
-            try {
-                match.getCurrentPlayer().getPersonalBoard().activateBasicProduction(costStrongbox,costWarehouseDepot,resource);
-            } catch (InvalidProductionException | InvalidCostException | InvalidRemovalException e) {
-                view.update(new ErrorMessage(nickname, e.getMessage()));
-            }
+            reject(view, nickname, match.getCurrentPlayer().getPersonalBoard().tryActivateBasicProduction(costStrongbox,costWarehouseDepot,resource,paymentPolicy));
         }
         else {
             view.update(new ErrorMessage(nickname, "Invalid command in this phase of the match"));
@@ -415,16 +487,40 @@ public class Controller extends MessageObservable{
      * @param costWarehouseDepot a map of resources to get from the warehouse depots
      * @param numLeaderCard the number of the leader card to use
      * @param resource the type of resource to produce
+     * @param paymentPolicy how to split the cost between warehouse and strongbox, null to use the given maps
      */
-    public synchronized void handleActivateLeaderProductionMessage(View view, String nickname, Map<Resource,Integer> costStrongbox, Map<Resource,Integer> costWarehouseDepot, int numLeaderCard, Resource resource){
+    public void handleActivateLeaderProductionMessage(View view, String nickname, Map<Resource,Integer> costStrongbox, Map<Resource,Integer> costWarehouseDepot, int numLeaderCard, Resource resource, PaymentPolicy paymentPolicy){
         if((match.getMatchPhase() == MatchPhase.STANDARDROUND || match.getMatchPhase() == MatchPhase.LASTROUND)
                 && match.getCurrentPlayer().getNickname().equals(nickname)
                 && (match.getCurrentPlayer().getPersonalBoard().getPersonalBoardPhase() == PersonalBoardPhase.MAIN_TURN_ACTION_AVAILABLE
                 || match.getCurrentPlayer().getPersonalBoard().getPersonalBoardPhase() == PersonalBoardPhase.PRODUCTION)){
-            try {
-                match.getCurrentPlayer().getPersonalBoard().activateLeaderProduction(costStrongbox,costWarehouseDepot,numLeaderCard,resource);
-            } catch (InvalidProductionException | InvalidCostException | InvalidLeaderAction | InvalidRemovalException e) {
-                view.update(new ErrorMessage(nickname, e.getMessage()));
+            reject(view, nickname, match.getCurrentPlayer().getPersonalBoard().tryActivateLeaderProduction(costStrongbox,costWarehouseDepot,numLeaderCard,resource,paymentPolicy));
+        }
+        else {
+            view.update(new ErrorMessage(nickname, "Invalid command in this phase of the match"));
+        }
+    }
+
+    /**
+     * Handles an ActivateProductionsBatchMessage, the productions are done and ended with a single reply
+     * @param view is the view of the client that sends the message
+     * @param nickname the nickname of the player
+     * @param productions the productions to activate
+     * @param costStrongbox a map of resources to get from the strongbox for all the productions
+     * @param costWarehouseDepot a map of resources to get from the warehouse depots for all the productions
+     * @param paymentPolicy how to split the total cost between warehouse and strongbox, null to use the given maps
+     */
+    public void handleActivateProductionsBatchMessage(View view, String nickname, List<ProductionRequest> productions, Map<Resource,Integer> costStrongbox, Map<Resource,Integer> costWarehouseDepot, PaymentPolicy paymentPolicy){
+        if((match.getMatchPhase() == MatchPhase.STANDARDROUND || match.getMatchPhase() == MatchPhase.LASTROUND)
+                && match.getCurrentPlayer().getNickname().equals(nickname)
+                && (match.getCurrentPlayer().getPersonalBoard().getPersonalBoardPhase() == PersonalBoardPhase.MAIN_TURN_ACTION_AVAILABLE
+                || match.getCurrentPlayer().getPersonalBoard().getPersonalBoardPhase() == PersonalBoardPhase.PRODUCTION)){
+            ActionResult result = match.getCurrentPlayer().getPersonalBoard().tryActivateProductions(productions, costStrongbox, costWarehouseDepot, paymentPolicy);
+            if (result.isOk()) {
+                view.update(new MainTurnActionDoneUpdate(nickname));
+            }
+            else {
+                reject(view, nickname, result);
             }
         }
         else {
@@ -437,7 +533,7 @@ public class Controller extends MessageObservable{
      * @param view is the view of the client that sends the message
      * @param nickname the nickname of the player
      */
-    public synchronized void handleEndProductionMessage(View view, String nickname){
+    public void handleEndProductionMessage(View view, String nickname){
         if((match.getMatchPhase() == MatchPhase.STANDARDROUND || match.getMatchPhase() == MatchPhase.LASTROUND)
                 && match.getCurrentPlayer().getNickname().equals(nickname)
                 && match.getCurrentPlayer().getPersonalBoard().getPersonalBoardPhase() == PersonalBoardPhase.PRODUCTION) {
@@ -459,20 +555,16 @@ public class Controller extends MessageObservable{
      * @param costWarehouse a map of resources to take from the warehouse depot
      * @param numLeaderCard the number of the leader card used to discount the cost of the development card
      * @param cardPosition the position of the development card space to put the bought card
+     * @param paymentPolicy how to split the price between warehouse and strongbox, null to use the given maps
      */
-    public synchronized void handleBuyDevelopmentCardMessage(View view, String nickname, int row, int column, Map<Resource, Integer> costStrongbox, Map<Resource, Integer> costWarehouse, int numLeaderCard, int cardPosition){
-        try {
-            PersonalBoard personalBoard = match.getPlayer(nickname).getPersonalBoard();
-            if((match.getMatchPhase() == MatchPhase.STANDARDROUND || match.getMatchPhase() == MatchPhase.LASTROUND)
-                    && match.getCurrentPlayer().getNickname().equals(nickname)
-                    && match.getCurrentPlayer().getPersonalBoard().getPersonalBoardPhase() == PersonalBoardPhase.MAIN_TURN_ACTION_AVAILABLE){
-                personalBoard.buyDevelopmentCard(row, column, costStrongbox, costWarehouse, numLeaderCard, cardPosition);
-            }
-            else{
-                view.update(new ErrorMessage(nickname, "Invalid command"));
-            }
-        } catch (NoCardException | InvalidParameterException | InvalidCostException | InvalidLeaderAction | InvalidRemovalException | InvalidDevelopmentCardException | InvalidNickName e) {
-            view.update(new ErrorMessage(nickname, e.getMessage()));
+    public void handleBuyDevelopmentCardMessage(View view, String nickname, int row, int column, Map<Resource, Integer> costStrongbox, Map<Resource, Integer> costWarehouse, int numLeaderCard, int cardPosition, PaymentPolicy paymentPolicy){
+        if((match.getMatchPhase() == MatchPhase.STANDARDROUND || match.getMatchPhase() == MatchPhase.LASTROUND)
+                && match.getCurrentPlayer().getNickname().equals(nickname)
+                && match.getCurrentPlayer().getPersonalBoard().getPersonalBoardPhase() == PersonalBoardPhase.MAIN_TURN_ACTION_AVAILABLE){
+            reject(view, nickname, match.getCurrentPlayer().getPersonalBoard().tryBuyDevelopmentCard(row, column, costStrongbox, costWarehouse, numLeaderCard, cardPosition, paymentPolicy));
+        }
+        else{
+            view.update(new ErrorMessage(nickname, "Invalid command"));
         }
     }
 
@@ -481,7 +573,7 @@ public class Controller extends MessageObservable{
      * @param view is the view of the client that sends the message
      * @param nickname the nickname of the player
      */
-    public synchronized void handleEndTurnMessage(View view, String nickname){
+    public void handleEndTurnMessage(View view, String nickname){
         if (!match.getCurrentPlayer().getNickname().equals(nickname)){
             view.update(new ErrorMessage(nickname, "Not your turn"));
             return;
@@ -505,7 +597,7 @@ public class Controller extends MessageObservable{
      * @param view is the view of the client that sends the message
      * @param nickname the nickname of the player
      */
-    public synchronized void handleDiscardResourcesFromMarket(View view, String nickname) {
+    public void handleDiscardResourcesFromMarket(View view, String nickname) {
         if(match.getCurrentPlayer().getNickname().equals(nickname)){
             try {
                 match.getPlayer(nickname).getPersonalBoard().discardResourcesFromMarket();
@@ -516,4 +608,44 @@ public class Controller extends MessageObservable{
         else
             view.update(new ErrorMessage(nickname, "Not your turn"));
     }
+
+    /**
+     * Handles a SnapshotRequestMessage, the whole state is sent only to the view that asked for it
+     * @param view is the view of the client that sends the message
+     * @param nickname the nickname of the player
+     * @param snapshotType the type of the message carrying the requested state
+     * @param owner the nickname of the player that owns the requested element
+     */
+    public void handleSnapshotRequestMessage(View view, String nickname, MessageType snapshotType, String owner) {
+        if(match == null){
+            view.update(new ErrorMessage(nickname, "Invalid command"));
+            return;
+        }
+        //the private elements are sent only to their owner, as their updates are
+        if(snapshotType != null && snapshotType.getAudience() != Audience.PUBLIC && !nickname.equals(owner)){
+            view.update(new ErrorMessage(nickname, "You can't see this element of another player"));
+            return;
+        }
+        PersonalBoard personalBoard;
+        try {
+            personalBoard = match.getPlayer(owner).getPersonalBoard();
+        } catch (InvalidNickName invalidNickName) {
+            view.update(new ErrorMessage(nickname, invalidNickName.getMessage()));
+            return;
+        }
+        if(snapshotType == MessageType.WAREHOUSE_UPDATE)
+            view.update(personalBoard.getWarehouseDepots().getSnapshot());
+        else if(snapshotType == MessageType.STRONGBOX_UPDATE)
+            view.update(personalBoard.getStrongbox().getSnapshot());
+        else if(snapshotType == MessageType.TEMPORARY_RESOURCE_MAP_UPDATE)
+            view.update(personalBoard.getTemporaryMapResourceSnapshot());
+        else
+            view.update(new ErrorMessage(nickname, "Invalid command"));
+    }
+
+    //Sends the reason of a rejected action to the player, nothing if the action has been done
+    private void reject(View view, String nickname, ActionResult result) {
+        if(!result.isOk())
+            view.update(new ErrorMessage(nickname, result.getMessage()));
+    }
 }
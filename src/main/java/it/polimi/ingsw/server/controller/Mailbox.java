@@ -0,0 +1,137 @@
+package it.polimi.ingsw.server.controller;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Class that implements a bounded mailbox of tasks executed one at a time, in arrival order.
+ * Many mailboxes share the same executor, but the tasks of a mailbox never run concurrently,
+ * so the state they modify is only ever touched by one thread at a time
+ */
+public class Mailbox {
+    private static final int DEFAULT_CAPACITY = 256;
+    //Maximum number of tasks run before giving the thread to the other mailboxes
+    private static final int BATCH_SIZE = 32;
+    private static final ExecutorService SHARED_EXECUTOR = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "mailbox");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private static final Logger LOGGER = Logger.getLogger(Mailbox.class.getName());
+    private final Queue<Runnable> tasks;
+    private final Executor executor;
+    private final int capacity;
+    private final AtomicBoolean scheduled;
+    private final AtomicInteger queueDepth;
+    private final AtomicInteger maxQueueDepth;
+    private final AtomicLong rejectedTasks;
+
+    /**
+     * Constructor of a mailbox drained by the executor shared by all the matches
+     */
+    public Mailbox() {
+        this(DEFAULT_CAPACITY, SHARED_EXECUTOR);
+    }
+
+    /**
+     * Constructor of the mailbox
+     * @param capacity The maximum number of tasks accepted by {@link #offer(Runnable)}
+     * @param executor The executor used to drain the mailbox
+     */
+    public Mailbox(int capacity, Executor executor) {
+        this.capacity = capacity;
+        this.executor = executor;
+        tasks = new ConcurrentLinkedQueue<>();
+        scheduled = new AtomicBoolean(false);
+        queueDepth = new AtomicInteger(0);
+        maxQueueDepth = new AtomicInteger(0);
+        rejectedTasks = new AtomicLong(0);
+    }
+
+    /**
+     * Adds a task to the mailbox if the mailbox is not full
+     * @param task The task to execute
+     * @return false if the mailbox is full and the task has been rejected
+     */
+    public boolean offer(Runnable task){
+        if (queueDepth.get() >= capacity) {
+            rejectedTasks.incrementAndGet();
+            LOGGER.warning("Mailbox full, task rejected. Depth: " + queueDepth.get());
+            return false;
+        }
+        enqueue(task);
+        return true;
+    }
+
+    /**
+     * Adds a task to the mailbox even if the mailbox is full, used for tasks that cannot be lost such as disconnections
+     * @param task The task to execute
+     */
+    public void put(Runnable task){
+        enqueue(task);
+    }
+
+    private void enqueue(Runnable task){
+        tasks.add(task);
+        int depth = queueDepth.incrementAndGet();
+        int max = maxQueueDepth.get();
+        while (depth > max && !maxQueueDepth.compareAndSet(max, depth)) {
+            max = maxQueueDepth.get();
+        }
+        schedule();
+    }
+
+    private void schedule(){
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    //Runs at most BATCH_SIZE tasks, then reschedules itself if other tasks are waiting
+    private void drain(){
+        int processed = 0;
+        Runnable task;
+        while (processed < BATCH_SIZE && (task = tasks.poll()) != null) {
+            queueDepth.decrementAndGet();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOGGER.severe("Task failed: " + e);
+            }
+            processed++;
+        }
+        scheduled.set(false);
+        if (!tasks.isEmpty()) {
+            schedule();
+        }
+    }
+
+    /**
+     * @return The number of tasks waiting to be executed
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * @return The maximum number of tasks that have been waiting at the same time
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * @return The number of tasks rejected because the mailbox was full
+     */
+    public long getRejectedTasks() {
+        return rejectedTasks.get();
+    }
+}
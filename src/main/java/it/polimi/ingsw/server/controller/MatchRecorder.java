@@ -0,0 +1,123 @@
+package it.polimi.ingsw.server.controller;
+
+import com.google.gson.Gson;
+import it.polimi.ingsw.common.View;
+import it.polimi.ingsw.common.messages.messagesToServer.MessageToServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Class that writes the log of a match: the seed of the match and every event handled by its controller, in the order
+ * they were handled. Given the log, {@link MatchReplay} plays the match again.
+ * Every line is an event: CONNECT client, MESSAGE client json, MATCH seed demo, DISCONNECT client nickname.
+ * The methods are called by the mailbox of the controller, one at a time
+ */
+public class MatchRecorder {
+    static final String CONNECT = "CONNECT";
+    static final String MESSAGE = "MESSAGE";
+    static final String MATCH = "MATCH";
+    static final String DISCONNECT = "DISCONNECT";
+    private static final Logger LOGGER = Logger.getLogger(MatchRecorder.class.getName());
+    private static final AtomicInteger counter = new AtomicInteger();
+    private static final Gson gson = new Gson();
+    private final Path directory;
+    private final Map<View, Integer> clients;
+    private BufferedWriter writer;
+    private boolean closed;
+    private int connectedClients;
+
+    private MatchRecorder(Path directory) {
+        this.directory = directory;
+        this.clients = new IdentityHashMap<>();
+    }
+
+    /**
+     * Creates the recorder of a new match, its log is created with the first event so that matches nobody joined leave no file
+     * @param directory the directory of the logs
+     * @return the recorder of the match
+     */
+    public static MatchRecorder create(Path directory) {
+        return new MatchRecorder(directory);
+    }
+
+    /**
+     * Records the connection of a client
+     * @param view the view of the client
+     */
+    void recordConnection(View view) {
+        connectedClients++;
+        write(CONNECT + " " + clientOf(view));
+    }
+
+    /**
+     * Records a message handled by the controller
+     * @param view the view of the client that sent the message
+     * @param message the message
+     */
+    void recordMessage(View view, MessageToServer message) {
+        write(MESSAGE + " " + clientOf(view) + " " + gson.toJson(message));
+    }
+
+    /**
+     * Records the creation of the match
+     * @param seed the seed of the generator of the match
+     * @param demo true if the match is in demo mode
+     */
+    void recordMatch(long seed, boolean demo) {
+        write(MATCH + " " + seed + " " + demo);
+    }
+
+    /**
+     * Records the disconnection of a client, the log is closed when every client has disconnected
+     * @param view the view of the client
+     * @param nickname the nickname of the client, null if not yet chosen
+     */
+    void recordDisconnection(View view, String nickname) {
+        write(DISCONNECT + " " + clientOf(view) + " " + nickname);
+        connectedClients--;
+        if (connectedClients <= 0) {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    LOGGER.warning("Cannot close the log of the match: " + e.getMessage());
+                }
+                writer = null;
+            }
+            closed = true;
+        }
+    }
+
+    private int clientOf(View view) {
+        return clients.computeIfAbsent(view, client -> clients.size());
+    }
+
+    //Every line is flushed, so the log is complete even if the server stops
+    private void write(String line) {
+        if (closed) {
+            return;
+        }
+        try {
+            if (writer == null) {
+                Files.createDirectories(directory);
+                Path path = directory.resolve("match-" + System.currentTimeMillis() + "-" + counter.incrementAndGet() + ".log");
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+            }
+            writer.write(line);
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            LOGGER.warning("Cannot record the match, the log is interrupted: " + e.getMessage());
+            writer = null;
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package it.polimi.ingsw.server.controller;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import it.polimi.ingsw.common.View;
+import it.polimi.ingsw.common.messages.messagesToClient.MessageToClient;
+import it.polimi.ingsw.server.model.MatchRandom;
+import it.polimi.ingsw.server.view.MessageToServerDeserializer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Class that plays again a match recorded by {@link MatchRecorder}.
+ * The match is created with the recorded seed and the recorded events are handled in the same order, so the clients
+ * receive the same updates. The updates are summarized by a digest, that is equal for two replays of the same match
+ */
+public class MatchReplay {
+    private final Gson gson = new Gson();
+    private final MessageToServerDeserializer deserializer = new MessageToServerDeserializer();
+    private final MessageDigest digest;
+    private int events;
+    private int updates;
+
+    /**
+     * Constructor of the replay
+     */
+    public MatchReplay() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Plays a recorded match
+     * @param log the log of the match
+     * @return a summary of the replay, with the number of events and updates and the digest of the updates
+     * @throws IOException if the log cannot be read
+     * @throws IllegalArgumentException if the log is malformed
+     */
+    public String replay(Path log) throws IOException, IllegalArgumentException {
+        List<String> lines = Files.readAllLines(log, StandardCharsets.UTF_8);
+        Controller controller = null;
+        for (String line : lines) {
+            String[] fields = line.split(" ");
+            if (fields[0].equals(MatchRecorder.MATCH) && fields.length == 3) {
+                controller = new Controller(Boolean.parseBoolean(fields[2]), new MatchRandom(Long.parseLong(fields[1])));
+            }
+        }
+        if (controller == null) {
+            throw new IllegalArgumentException("The log does not contain a match");
+        }
+        Map<Integer, ReplayView> views = new HashMap<>();
+        for (String line : lines) {
+            String[] fields = line.split(" ", 3);
+            try {
+                switch (fields[0]) {
+                    case MatchRecorder.CONNECT:
+                        ReplayView view = new ReplayView(Integer.parseInt(fields[1]));
+                        views.put(view.client, view);
+                        controller.newConnection(view);
+                        break;
+                    case MatchRecorder.MESSAGE:
+                        controller.dispatch(deserializer.deserializeMessage(fields[2]), viewOf(views, fields[1]));
+                        break;
+                    case MatchRecorder.DISCONNECT:
+                        controller.disconnect(viewOf(views, fields[1]), fields[2].equals("null") ? null : fields[2]);
+                        break;
+                    case MatchRecorder.MATCH:
+                        continue;
+                    default:
+                        throw new IllegalArgumentException("Unknown event: " + fields[0]);
+                }
+            } catch (ArrayIndexOutOfBoundsException | NumberFormatException | JsonParseException e) {
+                throw new IllegalArgumentException("Invalid event: " + line);
+            }
+            events++;
+            //every event is handled before the next one is queued, so that the mailbox never rejects a message
+            awaitMailbox(controller);
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return "Replayed " + events + " events, " + updates + " updates, digest " + hex;
+    }
+
+    private static ReplayView viewOf(Map<Integer, ReplayView> views, String client) {
+        ReplayView view = views.get(Integer.parseInt(client));
+        if (view == null) {
+            throw new IllegalArgumentException("Unknown client " + client);
+        }
+        return view;
+    }
+
+    private static void awaitMailbox(Controller controller) {
+        CountDownLatch handled = new CountDownLatch(1);
+        controller.getMailbox().put(handled::countDown);
+        try {
+            handled.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //The entries of the maps are sorted, since the order of the keys of a hash map can change from a run to another
+    private static JsonElement canonical(JsonElement element) {
+        if (element.isJsonObject()) {
+            Map<String, JsonElement> sorted = new TreeMap<>();
+            for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+                sorted.put(entry.getKey(), canonical(entry.getValue()));
+            }
+            JsonObject object = new JsonObject();
+            sorted.forEach(object::add);
+            return object;
+        }
+        if (element.isJsonArray()) {
+            JsonArray array = new JsonArray();
+            for (JsonElement child : element.getAsJsonArray()) {
+                array.add(canonical(child));
+            }
+            return array;
+        }
+        return element;
+    }
+
+    //View of a recorded client, its updates are added to the digest
+    private class ReplayView implements View {
+        private final int client;
+        private String nickname;
+
+        private ReplayView(int client) {
+            this.client = client;
+        }
+
+        @Override
+        public void update(MessageToClient message) {
+            synchronized (digest) {
+                updates++;
+                digest.update((client + " " + canonical(gson.toJsonTree(message)) + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        @Override
+        public void setNickname(String nickname) {
+            this.nickname = nickname;
+        }
+
+        @Override
+        public String getRecipient() {
+            return nickname;
+        }
+    }
+}
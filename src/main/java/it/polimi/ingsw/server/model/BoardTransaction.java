@@ -0,0 +1,63 @@
+package it.polimi.ingsw.server.model;
+
+/**
+ * Transaction over a personal board: when it begins it copies the primitive state of the board, of its strongbox,
+ * warehouse depots, development card space and faith track and of the card grid, so that a compound action
+ * can be undone if one of its steps fails.
+ * A rollback notifies every restored element with its whole state, which supersedes the changes notified during
+ * the transaction when both happen in the same command.
+ * The pope favour tile turned by reaching a pope space during the transaction is turned back, so the vatican reports
+ * must be checked only once the transaction is committed; the effects on the other players, such as the vatican reports,
+ * and the end of the game are not rolled back
+ */
+public final class BoardTransaction {
+    private final PersonalBoard personalBoard;
+    private final int[] boardState;
+    private final int[] strongboxState;
+    private final int[] warehouseState;
+    private final int[] developmentCardSpaceState;
+    private final int[] faithTrackState;
+    private final int[] cardGridState;
+    private boolean open;
+
+    BoardTransaction(PersonalBoard personalBoard) {
+        this.personalBoard = personalBoard;
+        boardState = personalBoard.saveState();
+        strongboxState = personalBoard.getStrongbox().saveState();
+        warehouseState = personalBoard.getWarehouseDepots().saveState();
+        developmentCardSpaceState = personalBoard.getDevelopmentCardSpace().saveState();
+        faithTrackState = personalBoard.getFaithTrack().saveState();
+        cardGridState = personalBoard.getCardGrid().saveState();
+        open = true;
+    }
+
+    /**
+     * Keeps the changes made since the transaction began
+     * @throws IllegalStateException if the transaction has already been committed or rolled back
+     */
+    public void commit() throws IllegalStateException {
+        close();
+    }
+
+    /**
+     * Brings the board back to the state it had when the transaction began
+     * @throws IllegalStateException if the transaction has already been committed or rolled back
+     */
+    public void rollback() throws IllegalStateException {
+        close();
+        personalBoard.getStrongbox().restoreState(strongboxState);
+        personalBoard.getWarehouseDepots().restoreState(warehouseState);
+        personalBoard.getDevelopmentCardSpace().restoreState(developmentCardSpaceState);
+        personalBoard.getFaithTrack().restoreState(faithTrackState);
+        personalBoard.getCardGrid().restoreState(cardGridState);
+        //restored last, the victory points are calculated on the restored components
+        personalBoard.restoreState(boardState);
+    }
+
+    private void close() throws IllegalStateException {
+        if (!open) {
+            throw new IllegalStateException("The transaction is already closed");
+        }
+        open = false;
+    }
+}
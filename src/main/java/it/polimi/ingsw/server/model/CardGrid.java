@@ -2,38 +2,69 @@ package it.polimi.ingsw.server.model;
 
 import it.polimi.ingsw.common.messages.messagesToClient.CardGridUpdate;
 import it.polimi.ingsw.common.messages.messagesToClient.LorenzoDrawUpdate;
-import it.polimi.ingsw.common.utils.CardGridParser;
+import it.polimi.ingsw.common.utils.CardCatalog;
 import it.polimi.ingsw.common.utils.observe.MessageObservable;
 import it.polimi.ingsw.server.model.comparators.DemoDevelopmentCardsComparator;
 import it.polimi.ingsw.server.model.enumerations.DevelopmentCardColor;
 import it.polimi.ingsw.server.model.exceptions.NoCardException;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
- * This class represents the development card grid
+ * This class represents the development card grid.
+ * Every stack is an array of card ids with the number of cards left, the top card is the last one left.
+ * Every change publishes a new {@link CardGridSnapshot}
  */
 public class CardGrid extends MessageObservable {
-    private int row, column;
-    private final int maxRow = 3, maxColumn = 4;
+    private static final int maxRow = 3, maxColumn = 4;
+    //The column of each color, every column of the catalog holds the cards of one color
+    private static final int[] COLUMN_OF_COLOR = columnsOfColors();
     boolean alreadyLost = false;
     private Match matchToNotify;
-    private Stack<DevelopmentCard>[][] cardGridMatrix;
-    private DevelopmentCard cardToBeReturned;
+    private final int[][][] cardIds = new int[maxRow][maxColumn][];
+    private final int[][] stackSizes = new int[maxRow][maxColumn];
+    private volatile CardGridSnapshot snapshot;
 
     /**
-     * This constructor creates the cardGrid structure, reading the development cards form the json file developmentCards.json and initializes each cards stack randomly
+     * This constructor creates the cardGrid structure, taking the development cards from the {@link CardCatalog} and initializes each cards stack randomly
      */
     public CardGrid(boolean demo){
-        CardGridParser cardGridParser = new CardGridParser();
-        cardGridMatrix = cardGridParser.parse();
-        for (row = 0; row < maxRow; row++)
-            for (column = 0; column < maxColumn; column++) {
+        this(demo, new MatchRandom());
+    }
+
+    /**
+     * This constructor creates the cardGrid structure and shuffles each cards stack with the generator of the match
+     * @param demo true to sort each stack always in the same order
+     * @param random the generator used to shuffle the stacks
+     */
+    public CardGrid(boolean demo, MatchRandom random){
+        for (int row = 0; row < maxRow; row++)
+            for (int column = 0; column < maxColumn; column++) {
+                List<DevelopmentCard> stack = new ArrayList<>(CardCatalog.getInstance().getDevelopmentCards(row, column));
                 if(demo)
-                   cardGridMatrix[row][column].sort(new DemoDevelopmentCardsComparator());
+                    stack.sort(new DemoDevelopmentCardsComparator());
                 else
-                    Collections.shuffle(cardGridMatrix[row][column]);
+                    random.shuffle(stack);
+                cardIds[row][column] = new int[stack.size()];
+                for (int i = 0; i < stack.size(); i++) {
+                    cardIds[row][column][i] = stack.get(i).getId();
+                }
+                stackSizes[row][column] = stack.size();
+            }
+        snapshot = new CardGridSnapshot(0, topIds());
+    }
+
+    private static int[] columnsOfColors() {
+        int[] columns = new int[DevelopmentCardColor.values().length];
+        Arrays.fill(columns, -1);
+        for (int column = 0; column < maxColumn; column++) {
+            for (DevelopmentCard card : CardCatalog.getInstance().getDevelopmentCards(0, column)) {
+                columns[card.getColor().ordinal()] = column;
+            }
         }
+        return columns;
     }
 
     /**
@@ -48,71 +79,121 @@ public class CardGrid extends MessageObservable {
      * Returns the top card of the specified stack
      */
     public DevelopmentCard getCard(int x, int y) throws NoCardException {
-        try{
-            cardToBeReturned = cardGridMatrix[x][y].peek();
-        }catch(EmptyStackException e){
+        if (stackSizes[x][y] == 0) {
             throw new NoCardException("\"There is no card in the specified position of card grid\"");
         }
-        return cardToBeReturned;
+        return CardCatalog.getInstance().getDevelopmentCard(cardIds[x][y][stackSizes[x][y] - 1]);
+    }
+
+    /**
+     * Returns the top card of the specified stack without exceptions
+     * @return the card, null if the position is not valid or the stack is empty
+     */
+    public DevelopmentCard findCard(int x, int y) {
+        if (x < 0 || x >= maxRow || y < 0 || y >= maxColumn || stackSizes[x][y] == 0) {
+            return null;
+        }
+        return CardCatalog.getInstance().getDevelopmentCard(cardIds[x][y][stackSizes[x][y] - 1]);
     }
 
     /**
      * Implementation of buyCard returns the top card of the specified stack and deletes it from the stack
      */
     public DevelopmentCard buyCard(int x, int y)  throws NoCardException{
-        try{
-            cardToBeReturned = cardGridMatrix[x][y].pop();
-        }catch(EmptyStackException e){
+        if (stackSizes[x][y] == 0) {
             throw new NoCardException("There is no card in the specified position of card grid");
         }
+        DevelopmentCard card = getCard(x, y);
+        removeTopCard(x, y);
+        return card;
+    }
+
+    //Removes the top card of a stack that is known not to be empty
+    void removeTopCard(int x, int y) {
+        stackSizes[x][y]--;
+        publish();
         doNotify();
-        return cardToBeReturned;
     }
 
     /**
      * Implementation of remove, it removes one developmentCard whit the specified color from the card grid starting from level one to level three
      * */
     public String remove(DevelopmentCardColor color) {
-        int column = -1;
         if (!alreadyLost) {
-            //looking for the correct column according to the color parameter
-            for (row = 0; row < maxRow; row++)
-                for (this.column = 0; this.column < maxColumn; this.column++) {
-                    try {
-                        if ((!cardGridMatrix[row][this.column].empty()) && getCard(row, this.column).getColor().equals(color)) {
-                            column = this.column;
-                        }
-                    } catch (NoCardException ignored) { }
-                }
-            for (row = maxRow - 1; row >= 0; row--) {
-                if (!cardGridMatrix[row][column].empty()) {//if the bottom stack is empty, don't do anything and go to the upper stack
-                    cardGridMatrix[row][column].pop(); //removing only one card of the lowest level available of the color passed by parameter
+            int column = COLUMN_OF_COLOR[color.ordinal()];
+            for (int row = maxRow - 1; row >= 0; row--) {
+                if (stackSizes[row][column] > 0) {//if the bottom stack is empty, don't do anything and go to the upper stack
+                    stackSizes[row][column]--; //removing only one card of the lowest level available of the color passed by parameter
+                    publish();
                     notifyObservers(new LorenzoDrawUpdate("Lorenzo", row,column));
-                    if (cardGridMatrix[0][column].empty() && cardGridMatrix[1][column].empty() && cardGridMatrix[2][column].empty()) {
-                        alreadyLost = true;//one column is completely empty (column are of the same color)
-                        if(matchToNotify != null) matchToNotify.update(true);
-                        return "Hai Perso";
+                    if (stackSizes[0][column] == 0 && stackSizes[1][column] == 0 && stackSizes[2][column] == 0) {
+                        return lose();
                     }
                     return "Non hai ancora perso"; //fondamentale per non creare errori
                 }
             }
+            //the players already bought every card of the color
+            return lose();
         }
         return "Hai gia perso"; //caso che non dovrebbe mai verificarsi
     }
 
+    private String lose() {
+        alreadyLost = true;//one column is completely empty (column are of the same color)
+        if(matchToNotify != null) matchToNotify.update(true);
+        return "Hai Perso";
+    }
+
+    //Copies the size of every stack, used by a BoardTransaction
+    int[] saveState() {
+        int[] state = new int[maxRow * maxColumn];
+        for (int row = 0; row < maxRow; row++)
+            System.arraycopy(stackSizes[row], 0, state, row * maxColumn, maxColumn);
+        return state;
+    }
+
+    //Restores a state copied by saveState, the grid is notified if it changed in the meantime
+    void restoreState(int[] state) {
+        boolean changed = false;
+        for (int row = 0; row < maxRow; row++)
+            for (int column = 0; column < maxColumn; column++) {
+                changed |= stackSizes[row][column] != state[row * maxColumn + column];
+                stackSizes[row][column] = state[row * maxColumn + column];
+            }
+        if (changed) {
+            publish();
+            doNotify();
+        }
+    }
+
+    //Publishes a new snapshot of the grid, the old one is left unchanged for whoever is reading it
+    private void publish() {
+        snapshot = new CardGridSnapshot(snapshot.getVersion() + 1, topIds());
+    }
+
+    private int[][] topIds() {
+        int[][] topIds = new int[maxRow][maxColumn];
+        for (int row = 0; row < maxRow; row++)
+            for (int column = 0; column < maxColumn; column++) {
+                int size = stackSizes[row][column];
+                topIds[row][column] = size == 0 ? 0 : cardIds[row][column][size - 1];
+            }
+        return topIds;
+    }
+
+    /**
+     * Getter for the current snapshot of the grid, the snapshot is immutable and can be read by any thread
+     * @return the snapshot of the grid
+     */
+    public CardGridSnapshot getSnapshot() {
+        return snapshot;
+    }
+
     /**
      * this method sends a massage with an update of the card grid, for every cell of the grid sets the id of a card (0 if there isn't a card)
      */
     public void doNotify(){
-        int[][] cardGridMatrixUpdate = new int[maxRow][maxColumn];
-        for (row = 0; row < maxRow; row++)
-            for (column = 0; column < maxColumn; column++) {
-                if(cardGridMatrix[row][column].size() != 0)
-                    cardGridMatrixUpdate[row][column] = cardGridMatrix[row][column].peek().getId();
-                else
-                    cardGridMatrixUpdate[row][column] = 0;
-            }
-        notifyObservers(new CardGridUpdate(cardGridMatrixUpdate));
+        notifyObservers(new CardGridUpdate(snapshot.getTopIds()));
     }
 
     /**
@@ -122,12 +203,10 @@ public class CardGrid extends MessageObservable {
      */
     public int getNumOfCardsByColor(DevelopmentCardColor color) {
         int numOfCards = 0;
-        for (row = 0; row < maxRow; row++) {
-            for (column = 0; column < maxColumn; column++) {
-                if (cardGridMatrix[row][column].peek().getColor().equals(color))
-                    numOfCards = numOfCards + cardGridMatrix[row][column].size();
-            }
+        int column = COLUMN_OF_COLOR[color.ordinal()];
+        for (int row = 0; row < maxRow; row++) {
+            numOfCards += stackSizes[row][column];
         }
         return numOfCards;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,41 @@
+package it.polimi.ingsw.server.model;
+
+/**
+ * Immutable view of the card grid: the id of the top card of every stack, 0 if the stack is empty.
+ * The card grid builds a new snapshot at every change, so a snapshot can be shared by messages and readers without copying
+ */
+public final class CardGridSnapshot {
+    private final long version;
+    private final int[][] topIds;
+
+    /**
+     * Constructor of the snapshot, the array is kept and must not be modified afterwards
+     * @param version the number of changes of the card grid before this snapshot
+     * @param topIds the id of the top card of every stack
+     */
+    CardGridSnapshot(long version, int[][] topIds) {
+        this.version = version;
+        this.topIds = topIds;
+    }
+
+    /**
+     * @return the number of changes of the card grid before this snapshot
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @param row the row of the stack, from 0 to 2
+     * @param column the column of the stack, from 0 to 3
+     * @return the id of the top card of the stack, 0 if the stack is empty
+     */
+    public int getTopId(int row, int column) {
+        return topIds[row][column];
+    }
+
+    //The array is shared with the update messages, which never modify it
+    int[][] getTopIds() {
+        return topIds;
+    }
+}
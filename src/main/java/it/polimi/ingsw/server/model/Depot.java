@@ -7,16 +7,18 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Class that represents one of the three depots of the warehouse depots
+ * Class that represents one of the three depots of the warehouse depots.
+ * The depot keeps its resource and its quantity, the maps are built only for the callers that need them
  */
 public class Depot {
     private final int SIZE;
 
-    private Map<Resource, Integer> mapResource;
+    //The resource stored, null if the depot is empty
+    private Resource resource;
+    private int quantity;
 
     public Depot(int size) {
         SIZE = size;
-        mapResource = new HashMap<>();
     }
 
     /**
@@ -29,13 +31,41 @@ public class Depot {
 
     /**
      * Getter for the resource stored in the depot
-     * @return a map with the resource stored in the depot
+     * @return a new map with the resource stored in the depot, empty if there is none
      */
     public Map<Resource, Integer> getMapResource() {
+        Map<Resource, Integer> mapResource = new HashMap<>();
+        if (resource != null) {
+            mapResource.put(resource, quantity);
+        }
         return mapResource;
     }
+
+    /**
+     * Setter for the content of the depot
+     * @param mapResource a map with at most one resource, the new content of the depot
+     */
     public void setMapResource(Map<Resource, Integer> mapResource) {
-        this.mapResource = mapResource;
+        if (mapResource.isEmpty()) {
+            setContent(null, 0);
+        } else {
+            Resource newResource = mapResource.keySet().iterator().next();
+            setContent(newResource, mapResource.get(newResource));
+        }
+    }
+
+    //Replaces the content of the depot, used to swap depots
+    void setContent(Resource resource, int quantity) {
+        this.resource = quantity > 0 ? resource : null;
+        this.quantity = quantity > 0 ? quantity : 0;
+    }
+
+    /**
+     * Getter for the resource stored in the depot
+     * @return the resource stored in the depot, null if the depot is empty
+     */
+    public Resource getResource() {
+        return resource;
     }
 
     /**
@@ -44,7 +74,7 @@ public class Depot {
      * @return true if the resource is in the depot, false otherwise
      */
     public Boolean checkResource(Resource resource){
-        return mapResource.get(resource) != null;
+        return resource != null && resource == this.resource;
     }
 
     /**
@@ -53,11 +83,21 @@ public class Depot {
      * @throws InvalidAdditionException When there is not enough space or there is already another resource in the depot
      */
     public void checkAdd(Map<Resource, Integer> addedResourceMap) throws InvalidAdditionException{
-        Resource resource = addedResourceMap.keySet().iterator().next();
+        Resource addedResource = addedResourceMap.keySet().iterator().next();
+        checkAdd(addedResource, addedResourceMap.get(addedResource));
+    }
+
+    /**
+     * Checks if a quantity of a resource can be added to the depot
+     * @param addedResource The resource to be added
+     * @param addedQuantity The quantity to be added
+     * @throws InvalidAdditionException When there is not enough space or there is already another resource in the depot
+     */
+    public void checkAdd(Resource addedResource, int addedQuantity) throws InvalidAdditionException{
         //Making sure there isn't another resource in the depot
-        if (!(this.checkResource(resource) || mapResource.isEmpty())) throw new InvalidAdditionException("There is another resource in the depot");
+        if (!(this.checkResource(addedResource) || resource == null)) throw new InvalidAdditionException("There is another resource in the depot");
         //Making sure the maximum size of depot is not exceeded
-        if (!(mapResource.getOrDefault(resource, 0) + addedResourceMap.get(resource) <= SIZE)) throw new InvalidAdditionException("Not enough space");
+        if (!(getResourceQuantity(addedResource) + addedQuantity <= SIZE)) throw new InvalidAdditionException("Not enough space");
     }
 
     /**
@@ -65,8 +105,17 @@ public class Depot {
      * @param addedResourceMap resource map to add, must contain a single key
      */
     public void uncheckedAdd(Map<Resource, Integer> addedResourceMap){
-        Resource resource = addedResourceMap.keySet().iterator().next();
-        mapResource.merge(resource, addedResourceMap.get(resource), Integer::sum);
+        Resource addedResource = addedResourceMap.keySet().iterator().next();
+        uncheckedAdd(addedResource, addedResourceMap.get(addedResource));
+    }
+
+    /**
+     * Adds a resource to the depot, must be called only after performing checks with checkAdd
+     * @param addedResource The resource to add
+     * @param addedQuantity The quantity to add
+     */
+    public void uncheckedAdd(Resource addedResource, int addedQuantity){
+        setContent(addedResource, quantity + addedQuantity);
     }
 
     /**
@@ -84,16 +133,13 @@ public class Depot {
      * @param toBeRemovedResourceMap This map contains the resources that are not found to be stored in a depot yet
      */
     public void checkAvailability(Map<Resource, Integer> toBeRemovedResourceMap){
-        //Returns if depot is empty
-        if(!mapResource.keySet().iterator().hasNext()) return;
-        Resource resource = mapResource.keySet().iterator().next();
-        //Returns if the resource in depot is not to be removed
-        if (toBeRemovedResourceMap.get(resource) == null) return;
+        //Returns if depot is empty or if the resource in depot is not to be removed
+        if (resource == null || toBeRemovedResourceMap.get(resource) == null) return;
         //Checks availability and removes the resources available from toBeRemovedResourceMap
-        if (mapResource.get(resource) >= toBeRemovedResourceMap.get(resource))
+        if (quantity >= toBeRemovedResourceMap.get(resource))
             toBeRemovedResourceMap.remove(resource);
         else
-            toBeRemovedResourceMap.merge(resource, -mapResource.get(resource), Integer::sum);
+            toBeRemovedResourceMap.merge(resource, -quantity, Integer::sum);
     }
 
     /**
@@ -102,28 +148,46 @@ public class Depot {
      * @param toBeRemovedResourceMap This map contains the resources that have to be removed from WarehouseDepots
      */
     public void uncheckedRemove(Map<Resource, Integer> toBeRemovedResourceMap){
-        //Checking if the depot is empty
-        if(!mapResource.keySet().iterator().hasNext()) return;
-        Resource resource = mapResource.keySet().iterator().next();
-        //Checking if the resource in depot is not to be removed
-        if (toBeRemovedResourceMap.get(resource) == null) return;
+        //Checking if the depot is empty or if the resource in depot is not to be removed
+        if (resource == null || toBeRemovedResourceMap.get(resource) == null) return;
 
+        Resource removedResource = resource;
         int quantityToRemove = toBeRemovedResourceMap.get(resource);
-        int quantityInDepot = mapResource.get(resource);
+        int quantityInDepot = quantity;
 
         //Removing as many resources as possible and updating toBeRemovedResourceMap
-        if (quantityToRemove == quantityInDepot){
-            mapResource.remove(resource);
-            toBeRemovedResourceMap.remove(resource);
-        }
-        else if (quantityToRemove > quantityInDepot){
-            mapResource.remove(resource);
-            toBeRemovedResourceMap.merge(resource, -quantityInDepot, Integer::sum);
-        }
-        else{
-            mapResource.merge(resource, -quantityToRemove, Integer::sum);
-            toBeRemovedResourceMap.remove(resource);
-        }
+        setContent(resource, quantityInDepot - Math.min(quantityToRemove, quantityInDepot));
+        if (quantityToRemove > quantityInDepot)
+            toBeRemovedResourceMap.merge(removedResource, -quantityInDepot, Integer::sum);
+        else
+            toBeRemovedResourceMap.remove(removedResource);
+    }
+
+    /**
+     * This method removes from toBeRemoved and from the depot the maximum quantity of the resource of the depot,
+     * must be called only after performing checks on the availability of the resources
+     * @param toBeRemoved The resources that still have to be removed from WarehouseDepots
+     * @return the quantity removed from the depot
+     */
+    public int uncheckedRemove(ResourceVector toBeRemoved){
+        //Checking if the depot is empty
+        if (resource == null) return 0;
+        Resource removedResource = resource;
+        int quantityToRemove = Math.min(toBeRemoved.get(removedResource), quantity);
+        if (quantityToRemove <= 0) return 0;
+
+        setContent(removedResource, quantity - quantityToRemove);
+        toBeRemoved.add(removedResource, -quantityToRemove);
+        return quantityToRemove;
+    }
+
+    /**
+     * Method used to get the quantity of a resource in the depot
+     * @param resource The resource whose quantity is requested
+     * @return The quantity of the resource if it is in the depot, otherwise 0
+     */
+    public int getResourceQuantity(Resource resource){
+        return checkResource(resource) ? quantity : 0;
     }
 
     /**
@@ -131,12 +195,7 @@ public class Depot {
      * @return The quantity of the resource in the depot if there is one, otherwise 0
      */
     public int getNumberResources(){
-        int total = 0;
-        //Iterating in the Collection of values of the Map
-        for (int singleQuantity : mapResource.values()){
-            total += singleQuantity;
-        }
-        return total;
+        return quantity;
     }
 
 
@@ -16,6 +16,7 @@ public class DevelopmentCard {
     private int level;
     private Map<Resource,Integer> price;
     private int victoryPoints;
+    private transient ResourceVector priceVector;
     private PowerOfProduction powerOfProduction;
 
     /**
@@ -59,6 +60,18 @@ public class DevelopmentCard {
         return price;
     }
 
+    /**
+     * @return the resources necessary to buy the card, shared by every match so it must not be modified
+     */
+    public ResourceVector getPriceVector() {
+        ResourceVector result = priceVector;
+        if (result == null) {
+            result = new ResourceVector(price);
+            priceVector = result;
+        }
+        return result;
+    }
+
     /**
      * @return the level of the card
      */
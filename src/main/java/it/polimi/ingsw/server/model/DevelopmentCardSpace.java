@@ -2,6 +2,7 @@ package it.polimi.ingsw.server.model;
 
 import it.polimi.ingsw.common.messages.messagesToClient.DevCardSpaceUpdate;
 import it.polimi.ingsw.common.utils.observe.MessageObservable;
+import it.polimi.ingsw.server.model.enumerations.ActionResult;
 import it.polimi.ingsw.server.model.enumerations.DevelopmentCardColor;
 import it.polimi.ingsw.server.model.exceptions.InvalidDevelopmentCardException;
 import it.polimi.ingsw.server.model.exceptions.InvalidParameterException;
@@ -10,13 +11,18 @@ import it.polimi.ingsw.server.model.exceptions.InvalidParameterException;
 import java.util.ArrayList;
 
 /**
- * This class represents the slots of development cards that each player has on its personal board
+ * This class represents the slots of development cards that each player has on its personal board.
+ * The number of cards of each color and level and the total victory points are updated when a card is added
  */
 public class DevelopmentCardSpace extends MessageObservable implements ObservableGameEnder<EndGameConditionsObserver> {
     //Each of the three stack of cards is stored in an ArrayList and they are collected in another ArrayList
     private ArrayList<ArrayList<DevelopmentCard>> cards;
     private final int numOfStacks = 3;
     private int numOfcards;
+    private static final int MAX_LEVEL = 3;
+    //Owned cards by color, the column 0 counts the cards of every level
+    private final int[][] numOfCardsByColorAndLevel = new int[DevelopmentCardColor.values().length][MAX_LEVEL + 1];
+    private int victoryPoints;
     private EndGameConditionsObserver matchToNotify;
 
 
@@ -45,32 +51,59 @@ public class DevelopmentCardSpace extends MessageObservable implements Observabl
     }
 
     /**
-     * this method adds a card on top of a specified stack.
+     * this method checks if a card can be added on top of a specified stack.
      * level 1 cards must be placed in an empty stack
      * level 2 cards must be placed on a level 1 card
      * level 3 cards must be placed on a level 2 card
      * @param card represents the card to add
      * @param cardPosition represents the number of the stack: 1,2 or 3 from left to right
+     * @return OK if the card can be added, the reason why it can't otherwise
      */
-    public void addCard(DevelopmentCard card, int cardPosition) throws InvalidDevelopmentCardException, InvalidParameterException {
+    public ActionResult checkAddCard(DevelopmentCard card, int cardPosition) {
         cardPosition = cardPosition - 1;
-        if((card != null && cardPosition >= 0 && cardPosition < numOfStacks)) {
-            ArrayList<DevelopmentCard> stackList = cards.get(cardPosition);
-
-            if (card.getLevel() != 1 && stackList.size() == 0) {
-                throw new InvalidDevelopmentCardException((("A card level " + card.getLevel() + " must be put on a level " + (card.getLevel() - 1)).replace("a level 0", "an empty space")));
-            }else if ((card.getLevel() == 1 && stackList.size() == 0) || (card.getLevel() != 1 && (card.getLevel() - 1) == stackList.get(stackList.size() - 1).getLevel())) {
-                stackList.add(card);
-                numOfcards++;
-            } else {
-                throw new InvalidDevelopmentCardException((("A card level " + card.getLevel() + " must be put on a level " + (card.getLevel()-1)).replace("a level 0","an empty space")));
-            }
+        if (card == null || cardPosition < 0 || cardPosition >= numOfStacks)
+            return ActionResult.INVALID_CARD_SPACE;
+        ArrayList<DevelopmentCard> stackList = cards.get(cardPosition);
+        int topLevel = stackList.isEmpty() ? 0 : stackList.get(stackList.size() - 1).getLevel();
+        if (card.getLevel() - 1 == topLevel)
+            return ActionResult.OK;
+        switch (card.getLevel()) {
+            case 1:
+                return ActionResult.CARD_SPACE_NOT_EMPTY;
+            case 2:
+                return ActionResult.LEVEL_1_CARD_REQUIRED;
+            default:
+                return ActionResult.LEVEL_2_CARD_REQUIRED;
+        }
+    }
 
+    /**
+     * this method adds a card on top of a specified stack, following the rules of checkAddCard
+     * @param card represents the card to add
+     * @param cardPosition represents the number of the stack: 1,2 or 3 from left to right
+     * @throws InvalidDevelopmentCardException when the level of the card does not fit the stack
+     * @throws InvalidParameterException when the position is not valid or the card is null
+     */
+    public void addCard(DevelopmentCard card, int cardPosition) throws InvalidDevelopmentCardException, InvalidParameterException {
+        ActionResult result = checkAddCard(card, cardPosition);
+        if (result == ActionResult.INVALID_CARD_SPACE)
+            throw new InvalidParameterException(result.getMessage());
+        if (!result.isOk())
+            throw new InvalidDevelopmentCardException(result.getMessage());
+        uncheckedAddCard(card, cardPosition);
+    }
 
-        }
-        else{
-            throw new InvalidParameterException("The position is not valid or the card doesn't exist");
-        }
+    /**
+     * this method adds a card already checked with checkAddCard
+     * @param card represents the card to add
+     * @param cardPosition represents the number of the stack: 1,2 or 3 from left to right
+     */
+    void uncheckedAddCard(DevelopmentCard card, int cardPosition) {
+        cards.get(cardPosition - 1).add(card);
+        numOfcards++;
+        numOfCardsByColorAndLevel[card.getColor().ordinal()][0]++;
+        numOfCardsByColorAndLevel[card.getColor().ordinal()][card.getLevel()]++;
+        victoryPoints += card.getVictoryPoints();
         doNotify();
         //notifies match when reaches 7 cards in the development card space
         if(numOfcards == 7 && matchToNotify != null)
@@ -78,37 +111,59 @@ public class DevelopmentCardSpace extends MessageObservable implements Observabl
     }
 
 
+    //Copies the size of every stack, used by a BoardTransaction
+    int[] saveState() {
+        int[] state = new int[numOfStacks];
+        for (int i = 0; i < numOfStacks; i++)
+            state[i] = cards.get(i).size();
+        return state;
+    }
+
+    //Restores a state copied by saveState removing the cards added in the meantime, the space is notified if it changed
+    void restoreState(int[] state) {
+        boolean changed = false;
+        for (int i = 0; i < numOfStacks; i++) {
+            ArrayList<DevelopmentCard> stack = cards.get(i);
+            while (stack.size() > state[i]) {
+                DevelopmentCard card = stack.remove(stack.size() - 1);
+                numOfcards--;
+                numOfCardsByColorAndLevel[card.getColor().ordinal()][0]--;
+                numOfCardsByColorAndLevel[card.getColor().ordinal()][card.getLevel()]--;
+                victoryPoints -= card.getVictoryPoints();
+                changed = true;
+            }
+        }
+        if (changed)
+            doNotify();
+    }
+
     /**
-     * this method checks if a leaderCard's requirement matches a card contained in this developmentCard space
+     * this method checks if a leaderCard's requirement matches the cards contained in this developmentCard space,
+     * a requirement repeated in the list needs as many cards
      * @param requirements are the requirements for the activation of a leader card
      * @return true if it matches the requirements with cards from the card space
      */
     public boolean checkRequirement(ArrayList<CardRequirement> requirements){
-       if(requirements.stream().filter(x -> checkSingleRequirement(x.getColor(),x.getLevel()) == false).count() == 0)
-           return true;
-       else
-           return false;
+        for (CardRequirement requirement : requirements) {
+            int required = 0;
+            for (CardRequirement other : requirements) {
+                if (other.equals(requirement)) required++;
+            }
+            if (getNumOfCards(requirement.getColor(), requirement.getLevel()) < required)
+                return false;
+        }
+        return true;
     }
 
     /**
-     * this method check if a card in the card space matches a combination of level and color, the level is 0 when it is not requested a specific level
-     * @param color is the color to match
-     * @param level is the level to match
-     * @return true if it finds a match
+     * @param color is the color of the cards
+     * @param level is the level of the cards, 0 to count the cards of every level
+     * @return the number of cards of the color and level owned by the player
      */
-    private boolean checkSingleRequirement(DevelopmentCardColor color, Integer level){
-        int stack = 0;
-        ArrayList<DevelopmentCard> singleStack;
-
-        while(stack < cards.size()){
-            singleStack = cards.get(stack);
-            if(level != 0 && singleStack.stream().filter(x -> x.getColor() == color && x.getLevel() == level).count() > 0)
-                return true;
-            if(level == 0 && singleStack.stream().filter(x -> x.getColor() == color).count() > 0)
-                return true;
-            stack++;
-        }
-        return false;
+    public int getNumOfCards(DevelopmentCardColor color, int level){
+        if (level < 0 || level > MAX_LEVEL)
+            return 0;
+        return numOfCardsByColorAndLevel[color.ordinal()][level];
     }
 
     /**
@@ -117,27 +172,29 @@ public class DevelopmentCardSpace extends MessageObservable implements Observabl
      * @throws InvalidParameterException when the cardPosition is not valid
      */
     public PowerOfProduction getPowerOfProduction(int cardPosition) throws InvalidParameterException{
+        PowerOfProduction powerOfProduction = findPowerOfProduction(cardPosition);
+        if (powerOfProduction == null)
+            throw new InvalidParameterException(ActionResult.INVALID_CARD_SPACE.getMessage());
+        return powerOfProduction;
+    }
+
+    /**
+     * @param cardPosition represents the number of the stack: 1,2 or 3 from left to right
+     * @return the power of production requested in cardPosition, null when the cardPosition is not valid or the stack is empty
+     */
+    public PowerOfProduction findPowerOfProduction(int cardPosition){
         cardPosition = cardPosition - 1;
-        if(cardPosition >= 0 && cardPosition <  numOfStacks && cards.get(cardPosition) != null && cards.get(cardPosition).size() != 0) {
-            ArrayList<DevelopmentCard> cardStack = cards.get(cardPosition);
-            return cardStack.get(cardStack.size() - 1).getPowerOfProduction();
-        }
-        else
-            throw new InvalidParameterException("The position is not valid or the card doesn't exist");
+        if(cardPosition < 0 || cardPosition >= numOfStacks || cards.get(cardPosition).isEmpty())
+            return null;
+        ArrayList<DevelopmentCard> cardStack = cards.get(cardPosition);
+        return cardStack.get(cardStack.size() - 1).getPowerOfProduction();
     }
 
     /**
      * @return victory points earned from all the cards own from the player
      */
     public int getVictoryPoints(){
-        int totalVictoryPoints = 0;
-        int stack = 0;
-
-        while(stack < cards.size()){
-            totalVictoryPoints = totalVictoryPoints + cards.get(stack).stream().mapToInt(x -> x.getVictoryPoints()).sum();
-            stack++;
-        }
-        return totalVictoryPoints;
+        return victoryPoints;
     }
 
     /**
@@ -3,13 +3,13 @@ package it.polimi.ingsw.server.model;
 import it.polimi.ingsw.common.messages.messagesToClient.PopeFavourTilesUpdate;
 import it.polimi.ingsw.common.messages.messagesToClient.RedCrossPositionUpdate;
 import it.polimi.ingsw.common.utils.observe.MessageObservable;
-import it.polimi.ingsw.server.model.exceptions.InvalidParameterException;
 
 
 import java.util.ArrayList;
 
 /**
- *this class represents the faith track of a player with the positions of the red cross and the tiles status
+ *this class represents the faith track of a player with the positions of the red cross and the tiles status.
+ * The vatican sections and the victory points of every position are in tables, so a move is computed in one step
 */
 public class FaithTrack extends MessageObservable implements ObservableGameEnder<EndGameConditionsObserver> {
     /**
@@ -18,13 +18,30 @@ public class FaithTrack extends MessageObservable implements ObservableGameEnder
      * 1 - value after vatican report if the tile doesn't turn
      * 2 - value after vatican report if the tile turn     * */
     private int faithTrackPosition;
-    private final int numOfPopeFavourTiles = 3;
+    private static final int MAX_POSITION = 24;
+    private static final int numOfPopeFavourTiles = 3;
+    //Position of the pope space of each vatican section
+    private static final int[] POPE_SPACES = {8, 16, 24};
+    //First position of each vatican section
+    private static final int[] SECTION_STARTS = {5, 12, 19};
+    //Victory points of each tile if it turns
+    private static final int[] TILE_VICTORY_POINTS = {2, 3, 4};
+    //Victory points of each position of the red cross, the points change every 3 positions
+    private static final int[] POSITION_VICTORY_POINTS = new int[MAX_POSITION + 1];
     private final int nonActive = 0;
     private final int nonActivated = 1;
     private final int active = 2;
     private ArrayList<Integer> popeFavourTiles;
+    //Victory points of the red cross position and of the tiles, updated at every change
+    private int victoryPoints;
     private EndGameConditionsObserver matchToNotify;
 
+    static {
+        int[] pointsEveryThreePositions = {0, 1, 2, 4, 6, 9, 12, 16, 20};
+        for (int position = 0; position <= MAX_POSITION; position++)
+            POSITION_VICTORY_POINTS[position] = pointsEveryThreePositions[position / 3];
+    }
+
     /**
      * this constructor sets the position of the red cross to 0 and each tiles as nonActive
      */
@@ -35,6 +52,18 @@ public class FaithTrack extends MessageObservable implements ObservableGameEnder
             popeFavourTiles.add(nonActive);
     }
 
+    /**
+     * this method returns how many vatican sections have their pope space in a position or before it
+     * @param position a position on the faith track
+     * @return the number of pope spaces reached by a red or black cross in the position
+     */
+    public static int getPopeSpacesReached(int position){
+        int reached = 0;
+        while (reached < numOfPopeFavourTiles && position >= POPE_SPACES[reached])
+            reached++;
+        return reached;
+    }
+
 
     /**
      * this method returns the position in the faith track
@@ -45,45 +74,51 @@ public class FaithTrack extends MessageObservable implements ObservableGameEnder
     }
 
     /**
-     * this method moves forward the red cross
+     * this method moves forward the red cross, the player that reaches a pope space first gets its tile,
+     * the tiles of the others are decided by the vatican report of the match
      * @param numOfSteps represents the amount of movements that the red cross has to do on the faith track
      */
     public void moveFaithMarker(int numOfSteps){
         if (numOfSteps >= 0) {
-            int steps = 0;
-            Integer tileNumber = null;
-            while(steps < numOfSteps){
-                faithTrackPosition++;
-                switch (faithTrackPosition){
-                    case 8:
-                        tileNumber = 0;
-                        break;
-                    case 16:
-                        tileNumber = 1;
-                        break;
-                    case 24:
-                        tileNumber = 2;
-                        break;
-                }
-                if(tileNumber != null)
-                    if(popeFavourTiles.get(tileNumber) == nonActive) {
-                        popeFavourTiles.set(tileNumber, active);
-                        notifyObservers(new PopeFavourTilesUpdate(getNickname(),new ArrayList<>(popeFavourTiles)));
-                    }
-                steps++;
-                tileNumber = null;
-            }
-            if (faithTrackPosition >= 24) {      // the maximum amount of space in the track is 24
-                faithTrackPosition = 24;
-                notifyObservers(new RedCrossPositionUpdate(getNickname(),faithTrackPosition));
-                //notifies match
-                if(matchToNotify != null) matchToNotify.update(false);
+            int previousPosition = faithTrackPosition;
+            // the maximum amount of space in the track is 24
+            faithTrackPosition = Math.min(previousPosition + numOfSteps, MAX_POSITION);
+            for (int tile = getPopeSpacesReached(previousPosition); tile < getPopeSpacesReached(faithTrackPosition); tile++) {
+                if (popeFavourTiles.get(tile) == nonActive)
+                    popeFavourTiles.set(tile, active);
             }
-            else
-                notifyObservers(new RedCrossPositionUpdate(getNickname(),faithTrackPosition));
+            updateVictoryPoints();
+            notifyObservers(new RedCrossPositionUpdate(getNickname(),faithTrackPosition));
+            //notifies match
+            if (faithTrackPosition == MAX_POSITION && matchToNotify != null) matchToNotify.update(false);
         }
     }
 
+    //Copies the position and the status of every tile, used by a BoardTransaction
+    int[] saveState() {
+        int[] state = new int[numOfPopeFavourTiles + 1];
+        state[0] = faithTrackPosition;
+        for (int tile = 0; tile < numOfPopeFavourTiles; tile++)
+            state[tile + 1] = popeFavourTiles.get(tile);
+        return state;
+    }
+
+    //Restores a state copied by saveState, the position and the tiles are notified if they changed in the meantime.
+    //A tile changes only if the red cross reached a pope space during the transaction, before the match checked the report
+    void restoreState(int[] state) {
+        boolean moved = state[0] != faithTrackPosition;
+        boolean tilesChanged = false;
+        faithTrackPosition = state[0];
+        for (int tile = 0; tile < numOfPopeFavourTiles; tile++) {
+            tilesChanged |= popeFavourTiles.get(tile) != state[tile + 1];
+            popeFavourTiles.set(tile, state[tile + 1]);
+        }
+        updateVictoryPoints();
+        if (moved)
+            notifyObservers(new RedCrossPositionUpdate(getNickname(), faithTrackPosition));
+        if (tilesChanged)
+            notifyObservers(new PopeFavourTilesUpdate(getNickname(), getPopeFavourTiles()));
+    }
 
     /**
      * this method is implemented for testing purpose
@@ -112,66 +147,45 @@ public class FaithTrack extends MessageObservable implements ObservableGameEnder
 
     /**
      * this method represents the activation of the vatican report on a specific tile,
-     * it checks the position of the red cross on the faith path
+     * the tile turns if the red cross is in the vatican section or beyond it
      * @param tileNumber represents the number of the tile
      */
     public void setPopeFavourTiles(int tileNumber) {
             tileNumber = tileNumber - 1;
-            int firstValueInterval = 4 + (7 * tileNumber);
-            int secondValueInterval = 9 + (8 * tileNumber);
             if (popeFavourTiles.get(tileNumber) == nonActive) {
-                if (faithTrackPosition > firstValueInterval && faithTrackPosition < secondValueInterval)
+                if (faithTrackPosition >= SECTION_STARTS[tileNumber])
                     popeFavourTiles.set(tileNumber, active);
                 else
                     popeFavourTiles.set(tileNumber, nonActivated);
-                notifyObservers(new PopeFavourTilesUpdate(getNickname(),new ArrayList<>(popeFavourTiles)));
+                updateVictoryPoints();
             }
     }
 
     /**
-     * This method calculates victory points from the position of the red cross and the tiles status
-     * @return an int representing the VPs associated to the faith track
+     * this method returns the status of every tile, used to build the messages
+     * @return a new list with the value of every tile
      */
-    public int calculateVictoryPoints(){
-        return calculateVPfromFaithPoints() + calculateVPfromTiles();
+    public ArrayList<Integer> getPopeFavourTiles() {
+        return new ArrayList<>(popeFavourTiles);
     }
 
-    //private method to calculate victory points from the faith points
-    private int calculateVPfromFaithPoints(){
-        //rounds down faithpoints to the maximum multiple of 3 and then assings victory points with a switch case
-        int vp;
-        int roundedFaithPoints = faithTrackPosition - (faithTrackPosition % 3);
-        switch (roundedFaithPoints){
-            case 3: vp = 1;
-                break;
-            case 6: vp = 2;
-                break;
-            case 9: vp = 4;
-                break;
-            case 12: vp = 6;
-                break;
-            case 15: vp = 9;
-                break;
-            case 18: vp = 12;
-                break;
-            case 21: vp = 16;
-                break;
-            case 24: vp = 20;
-                break;
-            default: vp = 0;
-        }
-        return vp;
+    /**
+     * This method returns the victory points from the position of the red cross and the tiles status,
+     * they are calculated again only when the red cross moves or a tile changes
+     * @return an int representing the VPs associated to the faith track
+     */
+    public int calculateVictoryPoints(){
+        return victoryPoints;
     }
 
-    //private method to calculate victory points from the pope favour tiles values
-    private int calculateVPfromTiles(){
-        int vp=0;
-        //iterating all the tiles
-        for(int tileNumber = 0; tileNumber < 3; tileNumber++){
-            if(popeFavourTiles.get(tileNumber) == active)   //only active tiles contributes to the victory points calculations
-                vp = vp + (tileNumber + 2);     //(tileNumber + 2) are VP that you get from an active tile
+    private void updateVictoryPoints(){
+        int points = POSITION_VICTORY_POINTS[faithTrackPosition];
+        //only active tiles contributes to the victory points calculations
+        for (int tile = 0; tile < numOfPopeFavourTiles; tile++) {
+            if (popeFavourTiles.get(tile) == active)
+                points += TILE_VICTORY_POINTS[tile];
         }
-        return vp;
+        victoryPoints = points;
     }
 
     /**
@@ -8,18 +8,17 @@ import it.polimi.ingsw.server.model.exceptions.NotEnoughWhiteMarblesException;
 import java.util.Map;
 
 /**
- * this class represent the abstract leader card
+ * this class represent the abstract leader card, the same instance is shared by every match
+ * so the state of the card in a match is held by the personal board that owns it
  */
 public abstract class LeaderCard {
     private int id;
     private int victoryPoints;
     private Requirement requirement;
-    private Boolean active;
 
     public LeaderCard(int victoryPoints, Requirement requirement) {
         this.victoryPoints = victoryPoints;
         this.requirement = requirement;
-        this.active = false;
     }
 
     /**
@@ -29,21 +28,6 @@ public abstract class LeaderCard {
         return id;
     }
 
-    /**
-     * activate the leader card
-     */
-    public void activate(){
-        active = true;
-    }
-
-    /**
-     * method to check if a card is active
-     * @return true if the card is active
-     */
-    public Boolean isActive(){
-        return active;
-    }
-
     /**
      * getter for victory points
      * @return the victory points of the card
@@ -69,6 +53,26 @@ public abstract class LeaderCard {
         throw new InvalidLeaderAction("The selected card doesn't have the discount ability");
     }
 
+    /**
+     * Method to use the discount ability of the card
+     * @param resources the resources to discount
+     * @throws InvalidLeaderAction when the card does not have this ability
+     */
+    public void abilityDiscount(ResourceVector resources) throws InvalidLeaderAction {
+        if (!applyDiscount(resources)) {
+            throw new InvalidLeaderAction("The selected card doesn't have the discount ability");
+        }
+    }
+
+    /**
+     * Method to use the discount ability of the card without exceptions
+     * @param resources the resources to discount
+     * @return false when the card does not have this ability, the resources are not changed
+     */
+    public boolean applyDiscount(ResourceVector resources) {
+        return false;
+    }
+
     /**
      * Method to use the depot ability of the card
      * @param warehouseDepots the warehouse depot where the new depot will be added
@@ -93,7 +97,18 @@ public abstract class LeaderCard {
      * @throws InvalidLeaderAction when the card does not have this ability
      */
     public  PowerOfProduction abilityProduction() throws InvalidLeaderAction{
-        throw new InvalidLeaderAction("The selected card doesn't have the production ability");
+        PowerOfProduction powerOfProduction = getPowerOfProduction();
+        if (powerOfProduction == null) {
+            throw new InvalidLeaderAction("The selected card doesn't have the production ability");
+        }
+        return powerOfProduction;
+    }
+
+    /**
+     * @return the power of production of the card, null when the card does not have the production ability
+     */
+    public PowerOfProduction getPowerOfProduction() {
+        return null;
     }
 
 }
@@ -32,6 +32,26 @@ public class LeaderDiscount extends LeaderCard{
         }
     }
 
+    /**
+     * this method applies a discount to a vector of resources
+     * @param resources is the vector of resources to discount
+     */
+    @Override
+    public void abilityDiscount(ResourceVector resources) {
+        applyDiscount(resources);
+    }
+
+    /**
+     * this method applies a discount to a vector of resources
+     * @param resources is the vector of resources to discount
+     * @return true, the card always has the discount ability
+     */
+    @Override
+    public boolean applyDiscount(ResourceVector resources) {
+        resources.set(resourceDiscounted, Math.max(0, resources.get(resourceDiscounted) - discount));
+        return true;
+    }
+
     /**
      * Getter for the discounted resource
      * @return the resource discounted by the leader power
@@ -18,4 +18,12 @@ public class LeaderProduction extends LeaderCard{
     public PowerOfProduction abilityProduction() {
         return powerOfProduction;
     }
+
+    /**
+     * @return the power of production of the leader card
+     */
+    @Override
+    public PowerOfProduction getPowerOfProduction() {
+        return powerOfProduction;
+    }
 }
@@ -17,6 +17,7 @@ public class Lorenzo extends MessageObservable implements ObservableGameEnder<En
     private SoloActionToken currentActionToken;
     private CardGrid cardGrid;
     private EndGameConditionsObserver matchToNotify;
+    private final MatchRandom random;
 
 
     /**
@@ -25,6 +26,7 @@ public class Lorenzo extends MessageObservable implements ObservableGameEnder<En
     public Lorenzo(SoloMatch match){
         this.match = match;
         this.cardGrid = match.getCardGrid();
+        this.random = match.getRandom().split();
         soloActionTokenStack = new Stack<>();
         soloActionTokenUsedStack = new Stack<>();
 
@@ -36,7 +38,7 @@ public class Lorenzo extends MessageObservable implements ObservableGameEnder<En
         soloActionTokenStack.push(new BlackCrossTwo(this));
         soloActionTokenStack.push(new BlackCrossTwo(this));
 
-        Collections.shuffle(soloActionTokenStack);
+        random.shuffle(soloActionTokenStack);
     }
 
 
@@ -47,12 +49,7 @@ public class Lorenzo extends MessageObservable implements ObservableGameEnder<En
     public void moveFaithMarker(int numOfSteps){
         assert  numOfSteps >= 0;
         faithTrackPositionBlack = faithTrackPositionBlack + numOfSteps;
-        if(faithTrackPositionBlack >= 8 && faithTrackPositionBlack < 16)
-            match.vaticanReport(1);
-        if(faithTrackPositionBlack >= 16 && faithTrackPositionBlack < 24)
-            match.vaticanReport(2);
-        if(faithTrackPositionBlack >= 24)
-            match.vaticanReport(3);
+        match.checkVaticanReports(faithTrackPositionBlack);
 
         if (faithTrackPositionBlack >= 24) {    // the maximum amount of space in the track is 24
             faithTrackPositionBlack = 24;
@@ -78,7 +75,7 @@ public class Lorenzo extends MessageObservable implements ObservableGameEnder<En
             currentActionToken = soloActionTokenUsedStack.pop();
             soloActionTokenStack.push(currentActionToken);
         }
-        Collections.shuffle(soloActionTokenStack);
+        random.shuffle(soloActionTokenStack);
     }
 
     /**
@@ -7,23 +7,35 @@ import it.polimi.ingsw.server.model.enumerations.Marble;
 import java.util.*;
 
 /**
- * this class represents the market
+ * this class represents the market.
+ * The marbles are kept in a packed {@link MarketState}, the number of each marble in every row and column is updated at every move
  */
 public class Market extends MessageObservable {
 
-    private Marble[][] marketMatrix = new Marble[3][4];
-    private Marble marbleOut, tempMarble;
-    private Stack<Marble> marbleStack;
+    private static final Marble[] MARBLES = Marble.values();
+    private MarketState state;
+    private final int[][] rowCounts = new int[MarketState.MAX_ROW][MARBLES.length];
+    private final int[][] columnCounts = new int[MarketState.MAX_COLUMN][MARBLES.length];
 
-    private final int maxRow = 3;
-    private final int maxColumn = 4;
+    private final int maxRow = MarketState.MAX_ROW;
+    private final int maxColumn = MarketState.MAX_COLUMN;
 
     /**
      * this constructor creates the market data structure and initializes it with randomly placed marbles
      */
     public Market(boolean demo){
+        this(demo, new MatchRandom());
+    }
+
+    /**
+     * this constructor creates the market data structure and initializes it with marbles placed by the generator of the match
+     * @param demo true to place the marbles always in the same order
+     * @param random the generator used to place the marbles
+     */
+    public Market(boolean demo, MatchRandom random){
         int row, column;
-        marbleStack = new Stack<>();
+        Marble[][] marketMatrix = new Marble[maxRow][maxColumn];
+        Stack<Marble> marbleStack = new Stack<>();
 
         // filling the stack with all needed marbles
         marbleStack.push(Marble.WHITEMARBLE);
@@ -42,38 +54,34 @@ public class Market extends MessageObservable {
 
         // randomizing marbleStack
         if(!demo)
-            Collections.shuffle(marbleStack);
+            random.shuffle(marbleStack);
 
         // filling the marketMatrix randomly with marbles
         for(row=0; row<maxRow; row++)
             for(column=0; column<maxColumn; column++){
                 marketMatrix[row][column] = marbleStack.pop();
+                rowCounts[row][marketMatrix[row][column].ordinal()]++;
+                columnCounts[column][marketMatrix[row][column].ordinal()]++;
             }
 
-        marbleOut = marbleStack.pop();
-
+        state = MarketState.of(marketMatrix, marbleStack.pop());
     }
 
-    // this method changes the marketMatrix data structure
+    // this method changes the state of the market and the counts of the lines crossed by the moved line
     private void changeMarket(int rowOrColumn, int value){
-        int row, column;
-
-        if(rowOrColumn==0){
-            tempMarble = marbleOut;
-            marbleOut = marketMatrix[value][0];
-            for (row=value, column=0; column<3 ; column++) {
-                marketMatrix[row][column] = marketMatrix[row][column+1];
-            }
-            marketMatrix[row][column] = tempMarble;
-        }
-        if(rowOrColumn==1){
-            tempMarble = marbleOut;
-            marbleOut = marketMatrix[0][value];
-            for (row=0, column=value; row<2 ; row++) {
-                marketMatrix[row][column] = marketMatrix[row+1][column];
-            }
-            marketMatrix[row][column] = tempMarble;
+        MarketState newState = state.take(rowOrColumn, value);
+        int length = rowOrColumn == 0 ? maxColumn : maxRow;
+        for (int i = 0; i < length; i++) {
+            int row = rowOrColumn == 0 ? value : i;
+            int column = rowOrColumn == 0 ? i : value;
+            int before = state.ordinalAt(row, column);
+            int after = newState.ordinalAt(row, column);
+            rowCounts[row][before]--;
+            rowCounts[row][after]++;
+            columnCounts[column][before]--;
+            columnCounts[column][after]++;
         }
+        state = newState;
     }
 
     /**
@@ -83,18 +91,11 @@ public class Market extends MessageObservable {
      * @return Map of marbles bought from market
      */
     public Map<Marble,Integer> takeBoughtMarbles(int rowOrColumn, int value){
-
-        int row, column;
+        int[] counts = rowOrColumn == 0 ? rowCounts[value] : columnCounts[value];
         Map<Marble,Integer> temporaryMapMarble = new HashMap<>();
-
-        if(rowOrColumn==0){
-            for (row=value, column=0; column<maxColumn ; column++) {
-                temporaryMapMarble.merge(marketMatrix[row][column], 1, Integer::sum); //adding marbles from the matrix to the map
-            }
-        }
-        if(rowOrColumn==1){
-            for (row=0, column=value; row<maxRow ; row++) {
-                temporaryMapMarble.merge(marketMatrix[row][column], 1, Integer::sum);
+        for (Marble marble : MARBLES) {
+            if (counts[marble.ordinal()] > 0) {
+                temporaryMapMarble.put(marble, counts[marble.ordinal()]);
             }
         }
 
@@ -103,20 +104,37 @@ public class Market extends MessageObservable {
         return temporaryMapMarble;
     }
 
+    /**
+     * Method to get how many marbles of a kind would be bought with a row or a column
+     * @param rowOrColumn if == 0 then row is selected, if == 1 column is selected
+     * @param value Ranges from 0 to 2 if row is selected, from 0 to 3 if column is selected
+     * @param marble the marble to count
+     * @return the number of marbles of the kind in the row or column
+     */
+    public int getMarbleCount(int rowOrColumn, int value, Marble marble){
+        return (rowOrColumn == 0 ? rowCounts[value] : columnCounts[value])[marble.ordinal()];
+    }
+
     /**
      * Getter for the marble out of the market
      * @return a marble
      */
     public Marble getMarbleOut() {
-        return marbleOut;
+        return state.getMarbleOut();
     }
 
     /**
-     * Notifies the view with a clone of the model data in the market
+     * Getter for the state of the market, the state is immutable so it can be kept as a snapshot
+     * @return the current state of the market
      */
-    public void doNotify(){
-        notifyObservers(new MarketUpdate(marketMatrix.clone(), marbleOut));
+    public MarketState getState() {
+        return state;
     }
 
-
+    /**
+     * Notifies the view with a copy of the model data in the market
+     */
+    public void doNotify(){
+        notifyObservers(new MarketUpdate(state.toMatrix(), state.getMarbleOut()));
+    }
 }
@@ -0,0 +1,132 @@
+package it.polimi.ingsw.server.model;
+
+import it.polimi.ingsw.server.model.enumerations.Marble;
+
+/**
+ * Immutable state of the market: the 12 marbles of the matrix and the marble out, packed 3 bits each in a long.
+ * The marble in row r and column c is in the cell r * 4 + c, the marble out is in the cell 12.
+ * Buying a row or a column returns a new state, so a state can be kept as a snapshot and moves can be previewed
+ */
+public final class MarketState {
+    static final int MAX_ROW = 3;
+    static final int MAX_COLUMN = 4;
+    private static final Marble[] MARBLES = Marble.values();
+    private static final int BITS = 3;
+    private static final long CELL_MASK = (1L << BITS) - 1;
+    private static final long ROW_MASK = (1L << (BITS * MAX_COLUMN)) - 1;
+    private static final int OUT_CELL = MAX_ROW * MAX_COLUMN;
+    private final long cells;
+
+    private MarketState(long cells) {
+        this.cells = cells;
+    }
+
+    /**
+     * Builds the state from the marbles of the market
+     * @param marketMatrix the marbles of the matrix, 3 rows of 4 marbles
+     * @param marbleOut the marble out of the matrix
+     * @return the state
+     */
+    public static MarketState of(Marble[][] marketMatrix, Marble marbleOut) {
+        long cells = (long) marbleOut.ordinal() << (BITS * OUT_CELL);
+        for (int row = 0; row < MAX_ROW; row++) {
+            for (int column = 0; column < MAX_COLUMN; column++) {
+                cells |= (long) marketMatrix[row][column].ordinal() << (BITS * (row * MAX_COLUMN + column));
+            }
+        }
+        return new MarketState(cells);
+    }
+
+    private int cell(int index) {
+        return (int) ((cells >>> (BITS * index)) & CELL_MASK);
+    }
+
+    //Ordinal of the marble in the given position, used to update the counts without looking up the marble
+    int ordinalAt(int row, int column) {
+        return cell(row * MAX_COLUMN + column);
+    }
+
+    /**
+     * @param row the row of the marble, from 0 to 2
+     * @param column the column of the marble, from 0 to 3
+     * @return the marble in the given position
+     */
+    public Marble getMarble(int row, int column) {
+        return MARBLES[cell(row * MAX_COLUMN + column)];
+    }
+
+    /**
+     * @return the marble out of the matrix
+     */
+    public Marble getMarbleOut() {
+        return MARBLES[cell(OUT_CELL)];
+    }
+
+    /**
+     * Counts a marble in a row or in a column
+     * @param rowOrColumn 0 for a row, 1 for a column
+     * @param value from 0 to 2 for a row, from 0 to 3 for a column
+     * @param marble the marble to count
+     * @return how many times the marble is in the row or column
+     */
+    public int count(int rowOrColumn, int value, Marble marble) {
+        int count = 0;
+        int length = rowOrColumn == 0 ? MAX_COLUMN : MAX_ROW;
+        for (int i = 0; i < length; i++) {
+            int index = rowOrColumn == 0 ? value * MAX_COLUMN + i : i * MAX_COLUMN + value;
+            if (cell(index) == marble.ordinal()) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the state after buying a row or a column: the marbles slide towards the first cell
+     * and the marble out enters in the last one, the first marble becomes the marble out
+     * @param rowOrColumn 0 for a row, 1 for a column
+     * @param value from 0 to 2 for a row, from 0 to 3 for a column
+     * @return the new state
+     */
+    public MarketState take(int rowOrColumn, int value) {
+        long out = cells >>> (BITS * OUT_CELL);
+        long matrix = cells & ~(CELL_MASK << (BITS * OUT_CELL));
+        if (rowOrColumn == 0) {
+            int shift = BITS * MAX_COLUMN * value;
+            long row = (matrix >>> shift) & ROW_MASK;
+            long newRow = (row >>> BITS) | (out << (BITS * (MAX_COLUMN - 1)));
+            matrix = (matrix & ~(ROW_MASK << shift)) | (newRow << shift);
+            out = row & CELL_MASK;
+        } else {
+            long entering = out;
+            out = (matrix >>> (BITS * value)) & CELL_MASK;
+            for (int row = 0; row < MAX_ROW; row++) {
+                int shift = BITS * (row * MAX_COLUMN + value);
+                long next = row < MAX_ROW - 1 ? (matrix >>> (shift + BITS * MAX_COLUMN)) & CELL_MASK : entering;
+                matrix = (matrix & ~(CELL_MASK << shift)) | (next << shift);
+            }
+        }
+        return new MarketState(matrix | (out << (BITS * OUT_CELL)));
+    }
+
+    /**
+     * @return a new matrix with the marbles of the market, used to build the messages
+     */
+    public Marble[][] toMatrix() {
+        Marble[][] marketMatrix = new Marble[MAX_ROW][MAX_COLUMN];
+        for (int row = 0; row < MAX_ROW; row++) {
+            for (int column = 0; column < MAX_COLUMN; column++) {
+                marketMatrix[row][column] = getMarble(row, column);
+            }
+        }
+        return marketMatrix;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof MarketState && ((MarketState) other).cells == cells;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cells);
+    }
+}
@@ -4,7 +4,8 @@ import it.polimi.ingsw.common.messages.messagesToClient.PlayerTurnUpdate;
 import it.polimi.ingsw.common.View;
 import it.polimi.ingsw.common.messages.messagesToClient.PlayersOrderUpdate;
 import it.polimi.ingsw.common.messages.messagesToClient.RankUpdate;
-import it.polimi.ingsw.common.utils.LeaderCardParser;
+import it.polimi.ingsw.common.messages.messagesToClient.VaticanReportUpdate;
+import it.polimi.ingsw.common.utils.CardCatalog;
 import it.polimi.ingsw.common.utils.observe.MessageObservable;
 import it.polimi.ingsw.server.model.comparators.CustomPlayerComparator;
 import it.polimi.ingsw.server.model.enumerations.MatchPhase;
@@ -14,7 +15,9 @@ import it.polimi.ingsw.server.model.exceptions.InvalidParameterException;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Stack;
 
 /**
@@ -35,6 +38,9 @@ public class Match extends MessageObservable implements EndGameConditionsObserve
     private ArrayList<Player> rank;
     private ArrayList<RankPosition> finalRank;
     private Boolean demo;
+    private final MatchRandom random;
+    //Number of vatican sections whose report has been done, they are resolved in order
+    private int vaticanSectionsResolved;
 
     /**
      * This constructor creates a match deserializing all the leader cards and creating the market and the cardgrind
@@ -42,23 +48,34 @@ public class Match extends MessageObservable implements EndGameConditionsObserve
      * @param numOfPlayer the number of players that will join the match
      */
     public Match(int matchID, int numOfPlayer, boolean demo) throws InvalidParameterException {
+        this(matchID, numOfPlayer, demo, new MatchRandom());
+    }
+
+    /**
+     * This constructor creates a match whose random choices are all made by a generator, so that the match can be replayed
+     * @param matchID an int that identifies the match
+     * @param numOfPlayer the number of players that will join the match
+     * @param demo true to create the match in demo mode
+     * @param random the generator of the match, its seed identifies the random choices of the match
+     */
+    public Match(int matchID, int numOfPlayer, boolean demo, MatchRandom random) throws InvalidParameterException {
         if (numOfPlayer < 0 || numOfPlayer > 4)
             throw new InvalidParameterException("The match can be played by one to four players");
         this.matchID = matchID;
         this.numOfPlayers = numOfPlayer;
         numOfTurnsPlayed = 0;
+        this.random = random;
         numOfPlayersReady = 0;
         matchPhase = MatchPhase.SETUP;
-        //deserialize leader cards from json file
-        LeaderCardParser leaderCardParser= new LeaderCardParser();
-        leaderCards = leaderCardParser.loadLeaderCards();
+        //takes the leader cards from the catalog shared by every match
+        leaderCards = CardCatalog.getInstance().newLeaderDeck();
         //shuffle leader cards
         if(!demo)
-         Collections.shuffle(leaderCards);
+         random.shuffle(leaderCards);
         //crates market and card grid
-        market = new Market(demo);
+        market = new Market(demo, random.split());
         market.addObserverList(this.getMessageObservers());
-        cardGrid = new CardGrid(demo);
+        cardGrid = new CardGrid(demo, random.split());
         cardGrid.AddMatchToNotify(this);
         cardGrid.addObserverList(this.getMessageObservers());
         players = new ArrayList<>();
@@ -114,7 +131,7 @@ public class Match extends MessageObservable implements EndGameConditionsObserve
                 case LEADERCHOICE:
                     numOfPlayersReady = 0;
                     if(!demo)
-                        Collections.shuffle(players);
+                        random.shuffle(players);
 
                     //Sending order of players
                     List<String> playerNicknames = new ArrayList<>();
@@ -150,6 +167,14 @@ public class Match extends MessageObservable implements EndGameConditionsObserve
             }
         }
     }
+    /**
+     * This method gives access to the generator of the match, the elements created during the match split it
+     * @return the generator of the match
+     */
+    public MatchRandom getRandom() {
+        return random;
+    }
+
     /**
      * This method gives access to the market
      * @return the market of the match
@@ -211,19 +236,37 @@ public class Match extends MessageObservable implements EndGameConditionsObserve
     }
 
     /**
-     * This method activates the vatican report on all players on a specific tile
+     * This method activates the vatican report on all players on a specific tile and on the tiles before it not yet reported,
+     * each report is done once and every player is notified with a single update
      * @param tileNumber is the tile to activate
      */
     public void vaticanReport(int tileNumber){
-        players.forEach(x -> x.getPersonalBoard().activateVaticanReport(tileNumber));
+        if (tileNumber <= vaticanSectionsResolved)
+            return;
+        while (vaticanSectionsResolved < tileNumber) {
+            vaticanSectionsResolved++;
+            for (Player player : players)
+                player.getPersonalBoard().activateVaticanReport(vaticanSectionsResolved);
+        }
+        Map<String, ArrayList<Integer>> popeFavourTiles = new LinkedHashMap<>();
+        for (Player player : players)
+            popeFavourTiles.put(player.getNickname(), player.getPersonalBoard().getFaithTrack().getPopeFavourTiles());
+        notifyObservers(new VaticanReportUpdate(vaticanSectionsResolved, popeFavourTiles));
+    }
+
+    /**
+     * This method does the vatican reports of the pope spaces reached by a red or black cross and not yet reported
+     * @param position is the position reached on the faith track
+     */
+    public void checkVaticanReports(int position){
+        vaticanReport(FaithTrack.getPopeSpacesReached(position));
     }
 
 
     /**
-     * This method ends the game calculating the victory points from each player and ranking the players
+     * This method ends the game ranking the players by the victory points kept updated by their personal boards
      */
     public void endGame() {
-        players.forEach(x -> x.getPersonalBoard().sumVictoryPoints());
         rank = new ArrayList<>(players);
         rank.sort(new CustomPlayerComparator());
         ArrayList<Player> tempRank = new ArrayList<>();
@@ -250,8 +293,14 @@ public class Match extends MessageObservable implements EndGameConditionsObserve
      * @param positions is the number of steps to make on the faith track for each player
      */
     public void moveFaithMarkerAll(int positions){
-        players.stream().filter(x -> x != currentPlayer).forEach(x -> x.getPersonalBoard().moveFaithMarker(positions));
-        players.stream().filter(x -> x != currentPlayer).forEach(x -> x.getPersonalBoard().checkVaticanReport());
+        int furthestPosition = 0;
+        for (Player player : players) {
+            if (player != currentPlayer) {
+                player.getPersonalBoard().moveFaithMarker(positions);
+                furthestPosition = Math.max(furthestPosition, player.getPersonalBoard().getFaithTrack().getFaithTrackPosition());
+            }
+        }
+        checkVaticanReports(furthestPosition);
     }
 
     /**
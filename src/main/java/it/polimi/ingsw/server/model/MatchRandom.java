@@ -0,0 +1,70 @@
+package it.polimi.ingsw.server.model;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Source of randomness of a match, derived from a seed so that a match can be replayed.
+ * Every element of the match takes its own generator split from the one of the match, so its draws do not depend on
+ * how many numbers the other elements have drawn. A generator must be used by one thread at a time
+ */
+public final class MatchRandom {
+    private static final SplittableRandom seeds = new SplittableRandom();
+    private final long seed;
+    private final SplittableRandom random;
+
+    /**
+     * Constructor of a generator with a new seed
+     */
+    public MatchRandom() {
+        this(nextSeed());
+    }
+
+    /**
+     * Constructor of a generator with a given seed
+     * @param seed the seed of the generator
+     */
+    public MatchRandom(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    private MatchRandom(long seed, SplittableRandom random) {
+        this.seed = seed;
+        this.random = random;
+    }
+
+    private static synchronized long nextSeed() {
+        return seeds.nextLong();
+    }
+
+    /**
+     * @return the seed the generator of the match was created with
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Creates the generator of an element of the match
+     * @return a new generator, independent from this one
+     */
+    public MatchRandom split() {
+        return new MatchRandom(seed, random.split());
+    }
+
+    /**
+     * Shuffles a list, with the same algorithm of {@link java.util.Collections#shuffle(List)}
+     * @param list the list to shuffle
+     */
+    public void shuffle(List<?> list) {
+        shuffleList(list);
+    }
+
+    private <T> void shuffleList(List<T> list) {
+        for (int i = list.size(); i > 1; i--) {
+            int j = random.nextInt(i);
+            list.set(i - 1, list.set(j, list.get(i - 1)));
+        }
+    }
+}
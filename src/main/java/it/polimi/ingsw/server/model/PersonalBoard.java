@@ -2,7 +2,9 @@ package it.polimi.ingsw.server.model;
 
 import it.polimi.ingsw.common.messages.messagesToClient.*;
 import it.polimi.ingsw.common.utils.observe.MessageObservable;
+import it.polimi.ingsw.server.model.enumerations.ActionResult;
 import it.polimi.ingsw.server.model.enumerations.Marble;
+import it.polimi.ingsw.server.model.enumerations.PaymentPolicy;
 import it.polimi.ingsw.server.model.enumerations.PersonalBoardPhase;
 import it.polimi.ingsw.server.model.enumerations.Resource;
 import it.polimi.ingsw.server.model.exceptions.*;
@@ -15,12 +17,19 @@ import java.util.Map;
  * The personal board coordinates every element of the game that is owned by the player
  */
 public class PersonalBoard extends MessageObservable {
+    private static final Resource[] RESOURCES = Resource.values();
     private Player myPlayer;
     private final int TOTPOWERPRODUCTIONS = 6;
     private int victoryPoints;
+    private int leaderVictoryPoints;
     private Map<Marble,Integer> temporaryMarbles;
-    private Map<Resource, Integer> temporaryMapResource;
+    private final ResourceVector temporaryResources;
+    //The payment of the action being done, filled by preparePayment
+    private final ResourceVector strongboxPayment = new ResourceVector();
+    private final ResourceVector warehousePayment = new ResourceVector();
+    private int temporaryMapResourceSequence;
     private final ArrayList<LeaderCard> leaderCards;
+    private final Set<LeaderCard> activeLeaderCards;
     private final FaithTrack faithTrack;
     private final Match match;
     private final Strongbox strongbox;
@@ -40,6 +49,7 @@ public class PersonalBoard extends MessageObservable {
         this.market = match.getMarket();
         this.cardGrid = match.getCardGrid();
         this.leaderCards = leaderCards;
+        this.activeLeaderCards = new HashSet<>();
 
         this.faithTrack = new FaithTrack();
         faithTrack.addObserver(match);
@@ -57,7 +67,8 @@ public class PersonalBoard extends MessageObservable {
         this.warehouseDepots = new WarehouseDepots();
         warehouseDepots.addObserverList(this.getMessageObservers());
 
-        this.temporaryMapResource = new HashMap<>();
+        this.temporaryResources = new ResourceVector();
+        this.temporaryMapResourceSequence = 0;
         this.temporaryMarbles = new HashMap<>();
         Arrays.fill(this.powerOfProductionUsed, false);
         numOfResourcesToChoose = 0;
@@ -75,57 +86,114 @@ public class PersonalBoard extends MessageObservable {
         demoResourceMap.put(Resource.SERVANT, 10);
         demoResourceMap.put(Resource.STONE, 10);
         strongbox.add(demoResourceMap);
+        updateVictoryPoints();
         System.out.println("Demo player created");
     }
 
 
-    //Method used to check if the merged maps of cost strongbox and cost warehouseDepot are equal to costToPay
-    private void mergeCostsAndVerify(Map<Resource,Integer> costStrongbox, Map<Resource,Integer> costWarehouseDepot, Map<Resource,Integer> costToPay) throws InvalidCostException {
-        //Merging maps in a temporary cost map and checking it is equal to cost of power of production
-        Map<Resource,Integer> totalCostResourceMap =  new HashMap<>(costStrongbox);
-        costWarehouseDepot.forEach(
-                (key, value) -> totalCostResourceMap.merge(key, value, Integer::sum)
-        );
+    //Converts a cost received from a player, the quantities must not be negative, returns null if the cost is not valid
+    private static ResourceVector costOf(Map<Resource,Integer> cost) {
+        if (cost == null) {
+            return null;
+        }
+        try {
+            ResourceVector resources = new ResourceVector(cost);
+            if (!resources.hasNegative()) {
+                return resources;
+            }
+        } catch (IllegalArgumentException ignored) { }
+        return null;
+    }
 
-        if(!totalCostResourceMap.equals(costToPay)){
-            throw new InvalidCostException("The specified cost is not valid");
+    //Chooses how to pay costToPay and checks that the resources are owned, the payment is left in strongboxPayment and warehousePayment.
+    //With a policy the split is computed by splitPayment, otherwise it is the one chosen by the player
+    private ActionResult preparePayment(ResourceVector costToPay, Map<Resource,Integer> costStrongbox, Map<Resource,Integer> costWarehouseDepot, PaymentPolicy paymentPolicy) {
+        if (paymentPolicy != null) {
+            return splitPayment(costToPay, paymentPolicy);
+        }
+        ResourceVector strongboxCost = costOf(costStrongbox);
+        ResourceVector warehouseCost = costOf(costWarehouseDepot);
+        if (strongboxCost == null || warehouseCost == null || !costToPay.isSum(strongboxCost, warehouseCost)) {
+            return ActionResult.INVALID_COST;
+        }
+        if (!strongbox.isAvailable(strongboxCost) || !warehouseDepots.isAvailable(warehouseCost)) {
+            return ActionResult.NOT_ENOUGH_RESOURCES;
         }
+        strongboxPayment.clear();
+        strongboxPayment.add(strongboxCost);
+        warehousePayment.clear();
+        warehousePayment.add(warehouseCost);
+        return ActionResult.OK;
     }
 
-    //Method used to remove resources from strongbox and warehouseDepot
-    private void pay(Map<Resource,Integer> costStrongbox, Map<Resource,Integer> costWarehouseDepot) throws InvalidRemovalException {
-        //Checking resource availability
-        if(!strongbox.isAvailable(costStrongbox) || !warehouseDepots.isAvailable(costWarehouseDepot)){
-            throw new InvalidRemovalException("The are not enough resources");
+    //Splits costToPay between warehouse depots and strongbox following the policy.
+    //Every resource is split on its own, so the split exists whenever the player owns enough of every resource
+    private ActionResult splitPayment(ResourceVector costToPay, PaymentPolicy paymentPolicy) {
+        for (Resource resource : RESOURCES) {
+            int quantity = costToPay.get(resource);
+            int inWarehouse = warehouseDepots.getResourceQuantity(resource);
+            int inStrongbox = strongbox.getResourceQuantity(resource);
+            if (quantity > inWarehouse + inStrongbox) {
+                return ActionResult.NOT_ENOUGH_RESOURCES;
+            }
+            int fromWarehouse = paymentPolicy == PaymentPolicy.WAREHOUSE_FIRST
+                    ? Math.min(quantity, inWarehouse)
+                    : quantity - Math.min(quantity, inStrongbox);
+            warehousePayment.set(resource, fromWarehouse);
+            strongboxPayment.set(resource, quantity - fromWarehouse);
         }
-        //Removing price paid from strongbox and/or warehouse
-        strongbox.uncheckedRemove(costStrongbox);
-        warehouseDepots.uncheckedRemove(costWarehouseDepot);
+        return ActionResult.OK;
     }
 
-    //Method used to pay and add production to faithTrack and/or strongbox
-    private void produce(Map<Resource,Integer> costStrongbox, Map<Resource,Integer> costWarehouseDepot, Map<Resource,Integer> production) throws InvalidRemovalException {
-        pay(costStrongbox, costWarehouseDepot);
-        //Adding production to strongbox and/or faithTrack
-        dispatch(production);
+    //Method used to pay, checked with preparePayment, and add production to faithTrack and/or strongbox
+    private void produce(ResourceVector costStrongbox, ResourceVector costWarehouseDepot, ResourceVector production, int indexPowerOfProduction) {
+        atomically(() -> {
+            //Removing price paid from strongbox and/or warehouse
+            strongbox.uncheckedRemove(costStrongbox);
+            warehouseDepots.uncheckedRemove(costWarehouseDepot);
+            //Adding production to strongbox and/or faithTrack
+            dispatch(production);
+            temporaryResources.add(production);
+            notifyTemporaryMapResourceChanges(production.toMap());
+            //Marking that the production has been done in this turn
+            powerOfProductionUsed[indexPowerOfProduction] = true;
+            personalBoardPhase = PersonalBoardPhase.PRODUCTION;
+            updateVictoryPoints();
+        });
+        //the vatican reports change the other boards too, so they are checked once the production is done
         checkVaticanReport();
-        production.forEach((resource, quantity) -> temporaryMapResource.merge(resource, quantity, Integer::sum));
-        notifyObservers(new TemporaryResourceMapUpdate(getNickname(), new HashMap<>(temporaryMapResource)));
+        myPlayer.getView().update(new ProductionDoneUpdate(getNickname()));
+    }
+
+    //Runs the steps of a compound action, if one of them fails the board is brought back to the state before the action
+    private void atomically(Runnable steps) {
+        BoardTransaction transaction = beginTransaction();
+        try {
+            steps.run();
+        } catch (RuntimeException exception) {
+            transaction.rollback();
+            throw exception;
+        }
+        transaction.commit();
     }
 
-    //Method that is used to remove faith from temporaryMapResource and to add it to faithTrack
-    private void dispatch(Map<Resource,Integer> production){
-        Set<Resource> productionSet = new HashSet<Resource>(production.keySet());
-        for (Resource resource : productionSet){
-            resource.dispatch(production, faithTrack);
+    //Method that is used to remove faith from the production and to add it to faithTrack
+    private void dispatch(ResourceVector production){
+        for (Resource resource : RESOURCES){
+            if (production.get(resource) != 0) {
+                resource.dispatch(production, faithTrack);
+            }
         }
     }
 
     //Returns true if all the resources in resourceRequirement are present in strongbox and/or warehouse
-    private boolean checkResourceRequirement(Map<Resource,Integer> resourceRequirement){
-        Map<Resource,Integer> resourcesNotAvailable = warehouseDepots.resourcesNotAvailable(resourceRequirement);
-        resourcesNotAvailable = strongbox.resourcesNotAvailable(resourcesNotAvailable);
-        return resourcesNotAvailable.isEmpty();
+    private boolean checkResourceRequirement(ResourceVector resourceRequirement){
+        for (Resource resource : RESOURCES){
+            if (warehouseDepots.getResourceQuantity(resource) + strongbox.getResourceQuantity(resource) < resourceRequirement.get(resource)){
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -136,21 +204,58 @@ public class PersonalBoard extends MessageObservable {
      * @throws InvalidProductionException If the same production has already been done in the same turn
      * @throws InvalidRemovalException If the payment can't be made
      * @throws InvalidCostException If the specified costs do not match the cost required by the power of production
+     * @throws InvalidParameterException If there is no card in the specified slot
      */
     public void activateCardProduction(Map<Resource,Integer> costStrongbox, Map<Resource,Integer> costWarehouseDepot, int indexDevelopmentCardSpace) throws InvalidProductionException, InvalidRemovalException, InvalidCostException, InvalidParameterException {
+        ActionResult result = tryActivateCardProduction(costStrongbox, costWarehouseDepot, indexDevelopmentCardSpace);
+        switch (result) {
+            case OK:
+                return;
+            case INVALID_CARD_SPACE:
+                throw new InvalidParameterException(result.getMessage());
+            case INVALID_COST:
+                throw new InvalidCostException(result.getMessage());
+            case NOT_ENOUGH_RESOURCES:
+                throw new InvalidRemovalException(result.getMessage());
+            default:
+                throw new InvalidProductionException(result.getMessage());
+        }
+    }
+
+    /**
+     * Same as activateCardProduction, a rejected production is reported with the returned result instead of an exception
+     * @param costStrongbox The cost of power of production paid with the resources located in the strongbox
+     * @param costWarehouseDepot The cost of power of production paid with the resources located in the warehouse
+     * @param indexDevelopmentCardSpace  The number of the development card slot used for the production. Ranges from 1 to 3
+     * @return OK if the production has been done, the reason why it has been rejected otherwise
+     */
+    public ActionResult tryActivateCardProduction(Map<Resource,Integer> costStrongbox, Map<Resource,Integer> costWarehouseDepot, int indexDevelopmentCardSpace) {
+        return tryActivateCardProduction(costStrongbox, costWarehouseDepot, indexDevelopmentCardSpace, null);
+    }
+
+    /**
+     * Same as tryActivateCardProduction, the payment can be split by the server
+     * @param costStrongbox The cost of power of production paid with the resources located in the strongbox, ignored with a policy
+     * @param costWarehouseDepot The cost of power of production paid with the resources located in the warehouse, ignored with a policy
+     * @param indexDevelopmentCardSpace  The number of the development card slot used for the production. Ranges from 1 to 3
+     * @param paymentPolicy how to split the cost between warehouse and strongbox, null to use the given costs
+     * @return OK if the production has been done, the reason why it has been rejected otherwise
+     */
+    public ActionResult tryActivateCardProduction(Map<Resource,Integer> costStrongbox, Map<Resource,Integer> costWarehouseDepot, int indexDevelopmentCardSpace, PaymentPolicy paymentPolicy) {
+        PowerOfProduction powerOfProduction = developmentCardSpace.findPowerOfProduction(indexDevelopmentCardSpace);
+        if (powerOfProduction == null) {
+            return ActionResult.INVALID_CARD_SPACE;
+        }
         //Checking that this production has not already been used in this turn
         if (powerOfProductionUsed[indexDevelopmentCardSpace]) {
-            throw new InvalidProductionException("You already used this production");
+            return ActionResult.PRODUCTION_ALREADY_USED;
         }
-        PowerOfProduction powerOfProduction = developmentCardSpace.getPowerOfProduction(indexDevelopmentCardSpace);
         //Checking the correctness of costs
-        mergeCostsAndVerify(costStrongbox, costWarehouseDepot, powerOfProduction.getCost());
-        //Activating production
-        produce(costStrongbox, costWarehouseDepot, powerOfProduction.getProduction());
-        //Marking that the production has been done in this turn
-        powerOfProductionUsed[indexDevelopmentCardSpace] = true;
-        personalBoardPhase = PersonalBoardPhase.PRODUCTION;
-        myPlayer.getView().update(new ProductionDoneUpdate(getNickname()));
+        ActionResult result = preparePayment(powerOfProduction.getCostVector(), costStrongbox, costWarehouseDepot, paymentPolicy);
+        if (result.isOk()) {
+            produce(strongboxPayment, warehousePayment, new ResourceVector(powerOfProduction.getProductionVector()), indexDevelopmentCardSpace);
+        }
+        return result;
     }
 
     /**
@@ -163,34 +268,64 @@ public class PersonalBoard extends MessageObservable {
      * @throws InvalidCostException If the total resources are not two
      */
     public void activateBasicProduction(Map<Resource,Integer> costStrongbox, Map<Resource,Integer> costWarehouseDepot, Resource resource) throws InvalidProductionException, InvalidRemovalException, InvalidCostException {
+        ActionResult result = tryActivateBasicProduction(costStrongbox, costWarehouseDepot, resource);
+        switch (result) {
+            case OK:
+                return;
+            case INVALID_COST:
+                throw new InvalidCostException(result.getMessage());
+            case NOT_ENOUGH_RESOURCES:
+                throw new InvalidRemovalException(result.getMessage());
+            default:
+                throw new InvalidProductionException(result.getMessage());
+        }
+    }
+
+    /**
+     * Same as activateBasicProduction, a rejected production is reported with the returned result instead of an exception
+     * @param costStrongbox The cost of power of production paid with the resources located in the strongbox
+     * @param costWarehouseDepot The cost of power of production paid with the resources located in the warehouse
+     * @param resource The resource that is going to be produced
+     * @return OK if the production has been done, the reason why it has been rejected otherwise
+     */
+    public ActionResult tryActivateBasicProduction(Map<Resource,Integer> costStrongbox, Map<Resource,Integer> costWarehouseDepot, Resource resource) {
+        return tryActivateBasicProduction(costStrongbox, costWarehouseDepot, resource, null);
+    }
+
+    /**
+     * Same as tryActivateBasicProduction, the payment can be split by the server
+     * @param costStrongbox The cost of power of production paid with the resources located in the strongbox
+     * @param costWarehouseDepot The cost of power of production paid with the resources located in the warehouse
+     * @param resource The resource that is going to be produced
+     * @param paymentPolicy how to split the sum of the two costs between warehouse and strongbox, null to use the given costs
+     * @return OK if the production has been done, the reason why it has been rejected otherwise
+     */
+    public ActionResult tryActivateBasicProduction(Map<Resource,Integer> costStrongbox, Map<Resource,Integer> costWarehouseDepot, Resource resource, PaymentPolicy paymentPolicy) {
         //Checking that this production has not already been used in this turn
         if (powerOfProductionUsed[0]) {
-            throw new InvalidProductionException("You already used this production");
+            return ActionResult.PRODUCTION_ALREADY_USED;
         }
         //Checking that resource is not faith
-        if (resource == Resource.FAITH){
-            throw new InvalidProductionException("Resource produced can't be faith");
+        if (resource == null || resource == Resource.FAITH){
+            return ActionResult.INVALID_PRODUCED_RESOURCE;
         }
+        ResourceVector strongboxCost = costOf(costStrongbox);
+        ResourceVector warehouseCost = costOf(costWarehouseDepot);
         //Checking that there is a total of two resources in both costs
-        int totalResources = 0;
-        for (int singleQuantity : costStrongbox.values()){
-            totalResources += singleQuantity;
-        }
-        for (int singleQuantity : costWarehouseDepot.values()){
-            totalResources += singleQuantity;
-        }
-        if (totalResources != 2){
-            throw new InvalidCostException("The specified cost is not valid");
-        }
-        //Creating a resource map with the single resource
-        Map<Resource, Integer> resourceToAdd = new HashMap<>();
-        resourceToAdd.put(resource, 1);
-        //Activating production
-        produce(costStrongbox, costWarehouseDepot, resourceToAdd);
-        //Marking that the production has been done in this turn
-        powerOfProductionUsed[0] = true;
-        personalBoardPhase = PersonalBoardPhase.PRODUCTION;
-        myPlayer.getView().update(new ProductionDoneUpdate(getNickname()));
+        if (strongboxCost == null || warehouseCost == null || strongboxCost.total() + warehouseCost.total() != 2){
+            return ActionResult.INVALID_COST;
+        }
+        //The cost is made of the two resources chosen by the player
+        ResourceVector costToPay = new ResourceVector(strongboxCost);
+        costToPay.add(warehouseCost);
+        ActionResult result = preparePayment(costToPay, costStrongbox, costWarehouseDepot, paymentPolicy);
+        if (result.isOk()) {
+            //Creating a resource vector with the single resource
+            ResourceVector resourceToAdd = new ResourceVector();
+            resourceToAdd.set(resource, 1);
+            produce(strongboxPayment, warehousePayment, resourceToAdd, 0);
+        }
+        return result;
     }
 
     /**
@@ -205,39 +340,169 @@ public class PersonalBoard extends MessageObservable {
      * @throws InvalidCostException If the specified costs do not match the cost required by the power of production
      */
     public void activateLeaderProduction(Map<Resource,Integer> costStrongbox, Map<Resource,Integer> costWarehouseDepot, int numLeaderCard, Resource resource) throws InvalidProductionException, InvalidRemovalException, InvalidLeaderAction, InvalidCostException {
+        ActionResult result = tryActivateLeaderProduction(costStrongbox, costWarehouseDepot, numLeaderCard, resource);
+        switch (result) {
+            case OK:
+                return;
+            case NOT_A_PRODUCTION_LEADER:
+                throw new InvalidLeaderAction(result.getMessage());
+            case INVALID_COST:
+                throw new InvalidCostException(result.getMessage());
+            case NOT_ENOUGH_RESOURCES:
+                throw new InvalidRemovalException(result.getMessage());
+            default:
+                throw new InvalidProductionException(result.getMessage());
+        }
+    }
+
+    /**
+     * Same as activateLeaderProduction, a rejected production is reported with the returned result instead of an exception
+     * @param costStrongbox The cost of power of production paid with the resources located in the strongbox
+     * @param costWarehouseDepot The cost of power of production paid with the resources located in the warehouse
+     * @param numLeaderCard The number of the leader card to use, ranges from 1 to the number of leader cards not discarded
+     * @param resource The resource that is going to be produced (together with a faith point already provided by the leader card)
+     * @return OK if the production has been done, the reason why it has been rejected otherwise
+     */
+    public ActionResult tryActivateLeaderProduction(Map<Resource,Integer> costStrongbox, Map<Resource,Integer> costWarehouseDepot, int numLeaderCard, Resource resource) {
+        return tryActivateLeaderProduction(costStrongbox, costWarehouseDepot, numLeaderCard, resource, null);
+    }
+
+    /**
+     * Same as tryActivateLeaderProduction, the payment can be split by the server
+     * @param costStrongbox The cost of power of production paid with the resources located in the strongbox, ignored with a policy
+     * @param costWarehouseDepot The cost of power of production paid with the resources located in the warehouse, ignored with a policy
+     * @param numLeaderCard The number of the leader card to use, ranges from 1 to the number of leader cards not discarded
+     * @param resource The resource that is going to be produced (together with a faith point already provided by the leader card)
+     * @param paymentPolicy how to split the cost between warehouse and strongbox, null to use the given costs
+     * @return OK if the production has been done, the reason why it has been rejected otherwise
+     */
+    public ActionResult tryActivateLeaderProduction(Map<Resource,Integer> costStrongbox, Map<Resource,Integer> costWarehouseDepot, int numLeaderCard, Resource resource, PaymentPolicy paymentPolicy) {
         //Checking that the specified leader card exists
         if (numLeaderCard <= 0 || numLeaderCard > leaderCards.size()){
-            throw new InvalidProductionException("The leader card selected does not exist");
+            return ActionResult.LEADER_CARD_NOT_FOUND;
         }
         //Checking that the power of production has not been already used in this turn
         if (powerOfProductionUsed[3+numLeaderCard]){
-            throw new InvalidProductionException("You already used this production");
+            return ActionResult.PRODUCTION_ALREADY_USED;
         }
         LeaderCard leaderCard = leaderCards.get(numLeaderCard-1);
         //Checking that leader card is active
-        if(!leaderCard.isActive()){
-            throw new InvalidProductionException("The leader card selected is not active");
+        if(!activeLeaderCards.contains(leaderCard)){
+            return ActionResult.LEADER_CARD_NOT_ACTIVE;
         }
         //Checking that resource is not faith
-        if (resource == Resource.FAITH) {
-            throw new InvalidProductionException("The resource to produce can't be faith");
+        if (resource == null || resource == Resource.FAITH) {
+            return ActionResult.INVALID_PRODUCED_RESOURCE;
         }
-        //Retrieving powerOfProduction of leaderCard, if not a production leader card an exception is thrown
-        PowerOfProduction powerOfProduction = leaderCard.abilityProduction();
+        //Retrieving powerOfProduction of leaderCard, null if not a production leader card
+        PowerOfProduction powerOfProduction = leaderCard.getPowerOfProduction();
         if(powerOfProduction == null){
-            throw new InvalidProductionException("The power of production does not exist");
+            return ActionResult.NOT_A_PRODUCTION_LEADER;
         }
-        //Add resource chosen by player
-        Map<Resource, Integer> production = new HashMap<>(powerOfProduction.getProduction());
-        production.put(resource, 1);
-
         //checking that the resources the specified cost are right for this production
-        mergeCostsAndVerify(costStrongbox, costWarehouseDepot, powerOfProduction.getCost());
-        produce(costStrongbox, costWarehouseDepot, production);
-        //Changing boolean of power of production for this turn
-        powerOfProductionUsed[3+numLeaderCard] = true;
-        personalBoardPhase = PersonalBoardPhase.PRODUCTION;
-        myPlayer.getView().update(new ProductionDoneUpdate(getNickname()));
+        ActionResult result = preparePayment(powerOfProduction.getCostVector(), costStrongbox, costWarehouseDepot, paymentPolicy);
+        if (result.isOk()) {
+            //Add resource chosen by player
+            ResourceVector production = new ResourceVector(powerOfProduction.getProductionVector());
+            production.set(resource, 1);
+            produce(strongboxPayment, warehousePayment, production, 3 + numLeaderCard);
+        }
+        return result;
+    }
+
+    /**
+     * Method used to activate some productions at once and end the production: the total cost is checked and paid once,
+     * then the produced resources are added to the strongbox with the ones of the productions already done in this turn.
+     * Either all the productions are done or none
+     * @param productions the productions to activate, each at most once
+     * @param costStrongbox The total cost of the productions paid with the resources located in the strongbox, ignored with a policy
+     * @param costWarehouseDepot The total cost of the productions paid with the resources located in the warehouse, ignored with a policy
+     * @param paymentPolicy how to split the total cost between warehouse and strongbox, null to use the given costs
+     * @return OK if the productions have been done, the reason why the first invalid one has been rejected otherwise
+     */
+    public ActionResult tryActivateProductions(List<ProductionRequest> productions, Map<Resource,Integer> costStrongbox, Map<Resource,Integer> costWarehouseDepot, PaymentPolicy paymentPolicy) {
+        if (productions == null || productions.isEmpty()) {
+            return ActionResult.NO_PRODUCTION;
+        }
+        boolean[] requested = new boolean[TOTPOWERPRODUCTIONS];
+        ResourceVector costToPay = new ResourceVector();
+        ResourceVector production = new ResourceVector();
+        for (ProductionRequest request : productions) {
+            if (request == null || request.getIndex() < 0 || request.getIndex() >= TOTPOWERPRODUCTIONS) {
+                return ActionResult.PRODUCTION_NOT_FOUND;
+            }
+            int index = request.getIndex();
+            //Checking that this production has not been used in this turn nor requested twice
+            if (powerOfProductionUsed[index] || requested[index]) {
+                return ActionResult.PRODUCTION_ALREADY_USED;
+            }
+            requested[index] = true;
+            ActionResult result = addProduction(request, costToPay, production);
+            if (!result.isOk()) {
+                return result;
+            }
+        }
+        //The resources are checked once against the total cost
+        ActionResult result = preparePayment(costToPay, costStrongbox, costWarehouseDepot, paymentPolicy);
+        if (result.isOk()) {
+            atomically(() -> {
+                strongbox.uncheckedRemove(strongboxPayment);
+                warehouseDepots.uncheckedRemove(warehousePayment);
+                dispatch(production);
+                strongbox.add(production);
+                for (int i = 0; i < TOTPOWERPRODUCTIONS; i++) {
+                    powerOfProductionUsed[i] = powerOfProductionUsed[i] || requested[i];
+                }
+                endProduction();
+            });
+            //the vatican reports change the other boards too, so they are checked once the productions are done
+            checkVaticanReport();
+        }
+        return result;
+    }
+
+    //Adds the cost and the production of a single request of a batch to the totals, checking that the production can be activated
+    private ActionResult addProduction(ProductionRequest request, ResourceVector costToPay, ResourceVector production) {
+        Resource resource = request.getResource();
+        if (request.getIndex() == ProductionRequest.BASIC) {
+            if (resource == null || resource == Resource.FAITH) {
+                return ActionResult.INVALID_PRODUCED_RESOURCE;
+            }
+            ResourceVector cost = costOf(request.getCost());
+            if (cost == null || cost.total() != 2) {
+                return ActionResult.INVALID_COST;
+            }
+            costToPay.add(cost);
+            production.add(resource, 1);
+            return ActionResult.OK;
+        }
+        PowerOfProduction powerOfProduction;
+        if (request.getIndex() < ProductionRequest.FIRST_LEADER) {
+            powerOfProduction = developmentCardSpace.findPowerOfProduction(request.getIndex());
+            if (powerOfProduction == null) {
+                return ActionResult.INVALID_CARD_SPACE;
+            }
+        } else {
+            int numLeaderCard = request.getIndex() - ProductionRequest.FIRST_LEADER + 1;
+            if (numLeaderCard > leaderCards.size()) {
+                return ActionResult.LEADER_CARD_NOT_FOUND;
+            }
+            LeaderCard leaderCard = leaderCards.get(numLeaderCard - 1);
+            if (!activeLeaderCards.contains(leaderCard)) {
+                return ActionResult.LEADER_CARD_NOT_ACTIVE;
+            }
+            if (resource == null || resource == Resource.FAITH) {
+                return ActionResult.INVALID_PRODUCED_RESOURCE;
+            }
+            powerOfProduction = leaderCard.getPowerOfProduction();
+            if (powerOfProduction == null) {
+                return ActionResult.NOT_A_PRODUCTION_LEADER;
+            }
+            production.add(resource, 1);
+        }
+        costToPay.add(powerOfProduction.getCostVector());
+        production.add(powerOfProduction.getProductionVector());
+        return ActionResult.OK;
     }
 
     /**
@@ -277,6 +542,8 @@ public class PersonalBoard extends MessageObservable {
      * Method used to transform marbles taken from market into resources stored in temporary map resources
      */
     public void transformMarbles(){
+        ResourceVector changes = new ResourceVector(temporaryResources);
+        Map<Resource, Integer> temporaryMapResource = temporaryResources.asMap();
         for (Marble marble : temporaryMarbles.keySet()){
             for(int value = 0; value < temporaryMarbles.get(marble); value++){
                 try {
@@ -286,10 +553,14 @@ public class PersonalBoard extends MessageObservable {
         }
         temporaryMarbles.clear();
         notifyObservers(new TemporaryMarblesUpdate(this.getNickname(), new HashMap<>(temporaryMarbles)));
-        notifyObservers(new TemporaryResourceMapUpdate(this.getNickname(), new HashMap<>(temporaryMapResource)));
+        //red marbles move the faith marker
+        checkVaticanReport();
+        updateVictoryPoints();
+        changes.subtract(temporaryResources);
+        notifyTemporaryMapResourceChanges(ResourceDeltas.negate(changes.toMap()));
 
-        //If every marble was white the temporaryMapResource is empty and the action is already done since there is nothing to add to warehouse
-        if(temporaryMapResource.isEmpty()){
+        //If every marble was white the temporaryResources are empty and the action is already done since there is nothing to add to warehouse
+        if(temporaryResources.isEmpty()){
             personalBoardPhase = PersonalBoardPhase.MAIN_TURN_ACTION_DONE;
             myPlayer.getView().update(new MainTurnActionDoneUpdate(myPlayer.getNickname()));
         }
@@ -308,24 +579,18 @@ public class PersonalBoard extends MessageObservable {
             throw new InvalidAdditionException("Not one resource");
         }
         Resource resource = singleResourceMap.keySet().iterator().next();
-        //Checking if there are enough resources in temporary map
-        if(temporaryMapResource.get(resource) == null){
-            throw new InvalidAdditionException("Not enough resources in temporary resources");
-        }
-        if (temporaryMapResource.get(resource) < singleResourceMap.get(resource)){
+        Integer quantity = singleResourceMap.get(resource);
+        //Checking if there are enough resources in temporary resources
+        if (resource == null || quantity == null || quantity <= 0 || temporaryResources.get(resource) < quantity){
             throw new InvalidAdditionException("Not enough resources in temporary resources");
         }
         warehouseDepots.add(depotLevel, singleResourceMap);
-        //Removing or subtracting from temporaryResourceMap
-        if (temporaryMapResource.get(resource).equals(singleResourceMap.get(resource))){
-            temporaryMapResource.remove(resource);
-        }
-        else{
-            temporaryMapResource.put(resource, temporaryMapResource.get(resource) - singleResourceMap.get(resource));
-        }
-        notifyObservers(new TemporaryResourceMapUpdate(getNickname(), new HashMap<>(temporaryMapResource)));
-        //if the temporaryResourceMap is empty and player is buying from the market the personalBoard phase changes
-        if(temporaryMapResource.isEmpty()){
+        updateVictoryPoints();
+        //Subtracting from temporary resources
+        temporaryResources.add(resource, -quantity);
+        notifyTemporaryMapResourceChanges(ResourceDeltas.negate(singleResourceMap));
+        //if the temporary resources are empty and player is buying from the market the personalBoard phase changes
+        if(temporaryResources.isEmpty()){
             if(personalBoardPhase == PersonalBoardPhase.TAKE_FROM_MARKET) {
                 personalBoardPhase = PersonalBoardPhase.MAIN_TURN_ACTION_DONE;
                 myPlayer.getView().update(new MainTurnActionDoneUpdate(myPlayer.getNickname()));
@@ -342,13 +607,11 @@ public class PersonalBoard extends MessageObservable {
      * and gives a faith point for each resource discarded to every other player
      */
     public void discardResourcesFromMarket(){
-        int total = 0;
-        for (int singleQuantity : temporaryMapResource.values()){
-            total += singleQuantity;
-        }
+        int total = temporaryResources.total();
 
-        temporaryMapResource.clear();
-        notifyObservers(new TemporaryResourceMapUpdate(this.getNickname(), new HashMap<>(temporaryMapResource)));
+        Map<Resource, Integer> changes = ResourceDeltas.negate(temporaryResources.toMap());
+        temporaryResources.clear();
+        notifyTemporaryMapResourceChanges(changes);
         match.moveFaithMarkerAll(total);
         //personalBoardPhase = PersonalBoardPhase.MAIN_TURN_ACTION_DONE;
         if(personalBoardPhase == PersonalBoardPhase.TAKE_FROM_MARKET) {
@@ -398,28 +661,86 @@ public class PersonalBoard extends MessageObservable {
      * @throws InvalidParameterException If the specified development card space slot does not exist
      */
     public void buyDevelopmentCard(int row, int column,Map<Resource, Integer> costStrongbox, Map<Resource, Integer> costWarehouseDepots, int numLeaderCard, int cardPosition) throws NoCardException, InvalidCostException, InvalidLeaderAction, InvalidRemovalException, InvalidDevelopmentCardException, InvalidParameterException {
-        DevelopmentCard cardToBuy = cardGrid.getCard(row - 1, column - 1);
-        Map<Resource, Integer> price = new HashMap<>(cardToBuy.getPrice());
+        ActionResult result = tryBuyDevelopmentCard(row, column, costStrongbox, costWarehouseDepots, numLeaderCard, cardPosition);
+        switch (result) {
+            case OK:
+                return;
+            case NO_CARD:
+                throw new NoCardException(result.getMessage());
+            case INVALID_CARD_SPACE:
+                throw new InvalidParameterException(result.getMessage());
+            case CARD_SPACE_NOT_EMPTY:
+            case LEVEL_1_CARD_REQUIRED:
+            case LEVEL_2_CARD_REQUIRED:
+                throw new InvalidDevelopmentCardException(result.getMessage());
+            case INVALID_COST:
+                throw new InvalidCostException(result.getMessage());
+            case NOT_ENOUGH_RESOURCES:
+                throw new InvalidRemovalException(result.getMessage());
+            default:
+                throw new InvalidLeaderAction(result.getMessage());
+        }
+    }
+
+    /**
+     * Same as buyDevelopmentCard, a rejected purchase is reported with the returned result instead of an exception
+     * @param row Row of the card grid of the chosen card, ranges from 1 to 3
+     * @param column Column of the card grid of the chosen card, ranges from 1 to 4
+     * @param costStrongbox The cost of the card paid with the resources located in the strongbox
+     * @param costWarehouseDepots The cost of the card paid with the resources located in the warehouse
+     * @param numLeaderCard The number of the leader card to use to discount the price, 0 to use none
+     * @param cardPosition The development card space slot in which the bought card will be placed
+     * @return OK if the card has been bought, the reason why the purchase has been rejected otherwise
+     */
+    public ActionResult tryBuyDevelopmentCard(int row, int column, Map<Resource, Integer> costStrongbox, Map<Resource, Integer> costWarehouseDepots, int numLeaderCard, int cardPosition) {
+        return tryBuyDevelopmentCard(row, column, costStrongbox, costWarehouseDepots, numLeaderCard, cardPosition, null);
+    }
+
+    /**
+     * Same as tryBuyDevelopmentCard, the payment can be split by the server
+     * @param row Row of the card grid of the chosen card, ranges from 1 to 3
+     * @param column Column of the card grid of the chosen card, ranges from 1 to 4
+     * @param costStrongbox The cost of the card paid with the resources located in the strongbox, ignored with a policy
+     * @param costWarehouseDepots The cost of the card paid with the resources located in the warehouse, ignored with a policy
+     * @param numLeaderCard The number of the leader card to use to discount the price, 0 to use none
+     * @param cardPosition The development card space slot in which the bought card will be placed
+     * @param paymentPolicy how to split the discounted price between warehouse and strongbox, null to use the given costs
+     * @return OK if the card has been bought, the reason why the purchase has been rejected otherwise
+     */
+    public ActionResult tryBuyDevelopmentCard(int row, int column, Map<Resource, Integer> costStrongbox, Map<Resource, Integer> costWarehouseDepots, int numLeaderCard, int cardPosition, PaymentPolicy paymentPolicy) {
+        DevelopmentCard cardToBuy = cardGrid.findCard(row - 1, column - 1);
+        if (cardToBuy == null) {
+            return ActionResult.NO_CARD;
+        }
+        ResourceVector price = new ResourceVector(cardToBuy.getPriceVector());
         //if numLeaderCard is 1 or 2 method tries to discount price
         if (numLeaderCard != 0){
             if (numLeaderCard < 0 || numLeaderCard > leaderCards.size())
-                throw new InvalidLeaderAction("Invalid card");
-            //if not the correct leader throws InvalidLeaderAction()
-            leaderCards.get(numLeaderCard-1).abilityDiscount(price);
-        }
-        //Verifying that the provided costs are correct
-        mergeCostsAndVerify(costStrongbox, costWarehouseDepots, price);
-        //Checking resource availability
-        if(!strongbox.isAvailable(costStrongbox) || !warehouseDepots.isAvailable(costWarehouseDepots)){
-            throw new InvalidRemovalException("The are not enough resources to purchase the card");
-        }
-        developmentCardSpace.addCard(cardToBuy, cardPosition);
-        //Removing price paid from strongbox and/or warehouse
-        strongbox.uncheckedRemove(costStrongbox);
-        warehouseDepots.uncheckedRemove(costWarehouseDepots);
-        cardGrid.buyCard(row - 1, column - 1);
-        personalBoardPhase = PersonalBoardPhase.MAIN_TURN_ACTION_DONE;
+                return ActionResult.LEADER_CARD_NOT_FOUND;
+            if (!leaderCards.get(numLeaderCard-1).applyDiscount(price))
+                return ActionResult.NOT_A_DISCOUNT_LEADER;
+        }
+        //Verifying that the provided costs are correct and the resources are available
+        ActionResult result = preparePayment(price, costStrongbox, costWarehouseDepots, paymentPolicy);
+        if (!result.isOk()) {
+            return result;
+        }
+        result = developmentCardSpace.checkAddCard(cardToBuy, cardPosition);
+        if (!result.isOk()) {
+            return result;
+        }
+        atomically(() -> {
+            cardGrid.removeTopCard(row - 1, column - 1);
+            //Removing price paid from strongbox and/or warehouse
+            strongbox.uncheckedRemove(strongboxPayment);
+            warehouseDepots.uncheckedRemove(warehousePayment);
+            //the card is added last, a seventh card ends the game
+            developmentCardSpace.uncheckedAddCard(cardToBuy, cardPosition);
+            personalBoardPhase = PersonalBoardPhase.MAIN_TURN_ACTION_DONE;
+            updateVictoryPoints();
+        });
         myPlayer.getView().update(new MainTurnActionDoneUpdate(myPlayer.getNickname()));
+        return ActionResult.OK;
     }
 
     /**
@@ -432,14 +753,14 @@ public class PersonalBoard extends MessageObservable {
         if (numLeaderCard <= 0 || numLeaderCard > leaderCards.size())
             throw new InvalidParameterException("Card not found");
         LeaderCard leaderCard = leaderCards.get(numLeaderCard-1);
-        if (leaderCard.isActive()){
+        if (activeLeaderCards.contains(leaderCard)){
             throw new InvalidParameterException("The leader card is already active");
         }
 
         Requirement requirement = leaderCard.getRequirement();
         //Checking resource requirements if the field not set to null
-        if (requirement.getResourceRequirement() != null){
-            if(!checkResourceRequirement(requirement.getResourceRequirement())){
+        if (requirement.getResourceRequirementVector() != null){
+            if(!checkResourceRequirement(requirement.getResourceRequirementVector())){
                 throw new RequirementNotMetException("You don't have enough resources to activate this card");
             }
         }
@@ -450,11 +771,31 @@ public class PersonalBoard extends MessageObservable {
             }
         }
         //Activate leader card
-        leaderCard.activate();
+        activeLeaderCards.add(leaderCard);
+        leaderVictoryPoints += leaderCard.getVictoryPoints();
         leaderCard.abilityDepot(warehouseDepots);
 
         warehouseDepots.doNotify();
         notifyObservers(new LeaderCardActivatedUpdate(this.getNickname(), numLeaderCard, leaderCard.getId()));
+        updateVictoryPoints();
+    }
+
+    /**
+     * Method to get the leader cards that could be activated now, the requirements are checked on the counts kept by the board
+     * @return the numbers of the leader cards not yet active whose requirements are met, in ascending order
+     */
+    public List<Integer> getActivatableLeaderCards() {
+        List<Integer> activatable = new ArrayList<>();
+        for (int i = 0; i < leaderCards.size(); i++) {
+            LeaderCard leaderCard = leaderCards.get(i);
+            Requirement requirement = leaderCard.getRequirement();
+            if (!activeLeaderCards.contains(leaderCard)
+                    && (requirement.getResourceRequirementVector() == null || checkResourceRequirement(requirement.getResourceRequirementVector()))
+                    && (requirement.getCardsRequirement() == null || developmentCardSpace.checkRequirement(requirement.getCardsRequirement()))) {
+                activatable.add(i + 1);
+            }
+        }
+        return activatable;
     }
 
     /**
@@ -467,7 +808,7 @@ public class PersonalBoard extends MessageObservable {
             throw new InvalidParameterException("The card can't be removed because you don't have this card");
         LeaderCard leaderCard = leaderCards.get(numLeaderCard-1);
         //Checking if leader card is active
-        if (leaderCard.isActive()){
+        if (activeLeaderCards.contains(leaderCard)){
             throw new InvalidParameterException("The card can't be removed because the card is active");
         }
         //Moving faith
@@ -506,16 +847,20 @@ public class PersonalBoard extends MessageObservable {
      * @throws InvalidParameterException If the number of resources chosen doesn't match the possible number of resources the player can choose
      */
     public void addInitialResources(Map<Resource, Integer> initialResources) throws InvalidParameterException {
-        int totalResources = 0;
-        for(int singleResourceQuantity : initialResources.values()){
-            totalResources+= singleResourceQuantity;
+        ResourceVector resources;
+        try {
+            resources = new ResourceVector(initialResources);
+        } catch (IllegalArgumentException exception) {
+            throw new InvalidParameterException("Invalid resources");
         }
-        if (totalResources != numOfResourcesToChoose){
+        if (resources.hasNegative() || resources.total() != numOfResourcesToChoose){
             throw new InvalidParameterException("You have to add " + numOfResourcesToChoose + " resources to your depot");
         }
-        temporaryMapResource = new HashMap<>(initialResources);
+        Map<Resource, Integer> changes = ResourceDeltas.difference(temporaryResources.toMap(), resources.toMap());
+        temporaryResources.clear();
+        temporaryResources.add(resources);
         //Notifying observers that temporary map resource has changed
-        notifyObservers(new TemporaryResourceMapUpdate(myPlayer.getNickname(), new HashMap<>(temporaryMapResource)));
+        notifyTemporaryMapResourceChanges(changes);
         personalBoardPhase = PersonalBoardPhase.ADD_INITIAL_RESOURCES;
     }
 
@@ -523,9 +868,11 @@ public class PersonalBoard extends MessageObservable {
      * This method is used when the player decides to end the production
      */
     public void endProduction(){
-        strongbox.add(temporaryMapResource);
-        temporaryMapResource.clear();
-        notifyObservers(new TemporaryResourceMapUpdate(getNickname(), new HashMap<>(temporaryMapResource)));
+        strongbox.add(temporaryResources);
+        updateVictoryPoints();
+        Map<Resource, Integer> changes = ResourceDeltas.negate(temporaryResources.toMap());
+        temporaryResources.clear();
+        notifyTemporaryMapResourceChanges(changes);
         personalBoardPhase = PersonalBoardPhase.MAIN_TURN_ACTION_DONE;
     }
 
@@ -533,40 +880,31 @@ public class PersonalBoard extends MessageObservable {
      * This method checks the conditions to activate the vatican report and activates the report for all the players.
      */
     public void checkVaticanReport() {
-        if (faithTrack.getPopeFavourTile(1) && !faithTrack.getPopeFavourTile(2) && faithTrack.getFaithTrackPosition() > 7){
-            //calls the vatican report for all the other players
-            match.vaticanReport(1);
-        }
-        else if(faithTrack.getPopeFavourTile(2) && !faithTrack.getPopeFavourTile(3) && faithTrack.getFaithTrackPosition() > 15){
-            //calls the vatican report for all the other players
-            match.vaticanReport(2);
-        }
-        else if(faithTrack.getPopeFavourTile(3) && faithTrack.getFaithTrackPosition() == 24){
-            //calls the vatican report for all the other players
-            match.vaticanReport(3);
-        }
+        match.checkVaticanReports(faithTrack.getFaithTrackPosition());
     }
 
     /**
-     * Calculates the victory points for this personalBoard
+     * Calculates the victory points for this personalBoard. The points are already updated by every action of the board,
+     * this is needed only after changing the elements of the board directly
      */
     public void sumVictoryPoints(){
-        //Points from development cards
-        victoryPoints += developmentCardSpace.getVictoryPoints();
-        //Points from faith points and Pope's favour tiles
-        victoryPoints += faithTrack.calculateVictoryPoints();
-        //Points from active leader cards
-        for (LeaderCard leaderCard : leaderCards){
-            if (leaderCard.isActive()){
-                victoryPoints += leaderCard.getVictoryPoints();
-            }
+        updateVictoryPoints();
+    }
+
+    //Sums the points kept by every element of the board and notifies the players and the spectators if they changed
+    private void updateVictoryPoints(){
+        int points = developmentCardSpace.getVictoryPoints()
+                + faithTrack.calculateVictoryPoints()
+                + leaderVictoryPoints
+                + Math.floorDiv(strongbox.getTotalResources() + warehouseDepots.getTotalResources(), 5);
+        if (points != victoryPoints) {
+            victoryPoints = points;
+            notifyObservers(new ScoreboardUpdate(getNickname(), victoryPoints));
         }
-        //Points from resources in Warehouse or Strongbox
-        victoryPoints += Math.floorDiv(strongbox.getTotalResources() + warehouseDepots.getTotalResources(), 5);
     }
 
     /**
-     * @return The victory points of this personalBoard
+     * @return The victory points of this personalBoard, as if the game ended now
      */
     public int getVictoryPoints() {
         return victoryPoints;
@@ -582,6 +920,7 @@ public class PersonalBoard extends MessageObservable {
         faithTrack.moveFaithMarker(numOfSteps);
         //activates checks vatican report
         checkVaticanReport();
+        updateVictoryPoints();
     }
 
     /**
@@ -591,6 +930,7 @@ public class PersonalBoard extends MessageObservable {
     public void moveFaithMarker(int numOfSteps){
         //moves the faith marker
         faithTrack.moveFaithMarker(numOfSteps);
+        updateVictoryPoints();
     }
 
     /**
@@ -599,13 +939,27 @@ public class PersonalBoard extends MessageObservable {
      */
     public void activateVaticanReport(int tileNumber){
         faithTrack.setPopeFavourTiles(tileNumber);
+        updateVictoryPoints();
     }
 
     /**
-     * @return The temporary resource map of the resources not yet stored
+     * @return The temporary resource map of the resources not yet stored, backed by the temporary resources
      */
     public Map<Resource, Integer> getTemporaryMapResource() {
-        return temporaryMapResource;
+        return temporaryResources.asMap();
+    }
+
+    //Notifies the views with the changes of the temporary resources and their sequence number
+    private void notifyTemporaryMapResourceChanges(Map<Resource, Integer> changes){
+        notifyObservers(new TemporaryResourceMapDeltaUpdate(getNickname(), ++temporaryMapResourceSequence, changes));
+    }
+
+    /**
+     * Method to get the whole temporary resource map, sent to a view that lost some changes
+     * @return A message with a copy of the temporary resources and their sequence number
+     */
+    public TemporaryResourceMapUpdate getTemporaryMapResourceSnapshot() {
+        return new TemporaryResourceMapUpdate(getNickname(), temporaryMapResourceSequence, temporaryResources.toMap());
     }
     /**
      * @return The temporary marble map of the marbles not yet transformed
@@ -696,6 +1050,40 @@ public class PersonalBoard extends MessageObservable {
         personalBoardPhase = PersonalBoardPhase.MAIN_TURN_ACTION_AVAILABLE;
     }
 
+    /**
+     * Begins a transaction over the board, used to undo a compound action or to try an action and undo it
+     * @return the transaction, it must be committed or rolled back
+     */
+    public BoardTransaction beginTransaction() {
+        return new BoardTransaction(this);
+    }
+
+    //Copies the phase, the productions used, the temporary resources and their sequence, used by a BoardTransaction
+    int[] saveState() {
+        int[] state = new int[2 + TOTPOWERPRODUCTIONS + RESOURCES.length];
+        state[0] = personalBoardPhase == null ? -1 : personalBoardPhase.ordinal();
+        state[1] = temporaryMapResourceSequence;
+        for (int i = 0; i < TOTPOWERPRODUCTIONS; i++)
+            state[2 + i] = Boolean.TRUE.equals(powerOfProductionUsed[i]) ? 1 : 0;
+        for (Resource resource : RESOURCES)
+            state[2 + TOTPOWERPRODUCTIONS + resource.ordinal()] = temporaryResources.get(resource);
+        return state;
+    }
+
+    //Restores a state copied by saveState after the components of the board, the temporary resources are notified if they changed
+    void restoreState(int[] state) {
+        personalBoardPhase = state[0] == -1 ? null : PersonalBoardPhase.values()[state[0]];
+        for (int i = 0; i < TOTPOWERPRODUCTIONS; i++)
+            powerOfProductionUsed[i] = state[2 + i] == 1;
+        for (Resource resource : RESOURCES)
+            temporaryResources.set(resource, state[2 + TOTPOWERPRODUCTIONS + resource.ordinal()]);
+        if (state[1] != temporaryMapResourceSequence) {
+            temporaryMapResourceSequence++;
+            notifyObservers(getTemporaryMapResourceSnapshot());
+        }
+        updateVictoryPoints();
+    }
+
     /**
      * Setter for the phase of the personal board
      * @param personalBoardPhase the new phase
@@ -12,6 +12,9 @@ import java.util.Map;
 public class PowerOfProduction {
     private Map<Resource,Integer> cost;
     private Map<Resource,Integer> production;
+    //Built from the maps at the first use, the cards are shared by every match
+    private transient ResourceVector costVector;
+    private transient ResourceVector productionVector;
 
     /**
      * @param cost contains resources needed to activate the power
@@ -39,12 +42,38 @@ public class PowerOfProduction {
         return new HashMap<>(production);
     }
 
+    /**
+     * @return the cost of the production, shared by every user of the power so it must not be modified
+     */
+    public ResourceVector getCostVector() {
+        ResourceVector result = costVector;
+        if (result == null) {
+            result = new ResourceVector(cost);
+            costVector = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return the resources produced, shared by every user of the power so it must not be modified
+     */
+    public ResourceVector getProductionVector() {
+        ResourceVector result = productionVector;
+        if (result == null) {
+            result = new ResourceVector(production);
+            productionVector = result;
+        }
+        return result;
+    }
+
     /**
      * @param cost is the new cost associated at the production
      */
     public void setCost(Map<Resource, Integer> cost) throws InvalidParameterException{
-        if (cost != null)
+        if (cost != null) {
             this.cost = cost;
+            this.costVector = null;
+        }
         else
             throw new InvalidParameterException("The cost isn't defined");
     }
@@ -52,8 +81,10 @@ public class PowerOfProduction {
      * @param production is the new HashMap of resources produced by the production process
      */
     public void setProduction(Map<Resource, Integer> production) throws InvalidParameterException{
-        if (production != null)
+        if (production != null) {
             this.production = production;
+            this.productionVector = null;
+        }
         else
             throw new InvalidParameterException("The production isn't defined");
     }
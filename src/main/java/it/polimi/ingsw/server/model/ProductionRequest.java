@@ -0,0 +1,70 @@
+package it.polimi.ingsw.server.model;
+
+import it.polimi.ingsw.server.model.enumerations.Resource;
+
+import java.util.Map;
+
+/**
+ * Class that represents one of the productions of a batch: the basic production, the production of a development card
+ * or the production of a leader card, identified by the same index used by the personal board to mark the used productions
+ */
+public class ProductionRequest {
+    static final int BASIC = 0;
+    static final int FIRST_LEADER = 4;
+    private final int index;
+    private final Map<Resource, Integer> cost;
+    private final Resource resource;
+
+    private ProductionRequest(int index, Map<Resource, Integer> cost, Resource resource) {
+        this.index = index;
+        this.cost = cost;
+        this.resource = resource;
+    }
+
+    /**
+     * @param cost the two resources to pay
+     * @param resource the resource to produce
+     * @return the request of the basic production
+     */
+    public static ProductionRequest basic(Map<Resource, Integer> cost, Resource resource) {
+        return new ProductionRequest(BASIC, cost, resource);
+    }
+
+    /**
+     * @param indexDevelopmentCardSpace the number of the development card slot, ranges from 1 to 3
+     * @return the request of the production of the development card
+     */
+    public static ProductionRequest card(int indexDevelopmentCardSpace) {
+        return new ProductionRequest(indexDevelopmentCardSpace, null, null);
+    }
+
+    /**
+     * @param numLeaderCard the number of the leader card, 1 or 2
+     * @param resource the resource to produce together with the faith point
+     * @return the request of the production of the leader card
+     */
+    public static ProductionRequest leader(int numLeaderCard, Resource resource) {
+        return new ProductionRequest(FIRST_LEADER - 1 + numLeaderCard, null, resource);
+    }
+
+    /**
+     * @return 0 for the basic production, from 1 to 3 for a development card, 4 or 5 for a leader card
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the resources to pay for the basic production, null for the other productions
+     */
+    public Map<Resource, Integer> getCost() {
+        return cost;
+    }
+
+    /**
+     * @return the resource to produce, null for the production of a development card
+     */
+    public Resource getResource() {
+        return resource;
+    }
+}
@@ -11,6 +11,7 @@ import java.util.Map;
 public class Requirement {
     private ArrayList<CardRequirement> cardRequirement;
     private Map<Resource,Integer> resourceRequirement;
+    private transient ResourceVector resourceRequirementVector;
 
     public Requirement(ArrayList<CardRequirement> cardRequirement, Map<Resource, Integer> resourceRequirement) {
         this.cardRequirement = cardRequirement;
@@ -32,4 +33,17 @@ public class Requirement {
     public Map<Resource, Integer> getResourceRequirement() {
         return resourceRequirement;
     }
+
+    /**
+     * Getter for the resources required to activate the leader card, shared by every match so it must not be modified
+     * @return the resource quantities required, null if the card has no resource requirement
+     */
+    public ResourceVector getResourceRequirementVector() {
+        ResourceVector result = resourceRequirementVector;
+        if (result == null && resourceRequirement != null) {
+            result = new ResourceVector(resourceRequirement);
+            resourceRequirementVector = result;
+        }
+        return result;
+    }
 }
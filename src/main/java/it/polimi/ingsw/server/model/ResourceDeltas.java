@@ -0,0 +1,40 @@
+package it.polimi.ingsw.server.model;
+
+import it.polimi.ingsw.server.model.enumerations.Resource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class with the methods used to compute the changes of a map of resources notified to the views
+ */
+final class ResourceDeltas {
+
+    private ResourceDeltas() {
+    }
+
+    /**
+     * @param resourceMap The resources removed
+     * @return A map with the opposite quantity of each resource
+     */
+    static Map<Resource, Integer> negate(Map<Resource, Integer> resourceMap){
+        Map<Resource, Integer> changes = new HashMap<>();
+        resourceMap.forEach((resource, quantity) -> changes.put(resource, -quantity));
+        return changes;
+    }
+
+    /**
+     * @param before The resources before the change
+     * @param after The resources after the change
+     * @return The quantity to add to each resource of before to obtain after, resources that did not change are not included
+     */
+    static Map<Resource, Integer> difference(Map<Resource, Integer> before, Map<Resource, Integer> after){
+        Map<Resource, Integer> changes = new HashMap<>(after);
+        before.forEach((resource, quantity) -> {
+            if (changes.merge(resource, -quantity, Integer::sum) == 0) {
+                changes.remove(resource);
+            }
+        });
+        return changes;
+    }
+}
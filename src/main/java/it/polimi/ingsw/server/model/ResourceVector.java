@@ -0,0 +1,302 @@
+package it.polimi.ingsw.server.model;
+
+import it.polimi.ingsw.server.model.enumerations.Resource;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Class that represents a quantity of each resource, stored in an array indexed by the ordinal of the resource.
+ * The model works on vectors and converts them to maps only when a message is built.
+ * The operations modify the vector in place and allocate nothing
+ */
+public final class ResourceVector {
+    private static final Resource[] RESOURCES = Resource.values();
+    private final int[] quantities;
+
+    /**
+     * Constructor of an empty vector
+     */
+    public ResourceVector() {
+        quantities = new int[RESOURCES.length];
+    }
+
+    /**
+     * Constructor of a copy of a vector
+     * @param resources the vector to copy
+     */
+    public ResourceVector(ResourceVector resources) {
+        quantities = resources.quantities.clone();
+    }
+
+    /**
+     * Constructor of a vector with the quantities of a map
+     * @param resourceMap the map to convert
+     * @throws IllegalArgumentException if the map contains a null resource or quantity
+     */
+    public ResourceVector(Map<Resource, Integer> resourceMap) throws IllegalArgumentException {
+        quantities = new int[RESOURCES.length];
+        for (Map.Entry<Resource, Integer> entry : resourceMap.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+                throw new IllegalArgumentException("Invalid resource");
+            }
+            quantities[entry.getKey().ordinal()] += entry.getValue();
+        }
+    }
+
+    /**
+     * @param resource the resource
+     * @return the quantity of the resource
+     */
+    public int get(Resource resource) {
+        return quantities[resource.ordinal()];
+    }
+
+    /**
+     * @param resource the resource
+     * @param quantity the new quantity of the resource
+     */
+    public void set(Resource resource, int quantity) {
+        quantities[resource.ordinal()] = quantity;
+    }
+
+    /**
+     * @param resource the resource
+     * @param quantity the quantity to add, negative to remove
+     */
+    public void add(Resource resource, int quantity) {
+        quantities[resource.ordinal()] += quantity;
+    }
+
+    /**
+     * Adds the quantities of another vector to this one
+     * @param resources the quantities to add
+     */
+    public void add(ResourceVector resources) {
+        for (int i = 0; i < quantities.length; i++) {
+            quantities[i] += resources.quantities[i];
+        }
+    }
+
+    /**
+     * Subtracts the quantities of another vector from this one
+     * @param resources the quantities to subtract
+     */
+    public void subtract(ResourceVector resources) {
+        for (int i = 0; i < quantities.length; i++) {
+            quantities[i] -= resources.quantities[i];
+        }
+    }
+
+    /**
+     * @param resources the quantities required
+     * @return true if every quantity of this vector is at least the one of resources
+     */
+    public boolean covers(ResourceVector resources) {
+        for (int i = 0; i < quantities.length; i++) {
+            if (quantities[i] < resources.quantities[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param first the first vector to sum
+     * @param second the second vector to sum
+     * @return true if this vector is the sum of the two vectors
+     */
+    public boolean isSum(ResourceVector first, ResourceVector second) {
+        for (int i = 0; i < quantities.length; i++) {
+            if (quantities[i] != first.quantities[i] + second.quantities[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if a quantity is negative
+     */
+    public boolean hasNegative() {
+        for (int quantity : quantities) {
+            if (quantity < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the sum of the quantities of every resource
+     */
+    public int total() {
+        int total = 0;
+        for (int quantity : quantities) {
+            total += quantity;
+        }
+        return total;
+    }
+
+    /**
+     * @return true if the quantity of every resource is 0
+     */
+    public boolean isEmpty() {
+        for (int quantity : quantities) {
+            if (quantity != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sets the quantity of every resource to 0
+     */
+    public void clear() {
+        Arrays.fill(quantities, 0);
+    }
+
+    /**
+     * Converts the vector to a map, used to build the messages
+     * @return a new map with the resources whose quantity is not 0
+     */
+    public Map<Resource, Integer> toMap() {
+        Map<Resource, Integer> resourceMap = new HashMap<>();
+        for (int i = 0; i < quantities.length; i++) {
+            if (quantities[i] != 0) {
+                resourceMap.put(RESOURCES[i], quantities[i]);
+            }
+        }
+        return resourceMap;
+    }
+
+    /**
+     * Returns a map backed by the vector, the resources whose quantity is 0 are not in the map.
+     * Changes to the map are written to the vector and the other way round
+     * @return the view of the vector as a map
+     */
+    public Map<Resource, Integer> asMap() {
+        return new MapView();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ResourceVector && Arrays.equals(quantities, ((ResourceVector) other).quantities);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(quantities);
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    private class MapView extends AbstractMap<Resource, Integer> {
+
+        @Override
+        public Integer get(Object key) {
+            if (!(key instanceof Resource) || quantities[((Resource) key).ordinal()] == 0) {
+                return null;
+            }
+            return quantities[((Resource) key).ordinal()];
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Integer put(Resource key, Integer value) {
+            Integer previous = get(key);
+            quantities[key.ordinal()] = value;
+            return previous;
+        }
+
+        @Override
+        public Integer remove(Object key) {
+            Integer previous = get(key);
+            if (previous != null) {
+                quantities[((Resource) key).ordinal()] = 0;
+            }
+            return previous;
+        }
+
+        @Override
+        public void clear() {
+            ResourceVector.this.clear();
+        }
+
+        @Override
+        public Set<Entry<Resource, Integer>> entrySet() {
+            return new AbstractSet<Entry<Resource, Integer>>() {
+                @Override
+                public Iterator<Entry<Resource, Integer>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    int size = 0;
+                    for (int quantity : quantities) {
+                        if (quantity != 0) size++;
+                    }
+                    return size;
+                }
+            };
+        }
+    }
+
+    private class EntryIterator implements Iterator<Map.Entry<Resource, Integer>> {
+        private int next = advance(0);
+        private int last = -1;
+
+        private int advance(int from) {
+            while (from < quantities.length && quantities[from] == 0) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < quantities.length;
+        }
+
+        @Override
+        public Map.Entry<Resource, Integer> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = advance(next + 1);
+            final int index = last;
+            return new AbstractMap.SimpleEntry<Resource, Integer>(RESOURCES[index], quantities[index]) {
+                @Override
+                public Integer setValue(Integer value) {
+                    quantities[index] = value;
+                    return super.setValue(value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            quantities[last] = 0;
+            last = -1;
+        }
+    }
+}
@@ -20,7 +20,17 @@ public class SoloMatch extends Match{
      * @param matchID an int that identifies the match
      */
     public SoloMatch(int matchID, boolean demo) throws InvalidParameterException {
-        super(matchID, 1,demo);
+        this(matchID, demo, new MatchRandom());
+    }
+
+    /**
+     * This constructor creates a match whose random choices, including the ones of Lorenzo, are all made by a generator
+     * @param matchID an int that identifies the match
+     * @param demo true to create the match in demo mode
+     * @param random the generator of the match, its seed identifies the random choices of the match
+     */
+    public SoloMatch(int matchID, boolean demo, MatchRandom random) throws InvalidParameterException {
+        super(matchID, 1, demo, random);
         lorenzo = new Lorenzo(this);
         lorenzo.addObserver(this);
         lorenzo.addObserverList(this.getMessageObservers());
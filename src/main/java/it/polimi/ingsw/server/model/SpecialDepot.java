@@ -3,8 +3,6 @@ package it.polimi.ingsw.server.model;
 import it.polimi.ingsw.server.model.enumerations.Resource;
 import it.polimi.ingsw.server.model.exceptions.InvalidAdditionException;
 
-import java.util.Map;
-
 /**
  * Class that represents one of the two optional depots of the warehouse depots
  */
@@ -18,13 +16,14 @@ public class SpecialDepot extends Depot{
     }
 
     /**
-     * Checks if a resource map can be added to the depot
-     * @param addedResourceMap The resource map to be added, must be a map with a single key
+     * Checks if a quantity of a resource can be added to the depot
+     * @param addedResource The resource to be added
+     * @param addedQuantity The quantity to be added
      * @throws InvalidAdditionException When the resource is not compatible with the special depot or there is not enough space or there is already another resource in the depot
      */
     @Override
-    public void checkAdd(Map<Resource, Integer> addedResourceMap) throws InvalidAdditionException {
-        if (addedResourceMap.get(this.specialResource) == null) throw new InvalidAdditionException("Resource not compatible with this special depot");
-        super.checkAdd(addedResourceMap);
+    public void checkAdd(Resource addedResource, int addedQuantity) throws InvalidAdditionException {
+        if (addedResource != this.specialResource) throw new InvalidAdditionException("Resource not compatible with this special depot");
+        super.checkAdd(addedResource, addedQuantity);
     }
 }
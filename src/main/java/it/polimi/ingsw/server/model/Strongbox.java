@@ -1,5 +1,6 @@
 package it.polimi.ingsw.server.model;
 
+import it.polimi.ingsw.common.messages.messagesToClient.StrongboxDeltaUpdate;
 import it.polimi.ingsw.common.messages.messagesToClient.StrongboxUpdate;
 import it.polimi.ingsw.common.utils.observe.MessageObservable;
 import it.polimi.ingsw.server.model.enumerations.Resource;
@@ -8,16 +9,20 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Class that represents the strongbox of a personal board
+ * Class that represents the strongbox of a personal board.
+ * Every change is notified with its sequence number, the whole strongbox is sent only when requested
  */
 public class Strongbox extends MessageObservable {
-    private Map<Resource, Integer> strongbox;
+    private static final Resource[] RESOURCES = Resource.values();
+    private final ResourceVector strongbox;
+    private int sequence;
 
     /**
-     * Constructor that initialize an empty Map
+     * Constructor that initialize an empty strongbox
      */
     public Strongbox() {
-        strongbox = new HashMap<>();
+        strongbox = new ResourceVector();
+        sequence = 0;
     }
 
     /**
@@ -25,8 +30,16 @@ public class Strongbox extends MessageObservable {
      * @param resourceMap The map of resources to add
      */
     public void add(Map<Resource, Integer> resourceMap) {
-        resourceMap.forEach((resource, quantity) -> strongbox.merge(resource, quantity, Integer::sum));
-        notifyObservers(new StrongboxUpdate(this.getNickname(), new HashMap<>(strongbox)));
+        add(new ResourceVector(resourceMap));
+    }
+
+    /**
+     * Stores the given resources in the strongbox
+     * @param resources The resources to add
+     */
+    public void add(ResourceVector resources) {
+        strongbox.add(resources);
+        notifyObservers(new StrongboxDeltaUpdate(this.getNickname(), ++sequence, resources.toMap()));
     }
 
     /**
@@ -35,16 +48,16 @@ public class Strongbox extends MessageObservable {
      * @return true when every resource in resourceMap is in Strongbox, false otherwise
      */
     public boolean isAvailable(Map<Resource, Integer> resourceMap) {
-        //Checking if there are enough resources in strongbox to remove
-        for (Resource resource : resourceMap.keySet())  {
-            if (strongbox.get(resource) == null){
-                return false;
-            }
-            else if (strongbox.get(resource) < resourceMap.get(resource)){
-                return false;
-            }
-        }
-        return true;
+        return isAvailable(new ResourceVector(resourceMap));
+    }
+
+    /**
+     * Checks that all the resources and their quantities are stored in Strongbox
+     * @param resources The resources whose availability in Strongbox is verified
+     * @return true when every resource is in Strongbox, false otherwise
+     */
+    public boolean isAvailable(ResourceVector resources) {
+        return strongbox.covers(resources);
     }
 
     /**
@@ -52,17 +65,12 @@ public class Strongbox extends MessageObservable {
      * @return a map of the resources not available in Strongbox among those in resourceMap
      */
     public Map<Resource, Integer> resourcesNotAvailable(Map<Resource, Integer> resourceMap){
-        Map<Resource, Integer> resourceToCheckMap = new HashMap<>(resourceMap);
-        for (Resource resource : resourceMap.keySet())  {
-            if (strongbox.get(resource) != null){
-                if (strongbox.get(resource) >= resourceToCheckMap.get(resource)){
-                    resourceToCheckMap.remove(resource);
-                }
-                else {
-                    resourceToCheckMap.put(resource, resourceToCheckMap.get(resource)-strongbox.get(resource));
-                }
+        Map<Resource, Integer> resourceToCheckMap = new HashMap<>();
+        resourceMap.forEach((resource, quantity) -> {
+            if (strongbox.get(resource) < quantity) {
+                resourceToCheckMap.put(resource, quantity - strongbox.get(resource));
             }
-        }
+        });
         return resourceToCheckMap;
     }
 
@@ -71,13 +79,44 @@ public class Strongbox extends MessageObservable {
      * @param resourceMap The map of resources to remove
      */
     public void uncheckedRemove(Map<Resource, Integer> resourceMap){
-        for (Resource resource : resourceMap.keySet())  {
-            if (strongbox.get(resource).equals(resourceMap.get(resource)))
-                strongbox.remove(resource);
-            else
-                strongbox.merge(resource, -resourceMap.get(resource), Integer::sum);
+        uncheckedRemove(new ResourceVector(resourceMap));
+    }
+
+    /**
+     * Removes the given resources from the strongbox, must be called only after performing checks with isAvailable
+     * @param resources The resources to remove
+     */
+    public void uncheckedRemove(ResourceVector resources){
+        strongbox.subtract(resources);
+        notifyObservers(new StrongboxDeltaUpdate(this.getNickname(), ++sequence, ResourceDeltas.negate(resources.toMap())));
+    }
+
+    //Copies the sequence and the quantity of every resource, used by a BoardTransaction
+    int[] saveState() {
+        int[] state = new int[RESOURCES.length + 1];
+        state[0] = sequence;
+        for (Resource resource : RESOURCES) {
+            state[resource.ordinal() + 1] = strongbox.get(resource);
         }
-        notifyObservers(new StrongboxUpdate(this.getNickname(), new HashMap<>(strongbox)));
+        return state;
+    }
+
+    //Restores a state copied by saveState, the whole strongbox is notified if it changed in the meantime
+    void restoreState(int[] state) {
+        if (state[0] == sequence) return;
+        for (Resource resource : RESOURCES) {
+            strongbox.set(resource, state[resource.ordinal() + 1]);
+        }
+        sequence++;
+        notifyObservers(getSnapshot());
+    }
+
+    /**
+     * Method to get the whole strongbox, sent to a view that lost some changes
+     * @return A message with a copy of the strongbox and its sequence number
+     */
+    public StrongboxUpdate getSnapshot(){
+        return new StrongboxUpdate(this.getNickname(), sequence, strongbox.toMap());
     }
 
     /**
@@ -86,7 +125,7 @@ public class Strongbox extends MessageObservable {
      * @return The quantity of the specified resource if present, else 0
      */
     public int getResourceQuantity(Resource resource) {
-        return strongbox.getOrDefault(resource, 0);
+        return strongbox.get(resource);
     }
 
     /**
@@ -94,11 +133,6 @@ public class Strongbox extends MessageObservable {
      * @return The sum of all resources in the strongbox
      */
     public int getTotalResources(){
-        int total = 0;
-        //Iterating in the Collection of values of the Map
-        for (int singleQuantity : strongbox.values()){
-            total += singleQuantity;
-        }
-        return total;
+        return strongbox.total();
     }
 }
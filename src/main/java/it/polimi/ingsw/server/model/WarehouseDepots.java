@@ -1,5 +1,6 @@
 package it.polimi.ingsw.server.model;
 
+import it.polimi.ingsw.common.messages.messagesToClient.WarehouseDeltaUpdate;
 import it.polimi.ingsw.common.messages.messagesToClient.WarehouseUpdate;
 import it.polimi.ingsw.common.messages.messagesToClient.AddSpecialDepotUpdate;
 import it.polimi.ingsw.common.utils.observe.MessageObservable;
@@ -14,17 +15,39 @@ import java.util.Map;
 
 /**
  * Class that represents the warehouse of the personal board.
- * This class coordinates the depots where resources from the market are stored
+ * This class coordinates the depots where resources from the market are stored.
+ * Every change is notified with its sequence number and contains only the depots modified.
+ * The warehouse keeps the standard depot of each resource and the quantity of each resource in every depot,
+ * updated by every change, so the checks do not visit the depots
  */
 public class WarehouseDepots extends MessageObservable {
+    private static final Resource[] RESOURCES = Resource.values();
     private final int STANDARDDEPOTS = 3;
     private final ArrayList<Depot> depots = new ArrayList<>();
+    private int sequence = 0;
+    //Index of the standard depot that holds each resource, -1 if no standard depot holds it
+    private final int[] standardDepotOf = new int[RESOURCES.length];
+    //Quantity of each resource in the standard and special depots
+    private final int[] resourceQuantities = new int[RESOURCES.length];
+    private int totalResources;
+    //Reused by the removals to track the resources still to remove
+    private final ResourceVector resourcesToRemove = new ResourceVector();
 
     public WarehouseDepots() {
         //Filling WarehouseDepots with depots of progressively increasing size
         for(int i = 0; i < STANDARDDEPOTS; i++){
             depots.add(new Depot(i+1));
         }
+        Arrays.fill(standardDepotOf, -1);
+    }
+
+    //Updates the index after the content of a depot changed
+    private void indexDepot(int depotIndex, Resource oldResource, Resource newResource){
+        if (depotIndex >= STANDARDDEPOTS) return;
+        if (oldResource != null && standardDepotOf[oldResource.ordinal()] == depotIndex)
+            standardDepotOf[oldResource.ordinal()] = -1;
+        if (newResource != null)
+            standardDepotOf[newResource.ordinal()] = depotIndex;
     }
 
     //Method used to perform checks before adding resources
@@ -37,16 +60,14 @@ public class WarehouseDepots extends MessageObservable {
             throw new InvalidAdditionException("Not one resource");
         }
         Resource resource = singleResourceMap.keySet().iterator().next();
-        //Checks to do if the depot is a standard depot
+        if (resource == null || singleResourceMap.get(resource) == null) {
+            throw new InvalidAdditionException("Not one resource");
+        }
+        //Making sure the same resource is not in another depot that is not special
         if (depotNumber <= STANDARDDEPOTS){
-            //Making sure the same resource is not in another depot that is not special
-            for (Depot depot : depots.subList(0, STANDARDDEPOTS)){
-                //Skipping control for the depot to which we want to add the resource
-                if (depot != depots.get(depotNumber-1)){
-                    if (depot.checkResource(resource)) {
-                        throw new InvalidAdditionException("Same resource in other depots");
-                    }
-                }
+            int holder = standardDepotOf[resource.ordinal()];
+            if (holder != -1 && holder != depotNumber - 1) {
+                throw new InvalidAdditionException("Same resource in other depots");
             }
         }
     }
@@ -64,9 +85,16 @@ public class WarehouseDepots extends MessageObservable {
         //Performing checks
         checkAdd(depotNumber,singleResourceMap);
         //Adding the resource
+        Resource resource = singleResourceMap.keySet().iterator().next();
+        int quantity = singleResourceMap.get(resource);
         depots.get(depotNumber-1).add(singleResourceMap);
+        indexDepot(depotNumber - 1, null, resource);
+        resourceQuantities[resource.ordinal()] += quantity;
+        totalResources += quantity;
 
-        doNotify();
+        Map<Integer, Map<Resource, Integer>> changes = new HashMap<>();
+        changes.put(depotNumber, new HashMap<>(singleResourceMap));
+        notifyChanges(changes);
     }
 
     /**
@@ -108,10 +136,18 @@ public class WarehouseDepots extends MessageObservable {
 
         //Swapping the resources
         Map<Resource, Integer> tempmap1  = depot1.getMapResource();
-        depot1.setMapResource(depot2.getMapResource());
-        depot2.setMapResource(tempmap1);
+        Resource resource1 = depot1.getResource();
+        Resource resource2 = depot2.getResource();
+        int quantity1 = depot1.getNumberResources();
+        depot1.setContent(resource2, depot2.getNumberResources());
+        depot2.setContent(resource1, quantity1);
+        indexDepot(depotNumber1 - 1, resource1, resource2);
+        indexDepot(depotNumber2 - 1, resource2, resource1);
 
-        doNotify();
+        Map<Integer, Map<Resource, Integer>> changes = new HashMap<>();
+        changes.put(depotNumber1, ResourceDeltas.difference(tempmap1, depot1.getMapResource()));
+        changes.put(depotNumber2, ResourceDeltas.difference(depot1.getMapResource(), tempmap1));
+        notifyChanges(changes);
     }
 
     /**
@@ -136,29 +172,31 @@ public class WarehouseDepots extends MessageObservable {
         Depot sourceDepot = depots.get(sourceDepotNumber-1);
         Depot destinationDepot = depots.get(destinationDepotNumber-1);
 
-        //Instantiating the resource map that has to be moved
-        Map<Resource, Integer> resourceMap = new HashMap<>();
         //Throws exception if the source depot is empty
-        if (!sourceDepot.getMapResource().keySet().iterator().hasNext()){
+        Resource resourceToMove = sourceDepot.getResource();
+        if (resourceToMove == null){
             throw new InvalidRemovalException("Not enough resources in the first depot");
         }
-        Resource resourceToMove = sourceDepot.getMapResource().keySet().iterator().next();
+        //Instantiating the resource map that has to be moved
+        Map<Resource, Integer> resourceMap = new HashMap<>();
         resourceMap.put(resourceToMove, quantity);
         //Checking if the move can be performed
-        Map<Resource, Integer> resourceToCheckMap = new HashMap<>(resourceMap);
-        sourceDepot.checkAvailability(resourceToCheckMap);
-        if (!resourceToCheckMap.isEmpty()) {
+        if (quantity < 0 || sourceDepot.getNumberResources() < quantity) {
             throw new InvalidRemovalException("Move can't be performed");
         }
         checkAdd(destinationDepotNumber, resourceMap);
-        destinationDepot.checkAdd(resourceMap);
+        destinationDepot.checkAdd(resourceToMove, quantity);
 
         //Moving the resource
-        Map<Resource, Integer> resourceToRemove = new HashMap<>(resourceMap);
-        sourceDepot.uncheckedRemove(resourceToRemove);
+        sourceDepot.setContent(resourceToMove, sourceDepot.getNumberResources() - quantity);
+        destinationDepot.uncheckedAdd(resourceToMove, quantity);
+        indexDepot(sourceDepotNumber - 1, resourceToMove, sourceDepot.getResource());
+        indexDepot(destinationDepotNumber - 1, null, destinationDepot.getResource());
 
-        destinationDepot.uncheckedAdd(resourceMap);
-        doNotify();
+        Map<Integer, Map<Resource, Integer>> changes = new HashMap<>();
+        changes.put(sourceDepotNumber, ResourceDeltas.negate(resourceMap));
+        changes.put(destinationDepotNumber, new HashMap<>(resourceMap));
+        notifyChanges(changes);
     }
 
 
@@ -169,7 +207,35 @@ public class WarehouseDepots extends MessageObservable {
      * @return true if all the resources in resourceMap are in WareHouseDepot, false otherwise
      */
     public boolean isAvailable(Map<Resource, Integer> resourceMap) {
-        return resourcesNotAvailable(resourceMap).isEmpty();
+        for (Map.Entry<Resource, Integer> entry : resourceMap.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null || resourceQuantities[entry.getKey().ordinal()] < entry.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks that all the resources and their quantities are stored in WarehouseDepot
+     * @param resources The resources whose availability in WarehouseDepot is verified
+     * @return true if all the resources are in WareHouseDepot, false otherwise
+     */
+    public boolean isAvailable(ResourceVector resources) {
+        for (Resource resource : RESOURCES) {
+            if (resourceQuantities[resource.ordinal()] < resources.get(resource)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method to get the quantity of a resource stored in every depot
+     * @param resource The resource whose quantity is requested
+     * @return The sum of the quantities of the resource in the depots
+     */
+    public int getResourceQuantity(Resource resource) {
+        return resourceQuantities[resource.ordinal()];
     }
 
     /**
@@ -177,9 +243,12 @@ public class WarehouseDepots extends MessageObservable {
      * @return a map of the resources not available in WarehouseDepots among those in resourceMap
      */
     public Map<Resource, Integer> resourcesNotAvailable(Map<Resource, Integer> resourceMap){
-        Map<Resource, Integer> resourceToCheckMap = new HashMap<>(resourceMap);
-        for (Depot depot: depots){
-            depot.checkAvailability(resourceToCheckMap);
+        Map<Resource, Integer> resourceToCheckMap = new HashMap<>();
+        for (Map.Entry<Resource, Integer> entry : resourceMap.entrySet()) {
+            int available = entry.getKey() == null ? 0 : resourceQuantities[entry.getKey().ordinal()];
+            if (entry.getValue() != null && entry.getValue() > available) {
+                resourceToCheckMap.put(entry.getKey(), entry.getValue() - available);
+            }
         }
         return resourceToCheckMap;
     }
@@ -190,11 +259,32 @@ public class WarehouseDepots extends MessageObservable {
      * @param resourceMap The map that contains the resources and the quantity of the resources to remove
      */
     public void uncheckedRemove(Map<Resource, Integer> resourceMap){
-        Map<Resource, Integer> resourceToRemoveMap = new HashMap<>(resourceMap);
-        for (Depot depot: depots){
-            depot.uncheckedRemove(resourceToRemoveMap);
+        uncheckedRemove(new ResourceVector(resourceMap));
+    }
+
+    /**
+     * Method to remove resources from the depots, must be called only after performing checks with isAvailable
+     * @param resources The resources to remove
+     */
+    public void uncheckedRemove(ResourceVector resources){
+        if (resources.isEmpty()) return;
+        resourcesToRemove.clear();
+        resourcesToRemove.add(resources);
+        Map<Integer, Map<Resource, Integer>> changes = new HashMap<>();
+        for (int i = 0; i < depots.size() && !resourcesToRemove.isEmpty(); i++){
+            Depot depot = depots.get(i);
+            Resource resource = depot.getResource();
+            int removed = depot.uncheckedRemove(resourcesToRemove);
+            if (removed > 0) {
+                indexDepot(i, resource, depot.getResource());
+                resourceQuantities[resource.ordinal()] -= removed;
+                totalResources -= removed;
+                Map<Resource, Integer> depotChanges = new HashMap<>();
+                depotChanges.put(resource, -removed);
+                changes.put(i + 1, depotChanges);
+            }
         }
-        doNotify();
+        notifyChanges(changes);
     }
 
     /**
@@ -202,11 +292,7 @@ public class WarehouseDepots extends MessageObservable {
      * @return The total quantity of resources in every depot
      */
     public int getTotalResources(){
-        int total = 0;
-        for (Depot depot : depots){
-            total += depot.getNumberResources();
-        }
-        return total;
+        return totalResources;
     }
 
     /**
@@ -219,15 +305,62 @@ public class WarehouseDepots extends MessageObservable {
         return depots.get(numberDepot-1);
     }
 
+    //Notifies the view with the changes of the modified depots, identified by their number
+    private void notifyChanges(Map<Integer, Map<Resource, Integer>> changes){
+        notifyObservers(new WarehouseDeltaUpdate(this.getNickname(), ++sequence, changes));
+    }
+
+    //Copies the sequence and the resource and quantity of every depot, used by a BoardTransaction
+    int[] saveState() {
+        int[] state = new int[1 + 2 * depots.size()];
+        state[0] = sequence;
+        for (int i = 0; i < depots.size(); i++) {
+            Resource resource = depots.get(i).getResource();
+            state[1 + 2 * i] = resource == null ? -1 : resource.ordinal();
+            state[2 + 2 * i] = depots.get(i).getResourceQuantity(resource);
+        }
+        return state;
+    }
+
+    //Restores a state copied by saveState, the whole warehouse is notified if it changed in the meantime.
+    //The special depots added after the copy are kept
+    void restoreState(int[] state) {
+        if (state[0] == sequence) return;
+        Arrays.fill(standardDepotOf, -1);
+        Arrays.fill(resourceQuantities, 0);
+        totalResources = 0;
+        for (int i = 0; i < depots.size(); i++) {
+            Depot depot = depots.get(i);
+            if (1 + 2 * i < state.length) {
+                depot.setContent(state[1 + 2 * i] == -1 ? null : RESOURCES[state[1 + 2 * i]], state[2 + 2 * i]);
+            }
+            Resource resource = depot.getResource();
+            if (resource != null) {
+                indexDepot(i, null, resource);
+                resourceQuantities[resource.ordinal()] += depot.getResourceQuantity(resource);
+                totalResources += depot.getResourceQuantity(resource);
+            }
+        }
+        sequence++;
+        doNotify();
+    }
+
     /**
-     * Notifies the view with a clone of the model data of the warehouse depots
+     * Method to get the whole warehouse, sent to a view that lost some changes
+     * @return A message with a clone of the model data of the warehouse depots and its sequence number
      */
-    public void doNotify(){
+    public WarehouseUpdate getSnapshot(){
         List<Map<Resource, Integer>> warehouseState = new ArrayList<>();
         for (Depot depot : depots){
-            warehouseState.add(depot.getMapResource());
+            warehouseState.add(new HashMap<>(depot.getMapResource()));
         }
+        return new WarehouseUpdate(this.getNickname(), sequence, warehouseState);
+    }
 
-        notifyObservers(new WarehouseUpdate(this.getNickname(), warehouseState));
+    /**
+     * Notifies the view with a clone of the model data of the warehouse depots
+     */
+    public void doNotify(){
+        notifyObservers(getSnapshot());
     }
 }
@@ -0,0 +1,44 @@
+package it.polimi.ingsw.server.model.enumerations;
+
+/**
+ * This class represents the outcome of an action of a player on the personal board.
+ * Rejected actions are frequent, so they are reported with one of these constants instead of an exception
+ */
+public enum ActionResult {
+    OK("Done"),
+    NO_CARD("There is no card in the specified position of card grid"),
+    INVALID_CARD_SPACE("The position is not valid or the card doesn't exist"),
+    CARD_SPACE_NOT_EMPTY("A card level 1 must be put on an empty space"),
+    LEVEL_1_CARD_REQUIRED("A card level 2 must be put on a level 1"),
+    LEVEL_2_CARD_REQUIRED("A card level 3 must be put on a level 2"),
+    LEADER_CARD_NOT_FOUND("The leader card selected does not exist"),
+    LEADER_CARD_NOT_ACTIVE("The leader card selected is not active"),
+    NOT_A_DISCOUNT_LEADER("The selected card doesn't have the discount ability"),
+    NOT_A_PRODUCTION_LEADER("The selected card doesn't have the production ability"),
+    NO_PRODUCTION("Choose at least one production"),
+    PRODUCTION_NOT_FOUND("The production selected does not exist"),
+    PRODUCTION_ALREADY_USED("You already used this production"),
+    INVALID_PRODUCED_RESOURCE("The resource to produce can't be faith"),
+    INVALID_COST("The specified cost is not valid"),
+    NOT_ENOUGH_RESOURCES("There are not enough resources");
+
+    private final String message;
+
+    ActionResult(String message) {
+        this.message = message;
+    }
+
+    /**
+     * @return the message sent to the player
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return true if the action has been done
+     */
+    public boolean isOk() {
+        return this == OK;
+    }
+}
@@ -0,0 +1,12 @@
+package it.polimi.ingsw.server.model.enumerations;
+
+/**
+ * This class represents how the server splits a payment between the warehouse depots and the strongbox
+ * when the player lets the server choose it
+ */
+public enum PaymentPolicy {
+    //the resources are taken from the warehouse depots, the strongbox pays the rest
+    WAREHOUSE_FIRST,
+    //the resources are taken from the strongbox, the warehouse depots pay the rest
+    STRONGBOX_FIRST
+}
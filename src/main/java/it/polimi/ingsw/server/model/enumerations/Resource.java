@@ -1,9 +1,7 @@
 package it.polimi.ingsw.server.model.enumerations;
 
 import it.polimi.ingsw.server.model.FaithTrack;
-import it.polimi.ingsw.server.model.exceptions.InvalidParameterException;
-
-import java.util.Map;
+import it.polimi.ingsw.server.model.ResourceVector;
 
 /**
  * This class represents the abstract resource
@@ -15,9 +13,9 @@ public enum Resource {
     STONE("STONE"),
     FAITH("FAITH"){
         @Override
-        public void dispatch(Map<Resource, Integer> resourceMap, FaithTrack faithTrack) {
-            faithTrack.moveFaithMarker(resourceMap.get(FAITH));
-            resourceMap.remove(FAITH);
+        public void dispatch(ResourceVector resources, FaithTrack faithTrack) {
+            faithTrack.moveFaithMarker(resources.get(FAITH));
+            resources.set(FAITH, 0);
         }
     };
 
@@ -32,6 +30,6 @@ public enum Resource {
         return string;
     }
 
-    public void dispatch(Map<Resource, Integer> resourceMap, FaithTrack faithTrack){
+    public void dispatch(ResourceVector resources, FaithTrack faithTrack){
     }
 }
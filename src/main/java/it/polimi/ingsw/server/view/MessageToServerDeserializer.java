@@ -1,93 +1,65 @@
 package it.polimi.ingsw.server.view;
 
-import com.google.gson.*;
+import com.google.gson.JsonParseException;
+import it.polimi.ingsw.common.messages.MessageType;
 import it.polimi.ingsw.common.messages.messagesToServer.MessageToServer;
 import it.polimi.ingsw.common.messages.messagesToServer.*;
-
-import java.lang.reflect.Type;
+import it.polimi.ingsw.common.utils.BinaryProtocol;
+import it.polimi.ingsw.common.utils.MessageDecoder;
 
 /**
  * This class offers a custom deserializer to deserialize a json string into a massage without knowing the type of the message
  */
-public class MessageToServerDeserializer implements JsonDeserializer <MessageToServer>{
-    private GsonBuilder gsonBuilder;
-    private Gson customGson;
+public class MessageToServerDeserializer {
+    //Pings have no content, so every ping is decoded into the same message
+    private static final PingMessage PING = new PingMessage();
+    private final MessageDecoder<MessageToServer> decoder;
 
     /**
-     * This constructor creates the custom gsonBuilder to deserialize the messages
+     * This constructor registers the class of every message the server can receive
      */
     public MessageToServerDeserializer() {
-        gsonBuilder = new GsonBuilder().registerTypeAdapter(MessageToServer.class,this);
-        customGson = gsonBuilder.create();
+        decoder = new MessageDecoder<MessageToServer>()
+                .register(MessageType.ADD_PLAYER, NicknameReplyMessage.class)
+                .register(MessageType.DISCARD_INITIAL_LEADER, DiscardInitialLeaderMessage.class)
+                .register(MessageType.CHOOSE_INITIAL_RESOURCES, ChooseInitialResourcesMessage.class)
+                .register(MessageType.CREATE_MATCH, CreateMatchReplyMessage.class)
+                .register(MessageType.TAKE_FROM_MARKET, TakeFromMarketMessage.class)
+                .register(MessageType.TRANSFORM_WHITE_MARBLES, TransformWhiteMarblesMessage.class)
+                .register(MessageType.TRANSFORM_MARBLES, TransformMarblesMessage.class)
+                .register(MessageType.ACTIVATE_LEADER, ActivateLeaderMessage.class)
+                .register(MessageType.ADD_TO_WAREHOUSE, AddToWarehouseMessage.class)
+                .register(MessageType.BUY_DEVELOPMENT_CARD, BuyDevelopmentCardMessage.class)
+                .register(MessageType.SWAP, SwapMessage.class)
+                .register(MessageType.MOVE, MoveMessage.class)
+                .register(MessageType.DISCARD_LEADER, DiscardLeaderMessage.class)
+                .register(MessageType.ACTIVATE_CARD_PRODUCTION, ActivateCardProductionMessage.class)
+                .register(MessageType.ACTIVATE_BASIC_PRODUCTION, ActivateBasicProductionMessage.class)
+                .register(MessageType.ACTIVATE_LEADER_PRODUCTION, ActivateLeaderProductionMessage.class)
+                .register(MessageType.END_PRODUCTION, EndProduction.class)
+                .register(MessageType.ACTIVATE_PRODUCTIONS_BATCH, ActivateProductionsBatchMessage.class)
+                .register(MessageType.END_TURN, EndTurnMessage.class)
+                .register(MessageType.DISCARD_RESOURCES_FROM_MARKET, DiscardResourcesFromMarketMessage.class)
+                .register(MessageType.SNAPSHOT_REQUEST, SnapshotRequestMessage.class)
+                .register(MessageType.PROTOCOL_HELLO, ProtocolHelloMessage.class)
+                .registerShared(MessageType.PING, PING);
     }
 
-
     /**
-     * This is the custom deserializer that deserializes a massage in a specific type of massage reading its type from the json
-     * @param json is the json message to deserialize
-     * @param type is the class type to deserialize
-     * @param jsonDeserializationContext is the deserialization context
-     * @return a message that extends MessageToServer
-     * @throws JsonParseException the parsing goes wrong
+     *This method deserializes a string into a massage of a specific type that extends MessageToServer
+     * @param serializedMessage is a String with the json massage to deserialize
+     * @return a massage of a specific type that extends MessageToServer
+     * @throws JsonParseException if the string is not a valid message for the server
      */
-    @Override
-    public MessageToServer deserialize(JsonElement json, Type type, JsonDeserializationContext jsonDeserializationContext) throws JsonParseException {
-        JsonObject jsonObject = json.getAsJsonObject();
-        Gson gson = new Gson();
-
-        switch (jsonObject.get("messageType").getAsString()){
-            case "ADD_PLAYER":
-                return gson.fromJson(jsonObject, NicknameReplyMessage.class);
-            case "DISCARD_INITIAL_LEADER":
-                return gson.fromJson(jsonObject, DiscardInitialLeaderMessage.class);
-            case "CHOOSE_INITIAL_RESOURCES":
-                return gson.fromJson(jsonObject, ChooseInitialResourcesMessage.class);
-            case "CREATE_MATCH":
-                return gson.fromJson(jsonObject, CreateMatchReplyMessage.class);
-            case "TAKE_FROM_MARKET":
-                return gson.fromJson(jsonObject, TakeFromMarketMessage.class);
-            case "TRANSFORM_WHITE_MARBLES":
-                return gson.fromJson(jsonObject, TransformWhiteMarblesMessage.class);
-            case "TRANSFORM_MARBLES":
-                return gson.fromJson(jsonObject, TransformMarblesMessage.class);
-            case "ACTIVATE_LEADER":
-                return gson.fromJson(jsonObject, ActivateLeaderMessage.class);
-            case "ADD_TO_WAREHOUSE" :
-                return gson.fromJson(jsonObject, AddToWarehouseMessage.class);
-            case "BUY_DEVELOPMENT_CARD" :
-                return gson.fromJson(jsonObject, BuyDevelopmentCardMessage.class);
-            case "SWAP":
-                return gson.fromJson(jsonObject, SwapMessage.class);
-            case "MOVE":
-                return gson.fromJson(jsonObject, MoveMessage.class);
-            case "DISCARD_LEADER":
-                return gson.fromJson(jsonObject, DiscardLeaderMessage.class);
-            case "ACTIVATE_CARD_PRODUCTION":
-                return gson.fromJson(jsonObject, ActivateCardProductionMessage.class);
-            case "ACTIVATE_BASIC_PRODUCTION":
-                return gson.fromJson(jsonObject, ActivateBasicProductionMessage.class);
-            case "ACTIVATE_LEADER_PRODUCTION":
-                return gson.fromJson(jsonObject, ActivateLeaderProductionMessage.class);
-            case "END_PRODUCTION":
-                return gson.fromJson(jsonObject, EndProduction.class);
-            case "END_TURN":
-                return gson.fromJson(jsonObject, EndTurnMessage.class);
-            case "DISCARD_RESOURCES_FROM_MARKET":
-                return gson.fromJson(jsonObject, DiscardResourcesFromMarketMessage.class);
-            case "PING":
-                return gson.fromJson(jsonObject, PingMessage.class);
-        }
-
-        return null;
+    public MessageToServer deserializeMessage(String serializedMessage) throws JsonParseException {
+        return decoder.decode(serializedMessage);
     }
 
-
     /**
-     *This method deserializes a string into a massage of a specific type that extends MessageToServer
-     * @param serializedMessage is a String with the json massage to deserialize
-     * @return a massage of a specific type that extends MessageToServer
+     * Creates the state of the binary protocol of a connection, sharing the classes registered by this deserializer
+     * @return a new binary protocol
      */
-    public MessageToServer deserializeMessage(String serializedMessage){
-        return customGson.fromJson(serializedMessage, MessageToServer.class);
+    public BinaryProtocol<MessageToServer> newBinaryProtocol() {
+        return new BinaryProtocol<>(decoder);
     }
 }
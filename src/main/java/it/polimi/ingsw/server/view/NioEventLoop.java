@@ -0,0 +1,146 @@
+package it.polimi.ingsw.server.view;
+
+import it.polimi.ingsw.server.Lobby;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Logger;
+
+/**
+ * This class is a selector-driven event loop that serves many non-blocking client connections with a single thread.
+ * It reads, frames and dispatches the incoming lines, writes the pending outgoing messages and closes idle connections
+ */
+public class NioEventLoop implements Runnable {
+    private static final int READ_BUFFER_SIZE = 8192;
+    private static final long SELECT_TIMEOUT = 1000;
+    private static final Logger LOGGER = Logger.getLogger(NioEventLoop.class.getName());
+    private final Selector selector;
+    private final Lobby lobby;
+    private final int outboundHighWaterMark;
+    private final OutboundQueue.SlowConsumerPolicy slowConsumerPolicy;
+    //Tasks submitted by other threads, executed by the loop thread
+    private final Queue<Runnable> pendingTasks;
+    //Read buffer shared by every connection of this loop
+    private final ByteBuffer readBuffer;
+    private volatile Thread loopThread;
+
+    /**
+     * Constructor of the event loop
+     * @param lobby The lobby every new connection is assigned to
+     * @param outboundHighWaterMark The maximum number of messages waiting to be written to a client
+     * @param slowConsumerPolicy The policy applied to the clients that exceed the high-water mark
+     * @throws IOException if the selector cannot be opened
+     */
+    public NioEventLoop(Lobby lobby, int outboundHighWaterMark, OutboundQueue.SlowConsumerPolicy slowConsumerPolicy) throws IOException {
+        this.lobby = lobby;
+        this.outboundHighWaterMark = outboundHighWaterMark;
+        this.slowConsumerPolicy = slowConsumerPolicy;
+        selector = Selector.open();
+        pendingTasks = new ConcurrentLinkedQueue<>();
+        readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    }
+
+    /**
+     * Method used to hand an accepted connection to this loop
+     * @param channel The channel of the accepted client
+     */
+    public void register(SocketChannel channel){
+        execute(() -> {
+            try {
+                channel.configureBlocking(false);
+                NioVirtualView virtualView = new NioVirtualView(channel, this, lobby, new OutboundQueue(outboundHighWaterMark, slowConsumerPolicy));
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ, virtualView);
+                virtualView.registered(key);
+            } catch (IOException e) {
+                LOGGER.warning("Could not register client: " + e.getMessage());
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    //the channel is already unusable
+                }
+            }
+        });
+    }
+
+    /**
+     * Method used to run a task on the loop thread
+     * @param task The task to execute
+     */
+    void execute(Runnable task){
+        pendingTasks.add(task);
+        if(!inEventLoop()){
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * @return True if the caller is the loop thread
+     */
+    boolean inEventLoop(){
+        return Thread.currentThread() == loopThread;
+    }
+
+    public void run() {
+        loopThread = Thread.currentThread();
+        long lastSweep = System.currentTimeMillis();
+        while (selector.isOpen()) {
+            try {
+                selector.select(SELECT_TIMEOUT);
+            } catch (IOException e) {
+                LOGGER.severe("Selector failure: " + e.getMessage());
+                break;
+            }
+            runPendingTasks();
+
+            Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+            while (iterator.hasNext()) {
+                SelectionKey key = iterator.next();
+                iterator.remove();
+                NioVirtualView virtualView = (NioVirtualView) key.attachment();
+                try {
+                    if (key.isValid() && key.isReadable()) {
+                        virtualView.onReadable(readBuffer);
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        virtualView.onWritable();
+                    }
+                } catch (IOException | RuntimeException e) {
+                    virtualView.close();
+                }
+            }
+
+            long now = System.currentTimeMillis();
+            if (now - lastSweep >= SELECT_TIMEOUT) {
+                closeIdleConnections(now);
+                lastSweep = now;
+            }
+        }
+    }
+
+    private void runPendingTasks(){
+        Runnable task;
+        while ((task = pendingTasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOGGER.warning("Task failed on event loop: " + e.getMessage());
+            }
+        }
+    }
+
+    //Method used to close the connections that did not send anything, not even a ping, for too long
+    private void closeIdleConnections(long now){
+        for (SelectionKey key : selector.keys()) {
+            NioVirtualView virtualView = (NioVirtualView) key.attachment();
+            if (virtualView != null && key.isValid()) {
+                virtualView.closeIfIdle(now);
+            }
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package it.polimi.ingsw.server.view;
+
+import it.polimi.ingsw.common.utils.BinaryProtocol;
+import it.polimi.ingsw.server.Lobby;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class handles the connection to the client with a non-blocking channel served by a {@link NioEventLoop}.
+ * Idle connections hold no buffers: a partial line or frame is stored only while a message is split between two reads.
+ * Queued messages are written in batches with a single gathering write
+ */
+public class NioVirtualView extends VirtualView {
+    private static final int MAX_LINE_LENGTH = 1 << 16;
+    private static final byte NEW_LINE = '\n';
+    private static final int BATCH_SIZE = 64;
+    private final SocketChannel channel;
+    private final NioEventLoop eventLoop;
+    private final String remoteAddress;
+    private final int remotePort;
+    private final AtomicBoolean writeRequested;
+    private final AtomicBoolean closed;
+    private SelectionKey key;
+    private byte[] partialLine;
+    private int partialLength;
+    private long lastReadTime;
+    //Batch being written, with the index of the first buffer not completely written
+    private ByteBuffer[] pendingBatch;
+    private int pendingIndex;
+
+    /**
+     * Constructor of the virtual view, after a client has requested a connection
+     * @param channel The channel used to communicate to client
+     * @param eventLoop The event loop serving the channel
+     * @param lobby The lobby to manage a waiting list of players
+     * @param outboundQueue The queue of the messages waiting to be written to the client
+     */
+    public NioVirtualView(SocketChannel channel, NioEventLoop eventLoop, Lobby lobby, OutboundQueue outboundQueue) {
+        super(lobby, outboundQueue);
+        this.channel = channel;
+        this.eventLoop = eventLoop;
+        InetSocketAddress address = (InetSocketAddress) channel.socket().getRemoteSocketAddress();
+        remoteAddress = address == null ? "unknown" : address.getAddress().getHostAddress();
+        remotePort = address == null ? 0 : address.getPort();
+        writeRequested = new AtomicBoolean(false);
+        closed = new AtomicBoolean(false);
+        partialLine = null;
+        partialLength = 0;
+    }
+
+    /**
+     * Method called by the event loop once the channel has been registered
+     * @param key The selection key of the channel
+     */
+    void registered(SelectionKey key){
+        this.key = key;
+        lastReadTime = System.currentTimeMillis();
+        connected();
+    }
+
+    /**
+     * Method called by the event loop when the channel has data to read
+     * @param readBuffer The buffer shared by the connections of the event loop
+     * @throws IOException if the channel cannot be read
+     */
+    void onReadable(ByteBuffer readBuffer) throws IOException {
+        int read;
+        do {
+            readBuffer.clear();
+            read = channel.read(readBuffer);
+            if (read < 0) {
+                close();
+                return;
+            }
+            if (read > 0) {
+                lastReadTime = System.currentTimeMillis();
+                frame(readBuffer.array(), read);
+            }
+        } while (read == readBuffer.capacity() && !closed.get());
+    }
+
+    //Method used to split the received bytes in lines or frames, each complete one is handled as a message
+    private void frame(byte[] bytes, int length){
+        byte[] source = bytes;
+        int end = length;
+        if (partialLength > 0) {
+            appendPartial(bytes, 0, length);
+            source = partialLine;
+            end = partialLength;
+        }
+        int start = 0;
+        try {
+            //the protocol can change after every message, so it is checked each time
+            while (start < end && !closed.get()) {
+                int next = isBinaryInput() ? nextFrame(source, start, end) : nextLine(source, start, end);
+                if (next < 0) break;
+                start = next;
+            }
+        } catch (IllegalArgumentException e) {
+            close();
+        }
+        if (closed.get()) {
+            return;
+        }
+        if (source == partialLine) {
+            partialLength = end - start;
+            if (partialLength == 0) partialLine = null;
+            else System.arraycopy(partialLine, start, partialLine, 0, partialLength);
+        }
+        else if (start < end) {
+            appendPartial(bytes, start, end - start);
+        }
+        if (partialLength > MAX_LINE_LENGTH) {
+            close();
+        }
+    }
+
+    //Handles the line starting at start, it returns the position after the line or -1 if the line is not complete
+    private int nextLine(byte[] bytes, int start, int end){
+        for (int i = start; i < end; i++) {
+            if (bytes[i] == NEW_LINE) {
+                String line = decode(bytes, start, i - start);
+                if (!line.isEmpty()) {
+                    handleLine(line);
+                }
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    //Handles the frame starting at start, it returns the position after the frame or -1 if the frame is not complete
+    private int nextFrame(byte[] bytes, int start, int end){
+        int[] frameLength = BinaryProtocol.readFrameLength(bytes, start, end);
+        if (frameLength == null) {
+            return -1;
+        }
+        if (frameLength[0] > MAX_LINE_LENGTH) {
+            throw new IllegalArgumentException("Frame too long");
+        }
+        int frameStart = start + frameLength[1];
+        if (end - frameStart < frameLength[0]) {
+            return -1;
+        }
+        handleFrame(bytes, frameStart, frameLength[0]);
+        return frameStart + frameLength[0];
+    }
+
+    private void appendPartial(byte[] bytes, int offset, int length){
+        if (partialLine == null) {
+            partialLine = new byte[Math.max(length, 256)];
+        }
+        else if (partialLength + length > partialLine.length) {
+            partialLine = Arrays.copyOf(partialLine, Math.max(partialLength + length, partialLine.length * 2));
+        }
+        System.arraycopy(bytes, offset, partialLine, partialLength, length);
+        partialLength += length;
+    }
+
+    private static String decode(byte[] bytes, int offset, int length){
+        if (length > 0 && bytes[offset + length - 1] == '\r') {
+            length--;
+        }
+        return new String(bytes, offset, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Method called by the event loop when the channel can be written, it writes as much as possible of the pending messages
+     * @throws IOException if the channel cannot be written
+     */
+    void onWritable() throws IOException {
+        writeRequested.set(false);
+        List<byte[]> batch = new ArrayList<>(BATCH_SIZE);
+        while (pendingBatch != null || outboundQueue.drainTo(batch, BATCH_SIZE) > 0) {
+            if (pendingBatch == null) {
+                pendingBatch = new ByteBuffer[batch.size()];
+                for (int i = 0; i < pendingBatch.length; i++) {
+                    pendingBatch[i] = ByteBuffer.wrap(batch.get(i));
+                }
+                pendingIndex = 0;
+                batch.clear();
+            }
+            channel.write(pendingBatch, pendingIndex, pendingBatch.length - pendingIndex);
+            while (pendingIndex < pendingBatch.length && !pendingBatch[pendingIndex].hasRemaining()) {
+                pendingIndex++;
+            }
+            if (pendingIndex < pendingBatch.length) {
+                //the socket buffer is full, the loop will call again when the channel is writable
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return;
+            }
+            pendingBatch = null;
+        }
+        key.interestOps(SelectionKey.OP_READ);
+    }
+
+    /**
+     * Method called by the event loop to close the connection if the client has not sent anything for too long
+     * @param now The current time in milliseconds
+     */
+    void closeIfIdle(long now){
+        if (now - lastReadTime > TIMEOUT_TIME) {
+            close();
+        }
+    }
+
+    /**
+     * Method used to close the connection, it must be called by the event loop thread
+     */
+    void close(){
+        if (closed.compareAndSet(false, true)) {
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.out.println("Could not disconnect");
+            }
+            outboundQueue.close();
+            pendingBatch = null;
+            partialLine = null;
+            disconnected(remoteAddress, remotePort);
+        }
+    }
+
+    @Override
+    protected void scheduleWrite(){
+        if (eventLoop.inEventLoop()) {
+            if (key != null && key.isValid()) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+        else if (writeRequested.compareAndSet(false, true)) {
+            eventLoop.execute(() -> {
+                if (key != null && key.isValid()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                }
+            });
+        }
+    }
+
+    /**
+     * Closes the connection from the event loop thread
+     */
+    @Override
+    protected void slowConsumer(){
+        if (eventLoop.inEventLoop()) {
+            close();
+        }
+        else eventLoop.execute(this::close);
+    }
+}
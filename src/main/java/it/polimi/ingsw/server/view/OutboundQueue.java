@@ -0,0 +1,282 @@
+package it.polimi.ingsw.server.view;
+
+import it.polimi.ingsw.common.messages.MessageType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Class that implements the queue of the serialized messages waiting to be written to a client.
+ * Messages are added by the thread that modifies the model and removed in batches by the writer,
+ * when the queue grows over the high-water mark the slow consumer policy is applied.
+ * The messages of a batch are queued as its parts, so that the policy can drop them one by one
+ */
+public class OutboundQueue {
+    public static final int DEFAULT_HIGH_WATER_MARK = 512;
+    private final Deque<Entry> entries;
+    private final int highWaterMark;
+    private final SlowConsumerPolicy policy;
+    private final AtomicBoolean writeScheduled;
+    //Builds a batch from the payloads of its parts in the encoding used when the messages are added, null if they can't be grouped
+    private Function<List<byte[]>, byte[]> batchEncoder;
+    private boolean closed;
+    private long droppedMessages;
+
+    /**
+     * What to do when a client does not read its messages fast enough
+     */
+    public enum SlowConsumerPolicy {
+        //The client is disconnected
+        DISCONNECT,
+        //The older snapshots and deltas superseded by newer snapshots are dropped, also from inside the batches,
+        //then the messages left are grouped in batches. The client is disconnected only if this is not enough
+        DROP_SUPERSEDED
+    }
+
+    /**
+     * Constructor of the queue
+     * @param highWaterMark The maximum number of messages waiting to be written
+     * @param policy The policy applied when the high-water mark is exceeded
+     */
+    public OutboundQueue(int highWaterMark, SlowConsumerPolicy policy) {
+        this.highWaterMark = highWaterMark;
+        this.policy = policy;
+        entries = new ArrayDeque<>();
+        writeScheduled = new AtomicBoolean(false);
+        closed = false;
+        droppedMessages = 0;
+    }
+
+    /**
+     * Sets how the messages added from now on are grouped in a batch, the messages added with different encoders
+     * are never grouped together
+     * @param batchEncoder The function that builds a batch from the payloads of its parts, null if the messages can't be grouped
+     */
+    public synchronized void setBatchEncoder(Function<List<byte[]>, byte[]> batchEncoder){
+        this.batchEncoder = batchEncoder;
+    }
+
+    /**
+     * Adds a serialized message to the queue
+     * @param messageType The type of the message, null for data that is not a message and is never dropped
+     * @param nickname The nickname of the player the message refers to
+     * @param payload The serialized message
+     * @return false if the client is too slow and has to be disconnected
+     */
+    public synchronized boolean add(MessageType messageType, String nickname, byte[] payload){
+        if (closed) {
+            return true;
+        }
+        entries.addLast(new Entry(new Part(messageType, nickname, payload), batchEncoder));
+        return checkSize();
+    }
+
+    /**
+     * Adds a batch of serialized messages to the queue
+     * @param parts The messages of the batch, in the order they have to be handled
+     * @param payload The serialized batch, null to build it from the parts with the batch encoder
+     * @return false if the client is too slow and has to be disconnected
+     */
+    public synchronized boolean addBatch(List<Part> parts, byte[] payload){
+        if (closed) {
+            return true;
+        }
+        entries.addLast(new Entry(new ArrayList<>(parts), payload, batchEncoder));
+        return checkSize();
+    }
+
+    private boolean checkSize(){
+        if (entries.size() <= highWaterMark) {
+            return true;
+        }
+        if (policy == SlowConsumerPolicy.DROP_SUPERSEDED) {
+            dropSuperseded();
+            if (entries.size() > highWaterMark) {
+                group();
+            }
+            return entries.size() <= highWaterMark;
+        }
+        return false;
+    }
+
+    //Removes every snapshot and every delta followed by a newer snapshot of the same element and player, the batches included:
+    //the client would discard those deltas anyway or take the ones after a dropped snapshot for a gap.
+    //A batch is left whole if it can't be built again
+    private void dropSuperseded(){
+        Set<Part> superseded = new HashSet<>();
+        Iterator<Entry> iterator = entries.descendingIterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            boolean droppable = !entry.batch || entry.batchEncoder != null;
+            ListIterator<Part> parts = entry.parts.listIterator(entry.parts.size());
+            while (parts.hasPrevious()) {
+                Part part = parts.previous();
+                MessageType snapshotType = part.messageType == null ? null : part.messageType.getSnapshotType();
+                if (snapshotType == null) {
+                    continue;
+                }
+                Part element = new Part(snapshotType, part.nickname, null);
+                if (droppable && superseded.contains(element)) {
+                    parts.remove();
+                    entry.payload = null;
+                    droppedMessages++;
+                } else if (part.messageType.isSnapshot()) {
+                    superseded.add(element);
+                }
+            }
+            if (entry.parts.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    //Groups every run of messages added with the same batch encoder in a single batch
+    private void group(){
+        Deque<Entry> grouped = new ArrayDeque<>();
+        for (Entry entry : entries) {
+            Entry last = grouped.peekLast();
+            if (last != null && last.batchEncoder != null && last.batchEncoder == entry.batchEncoder) {
+                if (!last.batch) {
+                    grouped.pollLast();
+                    last = new Entry(new ArrayList<>(last.parts), null, last.batchEncoder);
+                    grouped.addLast(last);
+                }
+                last.parts.addAll(entry.parts);
+                last.payload = null;
+            } else {
+                grouped.addLast(entry);
+            }
+        }
+        entries.clear();
+        entries.addAll(grouped);
+    }
+
+    /**
+     * Moves the oldest messages to a batch
+     * @param batch The list the messages are added to
+     * @param maxMessages The maximum number of messages to move
+     * @return The number of messages moved
+     */
+    public synchronized int drainTo(List<byte[]> batch, int maxMessages){
+        int drained = 0;
+        while (drained < maxMessages && !entries.isEmpty()) {
+            batch.add(entries.pollFirst().getPayload());
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * @return true if there are no messages waiting
+     */
+    public synchronized boolean isEmpty(){
+        return entries.isEmpty();
+    }
+
+    /**
+     * Discards the waiting messages, the messages added later are ignored
+     */
+    public synchronized void close(){
+        closed = true;
+        entries.clear();
+    }
+
+    /**
+     * @return The number of snapshots and deltas dropped because superseded, the ones inside batches included
+     */
+    public synchronized long getDroppedMessages() {
+        return droppedMessages;
+    }
+
+    /**
+     * Method used by the writer to claim the queue, so that only one writer at a time drains it
+     * @return true if the writer has to be scheduled
+     */
+    boolean tryScheduleWrite(){
+        return writeScheduled.compareAndSet(false, true);
+    }
+
+    /**
+     * Method used by the writer to release the queue
+     */
+    void writeDone(){
+        writeScheduled.set(false);
+    }
+
+    /**
+     * A serialized message of a batch, two parts are equal if they have the same type and refer to the same player
+     */
+    public static final class Part {
+        private final MessageType messageType;
+        private final String nickname;
+        private final byte[] payload;
+
+        /**
+         * Constructor of the part
+         * @param messageType The type of the message, null for data that is not a message and is never dropped
+         * @param nickname The nickname of the player the message refers to
+         * @param payload The serialized message
+         */
+        public Part(MessageType messageType, String nickname, byte[] payload) {
+            this.messageType = messageType;
+            this.nickname = nickname;
+            this.payload = payload;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Part)) return false;
+            Part part = (Part) o;
+            return messageType == part.messageType && Objects.equals(nickname, part.nickname);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(messageType, nickname);
+        }
+    }
+
+    //A queued message or batch, the payload of a batch is built again only if some of its parts have been dropped
+    private static final class Entry {
+        private final List<Part> parts;
+        private final boolean batch;
+        private final Function<List<byte[]>, byte[]> batchEncoder;
+        private byte[] payload;
+
+        private Entry(Part part, Function<List<byte[]>, byte[]> batchEncoder) {
+            this.parts = new ArrayList<>(Collections.singletonList(part));
+            this.batch = false;
+            this.batchEncoder = batchEncoder;
+            this.payload = part.payload;
+        }
+
+        private Entry(List<Part> parts, byte[] payload, Function<List<byte[]>, byte[]> batchEncoder) {
+            this.parts = parts;
+            this.batch = true;
+            this.batchEncoder = batchEncoder;
+            this.payload = payload;
+        }
+
+        private byte[] getPayload() {
+            if (payload == null) {
+                List<byte[]> partPayloads = new ArrayList<>(parts.size());
+                for (Part part : parts) {
+                    partPayloads.add(part.payload);
+                }
+                payload = batchEncoder.apply(partPayloads);
+            }
+            return payload;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package it.polimi.ingsw.server.view;
+import it.polimi.ingsw.common.utils.FrameReader;
+import it.polimi.ingsw.server.Lobby;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class handles the connection to the client with a blocking socket and a dedicated thread.
+ * Outgoing messages are written in batches by a pool of writers shared by every connection
+ */
+public class SocketVirtualView extends VirtualView implements Runnable {
+    private static final int BATCH_SIZE = 64;
+    private static final ExecutorService WRITERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Socket socket;
+    private OutputStream out;
+    private InputStream in;
+
+    /**
+     * Constructor of the virtual view, after a client has requested a connection
+     * @param socket The socket used to communicate to client
+     * @param lobby The lobby to manage a waiting list of players
+     * @param outboundQueue The queue of the messages waiting to be written to the client
+     */
+    public SocketVirtualView(Socket socket, Lobby lobby, OutboundQueue outboundQueue) {
+        super(lobby, outboundQueue);
+        this.socket = socket;
+    }
+
+    public void run() {
+        try {
+            socket.setSoTimeout(TIMEOUT_TIME);
+            in = socket.getInputStream();
+            out = new BufferedOutputStream(socket.getOutputStream());
+            FrameReader reader = new FrameReader(in);
+
+            connected();
+
+            while (read(reader)) {
+                //the next message is read with the protocol chosen by the client
+            }
+            disconnect();
+        } catch (IOException | IllegalArgumentException e) {
+            disconnect();
+        }
+    }
+
+    //Reads and handles a message, it returns false once the stream has ended
+    private boolean read(FrameReader reader) throws IOException {
+        if (isBinaryInput()) {
+            byte[] frame = reader.readFrame();
+            if (frame == null) return false;
+            handleFrame(frame, 0, frame.length);
+        }
+        else {
+            String line = reader.readLine();
+            if (line == null) return false;
+            handleLine(line);
+        }
+        return true;
+    }
+
+    //Method used to close the socket of a client
+    private void disconnect(){
+        outboundQueue.close();
+        try {
+            if(in != null) in.close();
+            socket.close();
+        } catch (IOException e) {
+            System.out.println("Could not disconnect");
+        }
+        disconnected(socket.getInetAddress().getHostAddress(), socket.getPort());
+    }
+
+    @Override
+    protected void scheduleWrite() {
+        if(outboundQueue.tryScheduleWrite()){
+            WRITERS.execute(this::writePending);
+        }
+    }
+
+    //Writes the queued messages in batches, with one flush per batch
+    private void writePending(){
+        List<byte[]> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            while (outboundQueue.drainTo(batch, BATCH_SIZE) > 0) {
+                for (byte[] payload : batch) {
+                    out.write(payload);
+                }
+                out.flush();
+                batch.clear();
+            }
+        } catch (IOException e) {
+            //the reader will notice the closed socket and handle the disconnection
+            slowConsumer();
+        } finally {
+            outboundQueue.writeDone();
+        }
+        if(!outboundQueue.isEmpty()){
+            scheduleWrite();
+        }
+    }
+
+    /**
+     * Closes the socket, the reader thread then handles the disconnection
+     */
+    @Override
+    protected void slowConsumer() {
+        outboundQueue.close();
+        try {
+            socket.close();
+        } catch (IOException e) {
+            System.out.println("Could not disconnect");
+        }
+    }
+}
@@ -1,122 +1,176 @@
 package it.polimi.ingsw.server.view;
-import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import it.polimi.ingsw.common.View;
+import it.polimi.ingsw.common.messages.EncodedMessage;
 import it.polimi.ingsw.common.messages.MessageType;
-import it.polimi.ingsw.common.messages.messagesToClient.DisconnectedUpdate;
 import it.polimi.ingsw.common.messages.messagesToClient.MessageToClient;
 import it.polimi.ingsw.common.messages.messagesToClient.ErrorMessage;
+import it.polimi.ingsw.common.messages.messagesToClient.ProtocolAckUpdate;
 import it.polimi.ingsw.common.messages.messagesToServer.MessageToServer;
+import it.polimi.ingsw.common.messages.messagesToServer.ProtocolHelloMessage;
+import it.polimi.ingsw.common.utils.BinaryProtocol;
+import it.polimi.ingsw.common.utils.observe.NotificationTransaction;
 import it.polimi.ingsw.server.Lobby;
-import it.polimi.ingsw.server.ServerMain;
 import it.polimi.ingsw.server.controller.Controller;
 import it.polimi.ingsw.server.model.ObservableGameEnder;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
-import java.net.InetAddress;
-import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
 import java.util.logging.Logger;
 
 /**
- * This class handles the connection to the client, server side
+ * This class handles the connection to the client, server side.
+ * It contains the logic shared by every connection engine, the way lines are read from and written to the client
+ * is left to the subclasses.
+ * A connection starts with json lines and switches to the binary protocol if the client asks for it with a {@link ProtocolHelloMessage}
  */
-public class VirtualView implements Runnable,View {
-    private Socket socket;
-    private Controller controller;
-    private InetAddress clientAddress;
-    private int clientPort;
-    private PrintWriter out;
-    private BufferedReader in;
-    private Gson gson;
+public abstract class VirtualView implements View {
+    protected static final int TIMEOUT_TIME = 10000;
     private static final MessageToServerDeserializer messageDeserializer = new MessageToServerDeserializer();
-    private String nickname;
-    private Lobby lobby;
-    private String line = "";
-    private final int TIMEOUT_TIME = 10000;
     private static final Logger LOGGER = Logger.getLogger(VirtualView.class.getName());
-
+    private final Lobby lobby;
+    protected final OutboundQueue outboundQueue;
+    //Keeps the order of the frames of a message, and of the switch to the binary protocol, in the queue
+    private final Object outboundLock = new Object();
+    private volatile BinaryProtocol<MessageToServer> binaryProtocol;
+    //Groups the queued messages in a batch in the encoding in use, guarded by the outbound lock
+    private Function<List<byte[]>, byte[]> batchEncoder;
+    private volatile boolean binaryInput;
+    private volatile Controller controller;
+    private volatile String nickname;
 
     /**
      * Constructor of the virtual view, after a client has requested a connection
-     * @param socket The socket used to communicate to client
      * @param lobby The lobby to manage a waiting list of players
+     * @param outboundQueue The queue of the messages waiting to be written to the client
      */
-    public VirtualView(Socket socket, Lobby lobby) {
+    public VirtualView(Lobby lobby, OutboundQueue outboundQueue) {
         this.controller = null;
         this.lobby = lobby;
-        this.socket = socket;
-        clientAddress = socket.getInetAddress();
-        clientPort = socket.getPort();
-        gson = new Gson();
+        this.outboundQueue = outboundQueue;
+        batchEncoder = EncodedMessage::batchPayload;
+        outboundQueue.setBatchEncoder(batchEncoder);
+        binaryProtocol = null;
+        binaryInput = false;
         nickname = null;
     }
 
-    public void run() {
+    /**
+     * Method called once the connection is ready to exchange messages, it assigns the client to a match or to the waiting queue
+     */
+    protected void connected(){
+        controller = lobby.getAvailableMatch(this);
+        if(controller != null){
+            controller.newConnection(this);
+        }
+        else{
+            this.update(new ErrorMessage(null, "A player is choosing the number of players. Wait..."));
+        }
+    }
+
+    /**
+     * Method called for every complete line received from the client
+     * @param line The json message received
+     */
+    protected void handleLine(String line){
+        MessageToServer messageToServer;
         try {
-            socket.setSoTimeout(TIMEOUT_TIME);
-            in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-            out = new PrintWriter(socket.getOutputStream(), true);
+            messageToServer = messageDeserializer.deserializeMessage(line);
+        } catch (JsonParseException e) {
+            this.update(new ErrorMessage(nickname, "Invalid message"));
+            return;
+        }
+        handleMessage(messageToServer, line);
+    }
+
+    /**
+     * Method called for every complete frame received from the client, once the binary protocol has been negotiated
+     * @param frame The array containing the frame, without its length
+     * @param offset The position of the frame
+     * @param length The length of the frame
+     * @throws IllegalArgumentException if the frame is malformed, the connection must then be closed
+     */
+    protected void handleFrame(byte[] frame, int offset, int length) throws IllegalArgumentException {
+        MessageToServer messageToServer = binaryProtocol.decode(frame, offset, length);
+        //frames that only define a nickname carry no message
+        if (messageToServer != null) {
+            handleMessage(messageToServer, messageToServer.getMessageType().toString());
+        }
+    }
 
-            controller = lobby.getAvailableMatch(this);
-            if(controller != null){
-                controller.newConnection(this);
+    /**
+     * @return true if the client has switched to the binary protocol, so the next data received are frames and not lines
+     */
+    protected boolean isBinaryInput(){
+        return binaryInput;
+    }
+
+    private void handleMessage(MessageToServer messageToServer, String description){
+        if(messageToServer.getMessageType() == MessageType.PROTOCOL_HELLO){
+            negotiate((ProtocolHelloMessage) messageToServer);
+        }
+        else if(!(messageToServer.getMessageType() == MessageType.PING)){
+            Controller currentController = controller;
+            if(currentController == null){
+                this.update(new ErrorMessage(null, "The first connected player is choosing the number of players. Wait..."));
             }
             else{
-                this.update(new ErrorMessage(null, "A player is choosing the number of players. Wait..."));
-            }
-
-            while ((line = in.readLine()) != null) {
-                MessageToServer messageToServer = messageDeserializer.deserializeMessage(line);
-                if(!(messageToServer.getMessageType() == MessageType.PING)){
-                    synchronized (this){
-                        if(controller == null){
-                            this.update(new ErrorMessage(null, "The first connected player is choosing the number of players. Wait..."));
-                        }
-                        else{
-                            System.out.println("Received: " + line);
-                            if (nickname!= null){
-                                if(!nickname.equals(messageToServer.getNickname())){
-                                    this.update(new ErrorMessage(nickname, "This message cannot be sent by this client"));
-                                }
-                                else{
-                                    messageToServer.handleMessage(controller,this);
-                                }
-                            }
-                            else{
-                                messageToServer.handleMessage(controller,this);
-                            }
-                        }
+                System.out.println("Received: " + description);
+                if (nickname!= null){
+                    if(!nickname.equals(messageToServer.getNickname())){
+                        this.update(new ErrorMessage(nickname, "This message cannot be sent by this client"));
+                    }
+                    else{
+                        currentController.dispatch(messageToServer,this);
                     }
                 }
+                else{
+                    currentController.dispatch(messageToServer,this);
+                }
+            }
+        }
+    }
+
+    //The ack is the last json line written, the following messages of both sides are binary frames
+    private void negotiate(ProtocolHelloMessage hello){
+        //the ack is read on its own by the client, so it is never grouped with other messages
+        if(binaryProtocol != null || hello.getVersion() != BinaryProtocol.VERSION){
+            synchronized (outboundLock) {
+                outboundQueue.setBatchEncoder(null);
+                this.update(new ProtocolAckUpdate(BinaryProtocol.VERSION, false));
+                outboundQueue.setBatchEncoder(batchEncoder);
             }
-            disconnect();
-        } catch (IOException e) {
-            disconnect();
+            return;
+        }
+        synchronized (outboundLock) {
+            outboundQueue.setBatchEncoder(null);
+            this.update(new ProtocolAckUpdate(BinaryProtocol.VERSION, true));
+            BinaryProtocol<MessageToServer> protocol = messageDeserializer.newBinaryProtocol();
+            batchEncoder = frames -> protocol.encodeComposite(MessageType.BATCH_UPDATE, frames);
+            outboundQueue.setBatchEncoder(batchEncoder);
+            binaryProtocol = protocol;
         }
+        binaryInput = true;
     }
 
-    //Method used to manage the disconnection of a client
-    private void disconnect(){
-        String disconnectionMessage = "Client disconnected. Address: " + socket.getInetAddress().getHostAddress() + " Port:" + socket.getPort();
+    /**
+     * Method used to manage the disconnection of a client, must be called once after the connection has been closed
+     * @param remoteAddress The address of the client
+     * @param remotePort The port of the client
+     */
+    protected void disconnected(String remoteAddress, int remotePort){
+        String disconnectionMessage = "Client disconnected. Address: " + remoteAddress + " Port:" + remotePort;
         if (nickname == null){
             disconnectionMessage = disconnectionMessage + " Nickname: not yet set";
         }
         else disconnectionMessage = disconnectionMessage + " Nickname:" + nickname;
 
-        try {
-            out.close();
-            in.close();
-            socket.close();
-        } catch (IOException e) {
-            System.out.println("Could not disconnect");
-        }
         //if a controller is assigned the player is inside a match
         if(controller!= null){
             lobby.advanceQueue();
-            controller.removeObserver(this);
-            controller.notifyObservers(new DisconnectedUpdate(nickname));
+            controller.disconnect(this, nickname);
         }
         //else the player was waiting and is removed from the queue
         else lobby.removeFromQueue(this);
@@ -132,24 +186,109 @@ public class VirtualView implements Runnable,View {
         this.nickname = nickname;
     }
 
+    /**
+     * Getter for the player of the client, the updates about the private state of other players are not sent to it
+     * @return the nickname of the client, null until the client has chosen one
+     */
+    @Override
+    public String getRecipient() {
+        return nickname;
+    }
+
     /**
      * Sends message to client
      * @param message Message notified by {@link ObservableGameEnder}
      */
     @Override
     public void update(MessageToClient message) {
-        out.println(gson.toJson(message));
-        System.out.println("Sent:" + gson.toJson(message));
+        update(new EncodedMessage(message));
     }
 
+    /**
+     * Sends a broadcast message to client, the payload shared by every recipient is queued to be written by the writer of the connection
+     * @param encodedMessage Message notified by {@link ObservableGameEnder}
+     */
+    @Override
+    public void update(EncodedMessage encodedMessage) {
+        //inside a command the message is delivered with the others when the command ends
+        if (NotificationTransaction.defer(this, encodedMessage)) {
+            return;
+        }
+        MessageToClient message = encodedMessage.getMessage();
+        boolean queued;
+        synchronized (outboundLock) {
+            BinaryProtocol<MessageToServer> protocol = binaryProtocol;
+            if (protocol == null) {
+                byte[] payload = encodedMessage.getPayload();
+                LOGGER.fine(() -> "Sent:" + new String(payload, StandardCharsets.UTF_8).trim());
+                if (encodedMessage.getParts() != null) {
+                    List<OutboundQueue.Part> parts = new ArrayList<>();
+                    for (EncodedMessage part : encodedMessage.getParts()) {
+                        MessageToClient partMessage = part.getMessage();
+                        parts.add(new OutboundQueue.Part(partMessage.getMessageType(), partMessage.getNickname(), part.getPayload()));
+                    }
+                    queued = outboundQueue.addBatch(parts, payload);
+                }
+                else {
+                    queued = outboundQueue.add(message.getMessageType(), message.getNickname(), payload);
+                }
+            }
+            else if (encodedMessage.getParts() != null) {
+                LOGGER.fine(() -> "Sent:" + message.getMessageType());
+                //the parts are queued one by one, so that the superseded ones can be dropped from the batch
+                List<OutboundQueue.Part> parts = new ArrayList<>();
+                for (EncodedMessage part : encodedMessage.getParts()) {
+                    MessageToClient partMessage = part.getMessage();
+                    List<byte[]> frames = protocol.encode(partMessage, part.getBinaryBody());
+                    int last = frames.size() - 1;
+                    for (int i = 0; i <= last; i++) {
+                        parts.add(i == last ?
+                                new OutboundQueue.Part(partMessage.getMessageType(), partMessage.getNickname(), frames.get(i)) :
+                                new OutboundQueue.Part(null, null, frames.get(i)));
+                    }
+                }
+                queued = outboundQueue.addBatch(parts, null);
+            }
+            else {
+                LOGGER.fine(() -> "Sent:" + message.getMessageType());
+                List<byte[]> frames = protocol.encode(message, encodedMessage.getBinaryBody());
+                int last = frames.size() - 1;
+                queued = true;
+                //the frames defining a nickname are not messages, so they are never dropped
+                for (int i = 0; i <= last && queued; i++) {
+                    queued = i == last ?
+                            outboundQueue.add(message.getMessageType(), message.getNickname(), frames.get(i)) :
+                            outboundQueue.add(null, null, frames.get(i));
+                }
+            }
+        }
+        if(queued){
+            scheduleWrite();
+        }
+        else{
+            LOGGER.warning("Client too slow, disconnecting. Nickname:" + nickname);
+            outboundQueue.close();
+            slowConsumer();
+        }
+    }
+
+    /**
+     * Method called after a message has been queued, it must make sure the queue is eventually written
+     */
+    protected abstract void scheduleWrite();
+
+    /**
+     * Method called when the client does not read its messages fast enough and has to be disconnected
+     */
+    protected abstract void slowConsumer();
+
     /**
      * Sets the controller of the match after the player was put in a waiting list in Lobby
      * @param controller controller to set
      */
     public void setController(Controller controller){
-        synchronized (this){
-            this.controller = controller;
-            controller.newConnection(this);
-        }
+        //the connection is queued before the controller is visible, so it is handled before any message of the client
+        controller.newConnection(this);
+        this.controller = controller;
     }
 }
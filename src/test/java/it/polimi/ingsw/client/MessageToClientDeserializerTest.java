@@ -0,0 +1,104 @@
+package it.polimi.ingsw.client;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import it.polimi.ingsw.common.messages.EncodedMessage;
+import it.polimi.ingsw.common.messages.MessageType;
+import it.polimi.ingsw.common.messages.messagesToClient.BatchUpdate;
+import it.polimi.ingsw.common.messages.messagesToClient.ErrorMessage;
+import it.polimi.ingsw.common.messages.messagesToClient.FirstConnectedUpdate;
+import it.polimi.ingsw.common.messages.messagesToClient.MessageToClient;
+import it.polimi.ingsw.common.messages.messagesToClient.WarehouseDeltaUpdate;
+import it.polimi.ingsw.common.messages.messagesToClient.WarehouseUpdate;
+import it.polimi.ingsw.server.model.enumerations.Resource;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageToClientDeserializerTest {
+    final MessageToClientDeserializer deserializer = new MessageToClientDeserializer();
+    final Gson gson = new Gson();
+
+    private static WarehouseUpdate warehouse() {
+        List<Map<Resource, Integer>> depots = new ArrayList<>();
+        depots.add(Collections.singletonMap(Resource.COIN, 1));
+        depots.add(new HashMap<>());
+        depots.add(Collections.singletonMap(Resource.STONE, 3));
+        return new WarehouseUpdate("Mario", 4, depots);
+    }
+
+    /**
+     * This test checks that the messages written by the server are decoded with all their fields,
+     * wherever their type is and with spaces around the colons
+     */
+    @Test
+    void singleMessages() {
+        WarehouseUpdate warehouse = warehouse();
+        MessageToClient decoded = deserializer.deserializeMessage(new String(new EncodedMessage(warehouse).getPayload(), StandardCharsets.UTF_8));
+        assertTrue(decoded instanceof WarehouseUpdate);
+        assertEquals(gson.toJson(warehouse), gson.toJson(decoded));
+
+        decoded = deserializer.deserializeMessage("{\"messageType\" : \"FIRST_CONNECTION_UPDATE\" , \"firstConnection\" : true}");
+        assertTrue(decoded instanceof FirstConnectedUpdate);
+        assertEquals(gson.toJson(new FirstConnectedUpdate(true)), gson.toJson(decoded));
+    }
+
+    /**
+     * This test checks that an escaped type at the end of the last string value is not taken for the type of the message
+     */
+    @Test
+    void escapedTypeInString() {
+        String error = "error\",\"messageType\":\"BATCH_UPDATE";
+        String json = "{\"messageType\":\"ERROR\",\"errorString\":" + gson.toJson(error) + "}";
+        MessageToClient decoded = deserializer.deserializeMessage(json);
+        assertTrue(decoded instanceof ErrorMessage);
+        assertEquals(gson.toJson(new ErrorMessage(null, error)), gson.toJson(decoded));
+    }
+
+    /**
+     * This test checks that a batch is decoded into its messages, in order
+     */
+    @Test
+    void batch() {
+        Map<Integer, Map<Resource, Integer>> changes = new HashMap<>();
+        changes.put(2, Collections.singletonMap(Resource.SHIELD, 2));
+        List<MessageToClient> messages = Arrays.asList(warehouse(), new ErrorMessage("Mario", "error"),
+                new WarehouseDeltaUpdate("Mario", 5, changes));
+        List<EncodedMessage> parts = new ArrayList<>();
+        for (MessageToClient message : messages) {
+            parts.add(new EncodedMessage(message));
+        }
+        String json = new String(EncodedMessage.batch(parts).getPayload(), StandardCharsets.UTF_8);
+
+        MessageToClient decoded = deserializer.deserializeMessage(json);
+        assertTrue(decoded instanceof BatchUpdate);
+        assertEquals(MessageType.BATCH_UPDATE, decoded.getMessageType());
+        List<MessageToClient> decodedMessages = ((BatchUpdate) decoded).getMessages();
+        assertEquals(messages.size(), decodedMessages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            assertEquals(messages.get(i).getClass(), decodedMessages.get(i).getClass());
+            assertEquals(gson.toJson(messages.get(i)), gson.toJson(decodedMessages.get(i)));
+        }
+    }
+
+    /**
+     * This test checks that the messages with an unknown type, also inside a batch, and the messages of the server are rejected
+     */
+    @Test
+    void invalidType() {
+        assertThrows(JsonParseException.class, () -> deserializer.deserializeMessage("{\"messageType\":\"NOT_A_TYPE\"}"));
+        assertThrows(JsonParseException.class, () -> deserializer.deserializeMessage("{\"messageType\":\"CREATE_MATCH\",\"numOfPlayers\":2}"));
+        assertThrows(JsonParseException.class, () -> deserializer.deserializeMessage(
+                "{\"messages\":[{\"messageType\":\"NOT_A_TYPE\"}],\"messageType\":\"BATCH_UPDATE\"}"));
+        assertThrows(JsonParseException.class, () -> deserializer.deserializeMessage(
+                "{\"messages\":[{\"messages\":[],\"messageType\":\"BATCH_UPDATE\"}],\"messageType\":\"BATCH_UPDATE\"}"));
+    }
+}
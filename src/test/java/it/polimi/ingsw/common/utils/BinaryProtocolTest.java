@@ -0,0 +1,272 @@
+package it.polimi.ingsw.common.utils;
+
+import com.google.gson.Gson;
+import it.polimi.ingsw.client.MessageToClientDeserializer;
+import it.polimi.ingsw.common.messages.EncodedMessage;
+import it.polimi.ingsw.common.messages.Message;
+import it.polimi.ingsw.common.messages.MessageType;
+import it.polimi.ingsw.common.messages.messagesToClient.*;
+import it.polimi.ingsw.common.messages.messagesToServer.*;
+import it.polimi.ingsw.server.model.ProductionRequest;
+import it.polimi.ingsw.server.model.RankPosition;
+import it.polimi.ingsw.server.model.enumerations.Marble;
+import it.polimi.ingsw.server.model.enumerations.PaymentPolicy;
+import it.polimi.ingsw.server.model.enumerations.Resource;
+import it.polimi.ingsw.server.view.MessageToServerDeserializer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryProtocolTest {
+    final Gson gson = new Gson();
+    final MessageToServerDeserializer serverDeserializer = new MessageToServerDeserializer();
+    final MessageToClientDeserializer clientDeserializer = new MessageToClientDeserializer();
+
+    private static Map<Resource, Integer> resources(Resource resource, int quantity) {
+        Map<Resource, Integer> resources = new EnumMap<>(Resource.class);
+        resources.put(resource, quantity);
+        resources.put(Resource.COIN, 1);
+        return resources;
+    }
+
+    //One message for every type the server receives
+    private static List<MessageToServer> messagesToServer() {
+        return Arrays.asList(
+                new NicknameReplyMessage("Mario"),
+                new DiscardInitialLeaderMessage("Mario", 1, 3),
+                new ChooseInitialResourcesMessage("Mario", resources(Resource.SHIELD, 1)),
+                new CreateMatchReplyMessage("Mario", 4),
+                new TakeFromMarketMessage("Mario", 1, 2),
+                new TransformWhiteMarblesMessage("Mario", 2, 1),
+                new TransformMarblesMessage("Mario"),
+                new ActivateLeaderMessage("Mario", 2),
+                new AddToWarehouseMessage("Mario", 3, resources(Resource.STONE, 2)),
+                new BuyDevelopmentCardMessage("Mario", 2, 3, resources(Resource.SERVANT, 2), resources(Resource.SHIELD, 1), 0, 1),
+                new SwapMessage("Mario", 1, 2),
+                new MoveMessage("Mario", 4, 2, 1),
+                new DiscardLeaderMessage("Mario", 1),
+                new ActivateCardProductionMessage("Mario", 2, PaymentPolicy.WAREHOUSE_FIRST),
+                new ActivateBasicProductionMessage("Mario", resources(Resource.STONE, 1), new HashMap<>(), Resource.SERVANT),
+                new ActivateLeaderProductionMessage("Mario", 2, Resource.SHIELD, PaymentPolicy.WAREHOUSE_FIRST),
+                new EndProduction("Mario"),
+                new ActivateProductionsBatchMessage("Mario", Arrays.asList(ProductionRequest.card(1),
+                        ProductionRequest.basic(resources(Resource.STONE, 1), Resource.COIN), ProductionRequest.leader(2, Resource.STONE)),
+                        PaymentPolicy.WAREHOUSE_FIRST),
+                new EndTurnMessage("Marco"),
+                new DiscardResourcesFromMarketMessage("Mario"),
+                new SnapshotRequestMessage("Mario", MessageType.WAREHOUSE_UPDATE, "Marco"),
+                new ProtocolHelloMessage(BinaryProtocol.VERSION),
+                new PingMessage());
+    }
+
+    //One message for every type the client receives, but the batch
+    private static List<MessageToClient> messagesToClient() {
+        List<Map<Resource, Integer>> depots = new ArrayList<>();
+        depots.add(resources(Resource.COIN, 1));
+        depots.add(new HashMap<>());
+        Map<Integer, Map<Resource, Integer>> depotChanges = new HashMap<>();
+        depotChanges.put(2, resources(Resource.SHIELD, -1));
+        Map<Marble, Integer> marbles = new EnumMap<>(Marble.class);
+        marbles.put(Marble.WHITEMARBLE, 2);
+        marbles.put(Marble.PURPLEMARBLE, 1);
+        Map<String, ArrayList<Integer>> tiles = new HashMap<>();
+        tiles.put("Mario", new ArrayList<>(Arrays.asList(1, 0, 2)));
+        tiles.put("Marco", new ArrayList<>(Arrays.asList(0, 0, 0)));
+        ArrayList<ArrayList<Integer>> cards = new ArrayList<>();
+        cards.add(new ArrayList<>(Arrays.asList(3, 20)));
+        cards.add(new ArrayList<>());
+        Marble[][] market = {{Marble.BLUEMARBLE, Marble.GREYMARBLE}, {Marble.REDMARBLE, Marble.YELLOWMARBLE}};
+        return Arrays.asList(
+                new AddSpecialDepotUpdate("Mario", Resource.COIN),
+                new CardGridUpdate(new int[][]{{1, 2, 3}, {4, 5, 6}}),
+                new DevCardSpaceUpdate("Mario", cards),
+                new DiscardedLeaderUpdate("Mario", 2),
+                new DisconnectedUpdate("Marco"),
+                new ErrorMessage("Mario", "Wrong \"move\" è"),
+                new ErrorMessage(null, null),
+                new FirstConnectedUpdate(true),
+                new InitialLeaderCardsUpdate("Mario", new ArrayList<>(Arrays.asList(49, 50, 51, 52))),
+                new InitialLeaderDiscardedUpdate("Mario", 1, 4),
+                new LeaderCardActivatedUpdate("Mario", 1, 61),
+                new LorenzoBlackCrossUpdate("Lorenzo", 5),
+                new LorenzoDrawUpdate("Lorenzo", 2, 1),
+                new MainTurnActionDoneUpdate("Mario"),
+                new MarketUpdate(market, Marble.WHITEMARBLE),
+                new PlayerTurnUpdate("Marco"),
+                new PlayersOrderUpdate("Mario", Arrays.asList("Marco", "Mario")),
+                new PopeFavourTilesUpdate("Mario", new ArrayList<>(Arrays.asList(1, 2, 0))),
+                new ProductionDoneUpdate("Mario"),
+                new ProtocolAckUpdate(BinaryProtocol.VERSION, true),
+                new RankUpdate(new ArrayList<>(Arrays.asList(new RankPosition("Mario", 40), new RankPosition("Marco", -1)))),
+                new RedCrossPositionUpdate("Mario", 24),
+                new ScoreboardUpdate("Mario", 12),
+                new StrongboxDeltaUpdate("Mario", 3, resources(Resource.STONE, -2)),
+                new StrongboxUpdate("Mario", 2, resources(Resource.SERVANT, 100000)),
+                new TemporaryMarblesUpdate("Mario", marbles),
+                new TemporaryResourceMapDeltaUpdate("Mario", 5, resources(Resource.SHIELD, 1)),
+                new TemporaryResourceMapUpdate("Mario", 4, resources(Resource.SHIELD, 0)),
+                new VaticanReportUpdate(2, tiles),
+                new WarehouseDeltaUpdate("Mario", 7, depotChanges),
+                new WarehouseUpdate("Mario", 6, depots));
+    }
+
+    //Reads every frame of a stream as the client and the server do, and decodes the messages they carry
+    private static <T extends Message> List<T> readAll(byte[] stream, BinaryProtocol<T> protocol) throws IOException {
+        FrameReader reader = new FrameReader(new ByteArrayInputStream(stream));
+        List<T> messages = new ArrayList<>();
+        byte[] frame;
+        while ((frame = reader.readFrame()) != null) {
+            T message = protocol.decode(frame, 0, frame.length);
+            if (message != null) {
+                messages.add(message);
+            }
+        }
+        return messages;
+    }
+
+    private void assertSameAsJson(Message expected, Message decoded, Message decodedFromJson) {
+        assertEquals(expected.getClass(), decoded.getClass());
+        assertEquals(expected.getMessageType(), decoded.getMessageType());
+        assertEquals(expected.getNickname(), decoded.getNickname());
+        assertEquals(gson.toJson(decodedFromJson), gson.toJson(decoded));
+    }
+
+    /**
+     * This test checks that every message the client sends is decoded by the server as it is by the json path
+     */
+    @Test
+    void messagesToServerRoundTrip() throws IOException {
+        List<MessageToServer> messages = messagesToServer();
+        BinaryProtocol<MessageToClient> client = clientDeserializer.newBinaryProtocol();
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for (MessageToServer message : messages) {
+            for (byte[] frame : client.encode(message)) {
+                stream.write(frame);
+            }
+        }
+
+        List<MessageToServer> decoded = readAll(stream.toByteArray(), serverDeserializer.newBinaryProtocol());
+        assertEquals(messages.size(), decoded.size());
+        for (int i = 0; i < messages.size(); i++) {
+            assertSameAsJson(messages.get(i), decoded.get(i), serverDeserializer.deserializeMessage(gson.toJson(messages.get(i))));
+        }
+    }
+
+    /**
+     * This test checks that every message the server sends, also inside a batch, is decoded by the client as it is by the json path
+     */
+    @Test
+    void messagesToClientRoundTrip() throws IOException {
+        List<MessageToClient> messages = messagesToClient();
+        BinaryProtocol<MessageToServer> server = serverDeserializer.newBinaryProtocol();
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for (MessageToClient message : messages) {
+            for (byte[] frame : server.encode(message, new EncodedMessage(message).getBinaryBody())) {
+                stream.write(frame);
+            }
+        }
+        //the batch groups the frames of its messages, the nicknames they define included
+        List<MessageToClient> grouped = Arrays.asList(new PlayerTurnUpdate("Luigi"), new ScoreboardUpdate("Luigi", 3),
+                new ErrorMessage("Mario", "error"));
+        List<byte[]> groupedFrames = new ArrayList<>();
+        for (MessageToClient message : grouped) {
+            groupedFrames.addAll(server.encode(message, new EncodedMessage(message).getBinaryBody()));
+        }
+        stream.write(server.encodeComposite(MessageType.BATCH_UPDATE, groupedFrames));
+
+        List<MessageToClient> decoded = readAll(stream.toByteArray(), clientDeserializer.newBinaryProtocol());
+        assertEquals(messages.size() + 1, decoded.size());
+        for (int i = 0; i < messages.size(); i++) {
+            assertSameAsJson(messages.get(i), decoded.get(i), clientDeserializer.deserializeMessage(gson.toJson(messages.get(i))));
+        }
+        MessageToClient batch = decoded.get(messages.size());
+        assertTrue(batch instanceof BatchUpdate);
+        List<EncodedMessage> parts = new ArrayList<>();
+        for (MessageToClient message : grouped) {
+            parts.add(new EncodedMessage(message));
+        }
+        MessageToClient batchFromJson = clientDeserializer.deserializeMessage(new String(EncodedMessage.batch(parts).getPayload()));
+        List<MessageToClient> groupedFromJson = ((BatchUpdate) batchFromJson).getMessages();
+        List<MessageToClient> groupedDecoded = ((BatchUpdate) batch).getMessages();
+        assertEquals(grouped.size(), groupedDecoded.size());
+        for (int i = 0; i < grouped.size(); i++) {
+            assertSameAsJson(grouped.get(i), groupedDecoded.get(i), groupedFromJson.get(i));
+        }
+    }
+
+    /**
+     * This test checks that the messages of the two round trips cover every message type
+     */
+    @Test
+    void everyTypeCovered() {
+        //no message is sent with the type of the demo game
+        Set<MessageType> covered = EnumSet.of(MessageType.BATCH_UPDATE, MessageType.DEMO_GAME);
+        for (Message message : messagesToServer()) {
+            covered.add(message.getMessageType());
+        }
+        for (Message message : messagesToClient()) {
+            covered.add(message.getMessageType());
+        }
+        assertEquals(EnumSet.allOf(MessageType.class), covered);
+    }
+
+    /**
+     * This test checks that the ping is decoded into the instance shared with the json path and defines no nickname
+     */
+    @Test
+    void sharedPing() throws IOException {
+        BinaryProtocol<MessageToClient> client = clientDeserializer.newBinaryProtocol();
+        List<byte[]> frames = client.encode(new PingMessage());
+        assertEquals(1, frames.size());
+        List<MessageToServer> decoded = readAll(frames.get(0), serverDeserializer.newBinaryProtocol());
+        assertSame(serverDeserializer.deserializeMessage("{\"messageType\":\"PING\"}"), decoded.get(0));
+    }
+
+    /**
+     * This test checks that the malformed frames are rejected
+     */
+    @Test
+    void malformedFrames() throws IOException {
+        BinaryProtocol<MessageToServer> server = serverDeserializer.newBinaryProtocol();
+        //unknown message type
+        assertThrows(IllegalArgumentException.class, () -> server.decode(new byte[]{(byte) 0x7F, 0}, 0, 2));
+        //nickname never defined
+        byte[] endTurn = clientDeserializer.newBinaryProtocol().encode(new EndTurnMessage("Mario")).get(1);
+        assertThrows(IllegalArgumentException.class, () -> server.decode(endTurn, 1, endTurn.length - 1));
+        //empty and truncated frames
+        assertThrows(IllegalArgumentException.class, () -> server.decode(new byte[0], 0, 0));
+        List<byte[]> frames = clientDeserializer.newBinaryProtocol().encode(new SnapshotRequestMessage(null, MessageType.STRONGBOX_UPDATE, "Marco"));
+        byte[] frame = frames.get(frames.size() - 1);
+        assertThrows(IllegalArgumentException.class, () -> server.decode(frame, 1, frame.length - 3));
+        //a message the server does not receive
+        BinaryProtocol<MessageToServer> other = serverDeserializer.newBinaryProtocol();
+        byte[] error = other.encode(new ErrorMessage(null, "error"), new EncodedMessage(new ErrorMessage(null, "error")).getBinaryBody()).get(0);
+        assertThrows(IllegalArgumentException.class, () -> server.decode(error, 1, error.length - 1));
+
+        //a batch inside a batch
+        BinaryProtocol<MessageToClient> client = clientDeserializer.newBinaryProtocol();
+        byte[] inner = other.encodeComposite(MessageType.BATCH_UPDATE, Collections.singletonList(error));
+        byte[] nested = other.encodeComposite(MessageType.BATCH_UPDATE, Collections.singletonList(inner));
+        assertThrows(IllegalArgumentException.class, () -> client.decode(nested, 1, nested.length - 1));
+
+        //the length of a frame is checked before the frame is read
+        assertNull(BinaryProtocol.readFrameLength(new byte[]{(byte) 0x80}, 0, 1));
+        assertThrows(IOException.class, () -> new FrameReader(new ByteArrayInputStream(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F})).readFrame());
+        assertThrows(EOFException.class, () -> new FrameReader(new ByteArrayInputStream(new byte[]{5, 1, 2})).readFrame());
+        assertThrows(EOFException.class, () -> new FrameReader(new ByteArrayInputStream(new byte[]{(byte) 0x80})).readFrame());
+    }
+}
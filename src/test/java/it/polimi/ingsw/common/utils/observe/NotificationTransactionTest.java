@@ -0,0 +1,119 @@
+package it.polimi.ingsw.common.utils.observe;
+
+import it.polimi.ingsw.common.messages.EncodedMessage;
+import it.polimi.ingsw.common.messages.messagesToClient.ErrorMessage;
+import it.polimi.ingsw.common.messages.messagesToClient.MessageToClient;
+import it.polimi.ingsw.common.messages.messagesToClient.WarehouseDeltaUpdate;
+import it.polimi.ingsw.common.messages.messagesToClient.WarehouseUpdate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationTransactionTest {
+    List<EncodedMessage> received;
+    MessageObserver observer;
+
+    @BeforeEach
+    void setup() {
+        received = new ArrayList<>();
+        //like a remote view, the messages are delayed while a transaction is open
+        observer = new MessageObserver() {
+            @Override
+            public void update(MessageToClient message) {
+                update(new EncodedMessage(message));
+            }
+
+            @Override
+            public void update(EncodedMessage encodedMessage) {
+                if (!NotificationTransaction.defer(this, encodedMessage)) {
+                    received.add(encodedMessage);
+                }
+            }
+        };
+    }
+
+    private static EncodedMessage warehouse(String nickname, int sequence) {
+        return new EncodedMessage(new WarehouseUpdate(nickname, sequence, new ArrayList<>()));
+    }
+
+    private static EncodedMessage warehouseDelta(String nickname, int sequence) {
+        return new EncodedMessage(new WarehouseDeltaUpdate(nickname, sequence, Collections.emptyMap()));
+    }
+
+    /**
+     * This test checks that the older snapshots of an element, and the deltas before the newest snapshot,
+     * are removed while the other messages keep their order
+     */
+    @Test
+    void collapse() {
+        EncodedMessage oldSnapshot = warehouse("Mario", 1);
+        EncodedMessage oldDelta = warehouseDelta("Mario", 2);
+        EncodedMessage error = new EncodedMessage(new ErrorMessage("Mario", "error"));
+        EncodedMessage otherPlayer = warehouse("Marco", 1);
+        EncodedMessage snapshot = warehouse("Mario", 3);
+        EncodedMessage delta = warehouseDelta("Mario", 4);
+
+        List<EncodedMessage> kept = NotificationTransaction.collapse(
+                Arrays.asList(oldSnapshot, oldDelta, error, otherPlayer, snapshot, delta));
+        assertEquals(Arrays.asList(error, otherPlayer, snapshot, delta), kept);
+    }
+
+    /**
+     * This test checks that the messages of a transaction are delivered at its end, a single message without a batch
+     */
+    @Test
+    void singleMessage() {
+        EncodedMessage error = new EncodedMessage(new ErrorMessage("Mario", "error"));
+        NotificationTransaction.run(() -> {
+            observer.update(error);
+            assertTrue(received.isEmpty());
+        });
+        assertEquals(1, received.size());
+        assertSame(error, received.get(0));
+        assertNull(received.get(0).getParts());
+    }
+
+    /**
+     * This test checks that the messages of a transaction, and of the transactions opened inside it,
+     * are delivered together in a single batch
+     */
+    @Test
+    void batch() {
+        EncodedMessage error = new EncodedMessage(new ErrorMessage("Mario", "error"));
+        EncodedMessage snapshot = warehouse("Mario", 1);
+        EncodedMessage newerSnapshot = warehouse("Mario", 2);
+        NotificationTransaction.run(() -> {
+            observer.update(error);
+            observer.update(snapshot);
+            NotificationTransaction.run(() -> observer.update(newerSnapshot));
+            assertTrue(received.isEmpty());
+        });
+        assertEquals(1, received.size());
+        assertEquals(Arrays.asList(error, newerSnapshot), received.get(0).getParts());
+    }
+
+    /**
+     * This test checks that the messages are delivered even if the task throws, and that the transaction
+     * is closed so that the following messages are delivered at once
+     */
+    @Test
+    void exception() {
+        EncodedMessage error = new EncodedMessage(new ErrorMessage("Mario", "error"));
+        assertThrows(IllegalStateException.class, () -> NotificationTransaction.run(() -> {
+            observer.update(error);
+            throw new IllegalStateException();
+        }));
+        assertEquals(Collections.singletonList(error), received);
+
+        EncodedMessage after = warehouse("Mario", 1);
+        assertFalse(NotificationTransaction.defer(observer, after));
+        observer.update(after);
+        assertEquals(Arrays.asList(error, after), received);
+    }
+}
@@ -0,0 +1,67 @@
+package it.polimi.ingsw.server;
+
+import it.polimi.ingsw.server.model.Match;
+import it.polimi.ingsw.server.model.SoloMatch;
+import it.polimi.ingsw.server.model.exceptions.InvalidParameterException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchPoolTest {
+
+    //Waits for the background thread of the pool to build the matches
+    private static void awaitReady(MatchPool pool, int numOfPlayers, int readyMatches) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (pool.getReadyMatches(numOfPlayers) < readyMatches && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(pool.getReadyMatches(numOfPlayers) >= readyMatches);
+    }
+
+    /**
+     * This test checks that every claim returns a different match, with the requested number of players
+     */
+    @Test
+    void claimReturnsNewMatch() throws InvalidParameterException {
+        MatchPool pool = new MatchPool(true);
+        List<Match> claimed = new ArrayList<>();
+        for (int numOfPlayers = 1; numOfPlayers <= 4; numOfPlayers++) {
+            for (int i = 0; i < 3; i++) {
+                Match match = pool.claim(numOfPlayers);
+                for (Match other : claimed) {
+                    assertNotSame(other, match);
+                }
+                assertEquals(numOfPlayers == 1, match instanceof SoloMatch);
+                claimed.add(match);
+            }
+        }
+        assertThrows(InvalidParameterException.class, () -> pool.claim(5));
+    }
+
+    /**
+     * This test checks that the pool builds again the claimed matches, as many as were claimed recently
+     */
+    @Test
+    void refill() throws InvalidParameterException, InterruptedException {
+        MatchPool pool = new MatchPool(true);
+        awaitReady(pool, 2, 1);
+
+        Match first = pool.claim(2);
+        awaitReady(pool, 2, 1);
+        assertNotSame(first, pool.claim(2));
+
+        //after a burst of claims the pool keeps a match ready for each of them
+        pool.claim(2);
+        pool.claim(2);
+        awaitReady(pool, 2, 4);
+        List<Match> burst = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            burst.add(pool.claim(2));
+        }
+        assertEquals(4, burst.stream().distinct().count());
+        awaitReady(pool, 2, 1);
+    }
+}
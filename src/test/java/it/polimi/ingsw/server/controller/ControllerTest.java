@@ -0,0 +1,49 @@
+package it.polimi.ingsw.server.controller;
+
+import it.polimi.ingsw.common.View;
+import it.polimi.ingsw.common.messages.MessageType;
+import it.polimi.ingsw.server.model.RecordingView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ControllerTest {
+    Controller controller;
+    List<MessageType> marioReceived;
+    List<MessageType> marcoReceived;
+    View mario;
+    View marco;
+
+    @BeforeEach
+    void setup() {
+        controller = new Controller(true);
+        marioReceived = new ArrayList<>();
+        marcoReceived = new ArrayList<>();
+        mario = new RecordingView(marioReceived);
+        marco = new RecordingView(marcoReceived);
+        controller.handleCreateMatchReplyMessage(2, "Mario", mario);
+        controller.handleNicknameReplyMessage("Marco", marco);
+    }
+
+    /**
+     * This test checks that the private elements of a player are sent only to their owner when requested
+     */
+    @Test
+    void snapshotRequestOfPrivateElement() {
+        marcoReceived.clear();
+        controller.handleSnapshotRequestMessage(marco, "Marco", MessageType.TEMPORARY_RESOURCE_MAP_UPDATE, "Mario");
+        assertEquals(MessageType.ERROR, marcoReceived.get(marcoReceived.size() - 1));
+        assertFalse(marcoReceived.contains(MessageType.TEMPORARY_RESOURCE_MAP_UPDATE));
+
+        controller.handleSnapshotRequestMessage(marco, "Marco", MessageType.TEMPORARY_RESOURCE_MAP_UPDATE, "Marco");
+        assertEquals(MessageType.TEMPORARY_RESOURCE_MAP_UPDATE, marcoReceived.get(marcoReceived.size() - 1));
+
+        //the strongbox is public
+        controller.handleSnapshotRequestMessage(marco, "Marco", MessageType.STRONGBOX_UPDATE, "Mario");
+        assertEquals(MessageType.STRONGBOX_UPDATE, marcoReceived.get(marcoReceived.size() - 1));
+    }
+}
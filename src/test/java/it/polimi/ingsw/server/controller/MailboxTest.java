@@ -0,0 +1,82 @@
+package it.polimi.ingsw.server.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MailboxTest {
+
+    /**
+     * This test checks that the tasks of a mailbox are run in arrival order and never concurrently,
+     * even if the executor has many threads and the mailbox is drained in more than one batch
+     */
+    @Test
+    void ordering() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Mailbox mailbox = new Mailbox(1000, executor);
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger running = new AtomicInteger(0);
+        AtomicInteger maxRunning = new AtomicInteger(0);
+        CountDownLatch done = new CountDownLatch(100);
+        for (int i = 0; i < 100; i++) {
+            int task = i;
+            assertTrue(mailbox.offer(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                executed.add(task);
+                running.decrementAndGet();
+                done.countDown();
+            }));
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, executed);
+        assertEquals(1, maxRunning.get());
+        assertEquals(0, mailbox.getRejectedTasks());
+    }
+
+    /**
+     * This test checks that offer rejects the tasks over the capacity while put always accepts them,
+     * and that a failing task does not stop the following ones
+     */
+    @Test
+    void capacity() {
+        //the mailbox is drained only when the test runs the scheduled drains
+        List<Runnable> scheduled = new ArrayList<>();
+        Mailbox mailbox = new Mailbox(3, scheduled::add);
+        List<Integer> executed = new ArrayList<>();
+
+        assertTrue(mailbox.offer(() -> executed.add(0)));
+        assertTrue(mailbox.offer(() -> {
+            throw new IllegalStateException();
+        }));
+        assertTrue(mailbox.offer(() -> executed.add(2)));
+        assertFalse(mailbox.offer(() -> executed.add(-1)));
+        mailbox.put(() -> executed.add(3));
+
+        assertEquals(4, mailbox.getQueueDepth());
+        assertEquals(4, mailbox.getMaxQueueDepth());
+        assertEquals(1, mailbox.getRejectedTasks());
+        assertEquals(1, scheduled.size());
+
+        scheduled.remove(0).run();
+        assertTrue(scheduled.isEmpty());
+        assertEquals(Arrays.asList(0, 2, 3), executed);
+        assertEquals(0, mailbox.getQueueDepth());
+        assertTrue(mailbox.offer(() -> executed.add(4)));
+    }
+}
@@ -0,0 +1,91 @@
+package it.polimi.ingsw.server.controller;
+
+import it.polimi.ingsw.common.View;
+import it.polimi.ingsw.common.messages.MessageType;
+import it.polimi.ingsw.common.messages.messagesToServer.CreateMatchReplyMessage;
+import it.polimi.ingsw.common.messages.messagesToServer.DiscardInitialLeaderMessage;
+import it.polimi.ingsw.common.messages.messagesToServer.EndTurnMessage;
+import it.polimi.ingsw.common.messages.messagesToServer.SnapshotRequestMessage;
+import it.polimi.ingsw.common.messages.messagesToServer.TakeFromMarketMessage;
+import it.polimi.ingsw.server.Lobby;
+import it.polimi.ingsw.server.model.RecordingView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchReplayTest {
+
+    private static void awaitMailbox(Controller controller) throws InterruptedException {
+        CountDownLatch handled = new CountDownLatch(1);
+        controller.getMailbox().put(handled::countDown);
+        assertTrue(handled.await(5, TimeUnit.SECONDS));
+    }
+
+    //Plays a short solo match with a recording lobby, the messages received by the player are added to the list
+    private static Path recordMatch(Path directory, List<MessageType> received) throws InterruptedException, IOException {
+        Controller controller = new Controller(false, new Lobby(false, directory));
+        View mario = new RecordingView(received);
+        controller.newConnection(mario);
+        controller.dispatch(new CreateMatchReplyMessage("Mario", 1), mario);
+        controller.dispatch(new DiscardInitialLeaderMessage("Mario", 1, 2), mario);
+        controller.dispatch(new TakeFromMarketMessage("Mario", 0, 2), mario);
+        controller.dispatch(new SnapshotRequestMessage("Mario", MessageType.TEMPORARY_RESOURCE_MAP_UPDATE, "Mario"), mario);
+        controller.dispatch(new EndTurnMessage("Mario"), mario);
+        awaitMailbox(controller);
+        controller.disconnect(mario, "Mario");
+        awaitMailbox(controller);
+        try (Stream<Path> logs = Files.list(directory)) {
+            List<Path> paths = logs.collect(Collectors.toList());
+            assertEquals(1, paths.size());
+            return paths.get(0);
+        }
+    }
+
+    /**
+     * This test checks that a recorded match is played again with the same updates, so that every replay has the same digest,
+     * and that the seed of the log changes them
+     */
+    @Test
+    void replayDigest(@TempDir Path directory) throws IOException, InterruptedException {
+        List<MessageType> received = new ArrayList<>();
+        Path log = recordMatch(directory, received);
+        List<String> lines = Files.readAllLines(log, StandardCharsets.UTF_8);
+        assertEquals(MatchRecorder.CONNECT + " 0", lines.get(0));
+        assertTrue(lines.get(2).startsWith(MatchRecorder.MATCH + " "));
+        assertEquals(MatchRecorder.DISCONNECT + " 0 Mario", lines.get(lines.size() - 1));
+
+        String summary = new MatchReplay().replay(log);
+        assertEquals(summary, new MatchReplay().replay(log));
+        //the match line is not an event, and the recorded player is the only one notified, so the replay sends the same updates
+        assertEquals("Replayed " + (lines.size() - 1) + " events, " + received.size() + " updates", summary.substring(0, summary.indexOf(", digest")));
+
+        String[] match = lines.get(2).split(" ");
+        lines.set(2, match[0] + " " + (Long.parseLong(match[1]) + 1) + " " + match[2]);
+        Path otherSeed = directory.resolve("other-seed.log");
+        Files.write(otherSeed, lines, StandardCharsets.UTF_8);
+        assertNotEquals(summary, new MatchReplay().replay(otherSeed));
+    }
+
+    /**
+     * This test checks that a log without a match or with an unknown event is rejected
+     */
+    @Test
+    void malformedLog(@TempDir Path directory) throws IOException {
+        Path noMatch = Files.write(directory.resolve("no-match.log"), "CONNECT 0\n".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IllegalArgumentException.class, () -> new MatchReplay().replay(noMatch));
+        Path unknownEvent = Files.write(directory.resolve("unknown.log"), "MATCH 1 false\nJUMP 0\n".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IllegalArgumentException.class, () -> new MatchReplay().replay(unknownEvent));
+    }
+}
@@ -1,5 +1,6 @@
 package it.polimi.ingsw.server.model;
 
+import it.polimi.ingsw.common.utils.CardCatalog;
 import it.polimi.ingsw.server.model.CardGrid;
 import it.polimi.ingsw.server.model.DevelopmentCard;
 import it.polimi.ingsw.server.model.enumerations.DevelopmentCardColor;
@@ -12,6 +13,21 @@ class CardGridTest {
 
     CardGrid cardGrid = new CardGrid(false);
 
+    @Test
+    public void cardsSharedByGrids(){
+        CardGrid firstCardGrid = new CardGrid(true);
+        CardGrid secondCardGrid = new CardGrid(true);
+        try {
+            //the decks are separate but the cards are the same instances of the catalog
+            DevelopmentCard bought = firstCardGrid.buyCard(2, 0);
+            assertSame(CardCatalog.getInstance().getDevelopmentCard(bought.getId()), bought);
+            assertSame(bought, secondCardGrid.getCard(2, 0));
+            assertNotSame(bought, firstCardGrid.getCard(2, 0));
+        } catch (NoCardException e) {
+            fail();
+        }
+    }
+
     @Test
     public void getCardTest(){
 
@@ -109,4 +125,26 @@ class CardGridTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void snapshotsAreImmutable() throws NoCardException {
+        CardGridSnapshot before = cardGrid.getSnapshot();
+        int topId = before.getTopId(2, 0);
+        cardGrid.buyCard(2, 0);
+        CardGridSnapshot after = cardGrid.getSnapshot();
+
+        assertEquals(topId, before.getTopId(2, 0));
+        assertEquals(cardGrid.getCard(2, 0).getId(), after.getTopId(2, 0));
+        assertEquals(before.getVersion() + 1, after.getVersion());
+    }
+
+    @Test
+    public void removeAfterColumnBought() throws NoCardException {
+        DevelopmentCardColor color = cardGrid.getCard(0, 0).getColor();
+        for (int row = 0; row < 3; row++)
+            for (int i = 0; i < 4; i++)
+                cardGrid.buyCard(row, 0);
+
+        assertEquals(0, cardGrid.getNumOfCardsByColor(color));
+        assertEquals("Hai Perso", cardGrid.remove(color));
+    }
+}
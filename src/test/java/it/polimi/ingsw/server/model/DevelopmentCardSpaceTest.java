@@ -166,4 +166,27 @@ class DevelopmentCardSpaceTest {
         assertEquals(victoryPoints1 + victoryPoints2, developmentCardSpace.getVictoryPoints());
     }
 
-}
\ No newline at end of file
+    /**
+     * This test checks that a repeated requirement needs as many cards and the counts by color and level
+     */
+    @Test
+    void repeatedRequirementTest() throws InvalidParameterException, InvalidDevelopmentCardException {
+        PowerOfProduction powerOfProduction = new PowerOfProduction(new HashMap<>(), new HashMap<>());
+        DevelopmentCardSpace developmentCardSpace = new DevelopmentCardSpace();
+        ArrayList<CardRequirement> requirements = new ArrayList<>();
+        requirements.add(new CardRequirement(DevelopmentCardColor.GREEN, 0));
+        requirements.add(new CardRequirement(DevelopmentCardColor.GREEN, 0));
+        requirements.add(new CardRequirement(DevelopmentCardColor.PURPLE, 0));
+
+        developmentCardSpace.addCard(new DevelopmentCard(DevelopmentCardColor.GREEN, 1, new HashMap<>(), 1, powerOfProduction), 1);
+        developmentCardSpace.addCard(new DevelopmentCard(DevelopmentCardColor.PURPLE, 1, new HashMap<>(), 1, powerOfProduction), 2);
+        assertFalse(developmentCardSpace.checkRequirement(requirements));
+
+        developmentCardSpace.addCard(new DevelopmentCard(DevelopmentCardColor.GREEN, 2, new HashMap<>(), 3, powerOfProduction), 2);
+        assertTrue(developmentCardSpace.checkRequirement(requirements));
+        assertEquals(2, developmentCardSpace.getNumOfCards(DevelopmentCardColor.GREEN, 0));
+        assertEquals(1, developmentCardSpace.getNumOfCards(DevelopmentCardColor.GREEN, 2));
+        assertEquals(0, developmentCardSpace.getNumOfCards(DevelopmentCardColor.YELLOW, 1));
+        assertEquals(5, developmentCardSpace.getVictoryPoints());
+    }
+}
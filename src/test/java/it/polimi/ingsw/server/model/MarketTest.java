@@ -27,4 +27,39 @@ class MarketTest {
         assertEquals(1,testMarbles.get(Marble.PURPLEMARBLE));
         assertEquals(Marble.PURPLEMARBLE,market.getMarbleOut());
     }
-}
\ No newline at end of file
+
+    @Test
+    void sameSeedSameMarket() {
+        Market market = new Market(false, new MatchRandom(42));
+        Market replayedMarket = new Market(false, new MatchRandom(42));
+        assertEquals(market.getMarbleOut(), replayedMarket.getMarbleOut());
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(market.takeBoughtMarbles(0,i), replayedMarket.takeBoughtMarbles(0,i));
+            assertEquals(market.getMarbleOut(), replayedMarket.getMarbleOut());
+        }
+    }
+
+    @Test
+    void stateAndCountsFollowTheMoves() {
+        Market market = new Market(false, new MatchRandom(7));
+        MarketState snapshot = market.getState();
+        for (int move = 0; move < 20; move++) {
+            int rowOrColumn = move % 2;
+            int value = rowOrColumn == 0 ? move % 3 : move % 4;
+            MarketState preview = market.getState().take(rowOrColumn, value);
+            market.takeBoughtMarbles(rowOrColumn, value);
+            assertEquals(preview, market.getState());
+            for (int line = 0; line < 4; line++) {
+                for (Marble marble : Marble.values()) {
+                    if (line < 3) {
+                        assertEquals(market.getState().count(0, line, marble), market.getMarbleCount(0, line, marble));
+                    }
+                    assertEquals(market.getState().count(1, line, marble), market.getMarbleCount(1, line, marble));
+                }
+            }
+        }
+        //the first state is not changed by the moves
+        assertEquals(snapshot, new Market(false, new MatchRandom(7)).getState());
+    }
+}
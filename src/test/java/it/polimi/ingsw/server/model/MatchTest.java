@@ -1,5 +1,7 @@
 package it.polimi.ingsw.server.model;
 
+import it.polimi.ingsw.common.messages.MessageType;
+import it.polimi.ingsw.common.messages.messagesToClient.MessageToClient;
 import it.polimi.ingsw.server.model.enumerations.MatchPhase;
 import it.polimi.ingsw.server.model.enumerations.Resource;
 import it.polimi.ingsw.server.model.exceptions.InvalidNickName;
@@ -7,7 +9,9 @@ import it.polimi.ingsw.server.model.exceptions.InvalidParameterException;
 import it.polimi.ingsw.server.model.exceptions.RequirementNotMetException;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -180,4 +184,44 @@ class MatchTest {
         assertEquals(0,match.getCurrentPlayer().getPersonalBoard().getFaithTrack().getFaithTrackPosition());
         assertEquals(1,match.getCurrentPlayer().getPersonalBoard().getFaithTrack().getPopeFavourTileValue(1));
     }
-}
\ No newline at end of file
+
+    /**
+     * This test checks that a red cross crossing two pope spaces resolves both vatican reports, in order, with a single update
+     */
+    @Test
+    public void vaticanReportsResolvedInOrder() throws InvalidParameterException, InvalidNickName {
+        Match match = new Match(1, 3, true);
+        List<MessageType> received = new ArrayList<>();
+        match.addPlayer("marco", new ViewStub());
+        match.addPlayer("mario", new ViewStub());
+        match.addPlayer("massimo", new ViewStub());
+        match.addObserver(new ViewStub() {
+            @Override
+            public void update(MessageToClient message) {
+                received.add(message.getMessageType());
+            }
+        });
+        PersonalBoard marco = match.getPlayer("marco").getPersonalBoard();
+        PersonalBoard mario = match.getPlayer("mario").getPersonalBoard();
+        PersonalBoard massimo = match.getPlayer("massimo").getPersonalBoard();
+
+        mario.moveFaithMarker(6);
+        marco.moveFaithMarker(17);
+        marco.checkVaticanReport();
+
+        assertEquals(2, marco.getFaithTrack().getPopeFavourTileValue(1));
+        assertEquals(2, marco.getFaithTrack().getPopeFavourTileValue(2));
+        //mario was in the first vatican section when it was reported
+        assertEquals(2, mario.getFaithTrack().getPopeFavourTileValue(1));
+        assertEquals(1, mario.getFaithTrack().getPopeFavourTileValue(2));
+        assertEquals(1, massimo.getFaithTrack().getPopeFavourTileValue(1));
+        assertEquals(0, massimo.getFaithTrack().getPopeFavourTileValue(3));
+        assertEquals(1, received.stream().filter(type -> type == MessageType.VATICAN_REPORT_UPDATE).count());
+
+        //a report is done only once
+        mario.moveFaithMarker(10);
+        mario.checkVaticanReport();
+        assertEquals(1, mario.getFaithTrack().getPopeFavourTileValue(2));
+        assertEquals(1, received.stream().filter(type -> type == MessageType.VATICAN_REPORT_UPDATE).count());
+    }
+}
@@ -1,6 +1,10 @@
 package it.polimi.ingsw.server.model;
 
+import it.polimi.ingsw.common.messages.MessageType;
+import it.polimi.ingsw.server.model.enumerations.ActionResult;
+import it.polimi.ingsw.server.model.enumerations.DevelopmentCardColor;
 import it.polimi.ingsw.server.model.enumerations.Marble;
+import it.polimi.ingsw.server.model.enumerations.PaymentPolicy;
 import it.polimi.ingsw.server.model.enumerations.PersonalBoardPhase;
 import it.polimi.ingsw.server.model.enumerations.Resource;
 import it.polimi.ingsw.server.model.exceptions.*;
@@ -9,6 +13,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -596,8 +601,232 @@ class PersonalBoardTest {
 
     }
 
+    /**
+     * This test checks that the victory points are kept updated and that the players are notified only when they change
+     */
     @Test
     void sumVictoryPoints() {
+        //the 40 resources of the demo strongbox
+        assertEquals(8, personalBoard.getVictoryPoints());
+        List<MessageType> received = new ArrayList<>();
+        match.addObserver(new RecordingView(received));
+
+        personalBoard.moveFaithMarker(3);
+        assertEquals(9, personalBoard.getVictoryPoints());
+        assertTrue(received.contains(MessageType.SCOREBOARD_UPDATE));
+
+        received.clear();
+        personalBoard.moveFaithMarker(1);
+        assertEquals(9, personalBoard.getVictoryPoints());
+        assertFalse(received.contains(MessageType.SCOREBOARD_UPDATE));
+
+        //calculating the points again does not add them twice
+        personalBoard.sumVictoryPoints();
+        assertEquals(9, personalBoard.getVictoryPoints());
+    }
+
+    /**
+     * This test checks that rejected actions return the reason and leave the personal board unchanged
+     */
+    @Test
+    void rejectedActionsReturnTheReason() {
+        Map<Resource, Integer> empty = new HashMap<>();
+        Map<Resource, Integer> price = null;
+        try {
+            price = match.getCardGrid().getCard(1, 0).getPrice();
+        } catch (NoCardException e) {
+            assert false;
+        }
+        int strongboxResources = personalBoard.getStrongbox().getTotalResources();
+        PersonalBoardPhase phase = personalBoard.getPersonalBoardPhase();
+
+        assertEquals(ActionResult.NO_CARD, personalBoard.tryBuyDevelopmentCard(4, 1, empty, empty, 0, 1));
+        assertEquals(ActionResult.INVALID_COST, personalBoard.tryBuyDevelopmentCard(2, 1, empty, empty, 0, 1));
+        assertEquals(ActionResult.INVALID_COST, personalBoard.tryBuyDevelopmentCard(2, 1, null, empty, 0, 1));
+        assertEquals(ActionResult.LEADER_CARD_NOT_FOUND, personalBoard.tryBuyDevelopmentCard(2, 1, price, empty, 5, 1));
+        //a level 2 card can't be put in an empty space
+        assertEquals(ActionResult.LEVEL_1_CARD_REQUIRED, personalBoard.tryBuyDevelopmentCard(2, 1, price, empty, 0, 1));
+        assertEquals(ActionResult.INVALID_CARD_SPACE, personalBoard.tryBuyDevelopmentCard(2, 1, price, empty, 0, 4));
+
+        assertEquals(ActionResult.INVALID_CARD_SPACE, personalBoard.tryActivateCardProduction(empty, empty, 1));
+        assertEquals(ActionResult.INVALID_CARD_SPACE, personalBoard.tryActivateCardProduction(empty, empty, 5));
+        assertEquals(ActionResult.INVALID_PRODUCED_RESOURCE, personalBoard.tryActivateBasicProduction(empty, empty, Resource.FAITH));
+        assertEquals(ActionResult.INVALID_COST, personalBoard.tryActivateBasicProduction(empty, empty, Resource.COIN));
+        assertEquals(ActionResult.LEADER_CARD_NOT_FOUND, personalBoard.tryActivateLeaderProduction(empty, empty, 0, Resource.COIN));
+        assertEquals(ActionResult.LEADER_CARD_NOT_ACTIVE, personalBoard.tryActivateLeaderProduction(empty, empty, 1, Resource.COIN));
+
+        assertEquals(strongboxResources, personalBoard.getStrongbox().getTotalResources());
+        assertEquals(0, personalBoard.getDevelopmentCardSpace().getVictoryPoints());
+        assertEquals(phase, personalBoard.getPersonalBoardPhase());
+
+        //the same reasons are reported by the exceptions at the edge of the API
+        Map<Resource, Integer> levelTwoPrice = price;
+        assertEquals(ActionResult.LEVEL_1_CARD_REQUIRED.getMessage(), assertThrows(InvalidDevelopmentCardException.class,
+                () -> personalBoard.buyDevelopmentCard(2, 1, levelTwoPrice, new HashMap<>(), 0, 1)).getMessage());
+        assertEquals(ActionResult.INVALID_COST.getMessage(), assertThrows(InvalidCostException.class,
+                () -> personalBoard.buyDevelopmentCard(2, 1, new HashMap<>(), new HashMap<>(), 0, 1)).getMessage());
+    }
+
+    /**
+     * This test checks the payments split by the server
+     */
+    @Test
+    void autoPay() {
+        Map<Resource, Integer> oneCoin = new HashMap<>();
+        oneCoin.put(Resource.COIN, 1);
+        Map<Resource, Integer> twoCoins = new HashMap<>();
+        twoCoins.put(Resource.COIN, 2);
+        int strongboxCoins = personalBoard.getStrongbox().getResourceQuantity(Resource.COIN);
+        try {
+            personalBoard.getWarehouseDepots().add(2, oneCoin);
+        } catch (InvalidAdditionException e) {
+            assert false;
+        }
+
+        //the warehouse pays first, the strongbox pays the rest
+        assertEquals(ActionResult.OK, personalBoard.tryActivateBasicProduction(twoCoins, new HashMap<>(), Resource.SHIELD, PaymentPolicy.WAREHOUSE_FIRST));
+        assertEquals(0, personalBoard.getWarehouseDepots().getResourceQuantity(Resource.COIN));
+        assertEquals(strongboxCoins - 1, personalBoard.getStrongbox().getResourceQuantity(Resource.COIN));
+
+        personalBoard.endTurn();
+        try {
+            personalBoard.getWarehouseDepots().add(2, twoCoins);
+        } catch (InvalidAdditionException e) {
+            assert false;
+        }
+        assertEquals(ActionResult.OK, personalBoard.tryActivateBasicProduction(new HashMap<>(), twoCoins, Resource.SHIELD, PaymentPolicy.STRONGBOX_FIRST));
+        assertEquals(2, personalBoard.getWarehouseDepots().getResourceQuantity(Resource.COIN));
+        assertEquals(strongboxCoins - 3, personalBoard.getStrongbox().getResourceQuantity(Resource.COIN));
+
+        //the discounted price of the card is paid without giving the split
+        personalBoard.endTurn();
+        int resources = personalBoard.getStrongbox().getTotalResources() + personalBoard.getWarehouseDepots().getTotalResources();
+        int price = 0;
+        try {
+            price = match.getCardGrid().getCard(2, 0).getPriceVector().total();
+        } catch (NoCardException e) {
+            assert false;
+        }
+        assertEquals(ActionResult.OK, personalBoard.tryBuyDevelopmentCard(3, 1, null, null, 0, 1, PaymentPolicy.WAREHOUSE_FIRST));
+        assertEquals(resources - price, personalBoard.getStrongbox().getTotalResources() + personalBoard.getWarehouseDepots().getTotalResources());
+        assertEquals(ActionResult.INVALID_CARD_SPACE, personalBoard.tryActivateCardProduction(null, null, 2, PaymentPolicy.WAREHOUSE_FIRST));
+    }
+
+    /**
+     * This test checks that a batch of productions is done entirely or not at all, and that it ends the production
+     */
+    @Test
+    void productionsBatch() {
+        Map<Resource, Integer> twoCoins = new HashMap<>();
+        twoCoins.put(Resource.COIN, 2);
+        int strongboxCoins = personalBoard.getStrongbox().getResourceQuantity(Resource.COIN);
+        int strongboxShields = personalBoard.getStrongbox().getResourceQuantity(Resource.SHIELD);
+        PersonalBoardPhase phase = personalBoard.getPersonalBoardPhase();
+
+        //an invalid production rejects the whole batch
+        List<ProductionRequest> productions = new ArrayList<>();
+        productions.add(ProductionRequest.basic(twoCoins, Resource.SHIELD));
+        productions.add(ProductionRequest.card(1));
+        assertEquals(ActionResult.INVALID_CARD_SPACE, personalBoard.tryActivateProductions(productions, null, null, PaymentPolicy.STRONGBOX_FIRST));
+        productions.set(1, ProductionRequest.basic(twoCoins, Resource.STONE));
+        assertEquals(ActionResult.PRODUCTION_ALREADY_USED, personalBoard.tryActivateProductions(productions, null, null, PaymentPolicy.STRONGBOX_FIRST));
+        productions.set(1, ProductionRequest.leader(1, Resource.STONE));
+        assertEquals(ActionResult.LEADER_CARD_NOT_ACTIVE, personalBoard.tryActivateProductions(productions, null, null, PaymentPolicy.STRONGBOX_FIRST));
+        assertEquals(ActionResult.NO_PRODUCTION, personalBoard.tryActivateProductions(new ArrayList<>(), null, null, PaymentPolicy.STRONGBOX_FIRST));
+        assertEquals(strongboxCoins, personalBoard.getStrongbox().getResourceQuantity(Resource.COIN));
+        assertEquals(phase, personalBoard.getPersonalBoardPhase());
+
+        //the explicit split must match the total cost of the batch
+        productions.remove(1);
+        assertEquals(ActionResult.INVALID_COST, personalBoard.tryActivateProductions(productions, new HashMap<>(), new HashMap<>(), null));
+
+        assertEquals(ActionResult.OK, personalBoard.tryActivateProductions(productions, twoCoins, new HashMap<>(), null));
+        assertEquals(strongboxCoins - 2, personalBoard.getStrongbox().getResourceQuantity(Resource.COIN));
+        assertEquals(strongboxShields + 1, personalBoard.getStrongbox().getResourceQuantity(Resource.SHIELD));
+        assertEquals(PersonalBoardPhase.MAIN_TURN_ACTION_DONE, personalBoard.getPersonalBoardPhase());
+        assertTrue(personalBoard.getTemporaryMapResource().values().stream().allMatch(quantity -> quantity == 0));
+    }
+
+    /**
+     * This test checks that a rollback brings back every component of the board and notifies the restored state
+     */
+    @Test
+    void transactionRollback() {
+        Map<Resource, Integer> coins = new HashMap<>();
+        coins.put(Resource.COIN, 2);
+        int strongboxResources = personalBoard.getStrongbox().getTotalResources();
+        int victoryPoints = personalBoard.getVictoryPoints();
+        PersonalBoardPhase phase = personalBoard.getPersonalBoardPhase();
+        CardGridSnapshot cardGrid = match.getCardGrid().getSnapshot();
+        List<MessageType> received = new ArrayList<>();
+        match.addObserver(new RecordingView(received));
+
+        BoardTransaction transaction = personalBoard.beginTransaction();
+        try {
+            personalBoard.getWarehouseDepots().add(2, coins);
+            personalBoard.getStrongbox().uncheckedRemove(coins);
+            personalBoard.getDevelopmentCardSpace().addCard(match.getCardGrid().buyCard(2, 0), 1);
+        } catch (InvalidAdditionException | NoCardException | InvalidDevelopmentCardException | InvalidParameterException e) {
+            assert false;
+        }
+        personalBoard.moveFaithMarker(9);
+        personalBoard.setPersonalBoardPhase(PersonalBoardPhase.MAIN_TURN_ACTION_DONE);
+        received.clear();
+        transaction.rollback();
+
+        assertEquals(0, personalBoard.getWarehouseDepots().getTotalResources());
+        assertEquals(0, personalBoard.getWarehouseDepots().getResourceQuantity(Resource.COIN));
+        assertEquals(strongboxResources, personalBoard.getStrongbox().getTotalResources());
+        assertEquals(0, personalBoard.getDevelopmentCardSpace().getVictoryPoints());
+        for (DevelopmentCardColor color : DevelopmentCardColor.values())
+            assertEquals(0, personalBoard.getDevelopmentCardSpace().getNumOfCards(color, 0));
+        assertEquals(0, personalBoard.getFaithTrack().getFaithTrackPosition());
+        assertEquals(0, personalBoard.getFaithTrack().getPopeFavourTileValue(1));
+        assertEquals(cardGrid.getTopId(2, 0), match.getCardGrid().getSnapshot().getTopId(2, 0));
+        assertEquals(victoryPoints, personalBoard.getVictoryPoints());
+        assertEquals(phase, personalBoard.getPersonalBoardPhase());
+        assertTrue(received.contains(MessageType.WAREHOUSE_UPDATE));
+        assertTrue(received.contains(MessageType.STRONGBOX_UPDATE));
+        assertTrue(received.contains(MessageType.DEV_CARD_SPACE_UPDATE));
+        assertTrue(received.contains(MessageType.CARD_GRID_UPDATE));
+        assertTrue(received.contains(MessageType.POPE_FAVOUR_TILES_UPDATE));
+
+        //a closed transaction can't be used again
+        assertThrows(IllegalStateException.class, transaction::commit);
+        BoardTransaction committed = personalBoard.beginTransaction();
+        personalBoard.moveFaithMarker(1);
+        committed.commit();
+        assertThrows(IllegalStateException.class, committed::rollback);
+        assertEquals(1, personalBoard.getFaithTrack().getFaithTrackPosition());
+    }
+
+    /**
+     * This test checks that the private updates of a player are not sent to the other players
+     */
+    @Test
+    void privateUpdatesOnlyReachTheOwner() {
+        List<MessageType> marioReceived = new ArrayList<>();
+        List<MessageType> marcoReceived = new ArrayList<>();
+        PersonalBoard marco = null;
+        try {
+            match.addPlayer("Marco", new RecordingView(marcoReceived));
+            marco = match.getPlayer("Marco").getPersonalBoard();
+        } catch (InvalidNickName invalidNickName) {
+            assert false;
+        }
+        match.getMessageObservers().add(0, new RecordingView(marioReceived, "Mario"));
+
+        try {
+            marco.takeFromMarket(0, 0);
+        } catch (InvalidParameterException e) {
+            assert false;
+        }
+        marco.transformMarbles();
+
+        assertTrue(marcoReceived.contains(MessageType.TEMPORARY_MARBLES_UPDATE));
+        assertFalse(marioReceived.contains(MessageType.TEMPORARY_MARBLES_UPDATE));
+        assertFalse(marioReceived.contains(MessageType.TEMPORARY_RESOURCE_MAP_DELTA_UPDATE));
+        assertTrue(marioReceived.contains(MessageType.MARKET_UPDATE));
     }
 
     @Test
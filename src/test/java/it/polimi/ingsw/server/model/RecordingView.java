@@ -0,0 +1,39 @@
+package it.polimi.ingsw.server.model;
+
+import it.polimi.ingsw.common.View;
+import it.polimi.ingsw.common.messages.MessageType;
+import it.polimi.ingsw.common.messages.messagesToClient.MessageToClient;
+
+import java.util.List;
+
+/**
+ * View used by the tests that records the types of the messages it receives
+ */
+public class RecordingView implements View {
+    private final List<MessageType> received;
+    private String nickname;
+
+    public RecordingView(List<MessageType> received) {
+        this.received = received;
+    }
+
+    public RecordingView(List<MessageType> received, String nickname) {
+        this.received = received;
+        this.nickname = nickname;
+    }
+
+    @Override
+    public void update(MessageToClient message) {
+        received.add(message.getMessageType());
+    }
+
+    @Override
+    public void setNickname(String nickname) {
+        this.nickname = nickname;
+    }
+
+    @Override
+    public String getRecipient() {
+        return nickname;
+    }
+}
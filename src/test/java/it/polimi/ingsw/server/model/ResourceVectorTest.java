@@ -0,0 +1,52 @@
+package it.polimi.ingsw.server.model;
+
+import it.polimi.ingsw.server.model.enumerations.Resource;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceVectorTest {
+
+    @Test
+    void addSubtractAndCovers() {
+        Map<Resource, Integer> resourceMap = new HashMap<>();
+        resourceMap.put(Resource.COIN, 3);
+        resourceMap.put(Resource.STONE, 1);
+        ResourceVector resources = new ResourceVector(resourceMap);
+        ResourceVector cost = new ResourceVector();
+        cost.set(Resource.COIN, 2);
+
+        assertTrue(resources.covers(cost));
+        resources.subtract(cost);
+        assertEquals(1, resources.get(Resource.COIN));
+        assertFalse(resources.covers(cost));
+        resources.add(cost);
+        assertEquals(4, resources.total());
+        assertEquals(resourceMap, resources.toMap());
+
+        ResourceVector strongboxPart = new ResourceVector();
+        strongboxPart.set(Resource.COIN, 1);
+        assertTrue(cost.isSum(strongboxPart, strongboxPart));
+        assertFalse(cost.isSum(strongboxPart, new ResourceVector()));
+
+        assertThrows(IllegalArgumentException.class, () -> new ResourceVector(java.util.Collections.singletonMap(null, 1)));
+    }
+
+    @Test
+    void mapViewWritesThrough() {
+        ResourceVector resources = new ResourceVector();
+        Map<Resource, Integer> view = resources.asMap();
+        view.put(Resource.SHIELD, 2);
+        view.merge(Resource.SHIELD, 1, Integer::sum);
+        assertEquals(3, resources.get(Resource.SHIELD));
+        assertNull(view.get(Resource.COIN));
+        assertEquals(1, view.size());
+
+        resources.clear();
+        assertTrue(view.isEmpty());
+        assertTrue(resources.isEmpty());
+    }
+}
@@ -1,5 +1,8 @@
 package it.polimi.ingsw.server.model;
 
+import it.polimi.ingsw.client.ResourceStateTracker;
+import it.polimi.ingsw.common.messages.messagesToClient.MessageToClient;
+import it.polimi.ingsw.common.messages.messagesToClient.WarehouseDeltaUpdate;
 import it.polimi.ingsw.server.model.Depot;
 import it.polimi.ingsw.server.model.WarehouseDepots;
 import it.polimi.ingsw.server.model.enumerations.Resource;
@@ -9,7 +12,9 @@ import it.polimi.ingsw.server.model.exceptions.InvalidSwapException;
 import it.polimi.ingsw.server.model.exceptions.InvalidRemovalException;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -347,4 +352,85 @@ class WarehouseDepotsTest {
         assertEquals(2, warehouseDepots.getDepot(3).getMapResource().get(Resource.COIN));
         assertEquals(2, warehouseDepots.getDepot(4).getMapResource().get(Resource.COIN));
     }
-}
\ No newline at end of file
+
+    @Test
+    void deltaUpdates() throws InvalidAdditionException, InvalidSwapException, InvalidRemovalException, InvalidMoveException {
+        WarehouseDepots warehouseDepots = new WarehouseDepots();
+        warehouseDepots.setNickname("player");
+        List<WarehouseDeltaUpdate> deltas = new ArrayList<>();
+        warehouseDepots.addObserver((MessageToClient message) -> {
+            if (message instanceof WarehouseDeltaUpdate) deltas.add((WarehouseDeltaUpdate) message);
+        });
+
+        Map<Resource, Integer> resourceMap = new HashMap<>();
+        resourceMap.put(Resource.COIN, 2);
+        warehouseDepots.add(2, resourceMap);
+        resourceMap = new HashMap<>();
+        resourceMap.put(Resource.STONE, 1);
+        warehouseDepots.add(1, resourceMap);
+        warehouseDepots.swap(2, 3);
+        warehouseDepots.addSpecialDepot(Resource.COIN);
+        warehouseDepots.moveToFromSpecialDepot(3, 4, 1);
+        resourceMap = new HashMap<>();
+        resourceMap.put(Resource.COIN, 2);
+        warehouseDepots.uncheckedRemove(resourceMap);
+
+        //Only the depots modified are sent
+        assertEquals(1, deltas.get(0).getChanges().size());
+        assertEquals(2, deltas.get(0).getChanges().get(2).get(Resource.COIN));
+        assertEquals(-2, deltas.get(2).getChanges().get(2).get(Resource.COIN));
+        assertEquals(2, deltas.get(2).getChanges().get(3).get(Resource.COIN));
+
+        //Applying every change in order gives the warehouse of the model
+        ResourceStateTracker tracker = new ResourceStateTracker(null);
+        List<Map<Resource, Integer>> depots = null;
+        int sequence = 0;
+        for (WarehouseDeltaUpdate delta : deltas) {
+            assertEquals(++sequence, delta.getSequence());
+            depots = tracker.applyWarehouseDelta("player", delta.getSequence(), delta.getChanges());
+        }
+        for (int i = 1; i <= warehouseDepots.getNumDepots(); i++) {
+            assertEquals(warehouseDepots.getDepot(i).getMapResource(), depots.get(i - 1));
+        }
+
+        //A change already applied is ignored
+        assertNull(tracker.applyWarehouseDelta("player", 1, deltas.get(0).getChanges()));
+    }
+
+    /**
+     * This test checks that the quantities and the depot of each resource follow the additions, the swaps, the moves and the removals
+     */
+    @Test
+    void indexFollowsTheChanges() throws InvalidAdditionException, InvalidSwapException, InvalidRemovalException, InvalidMoveException {
+        WarehouseDepots warehouseDepots = new WarehouseDepots();
+        Map<Resource, Integer> twoCoins = new HashMap<>();
+        twoCoins.put(Resource.COIN, 2);
+        warehouseDepots.add(2, twoCoins);
+        warehouseDepots.addSpecialDepot(Resource.COIN);
+        warehouseDepots.add(4, twoCoins);
+        assertEquals(4, warehouseDepots.getResourceQuantity(Resource.COIN));
+        assertEquals(4, warehouseDepots.getTotalResources());
+
+        //After the swap the coins are in the third depot, so the second one accepts another resource but not coins
+        warehouseDepots.swap(2, 3);
+        Map<Resource, Integer> oneCoin = new HashMap<>();
+        oneCoin.put(Resource.COIN, 1);
+        assertThrows(InvalidAdditionException.class, () -> warehouseDepots.add(2, oneCoin));
+        warehouseDepots.add(3, oneCoin);
+
+        //Moving every coin of the third depot to the special depot is not possible, it is full
+        assertThrows(InvalidAdditionException.class, () -> warehouseDepots.moveToFromSpecialDepot(3, 4, 1));
+        warehouseDepots.moveToFromSpecialDepot(4, 3, 0);
+
+        ResourceVector price = new ResourceVector();
+        price.set(Resource.COIN, 4);
+        assertTrue(warehouseDepots.isAvailable(price));
+        warehouseDepots.uncheckedRemove(price);
+        assertEquals(1, warehouseDepots.getResourceQuantity(Resource.COIN));
+        assertEquals(1, warehouseDepots.getTotalResources());
+        assertFalse(warehouseDepots.isAvailable(price));
+        //The standard depots are empty, so coins can be added to any of them
+        warehouseDepots.add(1, oneCoin);
+        assertEquals(Resource.COIN, warehouseDepots.getDepot(1).getResource());
+    }
+}
@@ -0,0 +1,93 @@
+package it.polimi.ingsw.server.view;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import it.polimi.ingsw.common.messages.MessageType;
+import it.polimi.ingsw.common.messages.messagesToServer.CreateMatchReplyMessage;
+import it.polimi.ingsw.common.messages.messagesToServer.MessageToServer;
+import it.polimi.ingsw.common.messages.messagesToServer.PingMessage;
+import it.polimi.ingsw.common.messages.messagesToServer.SnapshotRequestMessage;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageToServerDeserializerTest {
+    final MessageToServerDeserializer deserializer = new MessageToServerDeserializer();
+    final Gson gson = new Gson();
+
+    /**
+     * This test checks that a message written by Gson, whose type closes the object, is decoded with all its fields
+     */
+    @Test
+    void typeAtEnd() {
+        SnapshotRequestMessage message = new SnapshotRequestMessage("Mario", MessageType.STRONGBOX_UPDATE, "Marco");
+        String json = gson.toJson(message);
+        assertTrue(json.endsWith("\"messageType\":\"SNAPSHOT_REQUEST\"}"));
+
+        MessageToServer decoded = deserializer.deserializeMessage(json + "\n");
+        assertTrue(decoded instanceof SnapshotRequestMessage);
+        assertEquals(json, gson.toJson(decoded));
+    }
+
+    /**
+     * This test checks that the type is found when it is the first field of the message
+     */
+    @Test
+    void typeFirst() {
+        MessageToServer decoded = deserializer.deserializeMessage(
+                "{\"messageType\":\"CREATE_MATCH\",\"numOfPlayers\":3,\"nickname\":\"Mario\"}");
+        assertTrue(decoded instanceof CreateMatchReplyMessage);
+        assertEquals(MessageType.CREATE_MATCH, decoded.getMessageType());
+        assertEquals("Mario", decoded.getNickname());
+        assertEquals(gson.toJson(new CreateMatchReplyMessage("Mario", 3)), gson.toJson(decoded));
+    }
+
+    /**
+     * This test checks that the type is found when there are spaces around the colons and at the end of the message
+     */
+    @Test
+    void whitespace() {
+        MessageToServer decoded = deserializer.deserializeMessage(
+                "{ \"numOfPlayers\" : 2 , \"nickname\" : \"Mario\" , \"messageType\" : \"CREATE_MATCH\" }  \r\n");
+        assertTrue(decoded instanceof CreateMatchReplyMessage);
+        assertEquals(gson.toJson(new CreateMatchReplyMessage("Mario", 2)), gson.toJson(decoded));
+    }
+
+    /**
+     * This test checks that an escaped type at the end of the last string value is not taken for the type of the message
+     */
+    @Test
+    void escapedTypeInString() {
+        String nickname = "Mario\",\"messageType\":\"PING";
+        String json = "{\"numOfPlayers\":2,\"messageType\":\"CREATE_MATCH\",\"nickname\":" + gson.toJson(nickname) + "}";
+        assertTrue(json.endsWith("\\\"PING\"}"));
+
+        MessageToServer decoded = deserializer.deserializeMessage(json);
+        assertTrue(decoded instanceof CreateMatchReplyMessage);
+        assertEquals(nickname, decoded.getNickname());
+    }
+
+    /**
+     * This test checks that the messages with an unknown type, a type the server does not receive or no type are rejected
+     */
+    @Test
+    void invalidType() {
+        assertThrows(JsonParseException.class, () -> deserializer.deserializeMessage("{\"messageType\":\"NOT_A_TYPE\"}"));
+        assertThrows(JsonParseException.class, () -> deserializer.deserializeMessage("{\"nickname\":\"Mario\",\"messageType\":\"NOT_A_TYPE\"}"));
+        assertThrows(JsonParseException.class, () -> deserializer.deserializeMessage("{\"messageType\":\"ERROR\",\"errorString\":\"error\"}"));
+        assertThrows(JsonParseException.class, () -> deserializer.deserializeMessage("{\"nickname\":\"Mario\"}"));
+        assertThrows(JsonParseException.class, () -> deserializer.deserializeMessage("{\"messageType\":"));
+    }
+
+    /**
+     * This test checks that every ping is decoded into the same message, wherever its type is
+     */
+    @Test
+    void sharedPing() {
+        MessageToServer first = deserializer.deserializeMessage(gson.toJson(new PingMessage()));
+        MessageToServer second = deserializer.deserializeMessage("{ \"messageType\" : \"PING\" , \"nickname\" : null }");
+        assertTrue(first instanceof PingMessage);
+        assertEquals(MessageType.PING, first.getMessageType());
+        assertSame(first, second);
+    }
+}
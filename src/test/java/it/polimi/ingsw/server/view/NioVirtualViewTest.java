@@ -0,0 +1,181 @@
+package it.polimi.ingsw.server.view;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import it.polimi.ingsw.common.messages.MessageType;
+import it.polimi.ingsw.common.messages.messagesToServer.CreateMatchReplyMessage;
+import it.polimi.ingsw.common.messages.messagesToServer.SnapshotRequestMessage;
+import it.polimi.ingsw.server.Lobby;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NioVirtualViewTest {
+    ServerSocketChannel serverChannel;
+    SocketChannel client;
+    SocketChannel server;
+
+    @BeforeEach
+    void setup() throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        client = SocketChannel.open(serverChannel.getLocalAddress());
+        server = serverChannel.accept();
+        server.configureBlocking(false);
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        client.close();
+        server.close();
+        serverChannel.close();
+    }
+
+    //A view that only records the lines it receives, it is never registered to the event loop
+    private NioVirtualView recordingView(List<String> lines) throws IOException {
+        Lobby lobby = new Lobby(true);
+        NioEventLoop eventLoop = new NioEventLoop(lobby, OutboundQueue.DEFAULT_HIGH_WATER_MARK, OutboundQueue.SlowConsumerPolicy.DISCONNECT);
+        return new NioVirtualView(server, eventLoop, lobby, new OutboundQueue(OutboundQueue.DEFAULT_HIGH_WATER_MARK, OutboundQueue.SlowConsumerPolicy.DISCONNECT)) {
+            @Override
+            protected void handleLine(String line) {
+                lines.add(line);
+            }
+        };
+    }
+
+    private void write(String data) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            client.write(buffer);
+        }
+    }
+
+    //Reads from the non-blocking channel until the view has received the expected number of lines
+    private void readLines(NioVirtualView view, ByteBuffer readBuffer, List<String> lines, int expected) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (lines.size() < expected && System.currentTimeMillis() < deadline) {
+            view.onReadable(readBuffer);
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * This test checks that a line split between two reads is handled once it is complete
+     */
+    @Test
+    void partialLine() throws IOException, InterruptedException {
+        List<String> lines = new ArrayList<>();
+        NioVirtualView view = recordingView(lines);
+        ByteBuffer readBuffer = ByteBuffer.allocate(8192);
+
+        write("{\"messageType\":");
+        for (int i = 0; i < 20; i++) {
+            view.onReadable(readBuffer);
+            Thread.sleep(1);
+        }
+        assertTrue(lines.isEmpty());
+
+        write("\"PING\"}\n{\"second\"");
+        readLines(view, readBuffer, lines, 1);
+        write(":true}\n");
+        readLines(view, readBuffer, lines, 2);
+        assertEquals(Arrays.asList("{\"messageType\":\"PING\"}", "{\"second\":true}"), lines);
+    }
+
+    /**
+     * This test checks that the lines longer than the read buffer are put together from many reads
+     */
+    @Test
+    void lineLongerThanBuffer() throws IOException, InterruptedException {
+        List<String> lines = new ArrayList<>();
+        NioVirtualView view = recordingView(lines);
+        String line = String.join("", Collections.nCopies(100, "abcdefghij"));
+
+        write(line + "\n" + line + "\n");
+        readLines(view, ByteBuffer.allocate(7), lines, 2);
+        assertEquals(Arrays.asList(line, line), lines);
+    }
+
+    /**
+     * This test checks that many lines received in a single read are handled in order, without empty lines
+     * and without the carriage return before the new line
+     */
+    @Test
+    void manyLinesInOneRead() throws IOException, InterruptedException {
+        List<String> lines = new ArrayList<>();
+        NioVirtualView view = recordingView(lines);
+
+        write("first\nsecond\r\n\nthird\nfou");
+        readLines(view, ByteBuffer.allocate(8192), lines, 3);
+        assertEquals(Arrays.asList("first", "second", "third"), lines);
+        write("rth\n");
+        readLines(view, ByteBuffer.allocate(8192), lines, 4);
+        assertEquals(Arrays.asList("first", "second", "third", "fourth"), lines);
+    }
+
+    /**
+     * This test checks, through the event loop and the mailbox of the controller, that the messages sent by a client
+     * in a single write are handled in the order they were sent
+     */
+    @Test
+    void messagesHandledInOrder() throws IOException {
+        Lobby lobby = new Lobby(true);
+        NioEventLoop eventLoop = new NioEventLoop(lobby, OutboundQueue.DEFAULT_HIGH_WATER_MARK, OutboundQueue.SlowConsumerPolicy.DISCONNECT);
+        Thread loopThread = new Thread(eventLoop);
+        loopThread.setDaemon(true);
+        loopThread.start();
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), serverChannel.socket().getLocalPort())) {
+            socket.setSoTimeout(5000);
+            eventLoop.register(serverChannel.accept());
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            assertEquals(MessageType.FIRST_CONNECTION_UPDATE.toString(), typeOf(in.readLine()));
+
+            Gson gson = new Gson();
+            List<MessageType> requested = Arrays.asList(MessageType.WAREHOUSE_UPDATE, MessageType.STRONGBOX_UPDATE,
+                    MessageType.TEMPORARY_RESOURCE_MAP_UPDATE, MessageType.STRONGBOX_UPDATE, MessageType.WAREHOUSE_UPDATE,
+                    MessageType.TEMPORARY_RESOURCE_MAP_UPDATE, MessageType.WAREHOUSE_UPDATE);
+            StringBuilder data = new StringBuilder(gson.toJson(new CreateMatchReplyMessage("Mario", 1))).append('\n');
+            for (MessageType snapshotType : requested) {
+                data.append(gson.toJson(new SnapshotRequestMessage("Mario", snapshotType, "Mario"))).append('\n');
+            }
+            socket.getOutputStream().write(data.toString().getBytes(StandardCharsets.UTF_8));
+
+            //the updates of the new match are sent in a batch, every snapshot requested is sent on its own
+            List<String> received = new ArrayList<>();
+            while (received.size() < requested.size()) {
+                String type = typeOf(in.readLine());
+                if (!type.equals(MessageType.BATCH_UPDATE.toString())) {
+                    received.add(type);
+                }
+            }
+            List<String> expected = new ArrayList<>();
+            for (MessageType snapshotType : requested) {
+                expected.add(snapshotType.toString());
+            }
+            assertEquals(expected, received);
+        }
+    }
+
+    private static String typeOf(String line) {
+        assertNotNull(line);
+        return JsonParser.parseString(line).getAsJsonObject().get("messageType").getAsString();
+    }
+}
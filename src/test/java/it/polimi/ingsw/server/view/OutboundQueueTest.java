@@ -0,0 +1,158 @@
+package it.polimi.ingsw.server.view;
+
+import it.polimi.ingsw.common.messages.MessageType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboundQueueTest {
+    OutboundQueue queue;
+
+    @BeforeEach
+    void setup() {
+        queue = new OutboundQueue(4, OutboundQueue.SlowConsumerPolicy.DROP_SUPERSEDED);
+        //the batches are written as their parts separated by "|"
+        queue.setBatchEncoder(payloads -> {
+            List<String> parts = new ArrayList<>();
+            for (byte[] payload : payloads) {
+                parts.add(new String(payload, StandardCharsets.UTF_8));
+            }
+            return String.join("|", parts).getBytes(StandardCharsets.UTF_8);
+        });
+    }
+
+    private static byte[] bytes(String payload) {
+        return payload.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static OutboundQueue.Part part(MessageType messageType, String nickname, String payload) {
+        return new OutboundQueue.Part(messageType, nickname, bytes(payload));
+    }
+
+    private List<String> drain() {
+        List<byte[]> batch = new ArrayList<>();
+        queue.drainTo(batch, Integer.MAX_VALUE);
+        List<String> payloads = new ArrayList<>();
+        for (byte[] payload : batch) {
+            payloads.add(new String(payload, StandardCharsets.UTF_8));
+        }
+        return payloads;
+    }
+
+    /**
+     * This test checks that the queue keeps the order of the messages while it is under the high-water mark
+     */
+    @Test
+    void underHighWaterMark() {
+        assertTrue(queue.add(MessageType.WAREHOUSE_UPDATE, "Mario", bytes("w1")));
+        assertTrue(queue.add(MessageType.WAREHOUSE_UPDATE, "Mario", bytes("w2")));
+        assertTrue(queue.add(MessageType.ERROR, null, bytes("e")));
+        assertEquals(Arrays.asList("w1", "w2", "e"), drain());
+        assertEquals(0, queue.getDroppedMessages());
+        assertTrue(queue.isEmpty());
+    }
+
+    /**
+     * This test checks that an older snapshot and the deltas before a newer snapshot of the same element and player are dropped,
+     * while the deltas after it and the messages of other elements and players are kept in order
+     */
+    @Test
+    void snapshotsAndDeltas() {
+        queue.add(MessageType.WAREHOUSE_UPDATE, "Mario", bytes("w1"));
+        queue.add(MessageType.WAREHOUSE_DELTA_UPDATE, "Mario", bytes("d1"));
+        queue.add(MessageType.WAREHOUSE_UPDATE, "Marco", bytes("marco"));
+        queue.add(MessageType.STRONGBOX_DELTA_UPDATE, "Mario", bytes("s1"));
+        assertTrue(queue.add(MessageType.WAREHOUSE_UPDATE, "Mario", bytes("w2")));
+        assertTrue(queue.add(MessageType.WAREHOUSE_DELTA_UPDATE, "Mario", bytes("d2")));
+
+        assertEquals(2, queue.getDroppedMessages());
+        assertEquals(Arrays.asList("marco", "s1", "w2", "d2"), drain());
+    }
+
+    /**
+     * This test checks that the superseded messages inside the queued batches are dropped and the batches are built again
+     * from the parts left, in order
+     */
+    @Test
+    void batches() {
+        queue.addBatch(Arrays.asList(
+                part(MessageType.WAREHOUSE_UPDATE, "Mario", "w1"),
+                part(MessageType.ERROR, null, "e"),
+                part(MessageType.STRONGBOX_UPDATE, "Mario", "s1")), bytes("first"));
+        queue.addBatch(Arrays.asList(
+                part(MessageType.MARKET_UPDATE, null, "m1"),
+                part(MessageType.STRONGBOX_DELTA_UPDATE, "Mario", "sd")), bytes("second"));
+        queue.add(MessageType.WAREHOUSE_UPDATE, "Mario", bytes("w2"));
+        queue.add(MessageType.MARKET_UPDATE, null, bytes("m2"));
+        assertTrue(queue.add(MessageType.MARKET_UPDATE, null, bytes("m3")));
+
+        //the delta of the strongbox is newer than its snapshot, so both are kept
+        assertEquals(3, queue.getDroppedMessages());
+        assertEquals(Arrays.asList("e|s1", "sd", "w2", "m3"), drain());
+    }
+
+    /**
+     * This test checks that the messages are grouped in a single batch, in order, when none of them is superseded
+     */
+    @Test
+    void grouping() {
+        queue.add(MessageType.ERROR, null, bytes("e1"));
+        queue.addBatch(Arrays.asList(
+                part(MessageType.ERROR, null, "e2"),
+                part(MessageType.ERROR, null, "e3")), bytes("batch"));
+        queue.add(MessageType.ERROR, null, bytes("e4"));
+        queue.add(MessageType.ERROR, null, bytes("e5"));
+        assertTrue(queue.add(MessageType.ERROR, null, bytes("e6")));
+        assertEquals(0, queue.getDroppedMessages());
+        assertEquals(Arrays.asList("e1|e2|e3|e4|e5|e6"), drain());
+    }
+
+    /**
+     * This test checks that a batch is not rebuilt while none of its parts have been dropped
+     */
+    @Test
+    void untouchedBatch() {
+        queue.addBatch(Arrays.asList(
+                part(MessageType.WAREHOUSE_UPDATE, "Mario", "w1"),
+                part(MessageType.STRONGBOX_UPDATE, "Mario", "s1")), bytes("batch"));
+        queue.add(MessageType.ERROR, null, bytes("e"));
+        assertEquals(Arrays.asList("batch", "e"), drain());
+    }
+
+    /**
+     * This test checks that the messages added without a batch encoder are never grouped, so the client is disconnected
+     * if dropping the superseded messages is not enough, and that the frames that are not messages are never dropped
+     */
+    @Test
+    void notGrouped() {
+        queue.setBatchEncoder(null);
+        queue.add(null, null, bytes("definition"));
+        queue.add(MessageType.WAREHOUSE_UPDATE, "Mario", bytes("w1"));
+        queue.add(MessageType.ERROR, null, bytes("e"));
+        queue.add(MessageType.WAREHOUSE_UPDATE, "Mario", bytes("w2"));
+        assertTrue(queue.add(MessageType.ERROR, null, bytes("e2")));
+        assertEquals(1, queue.getDroppedMessages());
+        assertFalse(queue.add(MessageType.ERROR, null, bytes("e3")));
+        assertEquals(Arrays.asList("definition", "e", "w2", "e2", "e3"), drain());
+    }
+
+    /**
+     * This test checks that the disconnect policy never drops messages
+     */
+    @Test
+    void disconnectPolicy() {
+        queue = new OutboundQueue(1, OutboundQueue.SlowConsumerPolicy.DISCONNECT);
+        assertTrue(queue.add(MessageType.WAREHOUSE_UPDATE, "Mario", bytes("w1")));
+        assertFalse(queue.add(MessageType.WAREHOUSE_UPDATE, "Mario", bytes("w2")));
+        assertEquals(0, queue.getDroppedMessages());
+        queue.close();
+        assertTrue(queue.add(MessageType.ERROR, null, bytes("e")));
+        assertTrue(queue.isEmpty());
+    }
+}
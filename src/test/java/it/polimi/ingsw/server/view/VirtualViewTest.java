@@ -0,0 +1,108 @@
+package it.polimi.ingsw.server.view;
+
+import com.google.gson.Gson;
+import it.polimi.ingsw.client.MessageToClientDeserializer;
+import it.polimi.ingsw.common.messages.MessageType;
+import it.polimi.ingsw.common.messages.messagesToClient.ErrorMessage;
+import it.polimi.ingsw.common.messages.messagesToClient.MessageToClient;
+import it.polimi.ingsw.common.messages.messagesToClient.ProtocolAckUpdate;
+import it.polimi.ingsw.common.messages.messagesToServer.ProtocolHelloMessage;
+import it.polimi.ingsw.common.utils.BinaryProtocol;
+import it.polimi.ingsw.common.utils.FrameReader;
+import it.polimi.ingsw.server.Lobby;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualViewTest {
+    final Gson gson = new Gson();
+    final MessageToClientDeserializer clientDeserializer = new MessageToClientDeserializer();
+    VirtualView view;
+
+    @BeforeEach
+    void setup() {
+        //the written messages stay in the queue, the view is never connected to a match
+        view = new VirtualView(new Lobby(true), new OutboundQueue(OutboundQueue.DEFAULT_HIGH_WATER_MARK, OutboundQueue.SlowConsumerPolicy.DISCONNECT)) {
+            @Override
+            protected void scheduleWrite() {
+            }
+
+            @Override
+            protected void slowConsumer() {
+            }
+        };
+    }
+
+    private byte[] written() {
+        List<byte[]> payloads = new ArrayList<>();
+        view.outboundQueue.drainTo(payloads, Integer.MAX_VALUE);
+        int size = 0;
+        for (byte[] payload : payloads) {
+            size += payload.length;
+        }
+        byte[] written = new byte[size];
+        int position = 0;
+        for (byte[] payload : payloads) {
+            System.arraycopy(payload, 0, written, position, payload.length);
+            position += payload.length;
+        }
+        return written;
+    }
+
+    /**
+     * This test checks that a client asking for another version of the binary protocol is answered in json
+     * and that the connection goes on with json lines
+     */
+    @Test
+    void fallbackToJson() throws IOException {
+        view.handleLine(gson.toJson(new ProtocolHelloMessage(BinaryProtocol.VERSION + 1)));
+        assertFalse(view.isBinaryInput());
+        view.update(new ErrorMessage("Mario", "error"));
+
+        FrameReader reader = new FrameReader(new ByteArrayInputStream(written()));
+        MessageToClient ack = clientDeserializer.deserializeMessage(reader.readLine());
+        assertTrue(ack instanceof ProtocolAckUpdate);
+        assertFalse(((ProtocolAckUpdate) ack).isAccepted());
+        assertEquals(MessageType.ERROR, clientDeserializer.deserializeMessage(reader.readLine()).getMessageType());
+        assertNull(reader.readLine());
+    }
+
+    /**
+     * This test checks that the ack of the binary protocol is the last json line, the messages after it are binary frames,
+     * and that a second hello is rejected without leaving the binary protocol
+     */
+    @Test
+    void switchToBinary() throws IOException {
+        view.handleLine(gson.toJson(new ProtocolHelloMessage(BinaryProtocol.VERSION)));
+        assertTrue(view.isBinaryInput());
+        view.update(new ErrorMessage("Mario", "error"));
+
+        byte[] hello = clientDeserializer.newBinaryProtocol().encode(new ProtocolHelloMessage(BinaryProtocol.VERSION)).get(0);
+        view.handleFrame(hello, 1, hello.length - 1);
+        assertTrue(view.isBinaryInput());
+
+        FrameReader reader = new FrameReader(new ByteArrayInputStream(written()));
+        MessageToClient ack = clientDeserializer.deserializeMessage(reader.readLine());
+        assertTrue(((ProtocolAckUpdate) ack).isAccepted());
+        BinaryProtocol<MessageToClient> protocol = clientDeserializer.newBinaryProtocol();
+        List<MessageToClient> messages = new ArrayList<>();
+        byte[] frame;
+        while ((frame = reader.readFrame()) != null) {
+            MessageToClient message = protocol.decode(frame, 0, frame.length);
+            if (message != null) {
+                messages.add(message);
+            }
+        }
+        assertEquals(2, messages.size());
+        assertEquals(MessageType.ERROR, messages.get(0).getMessageType());
+        assertEquals("Mario", messages.get(0).getNickname());
+        assertFalse(((ProtocolAckUpdate) messages.get(1)).isAccepted());
+    }
+}